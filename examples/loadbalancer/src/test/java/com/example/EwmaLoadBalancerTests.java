@@ -0,0 +1,52 @@
+package com.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.github.danielliu1123.httpexchange.EwmaLoadBalancer;
+import io.github.danielliu1123.httpexchange.EwmaLoadBalancerConfiguration;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+
+/**
+ * {@link EwmaLoadBalancer} avoids the unavailable instance after its first failure.
+ */
+class EwmaLoadBalancerTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"rest_client", "web_client"})
+    void testEwmaLoadBalancer_whenDisableRetry_thenAtMostOneFailed(String clientType) {
+        int port = findAvailableTcpPort();
+
+        try (var ctx = new SpringApplicationBuilder(LoadBalancerApp.class, EwmaConfig.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.client-type=" + clientType)
+                .properties("spring.cloud.loadbalancer.retry.enabled=false")
+                .run()) {
+
+            UserApi userApi = ctx.getBean(UserApi.class);
+
+            int success = 0;
+            int failure = 0;
+            for (int i = 0; i < 20; i++) {
+                try {
+                    userApi.getById("1");
+                    success++;
+                } catch (Exception e) {
+                    failure++;
+                }
+            }
+
+            assertThat(ctx.getBean(LoadBalancerClientFactory.class).getInstance("user"))
+                    .isInstanceOf(EwmaLoadBalancer.class);
+            assertThat(success).isGreaterThanOrEqualTo(19);
+            assertThat(failure).isLessThanOrEqualTo(1);
+        }
+    }
+
+    @LoadBalancerClients(defaultConfiguration = EwmaLoadBalancerConfiguration.class)
+    static class EwmaConfig {}
+}
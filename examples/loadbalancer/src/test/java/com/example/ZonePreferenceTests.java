@@ -0,0 +1,90 @@
+package com.example;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.github.danielliu1123.httpexchange.ZoneAwareServiceInstanceListSupplier;
+import io.github.danielliu1123.httpexchange.ZonePreferenceLoadBalancerConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link ZoneAwareServiceInstanceListSupplier} prefers the instance in the same zone,
+ * the available instance is in zone east, the unavailable instance is in zone west.
+ */
+class ZonePreferenceTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"rest_client", "web_client"})
+    void testZonePreference_whenSameZone_thenOnlyCallSameZone(String clientType) {
+        try (var ctx = run("http-exchange.client-type=" + clientType, "spring.cloud.loadbalancer.zone=east")) {
+            UserApi userApi = ctx.getBean(UserApi.class);
+
+            for (int i = 0; i < 20; i++) {
+                assertThat(userApi.getById("1").id()).isEqualTo("1");
+            }
+        }
+    }
+
+    @Test
+    void testZonePreference_whenNotEnoughInstancesInSameZone_thenSpillOver() {
+        try (var ctx = run(
+                "spring.cloud.loadbalancer.zone=east",
+                "http-exchange.load-balancing.zone-preference.min-endpoints=2")) {
+
+            assertThat(getInstances(ctx))
+                    .extracting(i -> i.getMetadata().get("zone"))
+                    .containsExactlyInAnyOrder("east", "west");
+        }
+    }
+
+    @Test
+    void testZonePreference_whenZoneConfigured_thenOverrideSpringCloudZone() {
+        try (var ctx =
+                run("spring.cloud.loadbalancer.zone=east", "http-exchange.load-balancing.zone-preference.zone=west")) {
+
+            assertThat(getInstances(ctx))
+                    .extracting(i -> i.getMetadata().get("zone"))
+                    .containsExactly("west");
+        }
+    }
+
+    private static List<ServiceInstance> getInstances(ConfigurableApplicationContext ctx) {
+        var supplier =
+                ctx.getBean(LoadBalancerClientFactory.class).getInstance("user", ServiceInstanceListSupplier.class);
+        assertThat(supplier).isNotNull();
+        return supplier.get().blockFirst();
+    }
+
+    private static ConfigurableApplicationContext run(String... properties) {
+        int port = findAvailableTcpPort();
+        // Command line arguments, so the instances replace the ones in application.yml
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--spring.cloud.loadbalancer.retry.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances.user[0].host=localhost",
+                "--spring.cloud.discovery.client.simple.instances.user[0].port=" + port,
+                "--spring.cloud.discovery.client.simple.instances.user[0].metadata.zone=east",
+                "--spring.cloud.discovery.client.simple.instances.user[1].host=localhost",
+                "--spring.cloud.discovery.client.simple.instances.user[1].port=" + findAvailableTcpPort(),
+                "--spring.cloud.discovery.client.simple.instances.user[1].metadata.zone=west",
+                "--http-exchange.load-balancing.zone-preference.enabled=true"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(LoadBalancerApp.class, ZonePreferenceConfig.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    @LoadBalancerClients(defaultConfiguration = ZonePreferenceLoadBalancerConfiguration.class)
+    static class ZonePreferenceConfig {}
+}
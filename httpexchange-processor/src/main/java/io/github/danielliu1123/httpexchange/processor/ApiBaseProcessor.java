@@ -8,7 +8,10 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Generated;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -22,6 +25,7 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
@@ -29,9 +33,11 @@ import javax.tools.StandardLocation;
 import lombok.SneakyThrows;
 import org.springframework.http.HttpStatus;
 import org.springframework.javapoet.AnnotationSpec;
+import org.springframework.javapoet.ClassName;
 import org.springframework.javapoet.JavaFile;
 import org.springframework.javapoet.MethodSpec;
 import org.springframework.javapoet.ParameterSpec;
+import org.springframework.javapoet.ParameterizedTypeName;
 import org.springframework.javapoet.TypeName;
 import org.springframework.javapoet.TypeSpec;
 import org.springframework.util.AntPathMatcher;
@@ -57,6 +63,27 @@ import org.springframework.web.service.annotation.PutExchange;
 public final class ApiBaseProcessor extends AbstractProcessor {
 
     private static final String DEFAULT_CLASS_SUFFIX = "Base";
+    private static final String ASYNC_CLASS_SUFFIX = "Async";
+
+    private static final ClassName MONO = ClassName.get("reactor.core.publisher", "Mono");
+    // Retained at runtime, the starter only registers the async variants marked with it
+    private static final ClassName ASYNC_VARIANT = ClassName.get("io.github.danielliu1123.httpexchange", "AsyncVariant");
+
+    private static final Set<String> EXCHANGE_ANNOTATIONS = Set.of(
+            HttpExchange.class.getCanonicalName(),
+            GetExchange.class.getCanonicalName(),
+            PostExchange.class.getCanonicalName(),
+            PutExchange.class.getCanonicalName(),
+            DeleteExchange.class.getCanonicalName(),
+            PatchExchange.class.getCanonicalName());
+
+    private static final Set<String> ASYNC_RETURN_TYPES = Set.of(
+            CompletableFuture.class.getCanonicalName(),
+            CompletionStage.class.getCanonicalName(),
+            Flow.Publisher.class.getCanonicalName(),
+            "org.reactivestreams.Publisher",
+            "reactor.core.publisher.Mono",
+            "reactor.core.publisher.Flux");
 
     // Auto-detect the config file
     private static final String CONFIG_FILE_NAME = "httpexchange-processor.properties";
@@ -223,19 +250,30 @@ public final class ApiBaseProcessor extends AbstractProcessor {
 
     private void processAnnotations(Set<? extends TypeElement> annotations, Element element) {
         TypeSpec.Builder classBuilder = getTypeBuilder(element);
+        TypeSpec.Builder asyncBuilder = properties.asyncEnabled() ? createAsyncInterfaceBuilder(element) : null;
         boolean isNeedGenerateJavaFile = hasAnnotationMatched(annotations, element);
+        boolean isNeedGenerateAsyncFile = false;
 
         for (Element enclosedElement : element.getEnclosedElements()) {
             if (enclosedElement.getKind() == ElementKind.METHOD) {
                 isNeedGenerateJavaFile =
                         processMethodElement(annotations, classBuilder, enclosedElement) || isNeedGenerateJavaFile;
+                if (asyncBuilder != null) {
+                    isNeedGenerateAsyncFile =
+                            processAsyncMethodElement(asyncBuilder, enclosedElement) || isNeedGenerateAsyncFile;
+                }
             } else if (enclosedElement.getKind() == ElementKind.INTERFACE) {
                 processElement(annotations, enclosedElement);
             }
         }
 
         if (isNeedGenerateJavaFile) {
-            generateJavaFile(element, classBuilder);
+            generateJavaFile(getOutputPackage(element), classBuilder);
+        }
+        if (isNeedGenerateAsyncFile && canGenerateAsyncFile(element)) {
+            // Always generate the async variant alongside the original interface,
+            // the starter locates it by the naming convention <ClassName>Async, see AsyncVariant.
+            generateJavaFile(getPackage(element), asyncBuilder);
         }
     }
 
@@ -281,6 +319,74 @@ public final class ApiBaseProcessor extends AbstractProcessor {
         return result;
     }
 
+    private boolean canGenerateAsyncFile(Element element) {
+        if (processingEnv.getElementUtils().getTypeElement(ASYNC_VARIANT.canonicalName()) == null) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "[http-exchange processor] Asynchronous variants are annotated with " + ASYNC_VARIANT
+                                    + ", add httpexchange-spring-boot-autoconfigure to the compile classpath"
+                                    + " (e.g. compileOnly) or set asyncEnabled=false",
+                            element);
+            return false;
+        }
+        String asyncClassName = getPackage(element) + "." + getAsyncClassName(element);
+        if (generatedClasses.contains(asyncClassName)) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "[http-exchange processor] Asynchronous variant " + asyncClassName
+                                    + " is already generated for another interface, rename "
+                                    + ((TypeElement) element).getQualifiedName(),
+                            element);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The async variant is top-level, the variant of a nested interface is named after the enclosing types,
+     * e.g. {@code OuterUserApiAsync} for {@code Outer.UserApi}.
+     */
+    private static String getAsyncClassName(Element element) {
+        StringBuilder name = new StringBuilder(element.getSimpleName());
+        for (Element enclosing = element.getEnclosingElement();
+                enclosing instanceof TypeElement;
+                enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName());
+        }
+        return name + ASYNC_CLASS_SUFFIX;
+    }
+
+    private TypeSpec.Builder createAsyncInterfaceBuilder(Element element) {
+        TypeSpec.Builder result = TypeSpec.interfaceBuilder(getAsyncClassName(element))
+                .addAnnotation(AnnotationSpec.builder(Generated.class)
+                        .addMember("value", "$S", ApiBaseProcessor.class.getName())
+                        .build())
+                .addAnnotation(AnnotationSpec.builder(ASYNC_VARIANT)
+                        .addMember("of", "$T.class", TypeName.get(element.asType()))
+                        .build())
+                .addJavadoc(
+                        "Generated asynchronous variant of {@link $L}, every exchange method returns a {@code $L}.\n",
+                        ((TypeElement) element).getQualifiedName(),
+                        getAsyncWrapper().simpleName());
+        if (element.getModifiers().contains(Modifier.PUBLIC)) {
+            result.addModifiers(Modifier.PUBLIC);
+        }
+
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            result.addAnnotation(AnnotationSpec.get(annotationMirror));
+        }
+
+        // Incremental compilation (Isolating) must have exactly one originating element.
+        // See https://docs.gradle.org/current/userguide/java_plugin.html#isolating_annotation_processors
+        result.addOriginatingElement(element);
+
+        return result;
+    }
+
     private boolean hasAnnotationMatched(Set<? extends TypeElement> annotations, Element element) {
         for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
             if (isAnnotationMatched(annotations, annotationMirror)) {
@@ -345,6 +451,20 @@ public final class ApiBaseProcessor extends AbstractProcessor {
         return false;
     }
 
+    private boolean processAsyncMethodElement(TypeSpec.Builder asyncBuilder, Element enclosedElement) {
+        if (enclosedElement.getModifiers().contains(Modifier.DEFAULT)
+                || enclosedElement.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        for (AnnotationMirror annotation : enclosedElement.getAnnotationMirrors()) {
+            if (EXCHANGE_ANNOTATIONS.contains(annotation.getAnnotationType().toString())) {
+                asyncBuilder.addMethod(buildAsyncMethodSpec((ExecutableElement) enclosedElement));
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean isAnnotationMatched(Set<? extends TypeElement> annotations, AnnotationMirror annotation) {
         for (TypeElement anno : annotations) {
             if (Objects.equals(
@@ -403,6 +523,64 @@ public final class ApiBaseProcessor extends AbstractProcessor {
         return methodBuilder.build();
     }
 
+    private MethodSpec buildAsyncMethodSpec(ExecutableElement methodElement) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(
+                        methodElement.getSimpleName().toString())
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .returns(getAsyncReturnType(methodElement.getReturnType()));
+
+        for (VariableElement parameter : methodElement.getParameters()) {
+            ParameterSpec.Builder parameterBuilder = ParameterSpec.builder(
+                    TypeName.get(parameter.asType()), parameter.getSimpleName().toString());
+
+            for (AnnotationMirror annotationMirror : parameter.getAnnotationMirrors()) {
+                parameterBuilder.addAnnotation(AnnotationSpec.get(annotationMirror));
+            }
+
+            methodBuilder.addParameter(parameterBuilder.build());
+        }
+
+        for (AnnotationMirror annotationMirror : methodElement.getAnnotationMirrors()) {
+            methodBuilder.addAnnotation(AnnotationSpec.get(annotationMirror));
+        }
+
+        return methodBuilder.build();
+    }
+
+    private TypeName getAsyncReturnType(TypeMirror returnType) {
+        if (returnType.getKind() == TypeKind.VOID) {
+            return ParameterizedTypeName.get(getAsyncWrapper(), ClassName.get(Void.class));
+        }
+        if (returnType.getKind().isPrimitive()) {
+            return ParameterizedTypeName.get(
+                    getAsyncWrapper(), TypeName.get(returnType).box());
+        }
+        if (returnType instanceof DeclaredType declaredType) {
+            String rawType =
+                    ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+            if (ASYNC_RETURN_TYPES.contains(rawType)) {
+                return TypeName.get(returnType);
+            }
+            // Optional is not supported as a nested type of async types, empty body results in null/empty
+            if (Objects.equals(rawType, Optional.class.getCanonicalName())
+                    && declaredType.getTypeArguments().size() == 1) {
+                return ParameterizedTypeName.get(
+                        getAsyncWrapper(),
+                        TypeName.get(declaredType.getTypeArguments().get(0)));
+            }
+        }
+        return ParameterizedTypeName.get(getAsyncWrapper(), TypeName.get(returnType));
+    }
+
+    private ClassName getAsyncWrapper() {
+        return switch (properties.asyncType()) {
+            case COMPLETABLE_FUTURE:
+                yield ClassName.get(CompletableFuture.class);
+            case MONO:
+                yield MONO;
+        };
+    }
+
     private static String getParameterTypes(ExecutableElement methodElement) {
         return methodElement.getParameters().stream()
                 .map(parameter -> {
@@ -437,9 +615,8 @@ public final class ApiBaseProcessor extends AbstractProcessor {
     }
 
     @SneakyThrows
-    private void generateJavaFile(Element element, TypeSpec.Builder classBuilder) {
-        JavaFile javaFile = JavaFile.builder(getOutputPackage(element), classBuilder.build())
-                .build();
+    private void generateJavaFile(String packageName, TypeSpec.Builder classBuilder) {
+        JavaFile javaFile = JavaFile.builder(packageName, classBuilder.build()).build();
         javaFile.writeTo(processingEnv.getFiler());
         generatedClasses.add(
                 StringUtils.hasText(javaFile.packageName())
@@ -447,12 +624,16 @@ public final class ApiBaseProcessor extends AbstractProcessor {
                         : javaFile.typeSpec().name());
     }
 
-    private String getOutputPackage(Element element) {
-        String originalPackage = processingEnv
+    private String getPackage(Element element) {
+        return processingEnv
                 .getElementUtils()
                 .getPackageOf(element)
                 .getQualifiedName()
                 .toString();
+    }
+
+    private String getOutputPackage(Element element) {
+        String originalPackage = getPackage(element);
         String outputSubpackage =
                 Optional.ofNullable(properties.outputSubpackage()).orElse("");
         if (!StringUtils.hasText(originalPackage)) {
@@ -0,0 +1,18 @@
+package io.github.danielliu1123.httpexchange.processor;
+
+/**
+ * Return type wrapper used by the generated asynchronous variant interfaces.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+enum AsyncType {
+    /**
+     * Wrap return types with {@link java.util.concurrent.CompletableFuture}.
+     */
+    COMPLETABLE_FUTURE,
+    /**
+     * Wrap return types with {@code reactor.core.publisher.Mono}.
+     */
+    MONO,
+}
@@ -15,7 +15,9 @@ record ProcessorProperties(
         String suffix,
         GeneratedType generatedType,
         List<String> packages,
-        String outputSubpackage) {
+        String outputSubpackage,
+        boolean asyncEnabled,
+        AsyncType asyncType) {
 
     public static ProcessorProperties from(Properties properties) {
         boolean enabled = Optional.ofNullable(properties.getProperty("enabled"))
@@ -36,6 +38,15 @@ record ProcessorProperties(
                 .toList();
         String outputSubpackage =
                 Optional.ofNullable(properties.getProperty("outputSubpackage")).orElse("");
-        return new ProcessorProperties(enabled, prefix, suffix, generatedType, packages, outputSubpackage);
+        boolean asyncEnabled = Optional.ofNullable(properties.getProperty("asyncEnabled"))
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+        AsyncType asyncType = Optional.ofNullable(properties.getProperty("asyncType"))
+                .filter(StringUtils::hasText)
+                .map(String::toUpperCase)
+                .map(AsyncType::valueOf)
+                .orElse(AsyncType.COMPLETABLE_FUTURE);
+        return new ProcessorProperties(
+                enabled, prefix, suffix, generatedType, packages, outputSubpackage, asyncEnabled, asyncType);
     }
 }
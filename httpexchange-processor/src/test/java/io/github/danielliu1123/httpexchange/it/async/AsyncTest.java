@@ -0,0 +1,85 @@
+package io.github.danielliu1123.httpexchange.it.async;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.danielliu1123.httpexchange.AsyncVariant;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+class AsyncTest {
+
+    private static final String ASYNC_CLASS = "io.github.danielliu1123.httpexchange.it.async.UserApiAsync";
+
+    @Test
+    @SneakyThrows
+    void whenAsyncEnabled_thenGenerateAsyncVariant() {
+        Class<?> clz = Class.forName(ASYNC_CLASS);
+
+        assertEquals("/users", clz.getAnnotation(HttpExchange.class).value());
+        // Runtime visible marker, the starter only registers generated async variants
+        assertEquals(UserApi.class, clz.getAnnotation(AsyncVariant.class).of());
+
+        var get = clz.getDeclaredMethod("get", String.class);
+        assertEquals("/{id}", get.getAnnotation(GetExchange.class).value());
+        assertEquals("id", ((PathVariable) get.getParameterAnnotations()[0][0]).value());
+        assertReturnType(get.getGenericReturnType(), String.class);
+
+        var list = clz.getDeclaredMethod("list");
+        assertEquals(CompletableFuture.class, list.getReturnType());
+        assertEquals(
+                List.class,
+                ((ParameterizedType) ((ParameterizedType) list.getGenericReturnType()).getActualTypeArguments()[0])
+                        .getRawType());
+
+        assertReturnType(clz.getDeclaredMethod("count").getGenericReturnType(), Integer.class);
+        assertReturnType(clz.getDeclaredMethod("nickname", String.class).getGenericReturnType(), String.class);
+        assertReturnType(clz.getDeclaredMethod("avatar", String.class).getGenericReturnType(), String.class);
+        assertReturnType(clz.getDeclaredMethod("delete", String.class).getGenericReturnType(), Void.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenMethodIsDefault_thenNotGenerateAsyncMethod() {
+        Class<?> clz = Class.forName(ASYNC_CLASS);
+
+        assertThrows(NoSuchMethodException.class, () -> clz.getDeclaredMethod("hello"));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenInterfaceIsNested_thenNameAsyncVariantAfterEnclosingTypes() {
+        Class<?> clz = Class.forName("io.github.danielliu1123.httpexchange.it.async.OuterNestedApiAsync");
+
+        assertEquals(
+                Outer.NestedApi.class, clz.getAnnotation(AsyncVariant.class).of());
+        assertReturnType(clz.getDeclaredMethod("get", String.class).getGenericReturnType(), String.class);
+    }
+
+    @Test
+    void whenInterfaceHasNoExchangeMethod_thenNotGenerateAsyncVariant() {
+        assertThrows(ClassNotFoundException.class, () -> {
+            Class.forName("io.github.danielliu1123.httpexchange.it.normal.Api3Async");
+        });
+        assertDoesNotThrow(() -> {
+            Class.forName("io.github.danielliu1123.httpexchange.it.normal.ApiAsync")
+                    .getDeclaredMethod("get");
+            Class.forName("io.github.danielliu1123.httpexchange.it.normal.Class1Api6Async")
+                    .getDeclaredMethod("get");
+        });
+    }
+
+    private static void assertReturnType(Type type, Class<?> expectedTypeArgument) {
+        var parameterizedType = (ParameterizedType) type;
+        assertEquals(CompletableFuture.class, parameterizedType.getRawType());
+        assertEquals(expectedTypeArgument, parameterizedType.getActualTypeArguments()[0]);
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.danielliu1123.httpexchange.it.async;
+
+import org.springframework.web.service.annotation.GetExchange;
+
+/**
+ * @author Freeman
+ */
+public class Outer {
+
+    public interface NestedApi {
+        @GetExchange("/users/{id}")
+        String get(String id);
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.danielliu1123.httpexchange.it.async;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.service.annotation.DeleteExchange;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+/**
+ * @author Freeman
+ */
+@HttpExchange("/users")
+public interface UserApi {
+
+    @GetExchange("/{id}")
+    String get(@PathVariable("id") String id);
+
+    @GetExchange
+    List<String> list();
+
+    @GetExchange("/count")
+    int count();
+
+    @GetExchange("/{id}/nickname")
+    Optional<String> nickname(@PathVariable("id") String id);
+
+    @GetExchange("/{id}/avatar")
+    CompletableFuture<String> avatar(@PathVariable("id") String id);
+
+    @DeleteExchange("/{id}")
+    void delete(@PathVariable("id") String id);
+
+    default String hello() {
+        return "hello";
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.github.danielliu1123.httpexchange.HttpExchangeProperties.Codec;
+import io.github.danielliu1123.httpexchange.PrecomputedJsonBenchmark.InputMessage;
+import io.github.danielliu1123.httpexchange.PrecomputedJsonBenchmark.OutputMessage;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractJacksonHttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+
+/**
+ * Encode and decode throughput of 1,000 small order DTOs with the message converter of each {@link Codec}.
+ *
+ * @author Freeman
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    private static final ResolvableType ORDER_LIST =
+            ResolvableType.forType(new ParameterizedTypeReference<List<Order>>() {}.getType());
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public Codec codec;
+
+    private AbstractJacksonHttpMessageConverter<?> converter;
+    private MediaType mediaType;
+    private List<Order> orders;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        converter = switch (codec) {
+            case JSON -> new JacksonJsonHttpMessageConverter();
+            case SMILE -> new JacksonSmileHttpMessageConverter();
+            case CBOR -> new JacksonCborHttpMessageConverter();
+            case PROTOBUF -> throw new IllegalStateException("Unsupported codec: " + codec);
+        };
+        mediaType = ExchangeCodecs.mediaType(codec);
+        orders = IntStream.range(0, 1_000).mapToObj(CodecBenchmark::order).toList();
+        var output = new OutputMessage();
+        converter.write(orders, ORDER_LIST, mediaType, output, null);
+        encoded = output.body.toByteArray();
+    }
+
+    /**
+     * @return encoded bytes
+     */
+    @Benchmark
+    public int encode() throws IOException {
+        var output = new OutputMessage();
+        converter.write(orders, ORDER_LIST, mediaType, output, null);
+        return output.body.size();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return converter.read(ORDER_LIST, new InputMessage(encoded, mediaType), null);
+    }
+
+    private static Order order(int id) {
+        return new Order(
+                id,
+                "customer-" + id,
+                "2026-01-01T00:00:00Z",
+                List.of(new Line("sku-1", 2, 19.99), new Line("sku-2", 1, 5.5), new Line("sku-3", 10, 0.25)),
+                47.98);
+    }
+
+    record Line(String sku, int quantity, double price) {}
+
+    record Order(long id, String customer, String createdAt, List<Line> lines, double total) {}
+}
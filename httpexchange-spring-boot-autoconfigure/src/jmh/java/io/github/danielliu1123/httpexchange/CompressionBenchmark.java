@@ -0,0 +1,83 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.github.danielliu1123.httpexchange.HttpExchangeProperties.Compression.Algorithm;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * CPU cost of compressing a 4MB JSON request body with each {@link Algorithm}.
+ *
+ * @author Freeman
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"GZIP", "DEFLATE", "ZSTD"})
+    public Algorithm algorithm;
+
+    private CompressionCodec codec;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        var compression = new HttpExchangeProperties.Compression();
+        compression.setRequestEnabled(true);
+        compression.setAlgorithm(algorithm);
+        codec = new CompressionCodec(compression);
+        payload = JsonMapper.shared().writeValueAsBytes(items(50_000));
+    }
+
+    /**
+     * @return bytes on wire
+     */
+    @Benchmark
+    public long compress() throws IOException {
+        var counter = new CountingOutputStream();
+        try (OutputStream out = codec.compress(counter)) {
+            out.write(payload);
+        }
+        return counter.count;
+    }
+
+    private static List<Item> items(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Item(i, "item-" + i, "some repetitive description of the item"))
+                .toList();
+    }
+
+    record Item(int id, String name, String description) {}
+
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Round trip (write then read) cost of the default JSON converter vs {@link PrecomputedJsonHttpMessageConverter},
+ * for a small DTO and a list of 1,000 DTOs.
+ *
+ * @author Freeman
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrecomputedJsonBenchmark {
+
+    private static final Type USER_LIST = new ParameterizedTypeReference<List<User>>() {}.getType();
+
+    @Param({"default", "precomputed"})
+    public String converter;
+
+    @Param({"small", "large"})
+    public String payload;
+
+    private JacksonJsonHttpMessageConverter jsonConverter;
+    private ResolvableType type;
+    private Object value;
+
+    @Setup
+    public void setup() {
+        if (converter.equals("precomputed")) {
+            var precomputed = new PrecomputedJsonHttpMessageConverter(JsonMapper.shared());
+            precomputed.precompute(UserApi.class);
+            jsonConverter = precomputed;
+        } else {
+            jsonConverter = new JacksonJsonHttpMessageConverter(JsonMapper.shared());
+        }
+        if (payload.equals("small")) {
+            type = ResolvableType.forType(User.class);
+            value = new User(1, "user-1");
+        } else {
+            type = ResolvableType.forType(USER_LIST);
+            value = IntStream.rangeClosed(1, 1_000)
+                    .mapToObj(i -> new User(i, "user-" + i))
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException {
+        var output = new OutputMessage();
+        jsonConverter.write(value, type, MediaType.APPLICATION_JSON, output, null);
+        return jsonConverter.read(type, new InputMessage(output.body.toByteArray()), null);
+    }
+
+    public static class User {
+        private long id;
+        private String name;
+
+        public User() {}
+
+        User(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    interface UserApi {
+        @GetExchange("/users/1")
+        User get();
+
+        @PostExchange("/users")
+        User create(@RequestBody User user);
+
+        @GetExchange("/users")
+        List<User> list();
+
+        @PostExchange("/users/batch")
+        List<User> createAll(@RequestBody List<User> users);
+    }
+
+    static final class OutputMessage implements HttpOutputMessage {
+        final HttpHeaders headers = new HttpHeaders();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    static final class InputMessage implements HttpInputMessage {
+        final HttpHeaders headers = new HttpHeaders();
+        final byte[] body;
+
+        InputMessage(byte[] body) {
+            this(body, MediaType.APPLICATION_JSON);
+        }
+
+        InputMessage(byte[] body, MediaType contentType) {
+            this.body = body;
+            this.headers.setContentType(contentType);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.netty.channel.unix.DomainSocketAddress;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Latency of the same exchange client over a Unix domain socket ({@code unix://} base url)
+ * vs loopback TCP ({@code http://127.0.0.1}), both with Reactor Netty.
+ *
+ * @author Freeman
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnixDomainSocketBenchmark {
+
+    @Param({"uds", "tcp"})
+    public String transport;
+
+    private Path dir;
+    private DisposableServer server;
+    private ConfigurableApplicationContext ctx;
+    private SidecarApi api;
+
+    @Setup
+    public void setup() throws IOException {
+        String baseUrl;
+        if (transport.equals("uds")) {
+            dir = Files.createTempDirectory("uds-benchmark");
+            Path socket = dir.resolve("sidecar.sock");
+            SocketAddress address = LoopResources.hasNativeSupport()
+                    ? new DomainSocketAddress(socket.toFile())
+                    : UnixDomainSocketAddress.of(socket);
+            server = server().bindAddress(() -> address).bindNow();
+            baseUrl = "unix://" + socket;
+        } else {
+            server = server().host("127.0.0.1").port(0).bindNow();
+            baseUrl = "http://127.0.0.1:" + server.port();
+        }
+        ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("spring.main.web-application-type=none")
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=" + baseUrl)
+                // the loadbalancer is in the classpath, 127.0.0.1 is not a service id
+                .properties(HttpExchangeProperties.PREFIX + ".loadbalancer-enabled=false")
+                .run();
+        api = ctx.getBean(SidecarApi.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ctx.close();
+        server.disposeNow();
+        if (dir != null) {
+            Files.deleteIfExists(dir.resolve("sidecar.sock"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Benchmark
+    public String call() {
+        return api.hello();
+    }
+
+    private static HttpServer server() {
+        return HttpServer.create()
+                .route(routes -> routes.get("/hello", (request, response) -> response.sendString(Mono.just("Hello"))));
+    }
+
+    interface SidecarApi {
+        @GetExchange("/hello")
+        String hello();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients(clients = SidecarApi.class)
+    static class Cfg {
+
+        /**
+         * Same http client for both transports.
+         */
+        @Bean
+        ClientHttpRequestFactoryBuilder<?> clientHttpRequestFactoryBuilder() {
+            return ClientHttpRequestFactoryBuilder.reactor();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an asynchronous variant generated by {@code httpexchange-processor}, registered alongside the original interface.
+ *
+ * <pre>{@code
+ * @AsyncVariant(of = UserApi.class)
+ * @HttpExchange("/users")
+ * public interface UserApiAsync {
+ *     @GetExchange("/{id}")
+ *     CompletableFuture<UserDTO> getUser(@PathVariable("id") String id);
+ * }
+ * }</pre>
+ *
+ * <p> The variant of a nested interface is a top-level interface named after the enclosing types,
+ * e.g. {@code OuterUserApiAsync} for {@code Outer.UserApi}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface AsyncVariant {
+
+    /**
+     * The original interface.
+     */
+    Class<?> of();
+}
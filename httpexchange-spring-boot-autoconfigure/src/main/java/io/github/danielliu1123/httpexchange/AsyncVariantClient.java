@@ -0,0 +1,117 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jspecify.annotations.Nullable;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Asynchronous variant generated by {@code httpexchange-processor} on top of a blocking client of the original interface,
+ * e.g. {@link HttpExchangeProperties.ClientType#REST_CLIENT} or {@link HttpExchangeProperties.ClientType#LOCAL}.
+ *
+ * <p> Each call invokes the same method of the original client on {@link ExchangeFanOut#defaultExecutor()},
+ * so both variants share the http client, channel configuration and metrics.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class AsyncVariantClient implements MethodInterceptor {
+
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Mono", AsyncVariantClient.class.getClassLoader());
+
+    private final Class<?> syncVariant;
+    private final Object syncClient;
+    private final Executor executor;
+
+    private final Map<Method, Method> syncMethods = new ConcurrentHashMap<>();
+
+    private AsyncVariantClient(Class<?> syncVariant, Object syncClient, Executor executor) {
+        this.syncVariant = syncVariant;
+        this.syncClient = syncClient;
+        this.executor = executor;
+    }
+
+    /**
+     * Create the asynchronous variant delegating to the client of the original interface.
+     *
+     * @param asyncVariant the asynchronous variant interface
+     * @param syncVariant  the original interface
+     * @param syncClient   the client of the original interface
+     * @return the client of the asynchronous variant
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T create(Class<T> asyncVariant, Class<?> syncVariant, Object syncClient) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterface(asyncVariant);
+        proxyFactory.addAdvice(new AsyncVariantClient(syncVariant, syncClient, ExchangeFanOut.defaultExecutor()));
+        return (T) proxyFactory.getProxy(asyncVariant.getClassLoader());
+    }
+
+    @Override
+    @Nullable
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (ReflectionUtils.isToStringMethod(method)) {
+            return "Async " + syncClient;
+        }
+        Method syncMethod = syncMethods.computeIfAbsent(method, this::getSyncMethod);
+        Object[] arguments = invocation.getArguments();
+        if (method.getReturnType().isAssignableFrom(syncMethod.getReturnType())) {
+            // Already asynchronous, e.g. Mono in the original interface
+            return AopUtils.invokeJoinpointUsingReflection(syncClient, syncMethod, arguments);
+        }
+        // Keep calls made in a fan-out branch recorded as part of the branch
+        long fanOutStart = ExchangeCall.getFanOutStart();
+        Supplier<@Nullable Object> call = () -> {
+            ExchangeCall.setFanOutStart(fanOutStart);
+            try {
+                return unwrap(ReflectionUtils.invokeMethod(syncMethod, syncClient, arguments));
+            } finally {
+                ExchangeCall.setFanOutStart(0);
+            }
+        };
+        if (REACTOR_PRESENT && ReactorDelegate.isMono(method.getReturnType())) {
+            return ReactorDelegate.toMono(call, executor);
+        }
+        // Cancelled (e.g. fan-out deadline exceeded) calls are interrupted
+        return ExchangeFanOut.supplyAsync(call, executor);
+    }
+
+    private Method getSyncMethod(Method method) {
+        Method syncMethod = ReflectionUtils.findMethod(syncVariant, method.getName(), method.getParameterTypes());
+        if (syncMethod == null) {
+            throw new IllegalStateException(
+                    "No method " + method.getName() + " in " + syncVariant.getName() + " for " + method);
+        }
+        ReflectionUtils.makeAccessible(syncMethod);
+        return syncMethod;
+    }
+
+    @Nullable
+    private static Object unwrap(@Nullable Object value) {
+        // Optional is flattened in the asynchronous variant, empty results in null
+        return value instanceof Optional<?> optional ? optional.orElse(null) : value;
+    }
+
+    private static final class ReactorDelegate {
+
+        static boolean isMono(Class<?> returnType) {
+            return returnType == Mono.class;
+        }
+
+        static Mono<?> toMono(Supplier<@Nullable Object> call, Executor executor) {
+            return Mono.fromFuture(() -> ExchangeFanOut.supplyAsync(call, executor), false);
+        }
+    }
+}
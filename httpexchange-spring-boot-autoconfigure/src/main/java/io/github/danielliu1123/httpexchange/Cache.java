@@ -2,11 +2,24 @@ package io.github.danielliu1123.httpexchange;
 
 import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.Channel;
 import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.ClientType;
+import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.Codec;
+import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.Compression;
+import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.Header;
+import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.LoadBalancing;
+import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.Ssl;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.jspecify.annotations.Nullable;
 import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.http.client.HttpRedirects;
 
 /**
  * @author Freeman
@@ -20,9 +33,29 @@ final class Cache {
      */
     private static final Map<Class<?>, Object> classToInstance = new ConcurrentHashMap<>();
     /**
-     * {@link ClientId} to Http client instance.
+     * {@link ClientId} to Http client instance, removed when the http client is closed.
      */
-    private static final Map<ClientId, Object> clientIdToHttpClient = new ConcurrentHashMap<>();
+    private static final Map<ClientId, SharedHttpClient> clientIdToHttpClient = new ConcurrentHashMap<>();
+    /**
+     * Client instance to the http client it retains, released when the client is destroyed.
+     */
+    private static final Map<Object, SharedHttpClient> clientToHttpClient =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    /**
+     * Client class to the {@link ClientId} it resolved to.
+     */
+    private static final Map<Class<?>, ClientId> classToClientId = new ConcurrentHashMap<>();
+    /**
+     * Channel name to {@link SlowCallLogger}, shared by the clients of the channel.
+     */
+    private static final Map<String, SlowCallLogger> channelToSlowCallLogger = new ConcurrentHashMap<>();
+    /**
+     * {@link LoadBalancerId} to {@link ExchangeLoadBalancer}, shared by the http clients of the channel.
+     */
+    private static final Map<LoadBalancerId, ExchangeLoadBalancer> channelToLoadBalancer = new ConcurrentHashMap<>();
+
+    private static final LongAdder httpClientRequests = new LongAdder();
+    private static final LongAdder httpClientMisses = new LongAdder();
 
     /**
      * Add a client to cache.
@@ -33,6 +66,47 @@ final class Cache {
         classToInstance.put(AopProxyUtils.ultimateTargetClass(client), client);
     }
 
+    /**
+     * Add a client to cache with the http client it retains.
+     *
+     * @param client     client
+     * @param httpClient the retained http client, released by {@link #releaseHttpClient(Object)}
+     */
+    public static void addClient(Object client, SharedHttpClient httpClient) {
+        addClient(client);
+        clientToHttpClient.put(client, httpClient);
+    }
+
+    /**
+     * @param client client
+     * @return whether the client retains a http client
+     */
+    public static boolean hasHttpClient(Object client) {
+        return clientToHttpClient.containsKey(client);
+    }
+
+    /**
+     * Release the http client retained by a client, the client is destroyed.
+     *
+     * @param client client
+     */
+    public static void releaseHttpClient(Object client) {
+        SharedHttpClient httpClient = clientToHttpClient.remove(client);
+        if (httpClient != null) {
+            httpClient.release();
+        }
+    }
+
+    /**
+     * Add the {@link ClientId} a client resolved to.
+     *
+     * @param clientType the client interface
+     * @param clientId   client id
+     */
+    public static void addClientId(Class<?> clientType, ClientId clientId) {
+        classToClientId.put(clientType, clientId);
+    }
+
     /**
      * Get clients.
      *
@@ -42,9 +116,96 @@ final class Cache {
         return Map.copyOf(classToInstance);
     }
 
-    @SuppressWarnings("unchecked")
-    public static <T> T getHttpClient(ClientId clientId, Supplier<T> supplier) {
-        return (T) clientIdToHttpClient.computeIfAbsent(clientId, k -> supplier.get());
+    /**
+     * Get the {@link ClientId} of client interfaces.
+     *
+     * @return unmodifiable map
+     */
+    public static Map<Class<?>, ClientId> getClientIds() {
+        return Map.copyOf(classToClientId);
+    }
+
+    /**
+     * Get the shared http client of a {@link ClientId} and retain it, create it if absent or closed.
+     *
+     * @param clientId client id
+     * @param supplier http client supplier
+     * @return the retained http client
+     */
+    public static SharedHttpClient getHttpClient(ClientId clientId, Supplier<SharedHttpClient> supplier) {
+        httpClientRequests.increment();
+        while (true) {
+            SharedHttpClient httpClient = clientIdToHttpClient.computeIfAbsent(clientId, k -> {
+                httpClientMisses.increment();
+                return supplier.get();
+            });
+            if (httpClient.retain()) {
+                return httpClient;
+            }
+            // Closed after the grace period, but not removed yet
+            clientIdToHttpClient.remove(clientId, httpClient);
+        }
+    }
+
+    /**
+     * Remove a closed http client, and its load balancer if no http client uses it.
+     *
+     * @param httpClient the closed http client
+     */
+    static void removeHttpClient(SharedHttpClient httpClient) {
+        ClientId clientId = httpClient.getClientId();
+        clientIdToHttpClient.remove(clientId, httpClient);
+        LoadBalancerId loadBalancerId = LoadBalancerId.of(clientId);
+        if (clientIdToHttpClient.keySet().stream().map(LoadBalancerId::of).noneMatch(loadBalancerId::equals)) {
+            channelToLoadBalancer.remove(loadBalancerId);
+        }
+    }
+
+    /**
+     * Get the {@link SlowCallLogger} of a channel, create it if absent.
+     *
+     * @param channel  channel name
+     * @param supplier slow call logger supplier
+     * @return the slow call logger
+     */
+    public static SlowCallLogger getSlowCallLogger(String channel, Supplier<SlowCallLogger> supplier) {
+        return channelToSlowCallLogger.computeIfAbsent(channel, k -> supplier.get());
+    }
+
+    /**
+     * Get the {@link ExchangeLoadBalancer} of a channel, create it if absent.
+     *
+     * @param channel  channel configuration, a changed base url or load balancing configuration gets a new load balancer
+     * @param supplier load balancer supplier
+     * @return the load balancer
+     */
+    public static ExchangeLoadBalancer getLoadBalancer(Channel channel, Supplier<ExchangeLoadBalancer> supplier) {
+        return channelToLoadBalancer.computeIfAbsent(LoadBalancerId.of(channel), k -> supplier.get());
+    }
+
+    /**
+     * Get shared http clients.
+     *
+     * @return unmodifiable map
+     */
+    public static Map<ClientId, Object> getHttpClients() {
+        return clientIdToHttpClient.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        Map.Entry::getKey, entry -> entry.getValue().getClient()));
+    }
+
+    /**
+     * @return number of {@link #getHttpClient} calls
+     */
+    public static long getHttpClientRequests() {
+        return httpClientRequests.sum();
+    }
+
+    /**
+     * @return number of http clients built by {@link #getHttpClient}
+     */
+    public static long getHttpClientMisses() {
+        return httpClientMisses.sum();
     }
 
     /**
@@ -53,7 +214,118 @@ final class Cache {
     public static void clear() {
         classToInstance.clear();
         clientIdToHttpClient.clear();
+        clientToHttpClient.clear();
+        classToClientId.clear();
+        channelToSlowCallLogger.clear();
+        channelToLoadBalancer.clear();
+        httpClientRequests.reset();
+        httpClientMisses.reset();
+    }
+
+    /**
+     * Identity of a http client.
+     *
+     * @param channel    channel name
+     * @param clientType client type
+     * @param baseUrl    base url, or the comma separated base urls
+     * @param config     the channel configuration the http client is built with
+     */
+    record ClientId(
+            String channel, ClientType clientType, @Nullable String baseUrl, ClientConfig config) {
+
+        static ClientId of(Channel channel, ClientType clientType) {
+            return new ClientId(
+                    ExchangeClientCreator.getChannelName(channel),
+                    clientType,
+                    baseUrl(channel),
+                    ClientConfig.of(channel));
+        }
+
+        @Nullable
+        static String baseUrl(Channel channel) {
+            return channel.getBaseUrls().isEmpty() ? channel.getBaseUrl() : String.join(",", channel.getBaseUrls());
+        }
+    }
+
+    /**
+     * The channel configuration that affects the http client, other properties (e.g. {@code clients}, {@code download})
+     * don't need a new http client.
+     *
+     * <p> The nested configuration is changed in place when the properties are rebound (e.g. refresh),
+     * so it's copied.
+     */
+    record ClientConfig(
+            List<Header> headers,
+            @Nullable HttpRedirects redirects,
+            @Nullable Integer connectTimeout,
+            @Nullable Integer readTimeout,
+            @Nullable Boolean loadbalancerEnabled,
+            @Nullable Ssl ssl,
+            @Nullable Codec codec,
+            @Nullable Compression compression,
+            boolean slowCallLogEnabled,
+            @Nullable LoadBalancing loadBalancing) {
+
+        static ClientConfig of(Channel channel) {
+            return new ClientConfig(
+                    List.copyOf(channel.getHeaders()),
+                    channel.getRedirects(),
+                    channel.getConnectTimeout(),
+                    channel.getReadTimeout(),
+                    channel.getLoadbalancerEnabled(),
+                    channel.getSsl(),
+                    channel.getCodec(),
+                    copy(channel.getCompression()),
+                    channel.getSlowCallLog() != null && channel.getSlowCallLog().isEnabled(),
+                    copy(channel.getLoadBalancing()));
+        }
+
+        @Nullable
+        private static Compression copy(@Nullable Compression compression) {
+            if (compression == null) {
+                return null;
+            }
+            var copy = new Compression();
+            BeanUtils.copyProperties(compression, copy);
+            return copy;
+        }
+
+        @Nullable
+        private static LoadBalancing copy(@Nullable LoadBalancing loadBalancing) {
+            if (loadBalancing == null) {
+                return null;
+            }
+            var copy = new LoadBalancing();
+            BeanUtils.copyProperties(loadBalancing, copy, "outlierDetection", "zonePreference");
+            BeanUtils.copyProperties(loadBalancing.getOutlierDetection(), copy.getOutlierDetection());
+            BeanUtils.copyProperties(loadBalancing.getZonePreference(), copy.getZonePreference(), "endpoints");
+            loadBalancing
+                    .getZonePreference()
+                    .getEndpoints()
+                    .forEach((zone, urls) ->
+                            copy.getZonePreference().getEndpoints().put(zone, List.copyOf(urls)));
+            return copy;
+        }
     }
 
-    record ClientId(Channel channel, ClientType clientType) {}
+    /**
+     * Identity of a load balancer, shared by the {@code RestClient} and {@code WebClient} of a channel.
+     */
+    private record LoadBalancerId(
+            String channel,
+            @Nullable String baseUrl,
+            @Nullable LoadBalancing loadBalancing) {
+
+        static LoadBalancerId of(Channel channel) {
+            return new LoadBalancerId(
+                    ExchangeClientCreator.getChannelName(channel),
+                    ClientId.baseUrl(channel),
+                    ClientConfig.copy(channel.getLoadBalancing()));
+        }
+
+        static LoadBalancerId of(ClientId clientId) {
+            return new LoadBalancerId(
+                    clientId.channel(), clientId.baseUrl(), clientId.config().loadBalancing());
+        }
+    }
 }
@@ -0,0 +1,235 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestFactory} decorator that compresses request bodies while they are written to the connection,
+ * and decompresses response bodies while they are read.
+ *
+ * <p> Streaming bodies (see {@link StreamingHttpOutputMessage}) are compressed on the fly, no copy of the body is held in memory.
+ * Bodies written to {@link ClientHttpRequest#getBody()} are buffered up to the min size to decide whether to compress.
+ *
+ * <p> This is a request factory decorator instead of a {@code ClientHttpRequestInterceptor},
+ * because {@code RestClient} buffers the whole request body once an interceptor is registered.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class CompressingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final CompressionCodec codec;
+
+    CompressingClientHttpRequestFactory(ClientHttpRequestFactory delegate, CompressionCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new CompressingClientHttpRequest(delegate.createRequest(uri, httpMethod), codec);
+    }
+
+    private static final class CompressingClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final CompressionCodec codec;
+
+        private @Nullable ThresholdOutputStream body;
+
+        CompressingClientHttpRequest(ClientHttpRequest delegate, CompressionCodec codec) {
+            this.delegate = delegate;
+            this.codec = codec;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return delegate.getAttributes();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            if (body == null) {
+                body = new ThresholdOutputStream();
+            }
+            return body;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (!(delegate instanceof StreamingHttpOutputMessage streaming)) {
+                try {
+                    body.writeTo(getBody());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            if (!codec.shouldCompress(getHeaders())) {
+                streaming.setBody(body);
+                return;
+            }
+            codec.applyHeaders(getHeaders());
+            streaming.setBody(new Body() {
+                @Override
+                public void writeTo(OutputStream outputStream) throws IOException {
+                    try (OutputStream out = codec.compress(StreamUtils.nonClosing(outputStream))) {
+                        body.writeTo(out);
+                    }
+                }
+
+                @Override
+                public boolean repeatable() {
+                    return body.repeatable();
+                }
+            });
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            codec.applyAcceptEncoding(getHeaders());
+            if (body != null) {
+                body.finish();
+            }
+            ClientHttpResponse response = delegate.execute();
+            if (codec.shouldDecompress(response.getHeaders())) {
+                return new DecompressingClientHttpResponse(response);
+            }
+            return response;
+        }
+
+        /**
+         * Buffers up to the min size, then switches to compress into the body of the delegate request.
+         */
+        private final class ThresholdOutputStream extends OutputStream {
+
+            private @Nullable ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            private @Nullable OutputStream out;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (out == null) {
+                    if (buffer != null && buffer.size() + len < codec.minSize()) {
+                        buffer.write(b, off, len);
+                        return;
+                    }
+                    out = startCompression();
+                }
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (out != null) {
+                    out.flush();
+                }
+            }
+
+            private OutputStream startCompression() throws IOException {
+                OutputStream target;
+                if (codec.shouldCompress(getHeaders())) {
+                    codec.applyHeaders(getHeaders());
+                    target = codec.compress(StreamUtils.nonClosing(delegate.getBody()));
+                } else {
+                    target = StreamUtils.nonClosing(delegate.getBody());
+                }
+                if (buffer != null) {
+                    buffer.writeTo(target);
+                    buffer = null;
+                }
+                return target;
+            }
+
+            void finish() throws IOException {
+                if (out == null) {
+                    // Less than the min size, write as is
+                    if (buffer != null) {
+                        buffer.writeTo(delegate.getBody());
+                        buffer = null;
+                    }
+                    return;
+                }
+                out.close();
+            }
+        }
+    }
+
+    private static final class DecompressingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final String encoding;
+        private final HttpHeaders headers;
+
+        private @Nullable InputStream body;
+
+        DecompressingClientHttpResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+            this.encoding = Objects.requireNonNull(delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            this.headers = CompressionCodec.decodedHeaders(delegate.getHeaders());
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = CompressionCodec.decompress(encoding, delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link ExchangeFilterFunction} that compresses request bodies while they are written to the connection,
+ * and decompresses response bodies while they are read.
+ *
+ * <p> Each {@link DataBuffer} of the body is compressed as it arrives, only the compressed output of the current buffer
+ * is held in memory.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see CompressingClientHttpRequestFactory
+ */
+final class CompressingExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private static final int DEMAND = 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompressionCodec codec;
+
+    CompressingExchangeFilterFunction(CompressionCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ClientRequest compressed = ClientRequest.from(request)
+                .headers(codec::applyAcceptEncoding)
+                .body((message, context) -> request.body().insert(new CompressingClientHttpRequest(message), context))
+                .build();
+        return next.exchange(compressed).map(this::decompress);
+    }
+
+    private ClientResponse decompress(ClientResponse response) {
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        if (!codec.shouldDecompress(headers)) {
+            return response;
+        }
+        String encoding = Objects.requireNonNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        HttpHeaders decodedHeaders = CompressionCodec.decodedHeaders(headers);
+        return response.mutate()
+                .headers(h -> {
+                    h.clear();
+                    h.addAll(decodedHeaders);
+                })
+                .body(body -> decompress(encoding, body))
+                .build();
+    }
+
+    /**
+     * Decompress with the blocking decoders of {@link CompressionCodec} on a bounded elastic thread,
+     * the body is requested as the decoded stream is read, so only a few buffers are held in memory.
+     */
+    private static Flux<DataBuffer> decompress(String encoding, Flux<DataBuffer> body) {
+        return DataBufferUtils.readInputStream(
+                        () -> CompressionCodec.decompress(
+                                encoding, DataBufferUtils.subscriberInputStream(body, DEMAND)),
+                        DefaultDataBufferFactory.sharedInstance,
+                        BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private final class CompressingClientHttpRequest extends ClientHttpRequestDecorator {
+
+        CompressingClientHttpRequest(ClientHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            // Content-Length is set by the encoder if the body is a single buffer
+            if (!codec.shouldCompress(getHeaders())) {
+                return super.writeWith(body);
+            }
+            codec.applyHeaders(getHeaders());
+            return super.writeWith(compress(Flux.from(body), bufferFactory()));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(Flux::from));
+        }
+    }
+
+    private Flux<DataBuffer> compress(Flux<? extends DataBuffer> body, DataBufferFactory bufferFactory) {
+        return Flux.using(
+                Compressor::new,
+                compressor -> body.concatMap(buffer -> Mono.justOrEmpty(compressor.write(buffer, bufferFactory)))
+                        .concatWith(Mono.fromSupplier(() -> compressor.finish(bufferFactory))),
+                Compressor::close);
+    }
+
+    private final class Compressor {
+
+        private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        private final OutputStream out;
+
+        private boolean closed;
+
+        Compressor() {
+            try {
+                this.out = codec.compress(sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Nullable
+        DataBuffer write(DataBuffer buffer, DataBufferFactory bufferFactory) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return drain(bufferFactory);
+        }
+
+        @Nullable
+        DataBuffer finish(DataBufferFactory bufferFactory) {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain(bufferFactory);
+        }
+
+        /**
+         * Release the compressor if the body is cancelled or failed.
+         */
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // nothing to do
+            }
+        }
+
+        /**
+         * @return the compressed bytes since last drain, {@code null} if none
+         */
+        private @Nullable DataBuffer drain(DataBufferFactory bufferFactory) {
+            if (sink.size() == 0) {
+                return null;
+            }
+            DataBuffer result = bufferFactory.wrap(sink.toByteArray());
+            sink.reset();
+            return result;
+        }
+    }
+}
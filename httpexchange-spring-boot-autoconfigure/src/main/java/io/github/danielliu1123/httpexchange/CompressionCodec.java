@@ -0,0 +1,205 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.github.danielliu1123.httpexchange.HttpExchangeProperties.Compression.Algorithm;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Streaming compressors and decompressors for the supported {@link Algorithm}s,
+ * shared by {@link CompressingClientHttpRequestFactory} and {@link CompressingExchangeFilterFunction}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class CompressionCodec {
+
+    private static final String ZSTD_OUTPUT_STREAM = "com.github.luben.zstd.ZstdOutputStream";
+    private static final String ZSTD_INPUT_STREAM = "com.github.luben.zstd.ZstdInputStream";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final @Nullable Constructor<?> zstdOutputConstructor =
+            findConstructor(ZSTD_OUTPUT_STREAM, OutputStream.class);
+    private static final @Nullable Constructor<?> zstdInputConstructor =
+            findConstructor(ZSTD_INPUT_STREAM, InputStream.class);
+
+    /**
+     * {@code Accept-Encoding} value advertised when response decompression is enabled.
+     */
+    static final String ACCEPT_ENCODING = zstdInputConstructor != null ? "gzip, deflate, zstd" : "gzip, deflate";
+
+    private final boolean requestEnabled;
+    private final boolean responseEnabled;
+    private final Algorithm algorithm;
+    private final long minSize;
+
+    CompressionCodec(HttpExchangeProperties.Compression compression) {
+        if (compression.isRequestEnabled()
+                && compression.getAlgorithm() == Algorithm.ZSTD
+                && zstdOutputConstructor == null) {
+            throw new IllegalStateException(
+                    "Compression algorithm 'zstd' requires 'com.github.luben:zstd-jni' in the classpath");
+        }
+        this.requestEnabled = compression.isRequestEnabled();
+        this.responseEnabled = compression.isResponseEnabled();
+        this.algorithm = compression.getAlgorithm();
+        this.minSize = compression.getMinRequestSize().toBytes();
+    }
+
+    /**
+     * @return the {@code Content-Encoding} value
+     */
+    String encoding() {
+        return algorithm.name().toLowerCase(Locale.ROOT);
+    }
+
+    long minSize() {
+        return minSize;
+    }
+
+    /**
+     * Whether to compress the body of the request with the given headers.
+     *
+     * <p> The body is not compressed if it is already encoded, or if its length is known and less than the min size.
+     */
+    boolean shouldCompress(HttpHeaders headers) {
+        if (!requestEnabled || headers.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        long contentLength = headers.getContentLength();
+        return contentLength < 0 || contentLength >= minSize;
+    }
+
+    /**
+     * Set {@code Content-Encoding} and remove {@code Content-Length}, the compressed length is unknown.
+     */
+    void applyHeaders(HttpHeaders headers) {
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.set(HttpHeaders.CONTENT_ENCODING, encoding());
+    }
+
+    /**
+     * Advertise the supported encodings if the request does not specify any.
+     *
+     * <p> Range requests are left as is, byte ranges of an encoded representation are rarely useful.
+     */
+    void applyAcceptEncoding(HttpHeaders headers) {
+        if (responseEnabled
+                && !headers.containsHeader(HttpHeaders.ACCEPT_ENCODING)
+                && !headers.containsHeader(HttpHeaders.RANGE)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * Whether the body of the response with the given headers can be decompressed.
+     */
+    boolean shouldDecompress(HttpHeaders headers) {
+        String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (!responseEnabled || encoding == null) {
+            return false;
+        }
+        return switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip", "deflate" -> true;
+            case "zstd" -> zstdInputConstructor != null;
+            default -> false;
+        };
+    }
+
+    /**
+     * Copy of the given response headers without {@code Content-Encoding} and {@code Content-Length},
+     * which describe the encoded body.
+     */
+    static HttpHeaders decodedHeaders(HttpHeaders headers) {
+        HttpHeaders result = HttpHeaders.copyOf(headers);
+        result.remove(HttpHeaders.CONTENT_ENCODING);
+        result.remove(HttpHeaders.CONTENT_LENGTH);
+        return result;
+    }
+
+    /**
+     * Wrap the given stream with a compressor, closing the returned stream finishes the compression and closes the given stream.
+     */
+    OutputStream compress(OutputStream out) throws IOException {
+        return switch (algorithm) {
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(out);
+            case ZSTD -> newInstance(zstdOutputConstructor, out);
+        };
+    }
+
+    /**
+     * Wrap the given stream with a decompressor for the given {@code Content-Encoding}, see {@link #shouldDecompress}.
+     *
+     * <p> An empty body (e.g. {@code HEAD} or {@code 204}) is returned as an empty stream.
+     */
+    static InputStream decompress(String encoding, InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        byte[] head = pushback.readNBytes(2);
+        if (head.length == 0) {
+            return InputStream.nullInputStream();
+        }
+        pushback.unread(head);
+        return switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(pushback, BUFFER_SIZE);
+            // Some servers send raw deflate data without the zlib wrapper
+            case "deflate" ->
+                isZlib(head)
+                        ? new InflaterInputStream(pushback)
+                        : new InflaterInputStream(pushback, new Inflater(true), BUFFER_SIZE);
+            case "zstd" -> newInstance(zstdInputConstructor, pushback);
+            default -> throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+        };
+    }
+
+    private static boolean isZlib(byte[] head) {
+        if (head.length < 2) {
+            return false;
+        }
+        int cmf = head[0] & 0xFF;
+        int flg = head[1] & 0xFF;
+        return (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newInstance(@Nullable Constructor<?> constructor, Object stream) throws IOException {
+        if (constructor == null) {
+            throw new IllegalStateException("'com.github.luben:zstd-jni' is not in the classpath");
+        }
+        try {
+            return (T) constructor.newInstance(stream);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IllegalStateException("Failed to create zstd stream", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create zstd stream", e);
+        }
+    }
+
+    private static @Nullable Constructor<?> findConstructor(String className, Class<?> parameterType) {
+        ClassLoader classLoader = CompressionCodec.class.getClassLoader();
+        if (!ClassUtils.isPresent(className, classLoader)) {
+            return null;
+        }
+        try {
+            return ClassUtils.forName(className, classLoader).getConstructor(parameterType);
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            return null;
+        }
+    }
+}
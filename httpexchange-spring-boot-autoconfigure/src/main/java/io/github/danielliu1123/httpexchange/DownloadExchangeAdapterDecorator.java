@@ -0,0 +1,597 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpExchangeAdapter;
+import org.springframework.web.service.invoker.HttpExchangeAdapterDecorator;
+import org.springframework.web.service.invoker.HttpRequestValues;
+
+/**
+ * {@link HttpExchangeAdapterDecorator} that writes the response body to the {@link TargetFile} argument.
+ *
+ * <p> The body is copied to the file through NIO channels with a fixed-size reusable direct buffer,
+ * it is never loaded into heap.
+ *
+ * <p> If {@link HttpExchangeProperties.Download#getParallelism()} is greater than 1 and the server supports ranges,
+ * the resource is downloaded with concurrent range requests, each segment is written to
+ * its region of the pre-allocated file with positional writes, a failed segment is retried from the last received byte.
+ * When a segment fails, the other segments stop at the next buffer instead of being interrupted,
+ * interrupting a thread in {@link FileChannel} I/O would close the channel shared by all segments.
+ * The number of concurrent segment requests of the client is capped by
+ * {@link HttpExchangeProperties.Download#getMaxConcurrentSegments()}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see TargetFile
+ * @see HttpExchangeProperties.Download
+ */
+class DownloadExchangeAdapterDecorator extends HttpExchangeAdapterDecorator {
+    private static final Logger log = LoggerFactory.getLogger(DownloadExchangeAdapterDecorator.class);
+
+    /**
+     * Request attribute name of the {@link TargetFile} argument.
+     */
+    static final String TARGET_FILE_ATTRIBUTE = TargetFile.class.getName();
+
+    private static final String REPR_DIGEST = "Repr-Digest";
+    private static final String DIGEST = "Digest";
+    private static final String CONTENT_MD5 = "Content-MD5";
+
+    private static final Map<String, String> DIGEST_ALGORITHMS =
+            Map.of("sha-512", "SHA-512", "sha-256", "SHA-256", "sha", "SHA-1", "md5", "MD5");
+
+    private final RestClientAdapter restClientAdapter;
+    private final HttpExchangeProperties.Download config;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final Semaphore segmentPermits;
+
+    DownloadExchangeAdapterDecorator(
+            HttpExchangeAdapter delegate,
+            RestClientAdapter restClientAdapter,
+            HttpExchangeProperties.@Nullable Download config) {
+        super(delegate);
+        this.restClientAdapter = restClientAdapter;
+        this.config = config != null ? config : new HttpExchangeProperties.Download();
+        this.segmentPermits = new Semaphore(Math.max(this.config.getMaxConcurrentSegments(), 1));
+    }
+
+    @Override
+    public void exchange(HttpRequestValues requestValues) {
+        Path target = getTargetFile(requestValues);
+        if (target == null) {
+            super.exchange(requestValues);
+            return;
+        }
+        download(requestValues, target);
+    }
+
+    @Override
+    public HttpHeaders exchangeForHeaders(HttpRequestValues requestValues) {
+        Path target = getTargetFile(requestValues);
+        if (target == null) {
+            return super.exchangeForHeaders(requestValues);
+        }
+        return download(requestValues, target).getHeaders();
+    }
+
+    @Override
+    public <T> @Nullable T exchangeForBody(HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+        Path target = getTargetFile(requestValues);
+        if (target == null) {
+            return super.exchangeForBody(requestValues, bodyType);
+        }
+        checkBodyType(bodyType);
+        @SuppressWarnings("unchecked")
+        T result = (T) download(requestValues, target).getBody();
+        return result;
+    }
+
+    @Override
+    public ResponseEntity<Void> exchangeForBodilessEntity(HttpRequestValues requestValues) {
+        Path target = getTargetFile(requestValues);
+        if (target == null) {
+            return super.exchangeForBodilessEntity(requestValues);
+        }
+        ResponseEntity<Path> entity = download(requestValues, target);
+        return new ResponseEntity<>(entity.getHeaders(), entity.getStatusCode());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> exchangeForEntity(
+            HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+        Path target = getTargetFile(requestValues);
+        if (target == null) {
+            return super.exchangeForEntity(requestValues, bodyType);
+        }
+        checkBodyType(bodyType);
+        return (ResponseEntity<T>) download(requestValues, target);
+    }
+
+    ResponseEntity<Path> download(HttpRequestValues requestValues, Path target) {
+        if (config.getParallelism() > 1
+                && requestValues.getHttpMethod() == HttpMethod.GET
+                && !requestValues.getHeaders().containsHeader(HttpHeaders.RANGE)) {
+            return rangedDownload(requestValues, target);
+        }
+        return streamDownload(requestValues, target);
+    }
+
+    private ResponseEntity<Path> streamDownload(HttpRequestValues requestValues, Path target) {
+        return restClientAdapter.newRequest(requestValues).exchangeForRequiredValue((request, response) -> {
+            if (response.getStatusCode().isError()) {
+                throw response.createException();
+            }
+            return writeResponse(response, target);
+        });
+    }
+
+    private ResponseEntity<Path> writeResponse(ClientHttpResponse response, Path target) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        checkSize(headers.getContentLength(), target);
+        try (InputStream body = response.getBody()) {
+            write(body, target, headers);
+        }
+        return new ResponseEntity<>(target, headers, response.getStatusCode());
+    }
+
+    /**
+     * Probe with {@code Range: bytes=0-0}, download the segments concurrently if ranges are supported,
+     * otherwise the probe response is the whole body.
+     */
+    private ResponseEntity<Path> rangedDownload(HttpRequestValues requestValues, Path target) {
+        Probe probe = restClientAdapter
+                .newRequest(requestValues)
+                .header(HttpHeaders.RANGE, "bytes=0-0")
+                .exchangeForRequiredValue((request, response) -> {
+                    HttpHeaders headers = response.getHeaders();
+                    if (response.getStatusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) {
+                        // Empty resource
+                        return new Probe(headers, -1, null);
+                    }
+                    if (response.getStatusCode().isError()) {
+                        throw response.createException();
+                    }
+                    if (response.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+                        // Ranges not supported, the response is the whole body
+                        return new Probe(headers, -1, writeResponse(response, target));
+                    }
+                    return new Probe(headers, getTotalSize(headers.getFirst(HttpHeaders.CONTENT_RANGE)), null);
+                });
+        if (probe.result() != null) {
+            return probe.result();
+        }
+
+        long totalSize = probe.totalSize();
+        long parts = Math.min(
+                config.getParallelism(), totalSize / config.getMinPartSize().toBytes());
+        if (parts <= 1) {
+            return streamDownload(requestValues, target);
+        }
+
+        checkSize(totalSize, target);
+        HttpHeaders headers = HttpHeaders.copyOf(probe.headers());
+        headers.remove(HttpHeaders.CONTENT_RANGE);
+        headers.setContentLength(totalSize);
+        try {
+            writeSegments(requestValues, target, headers, totalSize, (int) parts);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on ranged download to '" + target + "': " + e.getMessage(), e);
+        }
+        return new ResponseEntity<>(target, headers, HttpStatus.OK);
+    }
+
+    private void writeSegments(
+            HttpRequestValues requestValues, Path target, HttpHeaders headers, long totalSize, int parts)
+            throws IOException {
+        // Only the representation checksum applies to the whole resource, Content-MD5 of 206 is for the range
+        Checksum expected = config.isChecksumEnabled() ? Checksum.fromRepresentation(headers) : null;
+        // Make sure all segments are from the same version of the resource
+        String validator = getValidator(headers);
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, target.getFileName().toString(), ".part");
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(tmp.toFile(), "rw")) {
+                file.setLength(totalSize);
+                FileChannel channel = file.getChannel();
+
+                long partSize = (totalSize + parts - 1) / parts;
+                AtomicBoolean failed = new AtomicBoolean();
+                List<Supplier<?>> segments = new ArrayList<>(parts);
+                for (long start = 0; start < totalSize; start += partSize) {
+                    long first = start;
+                    long last = Math.min(start + partSize, totalSize) - 1;
+                    segments.add(() -> {
+                        try {
+                            downloadSegment(requestValues, channel, first, last, validator, failed);
+                        } catch (RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                        return null;
+                    });
+                }
+                // Don't cancel (interrupt) the other segments, they stop by checking the failure flag
+                ExchangeFanOut.of(segments).join().throwIfFailed();
+
+                if (expected != null) {
+                    expected.verify(digest(channel, totalSize, expected), target);
+                }
+            }
+            move(tmp, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /**
+     * Download bytes {@code [first, last]} into the file region, retry from the last received byte on failure.
+     *
+     * @param failed whether another segment failed, the segment is cancelled if so
+     */
+    private void downloadSegment(
+            HttpRequestValues requestValues,
+            FileChannel channel,
+            long first,
+            long last,
+            @Nullable String validator,
+            AtomicBoolean failed) {
+        acquireSegmentPermit();
+        try {
+            AtomicLong position = new AtomicLong(first);
+            for (int attempt = 0; ; attempt++) {
+                checkNotFailed(failed);
+                try {
+                    RestClient.RequestBodySpec spec = restClientAdapter
+                            .newRequest(requestValues)
+                            .header(HttpHeaders.RANGE, "bytes=" + position.get() + "-" + last);
+                    if (validator != null) {
+                        spec.header(HttpHeaders.IF_RANGE, validator);
+                    }
+                    spec.exchangeForRequiredValue((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            throw response.createException();
+                        }
+                        if (response.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+                            throw new RestClientException(
+                                    "Range request not honored or resource changed, expected status "
+                                            + HttpStatus.PARTIAL_CONTENT.value() + " but got "
+                                            + response.getStatusCode());
+                        }
+                        writeSegment(response.getBody(), channel, position, last, failed);
+                        return position.get();
+                    });
+                    return;
+                } catch (ResourceAccessException | HttpServerErrorException e) {
+                    if (attempt >= config.getSegmentRetries() || failed.get()) {
+                        throw e;
+                    }
+                    log.debug(
+                            "Segment bytes {}-{} failed (attempt {}), retrying from byte {}",
+                            first,
+                            last,
+                            attempt + 1,
+                            position.get(),
+                            e);
+                }
+            }
+        } finally {
+            segmentPermits.release();
+        }
+    }
+
+    /**
+     * Write the body to the file from {@code position} to {@code last}, the position is advanced as bytes are written.
+     */
+    private void writeSegment(
+            InputStream body, FileChannel channel, AtomicLong position, long last, AtomicBoolean failed)
+            throws IOException {
+        // The body is closed with the response, closing it earlier fails the draining of the connection on cancellation
+        ReadableByteChannel in = Channels.newChannel(body);
+        ByteBuffer buffer = acquireBuffer();
+        try {
+            while (position.get() <= last) {
+                checkNotFailed(failed);
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), last + 1 - position.get()));
+                if (in.read(buffer) == -1) {
+                    throw new EOFException("Premature end of range, expected bytes " + position.get() + "-" + last);
+                }
+                buffer.flip();
+                long offset = position.get();
+                while (buffer.hasRemaining()) {
+                    offset += channel.write(buffer, offset);
+                }
+                position.set(offset);
+            }
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private byte[] digest(FileChannel channel, long totalSize, Checksum expected) throws IOException {
+        MessageDigest digest = expected.newDigest();
+        ByteBuffer buffer = acquireBuffer();
+        try {
+            long position = 0;
+            while (position < totalSize) {
+                int n = channel.read(buffer, position);
+                if (n == -1) {
+                    break;
+                }
+                position += n;
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            releaseBuffer(buffer);
+        }
+        return digest.digest();
+    }
+
+    private void acquireSegmentPermit() {
+        try {
+            segmentPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a segment permit");
+        }
+    }
+
+    private static void checkNotFailed(AtomicBoolean failed) {
+        if (failed.get()) {
+            throw new CancellationException("Cancelled due to failure of another segment");
+        }
+    }
+
+    private void write(InputStream body, Path target, HttpHeaders headers) throws IOException {
+        Checksum expected = config.isChecksumEnabled() ? Checksum.from(headers) : null;
+        MessageDigest digest = expected != null ? expected.newDigest() : null;
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, target.getFileName().toString(), ".part");
+        ByteBuffer buffer = acquireBuffer();
+        try {
+            try (ReadableByteChannel in = Channels.newChannel(body);
+                    FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                long written = 0;
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    written += buffer.remaining();
+                    checkSize(written, target);
+                    if (digest != null) {
+                        digest.update(buffer.duplicate());
+                    }
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            if (expected != null && digest != null) {
+                expected.verify(digest.digest(), target);
+            }
+            move(tmp, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private void checkSize(long size, Path target) {
+        DataSize maxSize = config.getMaxSize();
+        if (maxSize != null && size > maxSize.toBytes()) {
+            throw new RestClientException("Response body for '" + target + "' exceeds max size " + maxSize
+                    + ", got at least " + size + " bytes");
+        }
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null
+                ? buffer
+                : ByteBuffer.allocateDirect((int) config.getBufferSize().toBytes());
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Get the total size from {@code Content-Range} header, e.g. {@code bytes 0-0/1024}.
+     *
+     * @return total size, or -1 if unknown
+     */
+    static long getTotalSize(@Nullable String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return -1;
+        }
+        int idx = contentRange.lastIndexOf('/');
+        if (idx < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(idx + 1).trim());
+        } catch (NumberFormatException e) {
+            // '*' means unknown
+            return -1;
+        }
+    }
+
+    @Nullable
+    private static String getValidator(HttpHeaders headers) {
+        String etag = headers.getFirst(HttpHeaders.ETAG);
+        // If-Range requires a strong validator
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+    @Nullable
+    static Path getTargetFile(HttpRequestValues requestValues) {
+        return (Path) requestValues.getAttributes().get(TARGET_FILE_ATTRIBUTE);
+    }
+
+    private static void checkBodyType(ParameterizedTypeReference<?> bodyType) {
+        Class<?> clz = ResolvableType.forType(bodyType).resolve();
+        if (clz == null || !clz.isAssignableFrom(Path.class)) {
+            throw new IllegalStateException(
+                    "Method with @TargetFile argument must return Path, ResponseEntity<Path> or void, but got "
+                            + bodyType.getType());
+        }
+    }
+
+    /**
+     * @param headers   probe response headers
+     * @param totalSize total size of the resource, -1 if ranges are not supported
+     * @param result    download result if ranges are not supported
+     */
+    private record Probe(
+            HttpHeaders headers, long totalSize, @Nullable ResponseEntity<Path> result) {}
+
+    /**
+     * @param algorithm header algorithm name, e.g. {@code sha-256}
+     * @param value     expected digest
+     */
+    record Checksum(String algorithm, byte[] value) {
+
+        /**
+         * Get the expected checksum from {@code Repr-Digest}, {@code Digest} or {@code Content-MD5} header.
+         *
+         * @param headers response headers
+         * @return expected checksum, or null if no supported checksum header
+         */
+        @Nullable
+        static Checksum from(HttpHeaders headers) {
+            Checksum checksum = fromRepresentation(headers);
+            if (checksum != null) {
+                return checksum;
+            }
+            String md5 = headers.getFirst(CONTENT_MD5);
+            return md5 != null ? decode("md5", md5) : null;
+        }
+
+        /**
+         * Get the expected checksum of the whole representation from {@code Repr-Digest} or {@code Digest} header.
+         *
+         * @param headers response headers
+         * @return expected checksum, or null if no supported checksum header
+         */
+        @Nullable
+        static Checksum fromRepresentation(HttpHeaders headers) {
+            // RFC 9530, e.g. Repr-Digest: sha-256=:X48E9qOokqqrvdts8nOJRJN3OWDUoyWxBf7kbu9DBPE=:
+            Checksum checksum = parse(headers.getValuesAsList(REPR_DIGEST), true);
+            if (checksum != null) {
+                return checksum;
+            }
+            // RFC 3230, e.g. Digest: SHA-256=X48E9qOokqqrvdts8nOJRJN3OWDUoyWxBf7kbu9DBPE=
+            return parse(headers.getValuesAsList(DIGEST), false);
+        }
+
+        @Nullable
+        private static Checksum parse(List<String> entries, boolean structured) {
+            for (String entry : entries) {
+                int idx = entry.indexOf('=');
+                if (idx <= 0) {
+                    continue;
+                }
+                String algorithm = entry.substring(0, idx).trim().toLowerCase(Locale.ROOT);
+                String value = entry.substring(idx + 1).trim();
+                if (structured && value.length() >= 2 && value.startsWith(":") && value.endsWith(":")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                Checksum checksum = decode(algorithm, value);
+                if (checksum != null) {
+                    return checksum;
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        private static Checksum decode(String algorithm, String value) {
+            if (!DIGEST_ALGORITHMS.containsKey(algorithm)) {
+                return null;
+            }
+            try {
+                return new Checksum(algorithm, Base64.getDecoder().decode(value));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance(DIGEST_ALGORITHMS.get(algorithm));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void verify(byte[] actual, Path target) {
+            if (!MessageDigest.isEqual(value, actual)) {
+                throw new RestClientException("Checksum mismatch for '" + target + "', expected " + algorithm + "="
+                        + Base64.getEncoder().encodeToString(value) + ", actual "
+                        + Base64.getEncoder().encodeToString(actual));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpStatusCode;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Cloud LoadBalancer implementation of {@link HttpExchangeProperties.LoadBalancing.Strategy#EWMA}.
+ *
+ * <p> Chooses the instance with lower {@link PeakEwma peak EWMA} response time multiplied by outstanding requests
+ * of two random instances (power of two choices).
+ * The response time of each instance is recorded by the {@link LoadBalancerLifecycle} callbacks,
+ * which are invoked by the Spring Cloud load balanced {@code RestClient} and {@code WebClient}.
+ *
+ * <p> Use {@link EwmaLoadBalancerConfiguration} to enable it:
+ *
+ * <pre>{@code
+ * @LoadBalancerClients(defaultConfiguration = EwmaLoadBalancerConfiguration.class)
+ * }</pre>
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+public final class EwmaLoadBalancer
+        implements ReactorServiceInstanceLoadBalancer, LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final Map<String, PeakEwma> loads = new ConcurrentHashMap<>();
+
+    /**
+     * @param serviceInstanceListSupplierProvider provider of the instances
+     * @param serviceId                           service id
+     * @param decay                               decay time of the response time average
+     * @param failurePenalty                      min response time recorded for a failed request
+     */
+    public EwmaLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+            String serviceId,
+            Duration decay,
+            Duration failurePenalty) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // Overrides ReactiveLoadBalancer#choose, which declares a raw Request parameter
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+                serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            ServiceInstance chosen = choose(instances);
+            if (chosen == null) {
+                return new EmptyResponse();
+            }
+            if (supplier instanceof SelectedInstanceCallback callback) {
+                callback.selectedServiceInstance(chosen);
+            }
+            return new DefaultResponse(chosen);
+        });
+    }
+
+    @Nullable
+    ServiceInstance choose(List<ServiceInstance> instances) {
+        int size = instances.size();
+        if (size == 0) {
+            return null;
+        }
+        if (loads.size() > size * 2) {
+            evict(instances);
+        }
+        if (size == 1) {
+            return instances.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return getLoad(a).score() <= getLoad(b).score() ? a : b;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // Overrides LoadBalancerLifecycle#supports, which declares raw Class parameters
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {}
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer() && request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(getLoad(lbResponse.getServer()).start());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null
+                || !lbResponse.hasServer()
+                || !(completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context)) {
+            return;
+        }
+        getLoad(lbResponse.getServer()).end(context.getRequestStartTime(), isSuccess(completionContext));
+    }
+
+    private static boolean isSuccess(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() != CompletionContext.Status.SUCCESS) {
+            return false;
+        }
+        if (!(completionContext.getClientResponse() instanceof ResponseData response)) {
+            return true;
+        }
+        HttpStatusCode status = response.getHttpStatus();
+        return status == null || !status.is5xxServerError();
+    }
+
+    private PeakEwma getLoad(ServiceInstance instance) {
+        return loads.computeIfAbsent(getKey(instance), k -> new PeakEwma(decayNanos, failurePenaltyNanos));
+    }
+
+    private void evict(List<ServiceInstance> instances) {
+        Set<String> keys = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            keys.add(getKey(instance));
+        }
+        loads.keySet().retainAll(keys);
+    }
+
+    private static String getKey(ServiceInstance instance) {
+        String instanceId = instance.getInstanceId();
+        return instanceId != null ? instanceId : instance.getHost() + ":" + instance.getPort();
+    }
+}
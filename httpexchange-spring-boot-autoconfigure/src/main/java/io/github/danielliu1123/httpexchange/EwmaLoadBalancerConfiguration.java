@@ -0,0 +1,41 @@
+package io.github.danielliu1123.httpexchange;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Spring Cloud LoadBalancer client configuration that registers {@link EwmaLoadBalancer}.
+ *
+ * <p> Not annotated with {@code @Configuration}, use it as the configuration of
+ * {@code @LoadBalancerClient} or {@code @LoadBalancerClients}:
+ *
+ * <pre>{@code
+ * @LoadBalancerClients(defaultConfiguration = EwmaLoadBalancerConfiguration.class)
+ * }</pre>
+ *
+ * <p> The decay time and failure penalty are read from {@code http-exchange.load-balancing}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+public class EwmaLoadBalancerConfiguration {
+
+    /**
+     * The return type must be {@link EwmaLoadBalancer},
+     * so it is also found as a {@code LoadBalancerLifecycle} before it is instantiated.
+     */
+    @Bean
+    public EwmaLoadBalancer ewmaLoadBalancer(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        HttpExchangeProperties.LoadBalancing properties =
+                Util.getProperties(environment).getLoadBalancing();
+        return new EwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                properties.getEwmaDecay(),
+                properties.getEwmaFailurePenalty());
+    }
+}
@@ -0,0 +1,453 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * State of an exchange client method call, shared by {@link ExchangeMetrics}, {@link ExchangeEvent} and {@link SlowCallLogger}.
+ *
+ * <p> The call is attached to the request by {@link #attach}, the request line, response status and timings are captured by
+ * a {@link ClientHttpRequestFactory} decorator (for {@code RestClient}) or an {@link ExchangeFilterFunction}
+ * (for {@code WebClient}). The body size is only counted if {@link #isCountBytes()}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class ExchangeCall {
+
+    private static final String CALL_ATTRIBUTE = ExchangeCall.class.getName();
+
+    private static final ThreadLocal<@Nullable ExchangeCall> current = new ThreadLocal<>();
+
+    /**
+     * Start of the {@link ExchangeFanOut} branch running on the current thread.
+     */
+    private static final ThreadLocal<@Nullable Long> fanOutStart = new ThreadLocal<>();
+
+    private final String channel;
+    private final Class<?> client;
+    private final Method method;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final long branchStart;
+
+    private volatile long start = System.nanoTime();
+    private volatile long requestStart;
+    private volatile long responseStart;
+    private volatile int status;
+    private volatile @Nullable HttpMethod httpMethod;
+    private volatile @Nullable URI uri;
+    private volatile boolean countBytes;
+    private volatile @Nullable Throwable error;
+    private volatile @Nullable ExchangeEvent event;
+
+    ExchangeCall(String channel, Class<?> client, Method method) {
+        this.channel = channel;
+        this.client = client;
+        this.method = method;
+        Long start = fanOutStart.get();
+        this.branchStart = start != null ? start : 0;
+    }
+
+    @Nullable
+    static ExchangeCall current() {
+        return current.get();
+    }
+
+    static void setCurrent(@Nullable ExchangeCall call) {
+        if (call != null) {
+            current.set(call);
+        } else {
+            current.remove();
+        }
+    }
+
+    /**
+     * @return start of the {@link ExchangeFanOut} branch running on the current thread, {@code 0} if none
+     */
+    static long getFanOutStart() {
+        Long start = fanOutStart.get();
+        return start != null ? start : 0;
+    }
+
+    /**
+     * Mark the calls created on the current thread as part of an {@link ExchangeFanOut} branch.
+     *
+     * @param start start of the branch, {@code 0} to clear
+     */
+    static void setFanOutStart(long start) {
+        if (start != 0) {
+            fanOutStart.set(start);
+        } else {
+            fanOutStart.remove();
+        }
+    }
+
+    /**
+     * {@link HttpRequestValues.Processor} that attaches the current call to the request.
+     */
+    static void attach(
+            Method method,
+            MethodParameter[] parameters,
+            @Nullable Object[] arguments,
+            HttpRequestValues.Builder requestValues) {
+        ExchangeCall call = current.get();
+        if (call != null) {
+            requestValues.addAttribute(CALL_ATTRIBUTE, call);
+        }
+    }
+
+    static ClientHttpRequestFactory decorate(ClientHttpRequestFactory requestFactory) {
+        return (uri, httpMethod) -> new CallCapturingClientHttpRequest(requestFactory.createRequest(uri, httpMethod));
+    }
+
+    static ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            if (!(request.attribute(CALL_ATTRIBUTE).orElse(null) instanceof ExchangeCall call)) {
+                return next.exchange(request);
+            }
+            ClientRequest actual = call.isCountBytes() ? countBytesOut(request, call) : request;
+            return Mono.defer(() -> {
+                        call.httpMethod = request.method();
+                        call.uri = request.url();
+                        call.requestStart = System.nanoTime();
+                        return next.exchange(actual);
+                    })
+                    .map(response -> {
+                        call.responseStart = System.nanoTime();
+                        call.status = response.statusCode().value();
+                        if (!call.isCountBytes()) {
+                            return response;
+                        }
+                        return response.mutate()
+                                .body(body ->
+                                        body.doOnNext(buffer -> call.bytesIn.addAndGet(buffer.readableByteCount())))
+                                .build();
+                    });
+        };
+    }
+
+    private static ClientRequest countBytesOut(ClientRequest request, ExchangeCall call) {
+        BodyInserter<?, ? super org.springframework.http.client.reactive.ClientHttpRequest> body = request.body();
+        return ClientRequest.from(request)
+                .body((outputMessage, context) -> body.insert(
+                        new ClientHttpRequestDecorator(outputMessage) {
+                            @Override
+                            public Mono<Void> writeWith(Publisher<? extends DataBuffer> publisher) {
+                                return super.writeWith(Flux.from(publisher)
+                                        .doOnNext(buffer -> call.bytesOut.addAndGet(buffer.readableByteCount())));
+                            }
+                        },
+                        context))
+                .build();
+    }
+
+    /**
+     * Reset the state, a reactive call sends the request on each subscription.
+     */
+    void restart() {
+        start = System.nanoTime();
+        requestStart = 0;
+        responseStart = 0;
+        status = 0;
+        httpMethod = null;
+        uri = null;
+        bytesOut.set(0);
+        bytesIn.set(0);
+        error = null;
+        completed.set(false);
+        ExchangeEvent e = event;
+        if (e != null) {
+            e.begin();
+        }
+    }
+
+    /**
+     * @return {@code true} for the first completion since the call started
+     */
+    boolean complete() {
+        return completed.compareAndSet(false, true);
+    }
+
+    /**
+     * @return whether to count the request and response body size
+     */
+    boolean isCountBytes() {
+        return countBytes;
+    }
+
+    void setCountBytes(boolean countBytes) {
+        this.countBytes = countBytes;
+    }
+
+    String getChannel() {
+        return channel;
+    }
+
+    Class<?> getClient() {
+        return client;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @return start of the {@link ExchangeFanOut} branch that made the call, {@code 0} if not made in a fan-out
+     */
+    long getBranchStart() {
+        return branchStart;
+    }
+
+    /**
+     * @return when the request is handed to the http client, {@code 0} if the request is not sent
+     */
+    long getRequestStart() {
+        return requestStart;
+    }
+
+    /**
+     * @return when the response headers are received, {@code 0} if no response
+     */
+    long getResponseStart() {
+        return responseStart;
+    }
+
+    /**
+     * @return the http method of the last request, {@code null} if the request is not sent
+     */
+    @Nullable
+    HttpMethod getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * @return the URI of the last request, {@code null} if the request is not sent
+     */
+    @Nullable
+    URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return the status of the last response, {@code 0} if no response
+     */
+    int getStatus() {
+        return status;
+    }
+
+    long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    @Nullable
+    Throwable getError() {
+        return error;
+    }
+
+    void setError(@Nullable Throwable error) {
+        this.error = error;
+    }
+
+    @Nullable
+    ExchangeEvent getEvent() {
+        return event;
+    }
+
+    void setEvent(@Nullable ExchangeEvent event) {
+        this.event = event;
+    }
+
+    private static final class CallCapturingClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+
+        private CallCapturingClientHttpRequest(ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return delegate.getAttributes();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            ExchangeCall call = getCall();
+            return call != null && call.isCountBytes()
+                    ? new CountingOutputStream(delegate.getBody(), call)
+                    : delegate.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            ExchangeCall call = getCall();
+            Body actual = call != null && call.isCountBytes()
+                    ? outputStream -> body.writeTo(new CountingOutputStream(outputStream, call))
+                    : body;
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(actual);
+                return;
+            }
+            try {
+                actual.writeTo(delegate.getBody());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ExchangeCall call = getCall();
+            if (call == null) {
+                return delegate.execute();
+            }
+            call.httpMethod = delegate.getMethod();
+            call.uri = delegate.getURI();
+            call.requestStart = System.nanoTime();
+            ClientHttpResponse response = delegate.execute();
+            call.responseStart = System.nanoTime();
+            call.status = response.getStatusCode().value();
+            return call.isCountBytes() ? new CountingClientHttpResponse(response, call) : response;
+        }
+
+        @Nullable
+        private ExchangeCall getCall() {
+            return getAttributes().get(CALL_ATTRIBUTE) instanceof ExchangeCall call ? call : null;
+        }
+    }
+
+    private static final class CountingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ExchangeCall call;
+
+        private @Nullable InputStream body;
+
+        private CountingClientHttpResponse(ClientHttpResponse delegate, ExchangeCall call) {
+            this.delegate = delegate;
+            this.call = call;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream result = body;
+            if (result == null) {
+                result = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            call.bytesIn.incrementAndGet();
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] bytes, int off, int len) throws IOException {
+                        int n = super.read(bytes, off, len);
+                        if (n > 0) {
+                            call.bytesIn.addAndGet(n);
+                        }
+                        return n;
+                    }
+                };
+                body = result;
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final ExchangeCall call;
+
+        private CountingOutputStream(OutputStream out, ExchangeCall call) {
+            super(out);
+            this.call = call;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            call.bytesOut.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            call.bytesOut.addAndGet(len);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.service.annotation.HttpExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link MethodInterceptor} of the client proxy that tracks each call as an {@link ExchangeCall},
+ * then records it to {@link ExchangeMetrics}, {@link ExchangeEvent} and {@link SlowCallLogger}.
+ *
+ * <p> Calls are not tracked if metrics and slow call log are not enabled
+ * and the JFR event is not enabled in a running recording.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class ExchangeCallInterceptor implements MethodInterceptor {
+
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Flux", ExchangeCallInterceptor.class.getClassLoader());
+
+    private final String channel;
+    private final Class<?> client;
+    private final @Nullable ExchangeMetrics metrics;
+    private final boolean jfrEnabled;
+    private final @Nullable SlowCallLogger slowCallLogger;
+    private final Map<Method, Optional<String>> uriTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * @param channel        channel name
+     * @param client         the {@link HttpExchange} interface
+     * @param metrics        the metrics to record to, {@code null} if metrics are not enabled
+     * @param jfrEnabled     whether to emit {@link ExchangeEvent}
+     * @param slowCallLogger the slow call logger of the channel, {@code null} if slow call log is not enabled
+     */
+    ExchangeCallInterceptor(
+            String channel,
+            Class<?> client,
+            @Nullable ExchangeMetrics metrics,
+            boolean jfrEnabled,
+            @Nullable SlowCallLogger slowCallLogger) {
+        this.channel = channel;
+        this.client = client;
+        this.metrics = metrics;
+        this.jfrEnabled = jfrEnabled;
+        this.slowCallLogger = slowCallLogger;
+    }
+
+    @Override
+    public @Nullable Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.isDefault() || ReflectionUtils.isObjectMethod(method)) {
+            return invocation.proceed();
+        }
+
+        ExchangeEvent event = jfrEnabled ? ExchangeEvent.start() : null;
+        if (metrics == null && event == null && slowCallLogger == null) {
+            return invocation.proceed();
+        }
+
+        ExchangeCall call = new ExchangeCall(channel, client, method);
+        call.setEvent(event);
+        call.setCountBytes(event != null || slowCallLogger != null);
+        ExchangeCall previous = ExchangeCall.current();
+        ExchangeCall.setCurrent(call);
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            call.setError(e);
+            complete(call);
+            throw e;
+        } finally {
+            ExchangeCall.setCurrent(previous);
+        }
+
+        if (REACTOR_PRESENT && ReactorDelegate.isReactive(result)) {
+            return ReactorDelegate.track(result, call, this::complete);
+        }
+        if (result instanceof CompletionStage<?> stage) {
+            return stage.whenComplete((value, error) -> {
+                call.setError(error);
+                complete(call);
+            });
+        }
+        complete(call);
+        return result;
+    }
+
+    private void complete(ExchangeCall call) {
+        if (!call.complete()) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.record(call);
+        }
+        if (slowCallLogger != null) {
+            slowCallLogger.record(call);
+        }
+        ExchangeEvent event = call.getEvent();
+        if (event != null) {
+            event.complete(call, uriTemplate(call.getMethod()));
+        }
+    }
+
+    @Nullable
+    private String uriTemplate(Method method) {
+        return uriTemplates
+                .computeIfAbsent(method, m -> {
+                    HttpExchange typeExchange = AnnotatedElementUtils.findMergedAnnotation(client, HttpExchange.class);
+                    HttpExchange methodExchange = AnnotatedElementUtils.findMergedAnnotation(m, HttpExchange.class);
+                    String typeUrl = typeExchange != null ? typeExchange.url() : "";
+                    String methodUrl = methodExchange != null ? methodExchange.url() : "";
+                    if (!StringUtils.hasText(typeUrl)) {
+                        return Optional.of(methodUrl).filter(StringUtils::hasText);
+                    }
+                    if (!StringUtils.hasText(methodUrl)) {
+                        return Optional.of(typeUrl);
+                    }
+                    boolean slash = !typeUrl.endsWith("/") && !methodUrl.startsWith("/");
+                    return Optional.of(typeUrl + (slash ? "/" : "") + methodUrl);
+                })
+                .orElse(null);
+    }
+
+    private static final class ReactorDelegate {
+
+        static boolean isReactive(@Nullable Object result) {
+            return result instanceof Mono<?> || result instanceof Flux<?>;
+        }
+
+        static Object track(Object result, ExchangeCall call, Consumer<ExchangeCall> completer) {
+            // The request is sent on subscription, complete before the terminal signal is propagated downstream
+            if (result instanceof Mono<?> mono) {
+                return Mono.defer(() -> {
+                            call.restart();
+                            return mono;
+                        })
+                        .doOnSuccess(value -> completer.accept(call))
+                        .doOnError(e -> {
+                            call.setError(e);
+                            completer.accept(call);
+                        })
+                        .doOnCancel(() -> completer.accept(call));
+            }
+            return Flux.defer(() -> {
+                        call.restart();
+                        return (Flux<?>) result;
+                    })
+                    .doOnComplete(() -> completer.accept(call))
+                    .doOnError(e -> {
+                        call.setError(e);
+                        completer.accept(call);
+                    })
+                    .doOnCancel(() -> completer.accept(call));
+        }
+    }
+}
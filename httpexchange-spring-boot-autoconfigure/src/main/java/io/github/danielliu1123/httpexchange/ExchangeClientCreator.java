@@ -1,5 +1,6 @@
 package io.github.danielliu1123.httpexchange;
 
+import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.ClientType.LOCAL;
 import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.ClientType.REST_CLIENT;
 import static io.github.danielliu1123.httpexchange.HttpExchangeProperties.ClientType.WEB_CLIENT;
 import static io.github.danielliu1123.httpexchange.Util.isHttpExchangeInterface;
@@ -7,13 +8,16 @@ import static io.github.danielliu1123.httpexchange.Util.isHttpExchangeInterface;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.jspecify.annotations.Nullable;
@@ -32,7 +36,12 @@ import org.springframework.cloud.client.loadbalancer.reactive.DeferringLoadBalan
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
@@ -45,8 +54,10 @@ import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.support.WebClientAdapter;
 import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.invoker.HttpExchangeAdapter;
 import org.springframework.web.service.invoker.HttpServiceArgumentResolver;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import org.springframework.web.service.invoker.ReactorHttpExchangeAdapter;
 
 /**
  * @author Freeman
@@ -54,6 +65,8 @@ import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 class ExchangeClientCreator {
     private static final Logger log = LoggerFactory.getLogger(ExchangeClientCreator.class);
 
+    private static final String ZONE_PROPERTY = "spring.cloud.loadbalancer.zone";
+
     private static final boolean LOADBALANCER_PRESENT =
             ClassUtils.isPresent("org.springframework.cloud.client.loadbalancer.LoadBalancerClient", null);
     private static final boolean DEFERRING_LOADBALANCER_INTERCEPTOR_PRESENT = ClassUtils.isPresent(
@@ -62,6 +75,10 @@ class ExchangeClientCreator {
             ClassUtils.isPresent("org.springframework.boot.restclient.RestClientCustomizer", null);
     private static final boolean springBootStarterWebClientPresent =
             ClassUtils.isPresent("org.springframework.boot.webclient.WebClientCustomizer", null);
+    private static final boolean JACKSON_PRESENT = ClassUtils.isPresent("tools.jackson.databind.json.JsonMapper", null);
+    private static final boolean MICROMETER_PRESENT =
+            ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", null);
+    private static final boolean JFR_PRESENT = ClassUtils.isPresent("jdk.jfr.Event", null);
 
     private static final Field customArgumentResolversField;
     private static final Field embeddedValueResolverField;
@@ -78,12 +95,26 @@ class ExchangeClientCreator {
 
     private final BeanFactory beanFactory;
     private final Environment environment;
+    private final ApplicationStartup applicationStartup;
     private final Class<?> clientType;
 
+    /**
+     * The http client retained by the client being created, see {@link #getClient}.
+     */
+    @Nullable
+    private SharedHttpClient httpClient;
+
+    /**
+     * Resolved once per creator, see {@link #getProperties}.
+     */
+    @Nullable
+    private HttpExchangeProperties properties;
+
     @SuppressFBWarnings("CT_CONSTRUCTOR_THROW")
     public ExchangeClientCreator(BeanFactory beanFactory, Class<?> clientType) {
         this.beanFactory = beanFactory;
         this.environment = beanFactory.getBean(Environment.class);
+        this.applicationStartup = Util.getApplicationStartup(beanFactory);
 
         Assert.isTrue(clientType.isInterface(), () -> clientType + " is not an interface");
         this.clientType = clientType;
@@ -99,18 +130,79 @@ class ExchangeClientCreator {
      */
     @SuppressWarnings("unchecked")
     public <T> T create() {
-        HttpExchangeProperties properties = beanFactory
-                .getBeanProvider(HttpExchangeProperties.class)
-                .getIfUnique(() -> Util.getProperties(environment));
-        HttpExchangeProperties.Channel chan = getMatchedConfig(clientType, properties);
-        HttpServiceProxyFactory factory = factoryBuilder(chan).build();
-        T result = (T) factory.createClient(clientType);
-        Cache.addClient(result);
+        StartupStep step = applicationStartup
+                .start(Util.STARTUP_STEP_PREFIX + "client.create")
+                .tag("client", clientType.getName());
+        try {
+            HttpExchangeProperties.Channel chan = getMatchedConfig(clientType, getProperties());
+            // The generated async variant uses the client type of the original interface
+            Class<?> syncVariant = Util.getSyncVariant(clientType);
+            Class<?> typeSource = syncVariant != null ? syncVariant : clientType;
+            if (chan.getClientType() == LOCAL) {
+                T local = createLocalClient(chan, typeSource);
+                if (local != null) {
+                    step.tag("channel", getChannelName(chan)).tag("clientType", LOCAL.name());
+                    Cache.addClient(local);
+                    Cache.addClientId(clientType, Cache.ClientId.of(chan, LOCAL));
+                    return local;
+                }
+            }
+            HttpExchangeProperties.ClientType type = getClientType(chan, typeSource);
+            step.tag("channel", getChannelName(chan)).tag("clientType", type.name());
+            // Blocking clients can't adapt the async return types, the async variant invokes the original interface
+            Class<?> serviceType = type == WEB_CLIENT ? clientType : typeSource;
+            httpClient = null;
+            T result;
+            try {
+                HttpServiceProxyFactory factory = factoryBuilder(chan, type, serviceType).build();
+                Object client = factory.createClient(serviceType);
+                result = (T)
+                        (serviceType == clientType
+                                ? client
+                                : AsyncVariantClient.create(clientType, serviceType, client));
+            } catch (RuntimeException e) {
+                releaseHttpClient();
+                throw e;
+            }
+            var retained = httpClient;
+            if (retained != null) {
+                // Released when the client is destroyed, e.g. refreshed
+                Cache.addClient(result, retained);
+            } else {
+                Cache.addClient(result);
+            }
+            Cache.addClientId(clientType, Cache.ClientId.of(chan, type));
+            return result;
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * @return the client invoking the implementation in the context directly, {@code null} if there is no implementation
+     */
+    @Nullable
+    private <T> T createLocalClient(HttpExchangeProperties.Channel channelConfig, Class<?> serviceType) {
+        String implementation = LocalExchangeClient.findImplementation(beanFactory, serviceType);
+        if (implementation == null) {
+            log.debug("No implementation of {} found for client-type LOCAL, use HTTP", serviceType.getName());
+            return null;
+        }
+        var local = channelConfig.getLocal() != null ? channelConfig.getLocal() : new HttpExchangeProperties.Local();
+        if (local.isSerializationEnabled() && !JACKSON_PRESENT) {
+            throw new IllegalStateException(
+                    "Serialization of client-type LOCAL requires Jackson on the classpath: " + clientType);
+        }
+        Object client = LocalExchangeClient.create(serviceType, implementation, beanFactory, local);
+        @SuppressWarnings("unchecked")
+        T result =
+                (T) (serviceType == clientType ? client : AsyncVariantClient.create(clientType, serviceType, client));
         return result;
     }
 
     private HttpExchangeProperties.Channel getMatchedConfig(Class<?> clientType, HttpExchangeProperties properties) {
-        List<HttpExchangeProperties.Channel> matchedConfigs = Util.findMatchedConfigs(clientType, properties);
+        List<HttpExchangeProperties.Channel> matchedConfigs =
+                Util.findMatchedConfigs(clientType, properties, applicationStartup);
         if (matchedConfigs.isEmpty()) {
             return properties.defaultChannel();
         }
@@ -129,7 +221,10 @@ class ExchangeClientCreator {
         return matchedConfigs.get(0);
     }
 
-    private HttpServiceProxyFactory.Builder factoryBuilder(HttpExchangeProperties.Channel channelConfig) {
+    private HttpServiceProxyFactory.Builder factoryBuilder(
+            HttpExchangeProperties.Channel channelConfig,
+            HttpExchangeProperties.ClientType type,
+            Class<?> serviceType) {
         HttpServiceProxyFactory.Builder builder = HttpServiceProxyFactory.builder();
 
         beanFactory
@@ -137,7 +232,15 @@ class ExchangeClientCreator {
                 .orderedStream()
                 .forEach(customizer -> customizer.customize(builder));
 
-        setExchangeAdapter(builder, channelConfig);
+        setExchangeAdapter(builder, channelConfig, type, serviceType);
+
+        addPaginationSupport(builder, serviceType);
+
+        addCodecSupport(builder, channelConfig);
+
+        addRoutingKeySupport(builder, channelConfig);
+
+        addMetricsSupport(builder, channelConfig);
 
         setEmbeddedValueResolver(builder);
 
@@ -147,22 +250,183 @@ class ExchangeClientCreator {
     }
 
     private void setExchangeAdapter(
-            HttpServiceProxyFactory.Builder builder, HttpExchangeProperties.Channel channelConfig) {
-        switch (getClientType(channelConfig)) {
-            case REST_CLIENT ->
-                builder.exchangeAdapter(RestClientAdapter.create(getClient(
-                        new Cache.ClientId(channelConfig, REST_CLIENT), () -> buildRestClient(channelConfig))));
+            HttpServiceProxyFactory.Builder builder,
+            HttpExchangeProperties.Channel channelConfig,
+            HttpExchangeProperties.ClientType type,
+            Class<?> serviceType) {
+        switch (type) {
+            case REST_CLIENT -> {
+                RestClient restClient =
+                        getClient(channelConfig, REST_CLIENT, resources -> buildRestClient(channelConfig, resources));
+                if (isPrecomputeJsonEnabled(channelConfig)) {
+                    // Precompute Jackson reader/writer for the body types of this client, the http client is shared
+                    restClient = PrecomputedJsonHttpMessageConverter.apply(restClient, serviceType, beanFactory);
+                }
+                RestClientAdapter restClientAdapter = RestClientAdapter.create(restClient);
+                // Support @TargetFile, write response body to file
+                HttpExchangeAdapter adapter = new DownloadExchangeAdapterDecorator(
+                        restClientAdapter, restClientAdapter, channelConfig.getDownload());
+                if (JACKSON_PRESENT) {
+                    // Support Stream/Iterator/Iterable return types, parse response body incrementally
+                    adapter = StreamingExchangeAdapterDecorator.create(adapter, restClientAdapter, beanFactory);
+                }
+                builder.exchangeAdapter(adapter);
+            }
             case WEB_CLIENT ->
                 builder.exchangeAdapter(WebClientAdapter.create(
-                        getClient(new Cache.ClientId(channelConfig, WEB_CLIENT), () -> buildWebClient(channelConfig))));
+                        getClient(channelConfig, WEB_CLIENT, resources -> buildWebClient(channelConfig, resources))));
             default -> throw new IllegalStateException("Unsupported client-type: " + channelConfig.getClientType());
         }
     }
 
-    private static <T> T getClient(Cache.ClientId clientId, Supplier<T> supplier) {
-        return Boolean.TRUE.equals(clientId.channel().getHttpClientReuseEnabled())
-                ? Cache.getHttpClient(clientId, supplier)
-                : supplier.get();
+    private void addPaginationSupport(HttpServiceProxyFactory.Builder builder, Class<?> serviceType) {
+        if (!hasPaginatedMethod(serviceType)) {
+            return;
+        }
+        if (!JACKSON_PRESENT) {
+            throw new IllegalStateException("@Paginated methods require Jackson on the classpath: " + serviceType);
+        }
+        // Fetch pages by invoking the method again, decode each page as JSON tree
+        PaginatedMethodInterceptor interceptor = PaginatedMethodInterceptor.create(beanFactory, serviceType);
+        builder.exchangeAdapterDecorator(adapter -> adapter instanceof ReactorHttpExchangeAdapter
+                ? new PaginatedExchangeAdapterDecorator.Reactive(adapter)
+                : new PaginatedExchangeAdapterDecorator(adapter));
+        builder.httpRequestValuesProcessor(PaginatedMethodInterceptor::markPageRequest);
+        builder.proxyFactoryCustomizer((proxyFactory, type) -> proxyFactory.addAdvice(0, interceptor));
+    }
+
+    private static void addCodecSupport(
+            HttpServiceProxyFactory.Builder builder, HttpExchangeProperties.Channel channelConfig) {
+        var codec = channelConfig.getCodec();
+        if (codec == null || codec == HttpExchangeProperties.Codec.JSON) {
+            return;
+        }
+        // The Accept header of the channel takes precedence
+        boolean hasAccept = channelConfig.getHeaders().stream()
+                .anyMatch(header -> HttpHeaders.ACCEPT.equalsIgnoreCase(header.key()));
+        if (!hasAccept) {
+            builder.httpRequestValuesProcessor(ExchangeCodecs.acceptProcessor(codec));
+        }
+    }
+
+    private static void addRoutingKeySupport(
+            HttpServiceProxyFactory.Builder builder, HttpExchangeProperties.Channel channelConfig) {
+        // Only channels with base urls are load balanced by ExchangeLoadBalancer
+        if (channelConfig.getBaseUrls().size() > 1) {
+            builder.httpRequestValuesProcessor(RoutingKeyProcessor.INSTANCE);
+        }
+    }
+
+    private void addMetricsSupport(
+            HttpServiceProxyFactory.Builder builder, HttpExchangeProperties.Channel channelConfig) {
+        if (!isCallTracked(channelConfig)) {
+            return;
+        }
+        // Track each call on the proxy, the response status is captured by the http client
+        ExchangeMetrics metrics = getMetrics();
+        boolean jfrEnabled = isJfrEnabled();
+        SlowCallLogger slowCallLogger = getSlowCallLogger(channelConfig);
+        String channel = getChannelName(channelConfig);
+        builder.httpRequestValuesProcessor(ExchangeCall::attach);
+        // Right before the HttpServiceMethodInterceptor (the last one), so each page of @Paginated methods is tracked
+        builder.proxyFactoryCustomizer((proxyFactory, serviceType) -> proxyFactory.addAdvice(
+                proxyFactory.getAdvisorCount() - 1,
+                new ExchangeCallInterceptor(channel, serviceType, metrics, jfrEnabled, slowCallLogger)));
+    }
+
+    /**
+     * @return whether calls are tracked as {@link ExchangeCall}, for metrics, JFR events or slow call log
+     */
+    private boolean isCallTracked(HttpExchangeProperties.Channel channelConfig) {
+        return getMetrics() != null || isJfrEnabled() || getSlowCallLogger(channelConfig) != null;
+    }
+
+    /**
+     * @return the {@link SlowCallLogger} of the channel, {@code null} if slow call log is not enabled
+     */
+    @Nullable
+    private static SlowCallLogger getSlowCallLogger(HttpExchangeProperties.Channel channelConfig) {
+        var slowCallLog = channelConfig.getSlowCallLog();
+        if (slowCallLog == null || !slowCallLog.isEnabled()) {
+            return null;
+        }
+        String channel = getChannelName(channelConfig);
+        return Cache.getSlowCallLogger(channel, () -> new SlowCallLogger(channel, slowCallLog));
+    }
+
+    private boolean isJfrEnabled() {
+        return JFR_PRESENT && getProperties().getJfr().isEnabled();
+    }
+
+    /**
+     * @return the {@link HttpExchangeProperties} bean, or the properties bound from the environment if there's no such bean
+     */
+    private HttpExchangeProperties getProperties() {
+        HttpExchangeProperties result = properties;
+        if (result == null) {
+            result = beanFactory
+                    .getBeanProvider(HttpExchangeProperties.class)
+                    .getIfUnique(() -> Util.getProperties(environment, applicationStartup));
+            properties = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@link ExchangeMetrics} if a {@code MeterRegistry} is present and metrics are enabled
+     */
+    @Nullable
+    private ExchangeMetrics getMetrics() {
+        if (!MICROMETER_PRESENT) {
+            return null;
+        }
+        ExchangeMetrics metrics =
+                beanFactory.getBeanProvider(ExchangeMetrics.class).getIfAvailable();
+        return metrics != null && metrics.getRegistry() != null ? metrics : null;
+    }
+
+    /**
+     * @return the {@link ExchangePoolMetrics} if a {@code MeterRegistry} is present and pool metrics are enabled
+     */
+    @Nullable
+    private ExchangePoolMetrics getPoolMetrics() {
+        ExchangeMetrics metrics = getMetrics();
+        return metrics != null ? metrics.getPoolMetrics() : null;
+    }
+
+    static String getChannelName(HttpExchangeProperties.Channel channelConfig) {
+        return channelConfig.getName() != null ? channelConfig.getName() : "default";
+    }
+
+    /**
+     * Get the http client of the channel and retain it for the client being created.
+     *
+     * @param builder builds the http client, closeable resources of it are added to the list
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getClient(
+            HttpExchangeProperties.Channel channelConfig,
+            HttpExchangeProperties.ClientType type,
+            Function<List<AutoCloseable>, T> builder) {
+        var clientId = Cache.ClientId.of(channelConfig, type);
+        Supplier<SharedHttpClient> supplier = () -> buildHttpClient(clientId, builder);
+        SharedHttpClient shared;
+        if (Boolean.TRUE.equals(channelConfig.getHttpClientReuseEnabled())) {
+            shared = Cache.getHttpClient(clientId, supplier);
+        } else {
+            shared = supplier.get();
+            shared.retain();
+        }
+        httpClient = shared;
+        return (T) shared.getClient();
+    }
+
+    private void releaseHttpClient() {
+        var retained = httpClient;
+        if (retained != null) {
+            httpClient = null;
+            retained.release();
+        }
     }
 
     private void addCustomArgumentResolver(HttpServiceProxyFactory.Builder builder) {
@@ -185,14 +449,37 @@ class ExchangeClientCreator {
         builder.embeddedValueResolver(resolver);
     }
 
-    private WebClient buildWebClient(HttpExchangeProperties.Channel channelConfig) {
+    /**
+     * Build the http client of the channel, recorded as a {@link StartupStep}.
+     */
+    private SharedHttpClient buildHttpClient(Cache.ClientId clientId, Function<List<AutoCloseable>, ?> builder) {
+        StartupStep step = applicationStartup
+                .start(Util.STARTUP_STEP_PREFIX + "http-client.build")
+                .tag("client", clientType.getName())
+                .tag("channel", clientId.channel())
+                .tag("clientType", clientId.clientType().name());
+        try {
+            List<AutoCloseable> resources = new ArrayList<>();
+            Object client = builder.apply(resources);
+            Duration gracePeriod = getProperties().getRefresh().getGracePeriod();
+            return new SharedHttpClient(clientId, client, resources, gracePeriod);
+        } finally {
+            step.end();
+        }
+    }
+
+    private WebClient buildWebClient(HttpExchangeProperties.Channel channelConfig, List<AutoCloseable> resources) {
         WebClient.Builder builder = WebClient.builder();
 
-        configureWebClientBuilder(builder, channelConfig);
+        configureWebClientBuilder(builder, channelConfig, resources);
 
-        var baseUrl = channelConfig.getBaseUrl();
+        if (channelConfig.getCodec() != null) {
+            ExchangeCodecs.configure(builder, channelConfig.getCodec());
+        }
+
+        var baseUrl = getBaseUrl(channelConfig);
         if (StringUtils.hasText(baseUrl)) {
-            builder.baseUrl(getRealBaseUrl(baseUrl));
+            builder.baseUrl(baseUrl);
         }
         if (!CollectionUtils.isEmpty(channelConfig.getHeaders())) {
             channelConfig
@@ -215,6 +502,21 @@ class ExchangeClientCreator {
             });
         }
 
+        // Choose an endpoint of the base urls per request, before the other filters so they see the chosen endpoint
+        var loadBalancer = getLoadBalancer(channelConfig);
+        if (loadBalancer != null) {
+            builder.filter(new LoadBalancingExchangeFilterFunction(loadBalancer));
+        }
+
+        var compression = channelConfig.getCompression();
+        if (compression != null && (compression.isRequestEnabled() || compression.isResponseEnabled())) {
+            builder.filter(new CompressingExchangeFilterFunction(new CompressionCodec(compression)));
+        }
+
+        if (isCallTracked(channelConfig)) {
+            builder.filter(ExchangeCall.filter());
+        }
+
         beanFactory
                 .getBeanProvider(HttpClientCustomizer.WebClientCustomizer.class)
                 .orderedStream()
@@ -223,7 +525,8 @@ class ExchangeClientCreator {
         return builder.build();
     }
 
-    private void configureWebClientBuilder(WebClient.Builder builder, HttpExchangeProperties.Channel channelConfig) {
+    private void configureWebClientBuilder(
+            WebClient.Builder builder, HttpExchangeProperties.Channel channelConfig, List<AutoCloseable> resources) {
 
         var customizers = beanFactory
                 .getBeanProvider(WebClientCustomizer.class)
@@ -236,24 +539,42 @@ class ExchangeClientCreator {
             customizer.customize(builder);
         }
 
-        var clientConnectorBuilder = beanFactory
-                .getBeanProvider(ClientHttpConnectorBuilder.class)
-                .getIfUnique(ClientHttpConnectorBuilder::detect);
+        ClientHttpConnectorBuilder<?> userConnectorBuilder =
+                beanFactory.getBeanProvider(ClientHttpConnectorBuilder.class).getIfUnique();
+        var socket = getUnixDomainSocket(channelConfig);
+        ClientHttpConnectorBuilder<?> clientConnectorBuilder;
+        if (socket != null) {
+            clientConnectorBuilder = UnixDomainSocketSupport.connectorBuilder(socket, userConnectorBuilder);
+        } else {
+            clientConnectorBuilder =
+                    userConnectorBuilder != null ? userConnectorBuilder : ClientHttpConnectorBuilder.detect();
+        }
+
+        clientConnectorBuilder = SharedHttpClient.closeNativeConnectorClient(clientConnectorBuilder, resources);
 
         var settings = buildHttpClientSettings(channelConfig);
 
-        builder.clientConnector(clientConnectorBuilder.build(settings));
+        var poolMetrics = getPoolMetrics();
+        ClientHttpConnector connector = poolMetrics != null
+                ? poolMetrics.buildConnector(clientConnectorBuilder, settings, getChannelName(channelConfig), resources)
+                : clientConnectorBuilder.build(settings);
+        resources.add(() -> SharedHttpClient.close(connector));
+        builder.clientConnector(connector);
     }
 
-    private RestClient buildRestClient(HttpExchangeProperties.Channel channelConfig) {
+    private RestClient buildRestClient(HttpExchangeProperties.Channel channelConfig, List<AutoCloseable> resources) {
         // Do not use RestClient.Builder bean here, because we can't know requestFactory is configured by user or not
         RestClient.Builder builder = RestClient.builder();
 
-        configureRestClientBuilder(builder, channelConfig);
+        configureRestClientBuilder(builder, channelConfig, resources);
 
-        var baseUrl = channelConfig.getBaseUrl();
+        if (channelConfig.getCodec() != null) {
+            ExchangeCodecs.configure(builder, channelConfig.getCodec());
+        }
+
+        var baseUrl = getBaseUrl(channelConfig);
         if (StringUtils.hasText(baseUrl)) {
-            builder.baseUrl(getRealBaseUrl(baseUrl));
+            builder.baseUrl(baseUrl);
         }
         if (!CollectionUtils.isEmpty(channelConfig.getHeaders())) {
             channelConfig
@@ -263,22 +584,26 @@ class ExchangeClientCreator {
         }
 
         if (isLoadBalancerEnabled(channelConfig)) {
-            builder.requestInterceptors(interceptors -> {
-                Set<ClientHttpRequestInterceptor> lbInterceptors = new LinkedHashSet<>(interceptors);
-                if (DEFERRING_LOADBALANCER_INTERCEPTOR_PRESENT) {
-                    beanFactory
-                            .getBeanProvider(DeferringLoadBalancerInterceptor.class)
-                            .forEach(lbInterceptors::add);
-                } else {
-                    beanFactory
-                            .getBeanProvider(ClientHttpRequestInterceptor.class)
-                            .forEach(lbInterceptors::add);
-                }
+            List<ClientHttpRequestInterceptor> lbInterceptors = new ArrayList<>();
+            if (DEFERRING_LOADBALANCER_INTERCEPTOR_PRESENT) {
+                beanFactory
+                        .getBeanProvider(DeferringLoadBalancerInterceptor.class)
+                        .forEach(lbInterceptors::add);
+            } else {
+                beanFactory.getBeanProvider(ClientHttpRequestInterceptor.class).forEach(lbInterceptors::add);
+            }
 
-                interceptors.clear();
-                interceptors.addAll(lbInterceptors);
-                AnnotationAwareOrderComparator.sort(interceptors);
-            });
+            // RestClient buffers the request body once the interceptor list is initialized, even if it's empty
+            if (!lbInterceptors.isEmpty()) {
+                builder.requestInterceptors(interceptors -> {
+                    Set<ClientHttpRequestInterceptor> allInterceptors = new LinkedHashSet<>(interceptors);
+                    allInterceptors.addAll(lbInterceptors);
+
+                    interceptors.clear();
+                    interceptors.addAll(allInterceptors);
+                    AnnotationAwareOrderComparator.sort(interceptors);
+                });
+            }
         }
 
         beanFactory
@@ -289,18 +614,55 @@ class ExchangeClientCreator {
         return builder.build();
     }
 
-    private void configureRestClientBuilder(RestClient.Builder builder, HttpExchangeProperties.Channel channelConfig) {
+    private void configureRestClientBuilder(
+            RestClient.Builder builder, HttpExchangeProperties.Channel channelConfig, List<AutoCloseable> resources) {
 
         // see RestClientBuilderConfigurer
         // see org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration.restClientBuilder
 
-        var requestFactoryBuilder = beanFactory
+        ClientHttpRequestFactoryBuilder<?> userRequestFactoryBuilder = beanFactory
                 .getBeanProvider(ClientHttpRequestFactoryBuilder.class)
-                .getIfUnique(ClientHttpRequestFactoryBuilder::detect);
+                .getIfUnique();
+        var socket = getUnixDomainSocket(channelConfig);
+        ClientHttpRequestFactoryBuilder<?> requestFactoryBuilder;
+        if (socket != null) {
+            requestFactoryBuilder = UnixDomainSocketSupport.requestFactoryBuilder(socket, userRequestFactoryBuilder);
+        } else {
+            requestFactoryBuilder = userRequestFactoryBuilder != null
+                    ? userRequestFactoryBuilder
+                    : ClientHttpRequestFactoryBuilder.detect();
+        }
+
+        requestFactoryBuilder = SharedHttpClient.closeNativeRequestFactoryClient(requestFactoryBuilder, resources);
 
         var settings = buildHttpClientSettings(channelConfig);
 
-        builder.requestFactory(requestFactoryBuilder.build(settings));
+        var poolMetrics = getPoolMetrics();
+        ClientHttpRequestFactory requestFactory = poolMetrics != null
+                ? poolMetrics.buildRequestFactory(
+                        requestFactoryBuilder, settings, getChannelName(channelConfig), resources)
+                : requestFactoryBuilder.build(settings);
+        ClientHttpRequestFactory transport = requestFactory;
+        resources.add(() -> SharedHttpClient.close(transport));
+
+        // Compress with a request factory decorator, RestClient buffers the request body if any interceptor exists
+        var compression = channelConfig.getCompression();
+        if (compression != null && (compression.isRequestEnabled() || compression.isResponseEnabled())) {
+            requestFactory = new CompressingClientHttpRequestFactory(requestFactory, new CompressionCodec(compression));
+        }
+
+        // Capture the response status and timings for metrics and JFR events
+        if (isCallTracked(channelConfig)) {
+            requestFactory = ExchangeCall.decorate(requestFactory);
+        }
+
+        // Choose an endpoint of the base urls per request, outermost so the other decorators see the chosen endpoint
+        var loadBalancer = getLoadBalancer(channelConfig);
+        if (loadBalancer != null) {
+            requestFactory = new LoadBalancingClientHttpRequestFactory(requestFactory, loadBalancer);
+        }
+
+        builder.requestFactory(requestFactory);
 
         var customizers = beanFactory
                 .getBeanProvider(RestClientCustomizer.class)
@@ -340,13 +702,97 @@ class ExchangeClientCreator {
     private boolean isLoadBalancerEnabled(HttpExchangeProperties.Channel channelConfig) {
         return LOADBALANCER_PRESENT
                 && environment.getProperty("spring.cloud.loadbalancer.enabled", Boolean.class, true)
-                && Boolean.TRUE.equals(channelConfig.getLoadbalancerEnabled());
+                && Boolean.TRUE.equals(channelConfig.getLoadbalancerEnabled())
+                // Channels with multiple base urls use the built-in load balancer
+                && channelConfig.getBaseUrls().isEmpty()
+                && getUnixDomainSocket(channelConfig) == null;
+    }
+
+    /**
+     * @return the socket path of a {@code unix:///path/to/socket} base url, {@code null} if the base url is not a Unix domain socket
+     */
+    @Nullable
+    private static Path getUnixDomainSocket(HttpExchangeProperties.Channel channelConfig) {
+        var baseUrl = channelConfig.getBaseUrl();
+        if (baseUrl == null
+                || !channelConfig.getBaseUrls().isEmpty()
+                || !UnixDomainSocketSupport.isUnixDomainSocket(baseUrl)) {
+            return null;
+        }
+        return UnixDomainSocketSupport.getSocketPath(baseUrl);
+    }
+
+    @Nullable
+    private static String getBaseUrl(HttpExchangeProperties.Channel channelConfig) {
+        if (!channelConfig.getBaseUrls().isEmpty()) {
+            return getRealBaseUrls(channelConfig).get(0);
+        }
+        // Relative urls are sent to the remote address of the http client, absolute urls are not
+        if (getUnixDomainSocket(channelConfig) != null) {
+            return null;
+        }
+        var baseUrl = channelConfig.getBaseUrl();
+        return StringUtils.hasText(baseUrl) ? getRealBaseUrl(baseUrl) : null;
+    }
+
+    /**
+     * @return the load balancer of the channel, {@code null} if the channel has no {@link HttpExchangeProperties.Channel#getBaseUrls()}
+     */
+    @Nullable
+    private ExchangeLoadBalancer getLoadBalancer(HttpExchangeProperties.Channel channelConfig) {
+        if (channelConfig.getBaseUrls().isEmpty()) {
+            return null;
+        }
+        // Shared by the RestClient and WebClient of the channel, so they see the same load and failures
+        return Cache.getLoadBalancer(channelConfig, () -> {
+            var loadBalancing = channelConfig.getLoadBalancing();
+            String channel = getChannelName(channelConfig);
+            var properties = loadBalancing != null ? loadBalancing : new HttpExchangeProperties.LoadBalancing();
+            var zone = properties.getZonePreference().getZone();
+            var loadBalancer = new ExchangeLoadBalancer(
+                    channel,
+                    getRealBaseUrls(channelConfig),
+                    properties,
+                    zone != null ? zone : environment.getProperty(ZONE_PROPERTY));
+            ExchangeMetrics metrics = getMetrics();
+            if (metrics != null) {
+                metrics.bindOutlierDetector(channel, loadBalancer);
+            }
+            return loadBalancer;
+        });
+    }
+
+    private static List<String> getRealBaseUrls(HttpExchangeProperties.Channel channelConfig) {
+        if (channelConfig.getBaseUrls().stream().anyMatch(UnixDomainSocketSupport::isUnixDomainSocket)) {
+            throw new IllegalStateException(
+                    "Unix domain socket base urls can't be load balanced, use 'base-url' instead: "
+                            + channelConfig.getBaseUrls());
+        }
+        return channelConfig.getBaseUrls().stream()
+                .map(ExchangeClientCreator::getRealBaseUrl)
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
     }
 
-    private static String getRealBaseUrl(String baseUrl) {
+    private static boolean isPrecomputeJsonEnabled(HttpExchangeProperties.Channel channelConfig) {
+        var codec = channelConfig.getCodec();
+        return JACKSON_PRESENT
+                && Boolean.TRUE.equals(channelConfig.getPrecomputeJsonEnabled())
+                && (codec == null || codec == HttpExchangeProperties.Codec.JSON);
+    }
+
+    static String getRealBaseUrl(String baseUrl) {
         return baseUrl.contains("://") ? baseUrl : "http://" + baseUrl;
     }
 
+    /**
+     * Whether the interface has {@link Paginated} methods, which need the pagination support.
+     */
+    static boolean hasPaginatedMethod(Class<?> clz) {
+        return Arrays.stream(ReflectionUtils.getAllDeclaredMethods(clz))
+                .anyMatch(method -> AnnotationUtils.findAnnotation(method, Paginated.class) != null);
+    }
+
     /**
      * visible for testing
      */
@@ -358,18 +804,25 @@ class ExchangeClientCreator {
                         || Flow.Publisher.class.isAssignableFrom(returnType));
     }
 
-    private HttpExchangeProperties.ClientType getClientType(HttpExchangeProperties.Channel channel) {
-        var type = Optional.ofNullable(channel.getClientType()).orElseGet(ExchangeClientCreator::getDefaultClientType);
+    /**
+     * @param typeSource the interface to determine the client type, the original interface for async variants
+     */
+    private HttpExchangeProperties.ClientType getClientType(
+            HttpExchangeProperties.Channel channel, Class<?> typeSource) {
+        var type = Optional.ofNullable(channel.getClientType())
+                // LOCAL without implementation
+                .filter(it -> it != LOCAL)
+                .orElseGet(ExchangeClientCreator::getDefaultClientType);
         return switch (type) {
             case REST_CLIENT -> {
                 if (!springBootStarterRestClientPresent) {
                     throw new IllegalStateException(
                             "You need to add 'spring-boot-starter-restclient' to the classpath to use REST_CLIENT");
                 }
-                if (springBootStarterWebClientPresent && hasReactiveReturnTypeMethod(clientType)) {
+                if (springBootStarterWebClientPresent && hasReactiveReturnTypeMethod(typeSource)) {
                     log.warn(
                             "{} contains methods with reactive return types, should use the client-type '{}' instead of '{}'",
-                            clientType.getSimpleName(),
+                            typeSource.getSimpleName(),
                             WEB_CLIENT,
                             REST_CLIENT);
                     yield WEB_CLIENT;
@@ -383,6 +836,7 @@ class ExchangeClientCreator {
                 }
                 yield WEB_CLIENT;
             }
+            case LOCAL -> throw new IllegalStateException("Unsupported client-type: " + type);
         };
     }
 
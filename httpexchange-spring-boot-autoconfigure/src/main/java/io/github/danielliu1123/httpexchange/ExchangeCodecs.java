@@ -0,0 +1,193 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.github.danielliu1123.httpexchange.HttpExchangeProperties.Codec;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.JacksonCborDecoder;
+import org.springframework.http.codec.cbor.JacksonCborEncoder;
+import org.springframework.http.codec.protobuf.ProtobufDecoder;
+import org.springframework.http.codec.protobuf.ProtobufEncoder;
+import org.springframework.http.codec.smile.JacksonSmileDecoder;
+import org.springframework.http.codec.smile.JacksonSmileEncoder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.MimeType;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Register the message converters (for {@link RestClient}) or codecs (for {@link WebClient}) of a {@link Codec}.
+ *
+ * <p> The converter/codec is registered before the default ones, so it is used to write request bodies,
+ * and {@link #acceptProcessor} prefers its media type for methods returning a decoded object.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class ExchangeCodecs {
+
+    /**
+     * Wrapper types unwrapped to find the body type of a method.
+     */
+    private static final Set<String> WRAPPER_TYPES = Set.of(
+            "org.springframework.http.ResponseEntity",
+            "java.util.Optional",
+            "java.util.concurrent.CompletableFuture",
+            "java.util.concurrent.Future",
+            "java.util.stream.Stream",
+            "java.util.Iterator",
+            "java.lang.Iterable",
+            "java.util.List",
+            "java.util.Collection",
+            "reactor.core.publisher.Mono",
+            "reactor.core.publisher.Flux");
+
+    /**
+     * Body types not decoded by the codec, the {@code Accept} header is left as is.
+     */
+    private static final Set<Class<?>> RAW_TYPES = Set.of(
+            void.class,
+            Void.class,
+            String.class,
+            byte[].class,
+            Resource.class,
+            InputStream.class,
+            Path.class,
+            File.class,
+            HttpHeaders.class);
+
+    private ExchangeCodecs() {}
+
+    static void configure(RestClient.Builder builder, Codec codec) {
+        if (codec == Codec.JSON) {
+            return;
+        }
+        checkPresent(codec);
+        HttpMessageConverter<?> converter = switch (codec) {
+            case CBOR -> new JacksonCborHttpMessageConverter();
+            case SMILE -> new JacksonSmileHttpMessageConverter();
+            case PROTOBUF -> new ProtobufHttpMessageConverter();
+            case JSON -> throw new IllegalStateException("Unexpected codec: " + codec);
+        };
+        builder.configureMessageConverters(converters -> converters.addCustomConverter(converter));
+    }
+
+    static void configure(WebClient.Builder builder, Codec codec) {
+        if (codec == Codec.JSON) {
+            return;
+        }
+        checkPresent(codec);
+        builder.codecs(configurer -> {
+            switch (codec) {
+                case CBOR -> {
+                    configurer.customCodecs().register(new SingleValueCborEncoder());
+                    configurer.customCodecs().register(new JacksonCborDecoder());
+                }
+                case SMILE -> {
+                    configurer.customCodecs().register(new JacksonSmileEncoder());
+                    configurer.customCodecs().register(new JacksonSmileDecoder());
+                }
+                case PROTOBUF -> {
+                    configurer.customCodecs().register(new ProtobufEncoder());
+                    configurer.customCodecs().register(new ProtobufDecoder());
+                }
+                case JSON -> throw new IllegalStateException("Unexpected codec: " + codec);
+            }
+        });
+    }
+
+    /**
+     * Prefer the media type of the codec for methods returning a decoded object,
+     * other formats are still accepted, e.g. error responses.
+     *
+     * <p> The {@code Accept} header specified by the method (e.g. {@code @GetExchange(accept = ...)}) is left as is.
+     */
+    static HttpRequestValues.Processor acceptProcessor(Codec codec) {
+        List<MediaType> accept = MediaType.parseMediaTypes(mediaType(codec) + ", application/json;q=0.9, */*;q=0.8");
+        return (method, parameters, arguments, values) -> {
+            if (!CollectionUtils.isEmpty(values.getAcceptMediaTypes())
+                    || RAW_TYPES.contains(bodyType(ResolvableType.forMethodReturnType(method)))) {
+                return;
+            }
+            values.configureHeaders(headers -> {
+                if (!headers.containsHeader(HttpHeaders.ACCEPT)) {
+                    headers.setAccept(accept);
+                }
+            });
+        };
+    }
+
+    static MediaType mediaType(Codec codec) {
+        return switch (codec) {
+            case CBOR -> MediaType.APPLICATION_CBOR;
+            case SMILE -> MediaType.parseMediaType("application/x-jackson-smile");
+            case PROTOBUF -> MediaType.parseMediaType("application/x-protobuf");
+            case JSON -> MediaType.APPLICATION_JSON;
+        };
+    }
+
+    private static Class<?> bodyType(ResolvableType type) {
+        Class<?> raw = type.toClass();
+        if (WRAPPER_TYPES.contains(raw.getName()) && type.hasGenerics()) {
+            return bodyType(type.getGeneric(0));
+        }
+        return raw;
+    }
+
+    private static void checkPresent(Codec codec) {
+        String className = switch (codec) {
+            case CBOR -> "tools.jackson.dataformat.cbor.CBORMapper";
+            case SMILE -> "tools.jackson.dataformat.smile.SmileMapper";
+            case PROTOBUF -> "com.google.protobuf.Message";
+            case JSON -> "tools.jackson.databind.json.JsonMapper";
+        };
+        if (!ClassUtils.isPresent(className, ExchangeCodecs.class.getClassLoader())) {
+            String artifact = switch (codec) {
+                case CBOR -> "tools.jackson.dataformat:jackson-dataformat-cbor";
+                case SMILE -> "tools.jackson.dataformat:jackson-dataformat-smile";
+                case PROTOBUF -> "com.google.protobuf:protobuf-java";
+                case JSON -> "tools.jackson.core:jackson-databind";
+            };
+            throw new IllegalStateException("Codec '" + codec + "' requires '" + artifact + "' in the classpath");
+        }
+    }
+
+    /**
+     * {@link JacksonCborEncoder} rejects any {@link Publisher}, but a request body is usually a single value.
+     */
+    private static final class SingleValueCborEncoder extends JacksonCborEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(
+                Publisher<?> inputStream,
+                DataBufferFactory bufferFactory,
+                ResolvableType elementType,
+                @Nullable MimeType mimeType,
+                @Nullable Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+}
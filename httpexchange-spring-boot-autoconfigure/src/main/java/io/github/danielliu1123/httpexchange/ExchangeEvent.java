@@ -0,0 +1,111 @@
+package io.github.danielliu1123.httpexchange;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * JDK Flight Recorder event of an exchange client method call, the duration of the event is the whole call.
+ *
+ * <p> The event is only created when it is enabled in a running recording, otherwise nothing is captured.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+@Name(ExchangeEvent.NAME)
+@Label("HTTP Exchange")
+@Category("HTTP Exchange")
+@Description("Exchange client method call")
+@StackTrace(false)
+final class ExchangeEvent extends Event {
+
+    static final String NAME = "io.github.danielliu1123.httpexchange.Exchange";
+
+    @Label("Client")
+    @Description("Fully qualified name of the client interface")
+    String client = "";
+
+    @Label("Method")
+    String method = "";
+
+    @Label("Channel")
+    String channel = "";
+
+    @Label("URI Template")
+    @Nullable
+    String uriTemplate;
+
+    @Label("Status")
+    @Description("Status of the last response, 0 if no response")
+    int status;
+
+    @Label("Exception")
+    @Nullable
+    String exception;
+
+    @Label("Bytes Out")
+    @Description("Size of the request body")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Bytes In")
+    @Description("Size of the response body read by the client")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Queue Duration")
+    @Description("From the method call to handing the request to the http client, e.g. encoding the body")
+    @Timespan
+    long queueDuration;
+
+    @Label("Time To First Byte")
+    @Description("From handing the request to the http client to receiving the response headers")
+    @Timespan
+    long timeToFirstByte;
+
+    /**
+     * @return the started event, {@code null} if the event is not enabled
+     */
+    @Nullable
+    static ExchangeEvent start() {
+        ExchangeEvent event = new ExchangeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if it should be committed.
+     *
+     * @param call        the completed call
+     * @param uriTemplate the URI template of the method
+     */
+    void complete(ExchangeCall call, @Nullable String uriTemplate) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.client = call.getClient().getName();
+        this.method = call.getMethod().getName();
+        this.channel = call.getChannel();
+        this.uriTemplate = uriTemplate;
+        this.status = call.getStatus();
+        Throwable error = call.getError();
+        this.exception = error != null ? error.getClass().getName() : null;
+        this.bytesOut = call.getBytesOut();
+        this.bytesIn = call.getBytesIn();
+        long requestStart = call.getRequestStart();
+        long responseStart = call.getResponseStart();
+        this.queueDuration = requestStart > 0 ? requestStart - call.getStart() : 0;
+        this.timeToFirstByte = requestStart > 0 && responseStart > 0 ? responseStart - requestStart : 0;
+        commit();
+    }
+}
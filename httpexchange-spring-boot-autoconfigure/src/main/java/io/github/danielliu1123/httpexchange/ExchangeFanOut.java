@@ -0,0 +1,452 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Run multiple exchange calls concurrently and wait for all of them.
+ *
+ * <pre>{@code
+ * var result = ExchangeFanOut.of(() -> userApi.get(id), () -> orderApi.list(id))
+ *         .timeout(Duration.ofSeconds(2))
+ *         .cancelOnFailure(true)
+ *         .join();
+ *
+ * UserDTO user = result.get(0);
+ * List<OrderDTO> orders = result.get(1);
+ * }</pre>
+ *
+ * <p> Blocking calls run on virtual threads (Java 21+) or on a pool of at most 200 platform threads,
+ * calls wait in a queue when all threads are busy.
+ * Calls that return {@link CompletionStage} or {@link Mono} (e.g. the async variant of the client)
+ * don't hold a thread while waiting for the response.
+ *
+ * <p> The latency of each call is available in {@link Branch#duration()}. If metrics are enabled,
+ * exchange client calls made in a branch are also recorded by the {@code http.exchange.client.fanout} timer,
+ * see {@link ExchangeMetrics}.
+ *
+ * <p> All calls share the same deadline, the unfinished calls are cancelled when the deadline is exceeded,
+ * or when any call fails if {@link #cancelOnFailure(boolean)} is enabled:
+ * calls waiting for a thread don't start, the threads of running calls are interrupted,
+ * and the returned {@link CompletionStage} or {@link Mono} are cancelled (e.g. the calls of the async variant are interrupted).
+ * The deadline doesn't shorten the read timeout of each call, a blocking http client that ignores the interruption
+ * keeps its thread until the response or its own read timeout.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+public final class ExchangeFanOut {
+    private static final Logger log = LoggerFactory.getLogger(ExchangeFanOut.class);
+
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Mono", ExchangeFanOut.class.getClassLoader());
+
+    /**
+     * Max number of platform threads of the default executor, used when virtual threads are not available.
+     */
+    static final int MAX_PLATFORM_THREADS = 200;
+
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private final List<Supplier<?>> calls;
+
+    @Nullable
+    private Duration timeout;
+
+    private boolean cancelOnFailure;
+
+    private Executor executor = DEFAULT_EXECUTOR;
+
+    private ExchangeFanOut(List<Supplier<?>> calls) {
+        Assert.notEmpty(calls, "calls must not be empty");
+        this.calls = List.copyOf(calls);
+    }
+
+    /**
+     * Create a fan-out for the given calls.
+     *
+     * @param calls calls to run concurrently
+     * @return fan-out
+     */
+    public static ExchangeFanOut of(Supplier<?>... calls) {
+        return new ExchangeFanOut(Arrays.asList(calls));
+    }
+
+    /**
+     * Create a fan-out for the given calls.
+     *
+     * @param calls calls to run concurrently
+     * @return fan-out
+     */
+    public static ExchangeFanOut of(List<? extends Supplier<?>> calls) {
+        return new ExchangeFanOut(new ArrayList<>(calls));
+    }
+
+    /**
+     * Set the shared deadline for all calls, no deadline by default.
+     *
+     * <p> The read timeout of each call still applies, see {@link ExchangeFanOut}.
+     *
+     * @param timeout timeout from {@link #join()} is called
+     * @return this
+     */
+    public ExchangeFanOut timeout(Duration timeout) {
+        Assert.isTrue(!timeout.isNegative(), "timeout must not be negative");
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Whether to cancel the other calls when any call fails, default {@code false}.
+     *
+     * <p> If enabled, {@link #join()} throws the first failure.
+     *
+     * @param cancelOnFailure whether to cancel the other calls when any call fails
+     * @return this
+     */
+    public ExchangeFanOut cancelOnFailure(boolean cancelOnFailure) {
+        this.cancelOnFailure = cancelOnFailure;
+        return this;
+    }
+
+    /**
+     * Set the executor to run blocking calls, use virtual threads (Java 21+) or a bounded thread pool by default.
+     *
+     * @param executor executor
+     * @return this
+     */
+    public ExchangeFanOut executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Run all calls concurrently and wait for them.
+     *
+     * @return result of all calls
+     */
+    public Result join() {
+        long start = System.nanoTime();
+
+        List<Call> running = new ArrayList<>(calls.size());
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (Supplier<?> call : calls) {
+            Call c = new Call(call);
+            c.result.whenComplete((v, e) -> {
+                if (e != null) {
+                    firstFailure.complete(null);
+                }
+            });
+            running.add(c);
+            executor.execute(c.task);
+        }
+
+        CompletableFuture<Void> all =
+                CompletableFuture.allOf(running.stream().map(c -> c.result).toArray(CompletableFuture[]::new));
+        CompletableFuture<?> waiting = cancelOnFailure ? CompletableFuture.anyOf(all, firstFailure) : all;
+
+        Throwable interruption = null;
+        try {
+            if (timeout != null) {
+                long remaining = timeout.toNanos() - (System.nanoTime() - start);
+                waiting.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            } else {
+                waiting.get();
+            }
+        } catch (TimeoutException e) {
+            interruption = new TimeoutException("Exchange fan-out deadline exceeded: " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interruption = new CancellationException("Exchange fan-out interrupted");
+        } catch (ExecutionException e) {
+            // Failure is recorded in the call itself
+        }
+
+        List<Branch> branches = new ArrayList<>(running.size());
+        for (int i = 0; i < running.size(); i++) {
+            Call c = running.get(i);
+            if (!c.result.isDone()) {
+                c.cancel(
+                        interruption != null
+                                ? interruption
+                                : new CancellationException("Cancelled due to failure of another call"));
+            }
+            Branch branch = c.toBranch(i);
+            if (log.isDebugEnabled()) {
+                log.debug(
+                        "Exchange fan-out call [{}] {} in {} ms",
+                        i,
+                        branch.isSuccess() ? "succeeded" : "failed",
+                        branch.duration().toMillis());
+            }
+            branches.add(branch);
+        }
+
+        Result result = new Result(branches);
+        if (cancelOnFailure) {
+            result.throwIfFailed();
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but cancelling the returned future
+     * interrupts the call, or prevents it from starting.
+     *
+     * @param call     the call
+     * @param executor executor to run the call
+     * @return future of the call
+     */
+    static <T> CompletableFuture<T> supplyAsync(Supplier<T> call, Executor executor) {
+        var future = new InterruptibleFuture<T>();
+        executor.execute(future.task(call));
+        return future;
+    }
+
+    /**
+     * Get the default executor, shared by other background exchange work (e.g. page prefetch).
+     */
+    static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    private static Executor createDefaultExecutor() {
+        if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            var executor = new SimpleAsyncTaskExecutor("exchange-fan-out-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        // Platform threads are expensive, reuse them and bound the number of them
+        var threadFactory = new CustomizableThreadFactory("exchange-fan-out-");
+        threadFactory.setDaemon(true);
+        var executor = new ThreadPoolExecutor(
+                MAX_PLATFORM_THREADS,
+                MAX_PLATFORM_THREADS,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Call {
+        private final CompletableFuture<@Nullable Object> result = new CompletableFuture<>();
+        private final AtomicReference<@Nullable Future<?>> pending = new AtomicReference<>();
+        private final FutureTask<Void> task;
+        private volatile long startNanos = System.nanoTime();
+        private volatile long endNanos;
+
+        Call(Supplier<?> call) {
+            this.task = new FutureTask<>(() -> run(call), null);
+        }
+
+        private void run(Supplier<?> call) {
+            startNanos = System.nanoTime();
+            // Exchange calls made in the branch are recorded from the start of the branch, see ExchangeMetrics
+            ExchangeCall.setFanOutStart(startNanos);
+            try {
+                Object value = call.get();
+                if (value instanceof CompletionStage<?> stage) {
+                    CompletableFuture<?> future = stage.toCompletableFuture();
+                    pending.set(future);
+                    future.whenComplete(this::complete);
+                } else if (REACTOR_PRESENT && ReactorDelegate.isMono(value)) {
+                    CompletableFuture<?> future = ReactorDelegate.toFuture(value);
+                    pending.set(future);
+                    future.whenComplete(this::complete);
+                } else {
+                    complete(value, null);
+                }
+            } catch (Throwable e) {
+                complete(null, e);
+            } finally {
+                ExchangeCall.setFanOutStart(0);
+            }
+        }
+
+        private void complete(@Nullable Object value, @Nullable Throwable error) {
+            if (result.isDone()) {
+                return;
+            }
+            // Record end time before completing, dependents of the result may read it immediately
+            endNanos = System.nanoTime();
+            if (error != null) {
+                result.completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        void cancel(Throwable reason) {
+            complete(null, reason);
+            task.cancel(true);
+            Future<?> future = pending.get();
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        Branch toBranch(int index) {
+            Duration duration = Duration.ofNanos(Math.max(endNanos - startNanos, 0));
+            try {
+                return new Branch(index, result.getNow(null), null, duration);
+            } catch (CompletionException e) {
+                return new Branch(index, null, e.getCause() != null ? e.getCause() : e, duration);
+            } catch (CancellationException e) {
+                return new Branch(index, null, e, duration);
+            }
+        }
+    }
+
+    private static final class InterruptibleFuture<T> extends CompletableFuture<T> {
+        @Nullable
+        private FutureTask<Void> task;
+
+        FutureTask<Void> task(Supplier<T> call) {
+            FutureTask<Void> result = new FutureTask<>(
+                    () -> {
+                        try {
+                            complete(call.get());
+                        } catch (Throwable e) {
+                            completeExceptionally(e);
+                        }
+                    },
+                    null);
+            task = result;
+            return result;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            FutureTask<Void> t = task;
+            if (cancelled && t != null) {
+                t.cancel(true);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            // Dependent stages don't own the task
+            return new CompletableFuture<>();
+        }
+    }
+
+    private static final class ReactorDelegate {
+
+        static boolean isMono(@Nullable Object value) {
+            return value instanceof Mono<?>;
+        }
+
+        static CompletableFuture<?> toFuture(Object value) {
+            return ((Mono<?>) value).toFuture();
+        }
+    }
+
+    /**
+     * @param index    index of the call
+     * @param value    value returned by the call, null if failed
+     * @param error    error thrown by the call, null if succeeded
+     * @param duration latency of the call
+     */
+    public record Branch(
+            int index, @Nullable Object value, @Nullable Throwable error, Duration duration) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * @param branches results of all calls, in the same order as the calls
+     */
+    public record Result(List<Branch> branches) {
+        public Result {
+            branches = List.copyOf(branches);
+        }
+
+        /**
+         * Get the value of the call at the given index.
+         *
+         * @param index index of the call
+         * @param <T>   value type
+         * @return value of the call
+         * @throws RuntimeException the error thrown by the call, checked exceptions are wrapped in {@link CompletionException}
+         */
+        @SuppressWarnings("unchecked")
+        @Nullable
+        public <T> T get(int index) {
+            Branch branch = branches.get(index);
+            Throwable error = branch.error();
+            if (error != null) {
+                throw asRuntimeException(error);
+            }
+            return (T) branch.value();
+        }
+
+        /**
+         * Whether all calls succeeded.
+         *
+         * @return true if all calls succeeded
+         */
+        public boolean isAllSuccess() {
+            return branches.stream().allMatch(Branch::isSuccess);
+        }
+
+        /**
+         * Throw the first failure if any call failed.
+         *
+         * <p> Calls cancelled because of another failure are ignored in favor of the failure itself.
+         */
+        public void throwIfFailed() {
+            Throwable failure = null;
+            for (Branch branch : branches) {
+                Throwable error = branch.error();
+                if (error != null && (failure == null || failure instanceof CancellationException)) {
+                    failure = error;
+                }
+            }
+            if (failure != null) {
+                throw asRuntimeException(failure);
+            }
+        }
+
+        private static RuntimeException asRuntimeException(Throwable error) {
+            if (error instanceof RuntimeException re) {
+                return re;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
+            return new CompletionException(error);
+        }
+    }
+}
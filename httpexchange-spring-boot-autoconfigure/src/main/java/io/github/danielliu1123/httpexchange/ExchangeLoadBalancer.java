@@ -0,0 +1,320 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+
+/**
+ * Client-side load balancer of a channel with multiple {@link HttpExchangeProperties.Channel#getBaseUrls() base urls}.
+ *
+ * <p> The http client is built with the first endpoint as base url,
+ * the base url of each request is replaced with the chosen endpoint by
+ * {@link LoadBalancingClientHttpRequestFactory} (for {@code RestClient}) or {@link LoadBalancingExchangeFilterFunction}
+ * (for {@code WebClient}). Requests to other urls (e.g. absolute urls in {@code @HttpExchange}) are not load balanced.
+ *
+ * <p> All state is kept in lock-free counters, choosing an endpoint never blocks.
+ * Each endpoint tracks its outstanding requests and the {@link PeakEwma peak EWMA} of its response time.
+ *
+ * <p> Endpoints ejected by the {@link OutlierDetector} are not chosen until the ejection time elapses.
+ * With {@link HttpExchangeProperties.ZonePreference zone preference}, endpoints in the zone of the client are chosen
+ * unless the zone does not have enough healthy endpoints.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class ExchangeLoadBalancer {
+
+    private final List<Endpoint> endpoints;
+    private final HttpExchangeProperties.LoadBalancing.Strategy strategy;
+    private final @Nullable OutlierDetector outlierDetector;
+    private final HashRing<Endpoint> ring;
+    private final @Nullable String routingKeyHeader;
+    private final HttpExchangeProperties.ZonePreference zonePreference;
+    /**
+     * Endpoints in the zone of the client, empty if zone preference is not enabled.
+     */
+    private final List<Endpoint> localEndpoints;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param channel    channel name
+     * @param baseUrls   base urls with scheme
+     * @param properties load balancing configuration
+     */
+    ExchangeLoadBalancer(String channel, List<String> baseUrls, HttpExchangeProperties.LoadBalancing properties) {
+        this(channel, baseUrls, properties, properties.getZonePreference().getZone());
+    }
+
+    /**
+     * @param channel    channel name
+     * @param baseUrls   base urls with scheme
+     * @param properties load balancing configuration
+     * @param zone       zone of the client
+     */
+    ExchangeLoadBalancer(
+            String channel,
+            List<String> baseUrls,
+            HttpExchangeProperties.LoadBalancing properties,
+            @Nullable String zone) {
+        Assert.notEmpty(baseUrls, "baseUrls must not be empty");
+        this.zonePreference = properties.getZonePreference();
+        Map<String, String> urlToZone = getZones(zonePreference);
+        var outlierDetection = properties.getOutlierDetection();
+        this.outlierDetector =
+                outlierDetection.isEnabled() ? new OutlierDetector(channel, outlierDetection, baseUrls.size()) : null;
+        List<Endpoint> list = new ArrayList<>(baseUrls.size());
+        for (int i = 0; i < baseUrls.size(); i++) {
+            String url = stripTrailingSlash(baseUrls.get(i));
+            list.add(new Endpoint(i, url, urlToZone.get(url), properties, outlierDetector));
+        }
+        this.endpoints = List.copyOf(list);
+        this.strategy = properties.getStrategy();
+        this.ring = new HashRing<>(
+                endpoints, endpoints.stream().map(Endpoint::getUrl).toList(), properties.getVirtualNodes());
+        this.routingKeyHeader = properties.getRoutingKeyHeader();
+        this.localEndpoints = zonePreference.isEnabled() && zone != null
+                ? endpoints.stream().filter(e -> zone.equals(e.getZone())).toList()
+                : List.of();
+    }
+
+    /**
+     * @return the base url the http client is built with
+     */
+    String getBaseUrl() {
+        return endpoints.get(0).getUrl();
+    }
+
+    List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return the outlier detector, {@code null} if outlier detection is not enabled
+     */
+    @Nullable
+    OutlierDetector getOutlierDetector() {
+        return outlierDetector;
+    }
+
+    /**
+     * @param uri request uri
+     * @return whether the request is sent to the base url, i.e. should be load balanced
+     */
+    boolean matches(URI uri) {
+        String url = uri.toString();
+        String baseUrl = getBaseUrl();
+        if (!url.startsWith(baseUrl)) {
+            return false;
+        }
+        return url.length() == baseUrl.length() || "/?#".indexOf(url.charAt(baseUrl.length())) >= 0;
+    }
+
+    /**
+     * Choose the endpoint of a request.
+     *
+     * <p> Requests with a routing key are sent to the endpoint of the key on the hash ring,
+     * see {@link RoutingKey}.
+     *
+     * @param attributes request attributes
+     * @param headers    request headers
+     * @return the chosen endpoint
+     */
+    Endpoint choose(Map<String, Object> attributes, HttpHeaders headers) {
+        String routingKey = getRoutingKey(attributes, headers);
+        if (routingKey != null && endpoints.size() > 1) {
+            OutlierDetector detector = outlierDetector;
+            return detector != null ? ring.get(routingKey, e -> !detector.isEjected(e)) : ring.get(routingKey);
+        }
+        List<Endpoint> candidates = outlierDetector != null ? outlierDetector.available(endpoints) : endpoints;
+        if (!localEndpoints.isEmpty()) {
+            candidates = preferLocalZone(candidates);
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> candidates.get(Math.floorMod(next.getAndIncrement(), size));
+            case RANDOM -> candidates.get(ThreadLocalRandom.current().nextInt(size));
+            case LEAST_REQUEST -> twoChoices(candidates, false);
+            case EWMA -> twoChoices(candidates, true);
+        };
+    }
+
+    /**
+     * @param candidates healthy endpoints
+     * @return the healthy endpoints in the zone of the client, all healthy endpoints (spill over) if the zone does not
+     * have enough healthy endpoints, or the healthy endpoints in other zones if the endpoints in the zone are all busy
+     */
+    private List<Endpoint> preferLocalZone(List<Endpoint> candidates) {
+        List<Endpoint> local = candidates == endpoints
+                ? localEndpoints
+                : candidates.stream().filter(localEndpoints::contains).toList();
+        if (local.size() < zonePreference.getMinEndpoints()
+                || local.size() * 100 < localEndpoints.size() * zonePreference.getMinHealthyPercent()) {
+            return candidates;
+        }
+        int maxInFlight = zonePreference.getMaxInFlightPerEndpoint();
+        if (maxInFlight > 0 && local.stream().allMatch(e -> e.getInFlight() >= maxInFlight)) {
+            List<Endpoint> remote =
+                    candidates.stream().filter(e -> !local.contains(e)).toList();
+            return remote.isEmpty() ? candidates : remote;
+        }
+        return local;
+    }
+
+    @Nullable
+    private String getRoutingKey(Map<String, Object> attributes, HttpHeaders headers) {
+        if (attributes.get(RoutingKeyProcessor.ROUTING_KEY_ATTRIBUTE) instanceof String key) {
+            return key;
+        }
+        String header = attributes.get(RoutingKeyProcessor.ROUTING_KEY_HEADER_ATTRIBUTE) instanceof String name
+                ? name
+                : routingKeyHeader;
+        return header != null ? headers.getFirst(header) : null;
+    }
+
+    /**
+     * Replace the base url of the request uri with the endpoint.
+     *
+     * @param uri      request uri, must {@link #matches(URI)}
+     * @param endpoint chosen endpoint
+     * @return the uri to send the request to
+     */
+    URI rewrite(URI uri, Endpoint endpoint) {
+        String baseUrl = getBaseUrl();
+        if (endpoint.getUrl().equals(baseUrl)) {
+            return uri;
+        }
+        return URI.create(endpoint.getUrl() + uri.toString().substring(baseUrl.length()));
+    }
+
+    private static Map<String, String> getZones(HttpExchangeProperties.ZonePreference zonePreference) {
+        Map<String, String> result = new HashMap<>();
+        zonePreference.getEndpoints().forEach((zone, urls) -> {
+            for (String url : urls) {
+                result.put(stripTrailingSlash(ExchangeClientCreator.getRealBaseUrl(url)), zone);
+            }
+        });
+        return result;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static Endpoint twoChoices(List<Endpoint> candidates, boolean ewma) {
+        int size = candidates.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+        if (ewma) {
+            return a.getScore() <= b.getScore() ? a : b;
+        }
+        return a.getInFlight() <= b.getInFlight() ? a : b;
+    }
+
+    /**
+     * An endpoint of the channel.
+     */
+    static final class Endpoint {
+
+        private final int index;
+        private final String url;
+        private final @Nullable String zone;
+        private final PeakEwma load;
+        private final @Nullable OutlierDetector outlierDetector;
+
+        Endpoint(
+                int index,
+                String url,
+                @Nullable String zone,
+                HttpExchangeProperties.LoadBalancing properties,
+                @Nullable OutlierDetector outlierDetector) {
+            this.index = index;
+            this.url = stripTrailingSlash(url);
+            this.zone = zone;
+            this.outlierDetector = outlierDetector;
+            this.load = new PeakEwma(
+                    properties.getEwmaDecay().toNanos(),
+                    properties.getEwmaFailurePenalty().toNanos());
+        }
+
+        /**
+         * @return the index in {@link #getEndpoints()}
+         */
+        int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the base url without trailing slash
+         */
+        String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return the zone of the endpoint, {@code null} if unknown
+         */
+        @Nullable
+        String getZone() {
+            return zone;
+        }
+
+        /**
+         * @return number of outstanding requests
+         */
+        int getInFlight() {
+            return load.getPending();
+        }
+
+        /**
+         * @return the peak EWMA score, lower is better
+         * @see PeakEwma#score()
+         */
+        double getScore() {
+            return load.score();
+        }
+
+        /**
+         * Called when a request is sent to this endpoint.
+         *
+         * @return the start time of the request
+         */
+        long start() {
+            return load.start();
+        }
+
+        /**
+         * Called when the response of a request is received or the request fails.
+         *
+         * @param startNanos start time returned by {@link #start()}
+         * @param success    whether the request succeeded, i.e. no IO error and not 5xx
+         */
+        void end(long startNanos, boolean success) {
+            load.end(startNanos, success);
+            if (outlierDetector != null) {
+                outlierDetector.record(this, success);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Record a Micrometer {@link Timer} per channel, client and method for exchange clients.
+ *
+ * <p> The timer is recorded by the {@link ExchangeCallInterceptor} of the client proxy, the response status is captured
+ * by the http client (see {@link ExchangeCall}), so the last response status of the call is used even if the method
+ * does not return it.
+ *
+ * <p> The number of timers is capped by {@link HttpExchangeProperties.Metrics#getMaxTimeSeries()},
+ * calls that would create more timers are not recorded.
+ *
+ * <p> Calls made in {@link ExchangeFanOut} branches are also recorded per branch, see {@link #FAN_OUT_METRIC_NAME}.
+ *
+ * <p> Connection pool gauges are published by {@link ExchangePoolMetrics}, the pools are closed with this bean.
+ *
+ * <p> Outlier detection meters are published per endpoint of load-balanced channels,
+ * see {@link #bindOutlierDetector(String, ExchangeLoadBalancer)}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class ExchangeMetrics implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ExchangeMetrics.class);
+
+    static final String METRIC_NAME = "http.exchange.client.requests";
+    static final String FAN_OUT_METRIC_NAME = "http.exchange.client.fanout";
+    static final String OUTLIER_METRIC_PREFIX = "http.exchange.client.outlier";
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private final HttpExchangeProperties.Metrics properties;
+    private final Map<Tags, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Tags, Timer> fanOutTimers = new ConcurrentHashMap<>();
+    private final AtomicBoolean capReached = new AtomicBoolean();
+    private final Map<String, List<Meter>> outlierMeters = new ConcurrentHashMap<>();
+
+    private volatile @Nullable MeterRegistry registry;
+    private volatile @Nullable ExchangePoolMetrics poolMetrics;
+
+    ExchangeMetrics(ObjectProvider<MeterRegistry> registryProvider, HttpExchangeProperties.Metrics properties) {
+        this.registryProvider = registryProvider;
+        this.properties = properties;
+    }
+
+    /**
+     * @return the {@link MeterRegistry} to record to, {@code null} if metrics are disabled or no registry is present
+     */
+    @Nullable
+    MeterRegistry getRegistry() {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        MeterRegistry result = registry;
+        if (result == null) {
+            result = registryProvider.getIfUnique();
+            registry = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@link ExchangePoolMetrics} to publish connection pool gauges,
+     * {@code null} if pool metrics are disabled or no registry is present
+     */
+    @Nullable
+    ExchangePoolMetrics getPoolMetrics() {
+        MeterRegistry meterRegistry = getRegistry();
+        if (meterRegistry == null || !properties.isPoolEnabled()) {
+            return null;
+        }
+        ExchangePoolMetrics result = poolMetrics;
+        if (result == null) {
+            synchronized (this) {
+                result = poolMetrics;
+                if (result == null) {
+                    result = new ExchangePoolMetrics(meterRegistry, properties);
+                    poolMetrics = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the registered timers
+     */
+    Collection<Timer> getTimers() {
+        return timers.values();
+    }
+
+    /**
+     * Publish the outlier detection meters of the endpoints of a channel,
+     * replacing the meters of the previous load balancer of the channel.
+     *
+     * @param channel      channel name
+     * @param loadBalancer load balancer of the channel
+     */
+    void bindOutlierDetector(String channel, ExchangeLoadBalancer loadBalancer) {
+        MeterRegistry meterRegistry = getRegistry();
+        OutlierDetector detector = loadBalancer.getOutlierDetector();
+        if (meterRegistry == null || detector == null) {
+            return;
+        }
+        // Gauges are bound to the first registered load balancer, remove the previous meters first
+        List<Meter> previous = outlierMeters.remove(channel);
+        if (previous != null) {
+            previous.forEach(meterRegistry::remove);
+        }
+        List<Meter> meters = new ArrayList<>();
+        for (ExchangeLoadBalancer.Endpoint endpoint : loadBalancer.getEndpoints()) {
+            Tags tags = Tags.of("channel", channel, "endpoint", endpoint.getUrl());
+            meters.add(Gauge.builder(OUTLIER_METRIC_PREFIX + ".ejected", () -> detector.isEjected(endpoint) ? 1 : 0)
+                    .description("Whether the endpoint is ejected by outlier detection")
+                    .tags(tags)
+                    .register(meterRegistry));
+            meters.add(FunctionCounter.builder(
+                            OUTLIER_METRIC_PREFIX + ".ejections", detector, d -> d.getEjections(endpoint))
+                    .description("Number of times the endpoint has been ejected by outlier detection")
+                    .tags(tags)
+                    .register(meterRegistry));
+        }
+        outlierMeters.put(channel, meters);
+    }
+
+    @Override
+    public void destroy() {
+        ExchangePoolMetrics result = poolMetrics;
+        if (result != null) {
+            result.close();
+        }
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            outlierMeters.values().forEach(meters -> meters.forEach(meterRegistry::remove));
+        }
+        outlierMeters.clear();
+    }
+
+    /**
+     * Record a completed call.
+     *
+     * <p> Calls made in an {@link ExchangeFanOut} branch are also recorded from the start of the branch,
+     * including the time waiting for a thread.
+     *
+     * @param call the call
+     */
+    void record(ExchangeCall call) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Throwable error = call.getError();
+        Tags tags = Tags.of(
+                "channel",
+                call.getChannel(),
+                "client",
+                call.getClient().getName(),
+                "method",
+                call.getMethod().getName(),
+                "outcome",
+                outcome(call),
+                "status",
+                status(call),
+                "exception",
+                error != null ? error.getClass().getSimpleName() : "none");
+        Timer timer = getTimer(meterRegistry, timers, METRIC_NAME, "Duration of exchange client calls", tags);
+        if (timer != null) {
+            timer.record(now - call.getStart(), TimeUnit.NANOSECONDS);
+        }
+        if (call.getBranchStart() != 0) {
+            Tags branchTags = Tags.of(
+                    "channel",
+                    call.getChannel(),
+                    "client",
+                    call.getClient().getName(),
+                    "method",
+                    call.getMethod().getName(),
+                    "outcome",
+                    outcome(call));
+            Timer branchTimer = getTimer(
+                    meterRegistry,
+                    fanOutTimers,
+                    FAN_OUT_METRIC_NAME,
+                    "Duration of exchange client calls in fan-out branches, from the start of the branch",
+                    branchTags);
+            if (branchTimer != null) {
+                branchTimer.record(now - call.getBranchStart(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Nullable
+    private Timer getTimer(
+            MeterRegistry meterRegistry, Map<Tags, Timer> cache, String name, String description, Tags tags) {
+        Timer timer = cache.get(tags);
+        if (timer != null) {
+            return timer;
+        }
+        if (timers.size() + fanOutTimers.size() >= properties.getMaxTimeSeries()) {
+            if (capReached.compareAndSet(false, true)) {
+                log.warn(
+                        "Reached the max number of timers ({}) for '{}', further time series are not recorded,"
+                                + " check 'http-exchange.metrics.max-time-series'",
+                        properties.getMaxTimeSeries(),
+                        name);
+            }
+            return null;
+        }
+        return cache.computeIfAbsent(
+                tags,
+                t -> Timer.builder(name)
+                        .description(description)
+                        .tags(t)
+                        .publishPercentileHistogram(properties.isPercentileHistogram())
+                        .register(meterRegistry));
+    }
+
+    private static String outcome(ExchangeCall call) {
+        return call.getStatus() > 0 ? Outcome.forStatus(call.getStatus()).name() : Outcome.UNKNOWN.name();
+    }
+
+    private static String status(ExchangeCall call) {
+        if (call.getStatus() > 0) {
+            return String.valueOf(call.getStatus());
+        }
+        // No response, e.g. connection refused
+        return call.getError() != null ? "CLIENT_ERROR" : "UNKNOWN";
+    }
+}
@@ -0,0 +1,534 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.netty.resolver.AddressResolverGroup;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import org.apache.hc.core5.pool.ConnPoolStats;
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.Destination;
+import org.eclipse.jetty.client.transport.HttpDestination;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.JettyClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ReactorClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.reactive.ClientHttpConnectorBuilder;
+import org.springframework.boot.http.client.reactive.JettyClientHttpConnectorBuilder;
+import org.springframework.boot.http.client.reactive.ReactorClientHttpConnectorBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.HttpComponentsClientHttpConnector;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.TransportConfig;
+
+/**
+ * Publish connection pool gauges per channel for the http client of exchange clients.
+ *
+ * <p> Supported transports:
+ * <ul>
+ *     <li> Reactor Netty: each channel uses a dedicated {@link ConnectionProvider}, the acquire time is recorded too. </li>
+ *     <li> Apache HttpClient 5: the connection manager of the built client. </li>
+ *     <li> Jetty: the connection pools of all destinations of the built client. </li>
+ * </ul>
+ *
+ * <p> The JDK {@code HttpClient} does not expose its connection pool, no gauge is published.
+ *
+ * <p> Pools of the same channel and transport (e.g. {@code RestClient} and {@code WebClient}) are summed up,
+ * the meters are removed when the pools are closed.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class ExchangePoolMetrics implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ExchangePoolMetrics.class);
+
+    static final String METRIC_PREFIX = "http.exchange.client.pool";
+
+    private static final ClassLoader classLoader = ExchangePoolMetrics.class.getClassLoader();
+    private static final boolean REACTOR_NETTY_PRESENT =
+            ClassUtils.isPresent("reactor.netty.http.client.HttpClient", classLoader);
+    private static final boolean HTTP_COMPONENTS_PRESENT =
+            ClassUtils.isPresent("org.apache.hc.client5.http.impl.classic.HttpClients", classLoader);
+    private static final boolean JETTY_PRESENT =
+            ClassUtils.isPresent("org.eclipse.jetty.client.HttpClient", classLoader);
+
+    private final MeterRegistry registry;
+    private final HttpExchangeProperties.Metrics properties;
+    private final Map<Tags, PoolGroup> groups = new ConcurrentHashMap<>();
+    private final List<Runnable> closers = new CopyOnWriteArrayList<>();
+
+    ExchangePoolMetrics(MeterRegistry registry, HttpExchangeProperties.Metrics properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    /**
+     * Build the {@link ClientHttpRequestFactory} of a channel and publish the gauges of its connection pool.
+     *
+     * @param builder   the request factory builder
+     * @param settings  the http client settings
+     * @param channel   channel name
+     * @param resources resources of the http client, the pool is unregistered when they are closed
+     * @return the request factory
+     */
+    ClientHttpRequestFactory buildRequestFactory(
+            ClientHttpRequestFactoryBuilder<?> builder,
+            HttpClientSettings settings,
+            String channel,
+            List<AutoCloseable> resources) {
+        if (REACTOR_NETTY_PRESENT && builder instanceof ReactorClientHttpRequestFactoryBuilder reactor) {
+            return reactor.withHttpClientFactory(ReactorNettyDelegate.httpClientFactory(this, channel, resources))
+                    .build(settings);
+        }
+        if (JETTY_PRESENT && builder instanceof JettyClientHttpRequestFactoryBuilder jetty) {
+            return jetty.withHttpClientCustomizer(JettyDelegate.binder(this, channel, resources))
+                    .build(settings);
+        }
+        ClientHttpRequestFactory requestFactory = builder.build(settings);
+        if (HTTP_COMPONENTS_PRESENT && requestFactory instanceof HttpComponentsClientHttpRequestFactory hc) {
+            HttpComponentsDelegate.bind(this, channel, hc.getHttpClient(), resources);
+        } else {
+            logUnsupported(channel, requestFactory);
+        }
+        return requestFactory;
+    }
+
+    /**
+     * Build the {@link ClientHttpConnector} of a channel and publish the gauges of its connection pool.
+     *
+     * @param builder   the connector builder
+     * @param settings  the http client settings
+     * @param channel   channel name
+     * @param resources resources of the http client, the pool is unregistered when they are closed
+     * @return the connector
+     */
+    ClientHttpConnector buildConnector(
+            ClientHttpConnectorBuilder<?> builder,
+            HttpClientSettings settings,
+            String channel,
+            List<AutoCloseable> resources) {
+        if (REACTOR_NETTY_PRESENT && builder instanceof ReactorClientHttpConnectorBuilder reactor) {
+            return reactor.withHttpClientFactory(ReactorNettyDelegate.httpClientFactory(this, channel, resources))
+                    .build(settings);
+        }
+        if (JETTY_PRESENT && builder instanceof JettyClientHttpConnectorBuilder jetty) {
+            return jetty.withHttpClientCustomizer(JettyDelegate.binder(this, channel, resources))
+                    .build(settings);
+        }
+        ClientHttpConnector connector = builder.build(settings);
+        if (HTTP_COMPONENTS_PRESENT && connector instanceof HttpComponentsClientHttpConnector) {
+            // The async client is not exposed
+            Object client = HttpComponentsDelegate.findFieldValue(connector, Object.class, "client");
+            if (client != null) {
+                HttpComponentsDelegate.bind(this, channel, client, resources);
+            }
+        } else {
+            logUnsupported(channel, connector);
+        }
+        return connector;
+    }
+
+    /**
+     * @return current statistics of the pools, one per channel and transport
+     */
+    List<PoolSnapshot> snapshot() {
+        return groups.entrySet().stream()
+                .map(entry -> {
+                    Tags tags = entry.getKey();
+                    Set<Pool> pools = entry.getValue().pools;
+                    return new PoolSnapshot(
+                            tag(tags, "channel"),
+                            tag(tags, "transport"),
+                            pools.stream().mapToInt(Pool::leased).sum(),
+                            pools.stream().mapToInt(Pool::idle).sum(),
+                            pools.stream().mapToInt(Pool::pending).sum(),
+                            pools.stream().mapToInt(Pool::max).sum());
+                })
+                .toList();
+    }
+
+    /**
+     * Remove all meters and release the dedicated connection pools.
+     */
+    @Override
+    public void close() {
+        for (Runnable closer : closers) {
+            closer.run();
+        }
+        closers.clear();
+        groups.values().forEach(group -> group.meters.forEach(registry::remove));
+        groups.clear();
+    }
+
+    /**
+     * Run the closer when the http client is closed or when this is closed, whichever comes first.
+     */
+    private void addCloser(List<AutoCloseable> resources, Runnable closer) {
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable once = new Runnable() {
+            @Override
+            public void run() {
+                if (done.compareAndSet(false, true)) {
+                    closers.remove(this);
+                    closer.run();
+                }
+            }
+        };
+        closers.add(once);
+        resources.add(once::run);
+    }
+
+    private void register(String channel, String transport, Pool pool) {
+        Tags tags = Tags.of("channel", channel, "transport", transport);
+        groups.computeIfAbsent(tags, PoolGroup::new).pools.add(pool);
+    }
+
+    private void unregister(String channel, String transport, Pool pool) {
+        Tags tags = Tags.of("channel", channel, "transport", transport);
+        groups.computeIfPresent(tags, (t, group) -> {
+            group.pools.remove(pool);
+            if (!group.pools.isEmpty()) {
+                return group;
+            }
+            group.meters.forEach(registry::remove);
+            Timer acquireTimer =
+                    registry.find(METRIC_PREFIX + ".acquire").tags(t).timer();
+            if (acquireTimer != null) {
+                registry.remove(acquireTimer);
+            }
+            return null;
+        });
+    }
+
+    private Timer acquireTimer(String channel, String transport) {
+        return Timer.builder(METRIC_PREFIX + ".acquire")
+                .description("Time to acquire a connection from the pool")
+                .tags("channel", channel, "transport", transport)
+                .publishPercentileHistogram(properties.isPercentileHistogram())
+                .register(registry);
+    }
+
+    private static String tag(Tags tags, String key) {
+        return tags.stream()
+                .filter(tag -> tag.getKey().equals(key))
+                .findFirst()
+                .map(Tag::getValue)
+                .orElse("");
+    }
+
+    private static void logUnsupported(String channel, Object transport) {
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "Connection pool of {} is not exposed, no pool metrics for channel '{}'",
+                    transport.getClass().getName(),
+                    channel);
+        }
+    }
+
+    record PoolSnapshot(String channel, String transport, int leased, int idle, int pending, int max) {}
+
+    /**
+     * Connection pool statistics of a http client.
+     */
+    private interface Pool {
+        int leased();
+
+        int idle();
+
+        int pending();
+
+        int max();
+    }
+
+    /**
+     * Pools sharing the same tags, the gauges are the sum of all pools.
+     */
+    private final class PoolGroup {
+        private final Set<Pool> pools = ConcurrentHashMap.newKeySet();
+        private final List<Meter> meters;
+
+        private PoolGroup(Tags tags) {
+            this.meters = List.of(
+                    gauge("leased", "Connections leased from the pool", tags, Pool::leased),
+                    gauge("idle", "Idle connections in the pool", tags, Pool::idle),
+                    gauge("pending", "Requests waiting for a connection", tags, Pool::pending),
+                    gauge("max", "Max connections of the pool", tags, Pool::max));
+        }
+
+        private Gauge gauge(String name, String description, Tags tags, ToIntFunction<Pool> value) {
+            return Gauge.builder(
+                            METRIC_PREFIX + "." + name,
+                            pools,
+                            p -> p.stream().mapToInt(value).sum())
+                    .description(description)
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    private static final class ReactorNettyDelegate {
+        private static final String TRANSPORT = "reactor-netty";
+
+        static Supplier<HttpClient> httpClientFactory(
+                ExchangePoolMetrics metrics, String channel, List<AutoCloseable> resources) {
+            return () -> {
+                ReactorPool pool = new ReactorPool();
+                ConnectionProvider provider = ConnectionProvider.builder("http-exchange-" + channel)
+                        .metrics(true, () -> pool)
+                        .build();
+                Timer acquireTimer = metrics.acquireTimer(channel, TRANSPORT);
+                metrics.register(channel, TRANSPORT, pool);
+                metrics.addCloser(resources, () -> {
+                    metrics.unregister(channel, TRANSPORT, pool);
+                    provider.dispose();
+                });
+                return HttpClient.create(new TimedConnectionProvider(provider, acquireTimer));
+            };
+        }
+    }
+
+    /**
+     * Reactor Netty creates a pool per remote address, the statistics are the sum of them.
+     */
+    private static final class ReactorPool implements Pool, ConnectionProvider.MeterRegistrar {
+        private final Map<String, ConnectionPoolMetrics> remotes = new ConcurrentHashMap<>();
+
+        @Override
+        public void registerMetrics(
+                String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+            remotes.put(id, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            remotes.remove(id);
+        }
+
+        @Override
+        public int leased() {
+            return sum(ConnectionPoolMetrics::acquiredSize);
+        }
+
+        @Override
+        public int idle() {
+            return sum(ConnectionPoolMetrics::idleSize);
+        }
+
+        @Override
+        public int pending() {
+            return sum(ConnectionPoolMetrics::pendingAcquireSize);
+        }
+
+        @Override
+        public int max() {
+            return sum(ConnectionPoolMetrics::maxAllocatedSize);
+        }
+
+        private int sum(ToIntFunction<ConnectionPoolMetrics> value) {
+            return remotes.values().stream().mapToInt(value).sum();
+        }
+    }
+
+    /**
+     * Record the time from subscribing to the acquisition to getting a connection,
+     * including the time to open a new connection.
+     */
+    private static final class TimedConnectionProvider implements ConnectionProvider {
+        private final ConnectionProvider delegate;
+        private final Timer acquireTimer;
+
+        private TimedConnectionProvider(ConnectionProvider delegate, Timer acquireTimer) {
+            this.delegate = delegate;
+            this.acquireTimer = acquireTimer;
+        }
+
+        @Override
+        public Mono<? extends Connection> acquire(
+                TransportConfig config,
+                ConnectionObserver connectionObserver,
+                @Nullable Supplier<? extends SocketAddress> remoteAddress,
+                @Nullable AddressResolverGroup<?> resolverGroup) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start();
+                return delegate.acquire(config, connectionObserver, remoteAddress, resolverGroup)
+                        .doOnNext(connection -> sample.stop(acquireTimer));
+            });
+        }
+
+        @Override
+        public void disposeWhen(SocketAddress remoteAddress) {
+            delegate.disposeWhen(remoteAddress);
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+
+        @Override
+        public Mono<Void> disposeLater() {
+            return delegate.disposeLater();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return delegate.isDisposed();
+        }
+
+        @Override
+        public int maxConnections() {
+            return delegate.maxConnections();
+        }
+
+        @Override
+        public Map<SocketAddress, Integer> maxConnectionsPerHost() {
+            return delegate.maxConnectionsPerHost();
+        }
+
+        @Override
+        public Builder mutate() {
+            return delegate.mutate();
+        }
+
+        @Override
+        public String name() {
+            return delegate.name();
+        }
+    }
+
+    private static final class JettyDelegate {
+        private static final String TRANSPORT = "jetty";
+
+        static Consumer<org.eclipse.jetty.client.HttpClient> binder(
+                ExchangePoolMetrics metrics, String channel, List<AutoCloseable> resources) {
+            return client -> {
+                JettyPool pool = new JettyPool(client);
+                metrics.register(channel, TRANSPORT, pool);
+                metrics.addCloser(resources, () -> metrics.unregister(channel, TRANSPORT, pool));
+            };
+        }
+    }
+
+    /**
+     * Jetty creates a destination (with its own pool) per origin, the statistics are the sum of them.
+     */
+    private record JettyPool(org.eclipse.jetty.client.HttpClient client) implements Pool {
+
+        @Override
+        public int leased() {
+            return sum(AbstractConnectionPool::getActiveConnectionCount);
+        }
+
+        @Override
+        public int idle() {
+            return sum(AbstractConnectionPool::getIdleConnectionCount);
+        }
+
+        @Override
+        public int pending() {
+            int result = 0;
+            for (Destination destination : client.getDestinations()) {
+                if (destination instanceof HttpDestination httpDestination) {
+                    result += httpDestination.getQueuedRequestCount();
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int max() {
+            return sum(AbstractConnectionPool::getMaxConnectionCount);
+        }
+
+        private int sum(ToIntFunction<AbstractConnectionPool> value) {
+            int result = 0;
+            for (Destination destination : client.getDestinations()) {
+                if (destination.getConnectionPool() instanceof AbstractConnectionPool pool) {
+                    result += value.applyAsInt(pool);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class HttpComponentsDelegate {
+        private static final String TRANSPORT = "apache-httpclient5";
+
+        /**
+         * The connection manager is not exposed by the built client, find it by its type.
+         */
+        static void bind(ExchangePoolMetrics metrics, String channel, Object client, List<AutoCloseable> resources) {
+            ConnPoolStats<?> stats = findFieldValue(client, ConnPoolStats.class, null);
+            if (stats == null) {
+                logUnsupported(channel, client);
+                return;
+            }
+            HttpComponentsPool pool = new HttpComponentsPool(stats);
+            metrics.register(channel, TRANSPORT, pool);
+            metrics.addCloser(resources, () -> metrics.unregister(channel, TRANSPORT, pool));
+        }
+
+        @Nullable
+        static <T> T findFieldValue(Object target, Class<T> type, @Nullable String name) {
+            Object[] result = new Object[1];
+            ReflectionUtils.doWithFields(
+                    target.getClass(),
+                    field -> {
+                        ReflectionUtils.makeAccessible(field);
+                        Object value = ReflectionUtils.getField(field, target);
+                        if (result[0] == null && type.isInstance(value)) {
+                            result[0] = value;
+                        }
+                    },
+                    field -> name == null || name.equals(field.getName()));
+            return type.cast(result[0]);
+        }
+    }
+
+    private record HttpComponentsPool(ConnPoolStats<?> stats) implements Pool {
+
+        @Override
+        public int leased() {
+            return stats.getTotalStats().getLeased();
+        }
+
+        @Override
+        public int idle() {
+            return stats.getTotalStats().getAvailable();
+        }
+
+        @Override
+        public int pending() {
+            return stats.getTotalStats().getPending();
+        }
+
+        @Override
+        public int max() {
+            return stats.getTotalStats().getMax();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Consistent hash ring with virtual nodes over the endpoints of an {@link ExchangeLoadBalancer}.
+ *
+ * <p> Each endpoint is placed on the ring at the hashes of its url and virtual node index,
+ * a key is mapped to the first endpoint clockwise from the hash of the key.
+ * The positions only depend on the endpoint urls, so adding or removing an endpoint only remaps the keys
+ * between the removed or added positions, about {@code 1/n} of the keys.
+ *
+ * <p> The ring is immutable, looking up a key is a binary search.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class HashRing<T> {
+
+    private final long[] hashes;
+    private final Object[] owners;
+
+    /**
+     * @param nodes        the nodes, e.g. endpoints
+     * @param nodeKeys     the key of each node, e.g. the endpoint url
+     * @param virtualNodes number of positions of each node on the ring
+     */
+    HashRing(List<T> nodes, List<String> nodeKeys, int virtualNodes) {
+        int perNode = Math.max(1, virtualNodes);
+        long[][] points = new long[nodes.size() * perNode][];
+        int n = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int v = 0; v < perNode; v++) {
+                // {hash, node index}, ties are broken by node key so the ring does not depend on the node order
+                points[n++] = new long[] {hash(nodeKeys.get(i) + "#" + v), i};
+            }
+        }
+        Arrays.sort(
+                points,
+                (a, b) -> a[0] != b[0]
+                        ? Long.compare(a[0], b[0])
+                        : nodeKeys.get((int) a[1]).compareTo(nodeKeys.get((int) b[1])));
+        this.hashes = new long[points.length];
+        this.owners = new Object[points.length];
+        for (int i = 0; i < points.length; i++) {
+            hashes[i] = points[i][0];
+            owners[i] = nodes.get((int) points[i][1]);
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return the node of the key
+     */
+    T get(String key) {
+        return get(key, node -> true);
+    }
+
+    /**
+     * @param key       the key
+     * @param available whether a node can be chosen, unavailable nodes are skipped clockwise
+     * @return the first available node clockwise from the key, the node of the key if none is available
+     */
+    @SuppressWarnings("unchecked")
+    T get(String key, Predicate<T> available) {
+        int index = Arrays.binarySearch(hashes, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        int start = index == hashes.length ? 0 : index;
+        for (int i = 0; i < owners.length; i++) {
+            T owner = (T) owners[(start + i) % owners.length];
+            if (available.test(owner)) {
+                return owner;
+            }
+        }
+        return (T) owners[start];
+    }
+
+    /**
+     * 64-bit FNV-1a of the chars, finalized by the MurmurHash3 mixer for a uniform distribution.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -4,17 +4,20 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.context.ApplicationStartupAware;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.util.ObjectUtils;
 
 /**
  * @author Freeman
  */
-class HttpClientBeanDefinitionRegistry implements BeanDefinitionRegistryPostProcessor {
+class HttpClientBeanDefinitionRegistry implements BeanDefinitionRegistryPostProcessor, ApplicationStartupAware {
 
     static final ScanInfo scanInfo = new ScanInfo();
 
     private final Environment environment;
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
 
     HttpClientBeanDefinitionRegistry(Environment environment) {
         this.environment = environment;
@@ -30,7 +33,7 @@ class HttpClientBeanDefinitionRegistry implements BeanDefinitionRegistryPostProc
     }
 
     /*private*/ void registerBeans(HttpClientBeanRegistrar registrar) {
-        var properties = Util.getProperties(environment);
+        var properties = Util.getProperties(environment, applicationStartup);
         scanInfo.basePackages.addAll(properties.getBasePackages());
         if (!ObjectUtils.isEmpty(scanInfo.basePackages)) {
             registrar.register(scanInfo.basePackages.toArray(String[]::new));
@@ -41,6 +44,11 @@ class HttpClientBeanDefinitionRegistry implements BeanDefinitionRegistryPostProc
         }
     }
 
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
     @Override
     public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
         // nothing to do
@@ -18,6 +18,8 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.ClassMetadata;
 import org.springframework.core.type.classreading.MetadataReader;
@@ -32,6 +34,7 @@ class HttpClientBeanRegistrar {
     private final ClassPathScanningCandidateComponentProvider scanner = getScanner();
     private final BeanDefinitionRegistry registry;
     private final Environment environment;
+    private final ApplicationStartup applicationStartup;
 
     private static final HashMap<BeanDefinitionRegistry, Map<Class<?>, List<BeanDefinition>>> beanDefinitionMap =
             new HashMap<>();
@@ -39,6 +42,7 @@ class HttpClientBeanRegistrar {
     public HttpClientBeanRegistrar(BeanDefinitionRegistry registry, Environment environment) {
         this.registry = registry;
         this.environment = environment;
+        this.applicationStartup = Util.getApplicationStartup(registry);
     }
 
     /**
@@ -73,6 +77,11 @@ class HttpClientBeanRegistrar {
             return;
         }
 
+        // Async variant may be already registered alongside the original interface
+        if (Util.getSyncVariant(clz) != null && registry.containsBeanDefinition(clz.getName())) {
+            return;
+        }
+
         if (!(registry instanceof DefaultListableBeanFactory bf)) {
             throw new IllegalArgumentException("BeanDefinitionRegistry is not a DefaultListableBeanFactory");
         }
@@ -87,6 +96,21 @@ class HttpClientBeanRegistrar {
         }
 
         HttpExchangeUtil.registerHttpExchangeBean(bf, environment, clz);
+
+        registerAsyncVariant(bf, clz);
+    }
+
+    /**
+     * Register the asynchronous variant generated by {@code httpexchange-processor} alongside the original interface.
+     */
+    private void registerAsyncVariant(DefaultListableBeanFactory bf, Class<?> clz) {
+        var asyncVariant = Util.getAsyncVariant(clz);
+        if (asyncVariant == null
+                || bf.containsBeanDefinition(asyncVariant.getName())
+                || hasManualRegistered(bf, asyncVariant)) {
+            return;
+        }
+        HttpExchangeUtil.registerHttpExchangeBean(bf, environment, asyncVariant);
     }
 
     private static void addBeanDefinitionCache(DefaultListableBeanFactory bf) {
@@ -134,7 +158,16 @@ class HttpClientBeanRegistrar {
 
     private void registerBeans4BasePackages(Collection<String> basePackages) {
         for (String pkg : basePackages) {
-            Set<BeanDefinition> beanDefinitions = scanner.findCandidateComponents(pkg);
+            StartupStep step = applicationStartup
+                    .start(Util.STARTUP_STEP_PREFIX + "clients.scan")
+                    .tag("package", pkg);
+            Set<BeanDefinition> beanDefinitions;
+            try {
+                beanDefinitions = scanner.findCandidateComponents(pkg);
+                step.tag("candidates", String.valueOf(beanDefinitions.size()));
+            } finally {
+                step.end();
+            }
             for (BeanDefinition bd : beanDefinitions) {
                 var clz = Util.getBeanDefinitionClass(bd);
                 if (clz != null) {
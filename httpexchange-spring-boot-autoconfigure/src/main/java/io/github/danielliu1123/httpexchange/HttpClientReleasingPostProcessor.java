@@ -0,0 +1,42 @@
+package io.github.danielliu1123.httpexchange;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+
+/**
+ * Release the http client retained by an exchange client bean when the bean is destroyed,
+ * e.g. the refresh scope destroys the exchange clients on refresh, see {@link SharedHttpClient}.
+ *
+ * <p> The bean may be a proxy of the exchange client, e.g. for method validation.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class HttpClientReleasingPostProcessor implements DestructionAwareBeanPostProcessor {
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return findClient(bean) != null;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) {
+        Object client = findClient(bean);
+        if (client != null) {
+            Cache.releaseHttpClient(client);
+        }
+    }
+
+    @Nullable
+    private static Object findClient(Object bean) {
+        Object candidate = bean;
+        while (candidate != null) {
+            if (Cache.hasHttpClient(candidate)) {
+                return candidate;
+            }
+            candidate = AopProxyUtils.getSingletonTarget(candidate);
+        }
+        return null;
+    }
+}
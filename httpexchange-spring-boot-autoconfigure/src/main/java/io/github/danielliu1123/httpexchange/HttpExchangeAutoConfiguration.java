@@ -2,11 +2,15 @@ package io.github.danielliu1123.httpexchange;
 
 import static io.github.danielliu1123.httpexchange.Checker.checkUnusedConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringBootVersion;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -15,6 +19,7 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.web.service.annotation.HttpExchange;
 
@@ -48,12 +53,29 @@ public class HttpExchangeAutoConfiguration
         return new HttpClientBeanDefinitionRegistry(environment);
     }
 
+    @Bean
+    static HttpClientReleasingPostProcessor httpClientReleasingPostProcessor() {
+        return new HttpClientReleasingPostProcessor();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public BeanParamArgumentResolver beanParamArgumentResolver(HttpExchangeProperties properties) {
         return new BeanParamArgumentResolver(properties);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public StreamingBodyArgumentResolver streamingBodyArgumentResolver() {
+        return new StreamingBodyArgumentResolver();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TargetFileArgumentResolver targetFileArgumentResolver() {
+        return new TargetFileArgumentResolver();
+    }
+
     @Bean
     @ConditionalOnProperty(
             prefix = HttpExchangeProperties.PREFIX,
@@ -63,6 +85,30 @@ public class HttpExchangeAutoConfiguration
         return args -> checkUnusedConfig(properties);
     }
 
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        static ExchangeMetrics httpExchangeMetrics(
+                ObjectProvider<MeterRegistry> meterRegistry, HttpExchangeProperties properties) {
+            return new ExchangeMetrics(meterRegistry, properties.getMetrics());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        static HttpExchangeEndpoint httpExchangeEndpoint(BeanFactory beanFactory) {
+            return new HttpExchangeEndpoint(beanFactory);
+        }
+    }
+
     @Override
     public void destroy() {
         Cache.clear();
@@ -0,0 +1,205 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.actuate.endpoint.OperationResponseBody;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link Endpoint @Endpoint} to expose the exchange clients, the channels they resolved to and the shared http clients.
+ *
+ * <p> All data is read from memory, so it is cheap to poll frequently.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+@Endpoint(id = "httpexchange")
+public final class HttpExchangeEndpoint {
+
+    private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent(
+            "io.micrometer.core.instrument.MeterRegistry", HttpExchangeEndpoint.class.getClassLoader());
+
+    private final BeanFactory beanFactory;
+
+    HttpExchangeEndpoint(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @ReadOperation
+    public HttpExchangeDescriptor httpExchange() {
+        Map<Cache.ClientId, Object> httpClients = Cache.getHttpClients();
+        Map<Class<?>, Cache.ClientId> clientIds = Cache.getClientIds();
+        @Nullable MetricsDelegate metrics = MICROMETER_PRESENT ? MetricsDelegate.create(beanFactory) : null;
+
+        List<ClientDescriptor> clients = new ArrayList<>();
+        Map<Cache.ClientId, List<String>> httpClientToClients = new LinkedHashMap<>();
+        clientIds.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Class::getName)))
+                .forEach(entry -> {
+                    String client = entry.getKey().getName();
+                    Cache.ClientId clientId = entry.getValue();
+                    Object httpClient = httpClients.get(clientId);
+                    if (httpClient != null) {
+                        httpClientToClients
+                                .computeIfAbsent(clientId, k -> new ArrayList<>())
+                                .add(client);
+                    }
+                    clients.add(new ClientDescriptor(
+                            client,
+                            clientId.channel(),
+                            clientId.clientType(),
+                            clientId.baseUrl(),
+                            httpClient != null ? identity(httpClient) : null,
+                            httpClient != null,
+                            metrics != null ? metrics.methods(client) : List.of()));
+                });
+
+        List<HttpClientDescriptor> sharedHttpClients = httpClientToClients.entrySet().stream()
+                .map(entry -> new HttpClientDescriptor(
+                        identity(httpClients.get(entry.getKey())),
+                        entry.getKey().channel(),
+                        entry.getKey().clientType(),
+                        entry.getValue()))
+                .sorted(Comparator.comparing(HttpClientDescriptor::channel)
+                        .thenComparing(HttpClientDescriptor::clientType))
+                .toList();
+
+        return new HttpExchangeDescriptor(
+                clients,
+                sharedHttpClients,
+                metrics != null ? metrics.pools() : List.of(),
+                new CacheDescriptor(
+                        clientIds.size(),
+                        httpClients.size(),
+                        Cache.getHttpClientRequests(),
+                        Cache.getHttpClientMisses()));
+    }
+
+    private static String identity(Object httpClient) {
+        return ClassUtils.getShortName(httpClient.getClass()) + "@"
+                + Integer.toHexString(System.identityHashCode(httpClient));
+    }
+
+    /**
+     * @param clients     exchange clients, sorted by name
+     * @param httpClients shared http clients, sorted by channel and client type
+     * @param pools       connection pools, empty if pool metrics are not enabled
+     * @param cache       http client cache statistics
+     */
+    public record HttpExchangeDescriptor(
+            List<ClientDescriptor> clients,
+            List<HttpClientDescriptor> httpClients,
+            List<PoolDescriptor> pools,
+            CacheDescriptor cache)
+            implements OperationResponseBody {}
+
+    /**
+     * @param name       fully qualified name of the client interface
+     * @param channel    name of the matched channel, {@code default} if no channel matched
+     * @param clientType client type
+     * @param baseUrl    base url of the channel, comma separated base urls if the channel is load balanced
+     * @param httpClient identity of the http client, {@code null} if the http client is not shared
+     * @param shared     whether the http client is shared by the clients of the same channel and client type
+     * @param methods    latency summary of each called method, empty if metrics are not enabled
+     */
+    public record ClientDescriptor(
+            String name,
+            String channel,
+            HttpExchangeProperties.ClientType clientType,
+            @Nullable String baseUrl,
+            @Nullable String httpClient,
+            boolean shared,
+            List<MethodDescriptor> methods) {}
+
+    /**
+     * @param name   method name
+     * @param count  number of calls
+     * @param meanMs mean latency in milliseconds
+     * @param maxMs  max latency in milliseconds of the recent calls
+     */
+    public record MethodDescriptor(String name, long count, double meanMs, double maxMs) {}
+
+    /**
+     * @param id         identity of the http client
+     * @param channel    channel name
+     * @param clientType client type
+     * @param clients    clients using the http client
+     */
+    public record HttpClientDescriptor(
+            String id, String channel, HttpExchangeProperties.ClientType clientType, List<String> clients) {}
+
+    /**
+     * @param channel   channel name
+     * @param transport transport of the http client, e.g. {@code reactor-netty}
+     * @param leased    connections leased from the pool
+     * @param idle      idle connections in the pool
+     * @param pending   requests waiting for a connection
+     * @param max       max connections of the pool
+     */
+    public record PoolDescriptor(String channel, String transport, int leased, int idle, int pending, int max) {}
+
+    /**
+     * @param clients     number of clients
+     * @param httpClients number of shared http clients
+     * @param requests    number of http client lookups
+     * @param misses      number of http clients built on lookup
+     */
+    public record CacheDescriptor(int clients, int httpClients, long requests, long misses) {}
+
+    private record MetricsDelegate(ExchangeMetrics metrics) {
+
+        @Nullable
+        static MetricsDelegate create(BeanFactory beanFactory) {
+            ExchangeMetrics metrics =
+                    beanFactory.getBeanProvider(ExchangeMetrics.class).getIfAvailable();
+            return metrics != null ? new MetricsDelegate(metrics) : null;
+        }
+
+        List<MethodDescriptor> methods(String client) {
+            Map<String, List<Timer>> methodToTimers = new TreeMap<>();
+            for (Timer timer : metrics.getTimers()) {
+                if (client.equals(timer.getId().getTag("client"))) {
+                    methodToTimers
+                            .computeIfAbsent(timer.getId().getTag("method"), k -> new ArrayList<>())
+                            .add(timer);
+                }
+            }
+            List<MethodDescriptor> result = new ArrayList<>();
+            methodToTimers.forEach((method, timers) -> {
+                long count = 0;
+                double total = 0;
+                double max = 0;
+                for (Timer timer : timers) {
+                    count += timer.count();
+                    total += timer.totalTime(TimeUnit.MILLISECONDS);
+                    max = Math.max(max, timer.max(TimeUnit.MILLISECONDS));
+                }
+                result.add(new MethodDescriptor(method, count, count > 0 ? total / count : 0, max));
+            });
+            return result;
+        }
+
+        List<PoolDescriptor> pools() {
+            ExchangePoolMetrics poolMetrics = metrics.getPoolMetrics();
+            if (poolMetrics == null) {
+                return List.of();
+            }
+            return poolMetrics.snapshot().stream()
+                    .sorted(Comparator.comparing(ExchangePoolMetrics.PoolSnapshot::channel)
+                            .thenComparing(ExchangePoolMetrics.PoolSnapshot::transport))
+                    .map(pool -> new PoolDescriptor(
+                            pool.channel(), pool.transport(), pool.leased(), pool.idle(), pool.pending(), pool.max()))
+                    .toList();
+        }
+    }
+}
@@ -2,10 +2,12 @@ package io.github.danielliu1123.httpexchange;
 
 import static java.util.stream.Collectors.toMap;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,6 +19,7 @@ import org.springframework.boot.http.client.HttpRedirects;
 import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
 import org.springframework.boot.http.client.autoconfigure.HttpClientSettingsProperties;
 import org.springframework.boot.http.client.autoconfigure.HttpClientsProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -55,6 +58,7 @@ public class HttpExchangeProperties implements InitializingBean {
      *     <li> https://localhost:8080 </li>
      *     <li> localhost:8080/api </li>
      *     <li> user(service id) </li>
+     *     <li> unix:///var/run/envoy.sock (Unix domain socket, requires Reactor Netty) </li>
      * </ul>
      */
     @Nullable
@@ -116,6 +120,65 @@ public class HttpExchangeProperties implements InitializingBean {
      * @since 3.2.2
      */
     private boolean httpClientReuseEnabled = true;
+    /**
+     * Download configuration, used by methods with a {@link TargetFile} argument.
+     *
+     * @since 4.1.0
+     */
+    private Download download = new Download();
+    /**
+     * Compression configuration.
+     *
+     * @since 4.1.0
+     */
+    private Compression compression = new Compression();
+    /**
+     * Codec used to encode request bodies and decode response bodies, use the default message converters if not set.
+     *
+     * @see Codec
+     * @since 4.1.0
+     */
+    @Nullable
+    private Codec codec;
+    /**
+     * Whether to precompute the Jackson reader/writer of the body types of each method, default {@code false}.
+     *
+     * <p> Only works for {@link ClientType#REST_CLIENT} with JSON, the JSON message converter is replaced by one
+     * that uses the precomputed reader/writer directly, no {@code JavaType} construction and (de)serializer lookup on each call.
+     *
+     * @since 4.1.0
+     */
+    private boolean precomputeJsonEnabled = false;
+    /**
+     * Metrics configuration, used when a {@code MeterRegistry} is present.
+     *
+     * @since 4.1.0
+     */
+    private Metrics metrics = new Metrics();
+    /**
+     * JDK Flight Recorder configuration.
+     *
+     * @since 4.1.0
+     */
+    private Jfr jfr = new Jfr();
+    /**
+     * Slow call log configuration.
+     *
+     * @since 4.1.0
+     */
+    private SlowCallLog slowCallLog = new SlowCallLog();
+    /**
+     * Load balancing configuration, used by channels with {@link Channel#baseUrls}.
+     *
+     * @since 4.1.0
+     */
+    private LoadBalancing loadBalancing = new LoadBalancing();
+    /**
+     * {@link ClientType#LOCAL} configuration.
+     *
+     * @since 4.1.0
+     */
+    private Local local = new Local();
 
     /**
      * @param key    Header key.
@@ -153,6 +216,34 @@ public class HttpExchangeProperties implements InitializingBean {
                 chan.setHttpClientReuseEnabled(httpClientReuseEnabled);
             }
 
+            if (chan.getDownload() == null) {
+                chan.setDownload(download);
+            }
+
+            if (chan.getCompression() == null) {
+                chan.setCompression(compression);
+            }
+
+            if (codec != null && chan.getCodec() == null) {
+                chan.setCodec(codec);
+            }
+
+            if (chan.getPrecomputeJsonEnabled() == null) {
+                chan.setPrecomputeJsonEnabled(precomputeJsonEnabled);
+            }
+
+            if (chan.getSlowCallLog() == null) {
+                chan.setSlowCallLog(slowCallLog);
+            }
+
+            if (chan.getLoadBalancing() == null) {
+                chan.setLoadBalancing(loadBalancing);
+            }
+
+            if (chan.getLocal() == null) {
+                chan.setLocal(local);
+            }
+
             // defaultHeaders + chan.headers
             LinkedHashMap<String, List<String>> total = headers.stream()
                     .collect(toMap(Header::key, Header::values, (oldV, newV) -> oldV, LinkedHashMap::new));
@@ -179,7 +270,15 @@ public class HttpExchangeProperties implements InitializingBean {
                 httpClientReuseEnabled,
                 null,
                 List.of(),
-                List.of());
+                List.of(),
+                download,
+                compression,
+                codec,
+                precomputeJsonEnabled,
+                slowCallLog,
+                List.of(),
+                loadBalancing,
+                local);
     }
 
     @Data
@@ -284,6 +383,286 @@ public class HttpExchangeProperties implements InitializingBean {
          * <p> This is a more IDE-friendly alternative to {@link HttpExchangeProperties.Channel#clients}.
          */
         private List<Class<?>> classes = new ArrayList<>();
+        /**
+         * Download configuration, use {@link HttpExchangeProperties#download} if not set.
+         *
+         * @see HttpExchangeProperties#download
+         * @since 4.1.0
+         */
+        @Nullable
+        private Download download;
+        /**
+         * Compression configuration, use {@link HttpExchangeProperties#compression} if not set.
+         *
+         * @see HttpExchangeProperties#compression
+         * @since 4.1.0
+         */
+        @Nullable
+        private Compression compression;
+        /**
+         * Codec, use {@link HttpExchangeProperties#codec} if not set.
+         *
+         * @see HttpExchangeProperties#codec
+         * @since 4.1.0
+         */
+        @Nullable
+        private Codec codec;
+        /**
+         * Whether to precompute the Jackson reader/writer, use {@link HttpExchangeProperties#precomputeJsonEnabled} if not set.
+         *
+         * @see HttpExchangeProperties#precomputeJsonEnabled
+         * @since 4.1.0
+         */
+        @Nullable
+        private Boolean precomputeJsonEnabled;
+        /**
+         * Slow call log configuration, use {@link HttpExchangeProperties#slowCallLog} if not set.
+         *
+         * @see HttpExchangeProperties#slowCallLog
+         * @since 4.1.0
+         */
+        @Nullable
+        private SlowCallLog slowCallLog;
+        /**
+         * Base urls to load balance among, {@link #baseUrl} is ignored if set.
+         *
+         * <p> The endpoint of each request is chosen by the built-in load balancer with {@link #loadBalancing},
+         * Spring Cloud LoadBalancer is not used for this channel.
+         *
+         * <ul>
+         *     <li> localhost:8080 </li>
+         *     <li> http://10.0.0.1:8080/api </li>
+         * </ul>
+         *
+         * @since 4.1.0
+         */
+        private List<String> baseUrls = new ArrayList<>();
+        /**
+         * Load balancing configuration, use {@link HttpExchangeProperties#loadBalancing} if not set.
+         *
+         * @see HttpExchangeProperties#loadBalancing
+         * @since 4.1.0
+         */
+        @Nullable
+        private LoadBalancing loadBalancing;
+        /**
+         * {@link ClientType#LOCAL} configuration, use {@link HttpExchangeProperties#local} if not set.
+         *
+         * @see HttpExchangeProperties#local
+         * @since 4.1.0
+         */
+        @Nullable
+        private Local local;
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * Whether to record a timer per channel, client and method, default {@code true}.
+         */
+        private boolean enabled = true;
+        /**
+         * Whether to publish a percentile histogram for the timers, default {@code true}.
+         */
+        private boolean percentileHistogram = true;
+        /**
+         * Max number of timers (time series), calls that would create more timers are not recorded, default {@code 1000}.
+         */
+        private int maxTimeSeries = 1000;
+        /**
+         * Whether to publish connection pool gauges per channel, default {@code true}.
+         *
+         * <p> For Reactor Netty, each channel uses a dedicated connection pool instead of the global one.
+         */
+        private boolean poolEnabled = true;
+    }
+
+    @Data
+    public static class Jfr {
+        /**
+         * Whether to emit a JFR event for each exchange client call, default {@code false}.
+         *
+         * <p> The event is only captured when it is enabled in a running recording.
+         */
+        private boolean enabled = false;
+    }
+
+    @Data
+    public static class SlowCallLog {
+        /**
+         * Whether to log slow calls at {@code WARN} level, default {@code false}.
+         */
+        private boolean enabled = false;
+        /**
+         * Calls that take longer than this are slow, default {@code 1s}, no absolute threshold if not set.
+         */
+        @Nullable
+        private Duration threshold = Duration.ofSeconds(1);
+        /**
+         * Calls that take longer than the rolling p99 of the method multiplied by this value are slow,
+         * no relative threshold if not set.
+         *
+         * <p> The p99 is computed over the last 256 calls of each method, once there are at least 128 calls.
+         */
+        @Nullable
+        private Double p99Multiplier;
+        /**
+         * Max number of slow calls logged per second per channel, default {@code 10}.
+         *
+         * <p> The suppressed calls are counted and reported by the next log.
+         */
+        private int maxLogsPerSecond = 10;
+    }
+
+    @Data
+    public static class LoadBalancing {
+        /**
+         * Strategy to choose the endpoint of each request, default {@link Strategy#ROUND_ROBIN}.
+         */
+        private Strategy strategy = Strategy.ROUND_ROBIN;
+        /**
+         * Decay time of the response time average of {@link Strategy#EWMA}, default {@code 10s}.
+         *
+         * <p> A smaller value reacts faster to latency changes, a larger value is less sensitive to outliers.
+         */
+        private Duration ewmaDecay = Duration.ofSeconds(10);
+        /**
+         * Min response time recorded by {@link Strategy#EWMA} for a failed request (IO error or 5xx), default {@code 1s}.
+         *
+         * <p> Prevents an endpoint that fails fast from attracting traffic.
+         */
+        private Duration ewmaFailurePenalty = Duration.ofSeconds(1);
+        /**
+         * Request header used as the routing key of the channel, requests with the same routing key are sent to
+         * the same endpoint (consistent hashing), not set by default.
+         *
+         * <p> {@link RoutingKey} on a method or parameter takes precedence.
+         */
+        @Nullable
+        private String routingKeyHeader;
+        /**
+         * Number of virtual nodes of each endpoint on the consistent hash ring, default {@code 128}.
+         *
+         * <p> More virtual nodes spread the keys more evenly, at the cost of memory.
+         */
+        private int virtualNodes = 128;
+        /**
+         * Passive outlier detection, ejects failing endpoints from load balancing.
+         */
+        private OutlierDetection outlierDetection = new OutlierDetection();
+        /**
+         * Zone preference, prefers endpoints in the same zone as the client.
+         */
+        private ZonePreference zonePreference = new ZonePreference();
+
+        public enum Strategy {
+            /**
+             * Choose the endpoints in turn.
+             */
+            ROUND_ROBIN,
+            /**
+             * Choose a random endpoint.
+             */
+            RANDOM,
+            /**
+             * Choose the endpoint with fewer outstanding requests of two random endpoints (power of two choices).
+             */
+            LEAST_REQUEST,
+            /**
+             * Choose the endpoint with lower peak EWMA (exponentially weighted moving average) response time
+             * multiplied by outstanding requests of two random endpoints (power of two choices).
+             */
+            EWMA
+        }
+    }
+
+    @Data
+    public static class Local {
+        /**
+         * Whether to copy the arguments and return value through a JSON round-trip, default {@code false}.
+         *
+         * <p> The implementation and the caller don't share mutable objects,
+         * and values that can't be serialized fail as they would over HTTP.
+         */
+        private boolean serializationEnabled = false;
+    }
+
+    @Data
+    public static class ZonePreference {
+        /**
+         * Whether to prefer endpoints in the same zone as the client, default {@code false}.
+         */
+        private boolean enabled = false;
+        /**
+         * Zone of the client, use {@code spring.cloud.loadbalancer.zone} if not set.
+         */
+        @Nullable
+        private String zone;
+        /**
+         * Zone to its base urls, for channels with {@link Channel#getBaseUrls() base urls}.
+         *
+         * <p> With Spring Cloud LoadBalancer, the zone of an instance is its {@code zone} metadata.
+         */
+        private Map<String, List<String>> endpoints = new LinkedHashMap<>();
+        /**
+         * Min number of healthy endpoints in the same zone, default {@code 1}.
+         * Spill over to other zones if there are fewer.
+         */
+        private int minEndpoints = 1;
+        /**
+         * Min percentage of healthy endpoints in the same zone, default {@code 70}.
+         * Spill over to other zones if fewer endpoints are healthy, e.g. some are ejected by {@link OutlierDetection}.
+         */
+        private int minHealthyPercent = 70;
+        /**
+         * Max outstanding requests of each endpoint in the same zone, {@code 0} (default) for no limit.
+         * Spill over to other zones if all endpoints in the same zone reach the limit.
+         */
+        private int maxInFlightPerEndpoint = 0;
+    }
+
+    @Data
+    public static class OutlierDetection {
+        /**
+         * Whether to eject failing endpoints, default {@code false}.
+         *
+         * <p> A request fails if no response is received (e.g. connection refused, timeout) or the response is 5xx.
+         */
+        private boolean enabled = false;
+        /**
+         * Number of consecutive failures that ejects an endpoint, default {@code 5}, {@code 0} to disable.
+         */
+        private int consecutiveFailures = 5;
+        /**
+         * Failure rate in {@code (0, 1]} within {@link #interval} that ejects an endpoint, disabled if not set.
+         */
+        @Nullable
+        private Double failureRateThreshold;
+        /**
+         * Min number of requests within {@link #interval} to evaluate {@link #failureRateThreshold}, default {@code 20}.
+         */
+        private int failureRateMinimumRequests = 20;
+        /**
+         * Time window of {@link #failureRateThreshold}, default {@code 10s}.
+         */
+        private Duration interval = Duration.ofSeconds(10);
+        /**
+         * Ejection time of the first ejection, default {@code 30s}.
+         *
+         * <p> The ejection time doubles on each ejection of the same endpoint, up to {@link #maxEjectionTime}.
+         * It is reset once the endpoint has not been ejected for {@link #maxEjectionTime}.
+         */
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+        /**
+         * Max ejection time, default {@code 300s}.
+         */
+        private Duration maxEjectionTime = Duration.ofSeconds(300);
+        /**
+         * Max percentage of endpoints ejected at the same time, default {@code 50}.
+         *
+         * <p> At least one endpoint can be ejected if there are more than one, and at least one endpoint is never ejected.
+         */
+        private int maxEjectionPercent = 50;
     }
 
     @Data
@@ -299,6 +678,108 @@ public class HttpExchangeProperties implements InitializingBean {
          * @see <a href="https://github.com/spring-cloud/spring-cloud-release/wiki/AOT-transformations-and-native-image-support#refresh-scope">Refresh Scope</a>
          */
         private boolean enabled = false;
+        /**
+         * Time to wait before closing a http client no longer used by any exchange client, default {@code 30s}.
+         *
+         * <p> Exchange clients are recreated on refresh, the http clients of the old ones are closed (e.g. connection pools)
+         * after this period, so in-flight requests can complete. An unchanged http client is reused if it's needed again within the period.
+         *
+         * @since 4.1.0
+         */
+        private Duration gracePeriod = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Download {
+        /**
+         * Max size of the response body, no limit if not set.
+         *
+         * <p> The download fails if the {@code Content-Length} or the actual size of the body exceeds this value.
+         */
+        @Nullable
+        private DataSize maxSize;
+        /**
+         * Size of the buffer used to copy the response body to the file, default {@code 64KB}.
+         */
+        private DataSize bufferSize = DataSize.ofKilobytes(64);
+        /**
+         * Whether to verify the checksum of the downloaded file, default {@code true}.
+         *
+         * <p> The checksum is taken from the {@code Repr-Digest}, {@code Digest} or {@code Content-MD5} response header,
+         * no verification if the response has none of them.
+         */
+        private boolean checksumEnabled = true;
+        /**
+         * Number of concurrent range requests used to download a resource, default {@code 1} (disabled).
+         *
+         * <p> If greater than 1 and the server supports {@code Accept-Ranges: bytes},
+         * the resource is split into segments downloaded concurrently into a pre-allocated file,
+         * falls back to a single stream if ranges are not supported.
+         */
+        private int parallelism = 1;
+        /**
+         * Min size of each segment of a ranged download, default {@code 8MB}.
+         *
+         * <p> Resources smaller than {@code 2 * minPartSize} are downloaded with a single stream.
+         */
+        private DataSize minPartSize = DataSize.ofMegabytes(8);
+        /**
+         * Max retries of a failed segment of a ranged download, default {@code 3}.
+         *
+         * <p> The retry resumes from the last received byte of the segment.
+         */
+        private int segmentRetries = 3;
+        /**
+         * Max number of segment requests running at the same time for all ranged downloads of a client, default {@code 16}.
+         *
+         * <p> Segments over the limit wait for a running segment to complete.
+         */
+        private int maxConcurrentSegments = 16;
+    }
+
+    @Data
+    public static class Compression {
+        /**
+         * Whether to compress request bodies, default {@code false}.
+         *
+         * <p> The body is compressed while it is written to the connection, the {@code Content-Length} header is removed
+         * and the {@code Content-Encoding} header is set, make sure the server supports the {@link #algorithm}.
+         */
+        private boolean requestEnabled = false;
+        /**
+         * Algorithm used to compress request bodies, default {@link Algorithm#GZIP}.
+         */
+        private Algorithm algorithm = Algorithm.GZIP;
+        /**
+         * Min size of the request body to compress, default {@code 2KB}.
+         *
+         * <p> Bodies of unknown length (e.g. JSON written by Jackson with {@code RestClient}) are always compressed.
+         */
+        private DataSize minRequestSize = DataSize.ofKilobytes(2);
+        /**
+         * Whether to decompress response bodies, default {@code false}.
+         *
+         * <p> The supported encodings ({@code gzip}, {@code deflate}, and {@code zstd} if
+         * {@code com.github.luben:zstd-jni} is in the classpath) are advertised with the {@code Accept-Encoding} header
+         * unless the request specifies one, encoded response bodies are decompressed as a stream,
+         * regardless of the underlying http client.
+         */
+        private boolean responseEnabled = false;
+
+        public enum Algorithm {
+            /**
+             * {@code Content-Encoding: gzip}.
+             */
+            GZIP,
+            /**
+             * {@code Content-Encoding: deflate}, zlib format.
+             */
+            DEFLATE,
+            /**
+             * {@code Content-Encoding: zstd}, requires {@code com.github.luben:zstd-jni} in the classpath.
+             */
+            ZSTD
+        }
     }
 
     /**
@@ -311,6 +792,34 @@ public class HttpExchangeProperties implements InitializingBean {
      */
     public record Ssl(String bundle) {}
 
+    /**
+     * Body format of the requests and responses.
+     *
+     * <p> The codec is preferred over the default ones: request bodies are written with it,
+     * and its media type is preferred in the {@code Accept} header, other formats are still accepted.
+     *
+     * @since 4.1.0
+     */
+    public enum Codec {
+        /**
+         * JSON, the default message converters.
+         */
+        JSON,
+        /**
+         * {@code application/cbor}, requires {@code tools.jackson.dataformat:jackson-dataformat-cbor} in the classpath.
+         */
+        CBOR,
+        /**
+         * {@code application/x-jackson-smile}, requires {@code tools.jackson.dataformat:jackson-dataformat-smile} in the classpath.
+         */
+        SMILE,
+        /**
+         * {@code application/x-protobuf}, only for {@code com.google.protobuf.Message} types,
+         * requires {@code com.google.protobuf:protobuf-java} in the classpath.
+         */
+        PROTOBUF
+    }
+
     public enum ClientType {
         /**
          * @see RestClient
@@ -320,5 +829,15 @@ public class HttpExchangeProperties implements InitializingBean {
          * @see WebClient
          */
         WEB_CLIENT,
+        /**
+         * Invoke the implementation of the interface in the same application context (e.g. a {@code @RestController})
+         * directly, without the HTTP stack.
+         *
+         * <p> Fall back to the default client type if there is no implementation.
+         *
+         * @see Local
+         * @since 4.1.0
+         */
+        LOCAL,
     }
 }
@@ -0,0 +1,197 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * {@link ClientHttpRequestFactory} decorator that sends each request to an endpoint chosen by {@link ExchangeLoadBalancer}.
+ *
+ * <p> The endpoint is chosen when the body is written or the request is executed,
+ * so the headers and attributes of the request are available to the load balancer.
+ *
+ * <p> This is a request factory decorator instead of a {@code ClientHttpRequestInterceptor},
+ * because {@code RestClient} buffers the whole request body once an interceptor is registered.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see LoadBalancingExchangeFilterFunction
+ */
+final class LoadBalancingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final ExchangeLoadBalancer loadBalancer;
+
+    LoadBalancingClientHttpRequestFactory(ClientHttpRequestFactory delegate, ExchangeLoadBalancer loadBalancer) {
+        this.delegate = delegate;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        if (!loadBalancer.matches(uri)) {
+            return delegate.createRequest(uri, httpMethod);
+        }
+        return new LoadBalancingClientHttpRequest(uri, httpMethod);
+    }
+
+    private final class LoadBalancingClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+        private ExchangeLoadBalancer.@Nullable Endpoint endpoint;
+        private @Nullable ClientHttpRequest request;
+
+        private LoadBalancingClientHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return request != null ? request.getURI() : uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request != null ? request.getHeaders() : headers;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return request != null ? request.getAttributes() : attributes;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return getRequest().getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            ClientHttpRequest actual;
+            try {
+                actual = getRequest();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (actual instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+                return;
+            }
+            try {
+                body.writeTo(actual.getBody());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ClientHttpRequest actual = getRequest();
+            ExchangeLoadBalancer.Endpoint chosen = endpoint;
+            if (chosen == null) {
+                return actual.execute();
+            }
+            long start = chosen.start();
+            try {
+                return new EndpointClientHttpResponse(actual.execute(), chosen, start);
+            } catch (IOException | RuntimeException e) {
+                chosen.end(start, false);
+                throw e;
+            }
+        }
+
+        private ClientHttpRequest getRequest() throws IOException {
+            ClientHttpRequest result = request;
+            if (result == null) {
+                ExchangeLoadBalancer.Endpoint chosen = loadBalancer.choose(attributes, headers);
+                result = delegate.createRequest(loadBalancer.rewrite(uri, chosen), method);
+                result.getHeaders().putAll(headers);
+                result.getAttributes().putAll(attributes);
+                endpoint = chosen;
+                request = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Ends the request on the endpoint when the response is closed, a 5xx response counts as a failure.
+     */
+    private static final class EndpointClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ExchangeLoadBalancer.Endpoint endpoint;
+        private final long start;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private EndpointClientHttpResponse(
+                ClientHttpResponse delegate, ExchangeLoadBalancer.Endpoint endpoint, long start) {
+            this.delegate = delegate;
+            this.endpoint = endpoint;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            boolean success = isSuccess();
+            try {
+                delegate.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    endpoint.end(start, success);
+                }
+            }
+        }
+
+        private boolean isSuccess() {
+            try {
+                return !delegate.getStatusCode().is5xxServerError();
+            } catch (IOException | RuntimeException e) {
+                return false;
+            }
+        }
+    }
+}
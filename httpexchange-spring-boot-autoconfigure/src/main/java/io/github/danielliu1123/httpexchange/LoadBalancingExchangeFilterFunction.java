@@ -0,0 +1,49 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ExchangeFilterFunction} that sends each request to an endpoint chosen by {@link ExchangeLoadBalancer}.
+ *
+ * <p> The endpoint is chosen on each subscription, so a retried request may go to another endpoint.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see LoadBalancingClientHttpRequestFactory
+ */
+final class LoadBalancingExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final ExchangeLoadBalancer loadBalancer;
+
+    LoadBalancingExchangeFilterFunction(ExchangeLoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!loadBalancer.matches(request.url())) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            ExchangeLoadBalancer.Endpoint endpoint = loadBalancer.choose(request.attributes(), request.headers());
+            ClientRequest actual = ClientRequest.from(request)
+                    .url(loadBalancer.rewrite(request.url(), endpoint))
+                    .build();
+            AtomicBoolean failed = new AtomicBoolean();
+            long start = endpoint.start();
+            return next.exchange(actual)
+                    .doOnNext(response -> {
+                        if (response.statusCode().is5xxServerError()) {
+                            failed.set(true);
+                        }
+                    })
+                    .doOnError(e -> failed.set(true))
+                    .doFinally(signal -> endpoint.end(start, !failed.get()));
+        });
+    }
+}
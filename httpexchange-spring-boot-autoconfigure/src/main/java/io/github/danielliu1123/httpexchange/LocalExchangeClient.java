@@ -0,0 +1,177 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.function.SingletonSupplier;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link HttpExchangeProperties.ClientType#LOCAL} client, invokes the implementation of the interface
+ * in the same application context (e.g. a {@code @RestController}) directly.
+ *
+ * <p> The implementation is looked up on the first call, so it may depend on the client.
+ * With {@link HttpExchangeProperties.Local#isSerializationEnabled() serialization}, the arguments and return value
+ * are copied through a JSON round-trip, reactive and streaming values (e.g. {@code Mono}, {@link Resource}) are not copied.
+ *
+ * <p> NOTE: the HTTP stack is skipped, so are the features based on it, e.g. headers, interceptors and metrics,
+ * and exceptions thrown by the implementation are not translated to {@code HttpClientErrorException}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class LocalExchangeClient implements MethodInterceptor {
+    private static final Logger log = LoggerFactory.getLogger(LocalExchangeClient.class);
+
+    private final Class<?> clientType;
+    private final String beanName;
+    private final SingletonSupplier<Object> target;
+
+    @Nullable
+    private final JsonMapper jsonMapper;
+
+    private final Map<Method, Signature> signatures = new ConcurrentHashMap<>();
+
+    private LocalExchangeClient(
+            Class<?> clientType, String beanName, BeanFactory beanFactory, @Nullable JsonMapper jsonMapper) {
+        this.clientType = clientType;
+        this.beanName = beanName;
+        this.target = SingletonSupplier.of(() -> beanFactory.getBean(beanName));
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Create a {@link HttpExchangeProperties.ClientType#LOCAL} client.
+     *
+     * @param clientType  the client interface
+     * @param beanName    the bean name of the implementation, see {@link #findImplementation(BeanFactory, Class)}
+     * @param beanFactory the bean factory
+     * @param local       local configuration, serialization requires Jackson
+     * @return the client
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T create(
+            Class<T> clientType, String beanName, BeanFactory beanFactory, HttpExchangeProperties.Local local) {
+        JsonMapper jsonMapper = local.isSerializationEnabled()
+                ? beanFactory.getBeanProvider(JsonMapper.class).getIfAvailable(JsonMapper::shared)
+                : null;
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterface(clientType);
+        proxyFactory.addAdvice(new LocalExchangeClient(clientType, beanName, beanFactory, jsonMapper));
+        return (T) proxyFactory.getProxy(clientType.getClassLoader());
+    }
+
+    /**
+     * Find the implementation of the client interface, exchange client beans are excluded.
+     *
+     * @param beanFactory the bean factory
+     * @param clientType  the client interface
+     * @return the bean name of the implementation, {@code null} if there is none
+     */
+    @Nullable
+    static String findImplementation(BeanFactory beanFactory, Class<?> clientType) {
+        if (!(beanFactory instanceof ListableBeanFactory lbf)) {
+            return null;
+        }
+        // Exchange clients are interface-typed or JDK proxies, don't initialize beans to find out
+        List<String> names = Arrays.stream(lbf.getBeanNamesForType(clientType, true, false))
+                .filter(name -> {
+                    Class<?> type = lbf.getType(name, false);
+                    return type != null && !type.isInterface() && !Proxy.isProxyClass(type);
+                })
+                .toList();
+        if (names.isEmpty()) {
+            return null;
+        }
+        if (names.size() > 1) {
+            log.warn(
+                    "Exchange client [{}] has multiple implementations: {}, using '{}'",
+                    clientType.getName(),
+                    names,
+                    names.get(0));
+        }
+        return names.get(0);
+    }
+
+    @Override
+    @Nullable
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (ReflectionUtils.isToStringMethod(method)) {
+            return "Local " + clientType.getName() + " -> '" + beanName + "'";
+        }
+        Object[] arguments = invocation.getArguments();
+        JsonMapper mapper = jsonMapper;
+        if (mapper == null) {
+            return AopUtils.invokeJoinpointUsingReflection(target.obtain(), method, arguments);
+        }
+        Signature signature = signatures.computeIfAbsent(method, this::resolve);
+        Object[] copies = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            copies[i] = copy(arguments[i], signature.parameterTypes()[i], mapper);
+        }
+        Object result = AopUtils.invokeJoinpointUsingReflection(target.obtain(), method, copies);
+        return copy(result, signature.returnType(), mapper);
+    }
+
+    private Signature resolve(Method method) {
+        Type[] parameterTypes = new Type[method.getParameterCount()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] =
+                    ResolvableType.forMethodParameter(method, i, clientType).getType();
+        }
+        return new Signature(
+                parameterTypes,
+                ResolvableType.forMethodReturnType(method, clientType).getType());
+    }
+
+    @Nullable
+    private static Object copy(@Nullable Object value, Type type, JsonMapper jsonMapper) {
+        if (value == null || isPassThrough(value)) {
+            return value;
+        }
+        if (value instanceof ResponseEntity<?> entity) {
+            ResolvableType body =
+                    ResolvableType.forType(type).as(ResponseEntity.class).getGeneric(0);
+            Type bodyType = body == ResolvableType.NONE ? Object.class : body.getType();
+            return new ResponseEntity<>(
+                    copy(entity.getBody(), bodyType, jsonMapper), entity.getHeaders(), entity.getStatusCode());
+        }
+        JavaType javaType = jsonMapper.constructType(type);
+        return jsonMapper.readValue(jsonMapper.writeValueAsBytes(value), javaType);
+    }
+
+    private static boolean isPassThrough(Object value) {
+        return value instanceof Publisher<?>
+                || value instanceof Flow.Publisher<?>
+                || value instanceof CompletionStage<?>
+                || value instanceof Resource
+                || value instanceof InputStream
+                || (value instanceof HttpEntity<?> && !(value instanceof ResponseEntity<?>));
+    }
+
+    private record Signature(Type[] parameterTypes, Type returnType) {}
+}
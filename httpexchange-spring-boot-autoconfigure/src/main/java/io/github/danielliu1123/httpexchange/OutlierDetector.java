@@ -0,0 +1,193 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passive outlier detection of the endpoints of an {@link ExchangeLoadBalancer}.
+ *
+ * <p> An endpoint is ejected after {@link HttpExchangeProperties.OutlierDetection#getConsecutiveFailures() consecutive failures}
+ * or when its failure rate within an {@link HttpExchangeProperties.OutlierDetection#getInterval() interval} reaches
+ * {@link HttpExchangeProperties.OutlierDetection#getFailureRateThreshold() the threshold}.
+ * The ejection time doubles on each ejection of the same endpoint, an ejected endpoint gets traffic again once the
+ * ejection time elapses, no active health check is involved.
+ *
+ * <p> Recording a result is lock-free, only ejecting an endpoint is synchronized to honor
+ * {@link HttpExchangeProperties.OutlierDetection#getMaxEjectionPercent() max ejection percent}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class OutlierDetector {
+    private static final Logger log = LoggerFactory.getLogger(OutlierDetector.class);
+
+    private final String channel;
+    private final HttpExchangeProperties.OutlierDetection properties;
+    private final long intervalNanos;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final List<Stats> stats;
+    private final int maxEjected;
+
+    /**
+     * @param channel    channel name
+     * @param properties outlier detection configuration
+     * @param size       number of endpoints
+     */
+    OutlierDetector(String channel, HttpExchangeProperties.OutlierDetection properties, int size) {
+        this.channel = channel;
+        this.properties = properties;
+        this.intervalNanos = properties.getInterval().toNanos();
+        this.baseEjectionNanos = properties.getBaseEjectionTime().toNanos();
+        this.maxEjectionNanos = properties.getMaxEjectionTime().toNanos();
+        long now = System.nanoTime();
+        List<Stats> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new Stats(now));
+        }
+        this.stats = List.copyOf(list);
+        this.maxEjected =
+                size <= 1 ? 0 : Math.min(size - 1, Math.max(1, size * properties.getMaxEjectionPercent() / 100));
+    }
+
+    /**
+     * Record the result of a request.
+     *
+     * @param endpoint the endpoint
+     * @param success  whether the request succeeded
+     */
+    void record(ExchangeLoadBalancer.Endpoint endpoint, boolean success) {
+        Stats s = stats.get(endpoint.getIndex());
+        long now = System.nanoTime();
+        long windowStart = s.windowStart.get();
+        if (now - windowStart > intervalNanos && s.windowStart.compareAndSet(windowStart, now)) {
+            s.requests.set(0);
+            s.failures.set(0);
+        }
+        int requests = s.requests.incrementAndGet();
+        if (success) {
+            s.consecutiveFailures.set(0);
+            return;
+        }
+        int failures = s.failures.incrementAndGet();
+        int consecutive = s.consecutiveFailures.incrementAndGet();
+        if (properties.getConsecutiveFailures() > 0 && consecutive >= properties.getConsecutiveFailures()) {
+            eject(endpoint, now, consecutive + " consecutive failures");
+            return;
+        }
+        Double threshold = properties.getFailureRateThreshold();
+        if (threshold != null
+                && requests >= properties.getFailureRateMinimumRequests()
+                && failures >= threshold * requests) {
+            eject(endpoint, now, "failure rate " + failures + "/" + requests);
+        }
+    }
+
+    /**
+     * @param endpoints all endpoints
+     * @return the endpoints that are not ejected, the same list if none is ejected
+     */
+    List<ExchangeLoadBalancer.Endpoint> available(List<ExchangeLoadBalancer.Endpoint> endpoints) {
+        long now = System.nanoTime();
+        List<ExchangeLoadBalancer.Endpoint> result = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            if (isEjected(i, now)) {
+                if (result == null) {
+                    result = new ArrayList<>(endpoints.subList(0, i));
+                }
+            } else if (result != null) {
+                result.add(endpoints.get(i));
+            }
+        }
+        return result == null || result.isEmpty() ? endpoints : result;
+    }
+
+    /**
+     * @param endpoint the endpoint
+     * @return whether the endpoint is ejected now
+     */
+    boolean isEjected(ExchangeLoadBalancer.Endpoint endpoint) {
+        return isEjected(endpoint.getIndex(), System.nanoTime());
+    }
+
+    /**
+     * @param endpoint the endpoint
+     * @return number of times the endpoint has been ejected
+     */
+    long getEjections(ExchangeLoadBalancer.Endpoint endpoint) {
+        return stats.get(endpoint.getIndex()).ejections.get();
+    }
+
+    private boolean isEjected(int index, long now) {
+        Stats s = stats.get(index);
+        return s.everEjected && now - s.ejectedUntil < 0;
+    }
+
+    private synchronized void eject(ExchangeLoadBalancer.Endpoint endpoint, long now, String reason) {
+        int index = endpoint.getIndex();
+        if (isEjected(index, now)) {
+            return;
+        }
+        int ejected = 0;
+        for (int i = 0; i < stats.size(); i++) {
+            if (isEjected(i, now)) {
+                ejected++;
+            }
+        }
+        Stats s = stats.get(index);
+        if (ejected >= maxEjected) {
+            log.debug(
+                    "Endpoint '{}' of channel '{}' is not ejected after {}, {} of {} endpoints are ejected",
+                    endpoint,
+                    channel,
+                    reason,
+                    ejected,
+                    stats.size());
+            return;
+        }
+        // Healthy for max ejection time since the last ejection, start over
+        if (s.everEjected && now - s.ejectedUntil >= maxEjectionNanos) {
+            s.level = 0;
+        }
+        // base * 2^level without overflow
+        long ejectionNanos = baseEjectionNanos > maxEjectionNanos >> s.level
+                ? maxEjectionNanos
+                : Math.min(baseEjectionNanos << s.level, maxEjectionNanos);
+        if (ejectionNanos < maxEjectionNanos) {
+            s.level++;
+        }
+        s.ejectedUntil = now + ejectionNanos;
+        s.everEjected = true;
+        s.ejections.incrementAndGet();
+        s.consecutiveFailures.set(0);
+        s.requests.set(0);
+        s.failures.set(0);
+        log.warn(
+                "Ejected endpoint '{}' of channel '{}' for {}ms after {}",
+                endpoint,
+                channel,
+                TimeUnit.NANOSECONDS.toMillis(ejectionNanos),
+                reason);
+    }
+
+    private static final class Stats {
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicLong windowStart;
+        private final AtomicLong ejections = new AtomicLong();
+        private volatile boolean everEjected;
+        private volatile long ejectedUntil;
+        // Guarded by the detector
+        private int level;
+
+        private Stats(long now) {
+            this.windowStart = new AtomicLong(now);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.stream.Stream;
+
+/**
+ * Fetch all pages of a paginated API lazily, the annotated method returns a {@link Stream}
+ * or {@link reactor.core.publisher.Flux Flux} over all items.
+ *
+ * <pre>{@code
+ * @GetExchange("/users")
+ * @Paginated(style = Paginated.Style.PAGE, param = "page", sizeParam = "size", items = "/content")
+ * Stream<UserDTO> listAll(@RequestParam int page, @RequestParam int size);
+ *
+ * @GetExchange("/events")
+ * @Paginated(style = Paginated.Style.CURSOR, param = "cursor", items = "/data", nextCursor = "/next")
+ * Flux<EventDTO> listAll(@BeanParam EventQuery query);
+ * }</pre>
+ *
+ * <p> The paging argument is a method parameter (usually annotated with {@code @RequestParam}) named {@link #param()},
+ * or a property of a query bean (see {@link BeanParamArgumentResolver}), it is advanced automatically for each page,
+ * the query bean passed by the caller is not modified.
+ *
+ * <p> The next page is fetched in the background while the current page is being consumed, see {@link #prefetch()},
+ * the fetching starts when the first item is requested.
+ * The returned {@link Stream} must be closed (or the {@code Flux} cancelled) if it is not fully consumed,
+ * e.g. after {@code limit(n)} or {@code findFirst()}, otherwise the fetching stops only once it's garbage collected.
+ *
+ * <p> The iteration stops when a page is empty, when a page has fewer items than the page size ({@link Style#PAGE}
+ * and {@link Style#OFFSET}), or when there is no next cursor ({@link Style#CURSOR}).
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Paginated {
+
+    /**
+     * Pagination style, default {@link Style#PAGE}.
+     */
+    Style style() default Style.PAGE;
+
+    /**
+     * Name of the paging argument or query bean property, the page number, offset or cursor.
+     *
+     * <p> Default {@code page}, {@code offset} or {@code cursor} according to {@link #style()}.
+     */
+    String param() default "";
+
+    /**
+     * Name of the page size argument or query bean property, used to detect the last page, default {@code size}.
+     *
+     * <p> For {@link Style#OFFSET}, the offset is advanced by the number of items of the current page.
+     */
+    String sizeParam() default "size";
+
+    /**
+     * JSON pointer of the items in the response body, e.g. {@code /content}, the response body is the items array if empty.
+     */
+    String items() default "";
+
+    /**
+     * JSON pointer of the next cursor in the response body, only used for {@link Style#CURSOR}, default {@code /nextCursor}.
+     */
+    String nextCursor() default "/nextCursor";
+
+    /**
+     * Number of pages to fetch ahead in the background, default {@code 1}, {@code 0} means fetching on demand.
+     */
+    int prefetch() default 1;
+
+    enum Style {
+        /**
+         * Page number, e.g. {@code ?page=0&size=20}, advanced by 1 for each page.
+         */
+        PAGE,
+        /**
+         * Item offset, e.g. {@code ?offset=0&limit=20}, advanced by the number of items of each page.
+         */
+        OFFSET,
+        /**
+         * Opaque cursor token, e.g. {@code ?cursor=abc}, taken from the response body of the previous page.
+         */
+        CURSOR
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.danielliu1123.httpexchange;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.service.invoker.HttpExchangeAdapter;
+import org.springframework.web.service.invoker.HttpExchangeAdapterDecorator;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import org.springframework.web.service.invoker.ReactorHttpExchangeAdapterDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+
+/**
+ * {@link HttpExchangeAdapterDecorator} that decodes the response body of page requests as {@link JsonNode},
+ * regardless of the declared return type of the {@link Paginated} method.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see PaginatedMethodInterceptor
+ */
+class PaginatedExchangeAdapterDecorator extends HttpExchangeAdapterDecorator {
+
+    private static final ParameterizedTypeReference<JsonNode> PAGE_TYPE = new ParameterizedTypeReference<>() {};
+
+    PaginatedExchangeAdapterDecorator(HttpExchangeAdapter delegate) {
+        super(delegate);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T exchangeForBody(HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+        if (isPageRequest(requestValues)) {
+            return (T) super.exchangeForBody(requestValues, PAGE_TYPE);
+        }
+        return super.exchangeForBody(requestValues, bodyType);
+    }
+
+    static boolean isPageRequest(HttpRequestValues requestValues) {
+        return requestValues.getAttributes().containsKey(PaginatedMethodInterceptor.PAGE_ATTRIBUTE);
+    }
+
+    /**
+     * Reactive variant for {@link HttpExchangeProperties.ClientType#WEB_CLIENT}.
+     */
+    static final class Reactive extends ReactorHttpExchangeAdapterDecorator {
+
+        Reactive(HttpExchangeAdapter delegate) {
+            super(delegate);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> @Nullable T exchangeForBody(
+                HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+            if (isPageRequest(requestValues)) {
+                return (T) super.exchangeForBody(requestValues, PAGE_TYPE);
+            }
+            return super.exchangeForBody(requestValues, bodyType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Mono<T> exchangeForBodyMono(
+                HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+            if (isPageRequest(requestValues)) {
+                return (Mono<T>) super.exchangeForBodyMono(requestValues, PAGE_TYPE);
+            }
+            return super.exchangeForBodyMono(requestValues, bodyType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Flux<T> exchangeForBodyFlux(
+                HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+            if (isPageRequest(requestValues)) {
+                // The whole page is a single element
+                return (Flux<T>)
+                        super.exchangeForBodyMono(requestValues, PAGE_TYPE).flux();
+            }
+            return super.exchangeForBodyFlux(requestValues, bodyType);
+        }
+    }
+}
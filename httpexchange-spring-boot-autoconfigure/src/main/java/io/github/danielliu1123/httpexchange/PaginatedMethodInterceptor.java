@@ -0,0 +1,565 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.beans.PropertyDescriptor;
+import java.lang.ref.Cleaner;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link MethodInterceptor} that implements {@link Paginated} methods.
+ *
+ * <p> Each page is fetched by invoking the underlying http service method again with the paging argument advanced,
+ * the response body of each page is decoded as {@link JsonNode} by {@link PaginatedExchangeAdapterDecorator}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see Paginated
+ */
+class PaginatedMethodInterceptor implements MethodInterceptor {
+
+    /**
+     * Request attribute name that marks a page request.
+     */
+    static final String PAGE_ATTRIBUTE = Paginated.class.getName();
+
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Flux", PaginatedMethodInterceptor.class.getClassLoader());
+
+    private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final ObjectMapper objectMapper;
+    private final Map<Method, Pager> pagers = new ConcurrentHashMap<>();
+
+    PaginatedMethodInterceptor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Create a {@link PaginatedMethodInterceptor} that uses the {@link JsonMapper} bean if available.
+     *
+     * <p> The {@link Paginated} methods of the service type are validated eagerly,
+     * so a query bean that cannot be copied to advance the page fails when the client is created.
+     *
+     * @param beanFactory bean factory
+     * @param serviceType http service type
+     * @return interceptor
+     */
+    static PaginatedMethodInterceptor create(BeanFactory beanFactory, Class<?> serviceType) {
+        JsonMapper jsonMapper = beanFactory.getBeanProvider(JsonMapper.class).getIfAvailable(JsonMapper::shared);
+        PaginatedMethodInterceptor interceptor = new PaginatedMethodInterceptor(jsonMapper);
+        for (Method method : serviceType.getMethods()) {
+            Paginated paginated = AnnotatedElementUtils.findMergedAnnotation(method, Paginated.class);
+            if (paginated != null) {
+                interceptor.pagers.put(method, new Pager(method, paginated, jsonMapper));
+            }
+        }
+        return interceptor;
+    }
+
+    /**
+     * {@link HttpRequestValues.Processor} that marks the requests of {@link Paginated} methods as page requests.
+     */
+    static void markPageRequest(
+            Method method,
+            MethodParameter[] parameters,
+            @Nullable Object[] arguments,
+            HttpRequestValues.Builder requestValues) {
+        if (AnnotatedElementUtils.hasAnnotation(method, Paginated.class)) {
+            requestValues.addAttribute(PAGE_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public @Nullable Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Paginated paginated = AnnotatedElementUtils.findMergedAnnotation(method, Paginated.class);
+        if (paginated == null) {
+            return invocation.proceed();
+        }
+        if (!(invocation instanceof ProxyMethodInvocation pmi)) {
+            throw new IllegalStateException("Unexpected method invocation: " + invocation);
+        }
+
+        Pager pager = pagers.computeIfAbsent(method, m -> new Pager(m, paginated, objectMapper));
+        Object[] args = invocation.getArguments().clone();
+        Function<Object[], @Nullable Object> call = arguments -> {
+            try {
+                return pmi.invocableClone(arguments).proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        Class<?> returnType = method.getReturnType();
+        if (returnType == Stream.class) {
+            PageIterator iterator = new PageIterator(pager, call, args);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .onClose(iterator::close);
+        }
+        if (REACTOR_PRESENT && ReactorDelegate.isFlux(returnType)) {
+            return ReactorDelegate.flux(pager, call, args);
+        }
+        throw new IllegalStateException("@Paginated method must return Stream or Flux: " + method);
+    }
+
+    /**
+     * @param items    items of the page
+     * @param nextArgs arguments to fetch the next page, null if this is the last page
+     */
+    record Page(List<Object> items, Object @Nullable [] nextArgs) {
+        static final Page EMPTY = new Page(List.of(), null);
+    }
+
+    /**
+     * Paging metadata of a {@link Paginated} method.
+     */
+    static final class Pager {
+        private final Method method;
+        private final Paginated.Style style;
+        private final String param;
+        private final String sizeParam;
+        private final String items;
+        private final String nextCursor;
+        private final int prefetch;
+        private final JavaType elementType;
+        private final ObjectMapper objectMapper;
+        private final @Nullable String[] parameterNames;
+
+        Pager(Method method, Paginated paginated, ObjectMapper objectMapper) {
+            this.method = method;
+            this.style = paginated.style();
+            this.param = StringUtils.hasText(paginated.param()) ? paginated.param() : defaultParam(paginated.style());
+            this.sizeParam = paginated.sizeParam();
+            this.items = paginated.items();
+            this.nextCursor = paginated.nextCursor();
+            this.prefetch = Math.max(paginated.prefetch(), 0);
+            this.objectMapper = objectMapper;
+
+            ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+            Type type = returnType.hasGenerics() ? returnType.getGeneric(0).getType() : Object.class;
+            this.elementType = objectMapper.getTypeFactory().constructType(type);
+
+            this.parameterNames = new String[method.getParameterCount()];
+            String[] discovered = parameterNameDiscoverer.getParameterNames(method);
+            for (int i = 0; i < parameterNames.length; i++) {
+                MethodParameter parameter = new MethodParameter(method, i);
+                RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+                String name = requestParam != null
+                        ? (StringUtils.hasText(requestParam.name()) ? requestParam.name() : requestParam.value())
+                        : "";
+                if (StringUtils.hasText(name)) {
+                    parameterNames[i] = name;
+                } else if (discovered != null) {
+                    parameterNames[i] = discovered[i];
+                }
+            }
+
+            if (indexOf(param) < 0) {
+                for (Class<?> parameterType : method.getParameterTypes()) {
+                    checkCopyable(parameterType);
+                }
+            }
+        }
+
+        int prefetch() {
+            return prefetch;
+        }
+
+        /**
+         * Convert the response body of a page, and compute the arguments of the next page.
+         */
+        Page toPage(@Nullable JsonNode body, Object[] args) {
+            if (body == null) {
+                return Page.EMPTY;
+            }
+            JsonNode itemsNode = items.isEmpty() ? body : body.at(items);
+            if (itemsNode.isMissingNode() || itemsNode.isNull()) {
+                return Page.EMPTY;
+            }
+            if (!itemsNode.isArray()) {
+                throw new IllegalStateException("Expected JSON array at '" + (items.isEmpty() ? "/" : items)
+                        + "' of the response body of " + method);
+            }
+            List<Object> list = new ArrayList<>(itemsNode.size());
+            for (JsonNode element : itemsNode) {
+                list.add(objectMapper.treeToValue(element, elementType));
+            }
+            return new Page(list, list.isEmpty() ? null : nextArgs(body, args, list.size()));
+        }
+
+        private Object @Nullable [] nextArgs(JsonNode body, Object[] args, int count) {
+            if (style == Paginated.Style.CURSOR) {
+                JsonNode cursor = body.at(nextCursor);
+                if (cursor.isMissingNode() || cursor.isNull() || !StringUtils.hasText(cursor.asString())) {
+                    return null;
+                }
+                return withValue(args, param, cursor.asString());
+            }
+
+            Object size = getValue(args, sizeParam);
+            if (size instanceof Number n && count < n.intValue()) {
+                return null;
+            }
+            long current = getValue(args, param) instanceof Number n ? n.longValue() : 0;
+            long next = style == Paginated.Style.PAGE ? current + 1 : current + count;
+            return withValue(args, param, next);
+        }
+
+        @Nullable
+        private Object getValue(Object[] args, String name) {
+            int index = indexOf(name);
+            if (index >= 0) {
+                return args[index];
+            }
+            for (Object arg : args) {
+                if (isBean(arg)) {
+                    BeanWrapper bw = new BeanWrapperImpl(arg);
+                    if (bw.isReadableProperty(name)) {
+                        return bw.getPropertyValue(name);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private Object[] withValue(Object[] args, String name, Object value) {
+            Object[] result = args.clone();
+            int index = indexOf(name);
+            if (index >= 0) {
+                result[index] = convert(value, method.getParameterTypes()[index]);
+                return result;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (isBean(args[i]) && new BeanWrapperImpl(args[i]).isReadableProperty(name)) {
+                    // Copy the query bean, don't modify the bean passed by the caller
+                    result[i] = copyWith(args[i], name, value);
+                    return result;
+                }
+            }
+            throw new IllegalStateException("No argument or query bean property named '" + name + "' found for "
+                    + method + ", make sure the parameter name is available (compile with '-parameters')"
+                    + " or use @RequestParam(name = \"" + name + "\")");
+        }
+
+        private Object copyWith(Object bean, String name, Object value) {
+            Class<?> type = bean.getClass();
+            if (type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                Object[] ctorArgs = new Object[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    RecordComponent component = components[i];
+                    if (component.getName().equals(name)) {
+                        ctorArgs[i] = convert(value, component.getType());
+                    } else {
+                        Method accessor = component.getAccessor();
+                        ReflectionUtils.makeAccessible(accessor);
+                        ctorArgs[i] = ReflectionUtils.invokeMethod(accessor, bean);
+                    }
+                }
+                return BeanUtils.instantiateClass(BeanUtils.getResolvableConstructor(type), ctorArgs);
+            }
+            if (!ClassUtils.hasConstructor(type) || !new BeanWrapperImpl(bean).isWritableProperty(name)) {
+                throw notCopyable(type);
+            }
+            Object copy = BeanUtils.instantiateClass(type);
+            BeanUtils.copyProperties(bean, copy);
+            new BeanWrapperImpl(copy).setPropertyValue(name, value);
+            return copy;
+        }
+
+        /**
+         * Fail fast if the declared query bean type has the paging property but cannot be copied.
+         */
+        private void checkCopyable(Class<?> type) {
+            if (BeanUtils.isSimpleValueType(type)
+                    || Iterable.class.isAssignableFrom(type)
+                    || type.isRecord()
+                    || type.isInterface()
+                    || Modifier.isAbstract(type.getModifiers())) {
+                return;
+            }
+            PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(type, param);
+            if (pd != null
+                    && pd.getReadMethod() != null
+                    && (!ClassUtils.hasConstructor(type) || pd.getWriteMethod() == null)) {
+                throw notCopyable(type);
+            }
+        }
+
+        private IllegalStateException notCopyable(Class<?> type) {
+            return new IllegalStateException("Query bean " + type.getName() + " of " + method
+                    + " cannot be copied to advance '" + param + "', use a record"
+                    + " or a class with a no-arg constructor and a setter for '" + param + "'");
+        }
+
+        private static @Nullable Object convert(Object value, Class<?> type) {
+            return DefaultConversionService.getSharedInstance()
+                    .convert(value, ClassUtils.resolvePrimitiveIfNecessary(type));
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (name.equals(parameterNames[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isBean(@Nullable Object arg) {
+            return arg != null && !BeanUtils.isSimpleValueType(arg.getClass()) && !(arg instanceof Iterable<?>);
+        }
+
+        private static String defaultParam(Paginated.Style style) {
+            return switch (style) {
+                case PAGE -> "page";
+                case OFFSET -> "offset";
+                case CURSOR -> "cursor";
+            };
+        }
+    }
+
+    /**
+     * Iterator over all items, pages are fetched in the background if prefetch is enabled.
+     *
+     * <p> The background fetching starts on the first {@link #hasNext()} and stops when the iterator is closed,
+     * an iterator that is not closed stops it once garbage collected.
+     */
+    private static final class PageIterator implements Iterator<Object>, AutoCloseable {
+        private static final Cleaner cleaner = Cleaner.create();
+
+        private final Pager pager;
+        private final Function<Object[], @Nullable Object> call;
+
+        @Nullable
+        private Prefetcher prefetcher;
+
+        private Cleaner.@Nullable Cleanable cleanable;
+
+        private Object @Nullable [] nextArgs;
+        private Iterator<Object> current = List.of().iterator();
+        private boolean done;
+
+        PageIterator(Pager pager, Function<Object[], @Nullable Object> call, Object[] args) {
+            this.pager = pager;
+            this.call = call;
+            this.nextArgs = args;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !done) {
+                Page page = nextPage();
+                if (page == null) {
+                    done = true;
+                } else {
+                    current = page.items().iterator();
+                }
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            done = true;
+            if (cleanable != null) {
+                cleanable.clean();
+            }
+        }
+
+        @Nullable
+        private Page nextPage() {
+            Prefetcher prefetcher = this.prefetcher;
+            if (prefetcher != null) {
+                return prefetcher.take();
+            }
+            Object[] args = nextArgs;
+            if (args == null) {
+                return null;
+            }
+            if (pager.prefetch() == 0) {
+                Page page = fetch(pager, call, args);
+                nextArgs = page.nextArgs();
+                return page;
+            }
+            nextArgs = null;
+            prefetcher = new Prefetcher(pager, call, args);
+            this.prefetcher = prefetcher;
+            // Must not capture this iterator, otherwise it's never unreachable
+            cleanable = cleaner.register(this, prefetcher::close);
+            ExchangeFanOut.defaultExecutor().execute(prefetcher);
+            return prefetcher.take();
+        }
+
+        private static Page fetch(Pager pager, Function<Object[], @Nullable Object> call, Object[] args) {
+            return pager.toPage((JsonNode) call.apply(args), args);
+        }
+    }
+
+    /**
+     * Fetches pages ahead into a bounded queue until the last page, a failure or being closed.
+     *
+     * <p> The producer waits for free space in bounded steps and checks whether it's closed in between,
+     * the end and failures are never dropped, so the consumer always receives them.
+     */
+    private static final class Prefetcher implements Runnable {
+        private static final Object END = new Object();
+        private static final long WAIT_MILLIS = 100;
+
+        private final Pager pager;
+        private final Function<Object[], @Nullable Object> call;
+        private final Object[] args;
+        private final BlockingQueue<Object> queue;
+
+        private volatile boolean closed;
+
+        Prefetcher(Pager pager, Function<Object[], @Nullable Object> call, Object[] args) {
+            this.pager = pager;
+            this.call = call;
+            this.args = args;
+            this.queue = new LinkedBlockingQueue<>(pager.prefetch());
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object[] args = this.args;
+                while (args != null && !closed) {
+                    Page page = PageIterator.fetch(pager, call, args);
+                    if (!put(page)) {
+                        return;
+                    }
+                    args = page.nextArgs();
+                }
+                put(END);
+            } catch (RuntimeException | Error e) {
+                put(e);
+            }
+        }
+
+        @Nullable
+        Page take() {
+            try {
+                while (true) {
+                    Object element = queue.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (element instanceof Page page) {
+                        return page;
+                    }
+                    if (element instanceof RuntimeException e) {
+                        throw e;
+                    }
+                    if (element instanceof Error e) {
+                        throw e;
+                    }
+                    if (element == END) {
+                        return null;
+                    }
+                    if (closed) {
+                        throw new IllegalStateException("Fetching pages was stopped");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for the next page", e);
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        /**
+         * @return {@code false} if closed before the element is queued
+         */
+        private boolean put(Object element) {
+            try {
+                while (!closed) {
+                    if (queue.offer(element, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed = true;
+            }
+            return false;
+        }
+    }
+
+    private static final class ReactorDelegate {
+
+        static boolean isFlux(Class<?> type) {
+            return type == Flux.class;
+        }
+
+        static Flux<Object> flux(Pager pager, Function<Object[], @Nullable Object> call, Object[] args) {
+            return fetch(pager, call, args)
+                    .expand(page -> page.nextArgs() != null ? fetch(pager, call, page.nextArgs()) : Mono.empty())
+                    .concatMapIterable(Page::items, pager.prefetch() + 1);
+        }
+
+        private static Mono<Page> fetch(Pager pager, Function<Object[], @Nullable Object> call, Object[] args) {
+            // Blocking clients (REST_CLIENT) return the body directly
+            return Mono.fromCallable(() -> call.apply(args))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(result ->
+                            result instanceof Publisher<?> publisher ? Mono.from(publisher) : Mono.just(result))
+                    .map(body -> pager.toPage((JsonNode) body, args))
+                    .defaultIfEmpty(Page.EMPTY);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Peak exponentially weighted moving average of the response time of an endpoint, and its outstanding requests.
+ *
+ * <p> The average jumps to a response time higher than it, and decays towards lower ones (and towards {@code 0} while idle)
+ * with the decay time, so a slow endpoint is avoided immediately and retried after it recovers.
+ *
+ * <p> The {@link #score() score} is the average multiplied by the outstanding requests plus one,
+ * an endpoint without samples scores the number of its outstanding requests, so it is preferred until it has samples.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class PeakEwma {
+
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<Cost> cost = new AtomicReference<>(new Cost(System.nanoTime(), 0));
+
+    /**
+     * @param decayNanos          decay time of the average
+     * @param failurePenaltyNanos min response time recorded for a failed request
+     */
+    PeakEwma(long decayNanos, long failurePenaltyNanos) {
+        this.decayNanos = decayNanos;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+    }
+
+    /**
+     * Called when a request is sent.
+     *
+     * @return the start time of the request
+     */
+    long start() {
+        pending.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Called when the response of a request is received or the request fails.
+     *
+     * @param startNanos start time returned by {@link #start()}
+     * @param success    whether the request succeeded
+     */
+    void end(long startNanos, boolean success) {
+        pending.decrementAndGet();
+        long rtt = System.nanoTime() - startNanos;
+        observe(success ? rtt : Math.max(rtt, failurePenaltyNanos));
+    }
+
+    /**
+     * @return the load of the endpoint, lower is better
+     */
+    double score() {
+        double average = observe(0);
+        int outstanding = pending.get();
+        return average > 0 ? average * (outstanding + 1) : outstanding;
+    }
+
+    int getPending() {
+        return pending.get();
+    }
+
+    private double observe(double rtt) {
+        while (true) {
+            long now = System.nanoTime();
+            Cost current = cost.get();
+            double value;
+            if (rtt > current.value()) {
+                value = rtt;
+            } else {
+                double weight = Math.exp(-Math.max(now - current.stamp(), 0) / decayNanos);
+                value = current.value() * weight + rtt * (1 - weight);
+            }
+            if (cost.compareAndSet(current, new Cost(now, value))) {
+                return value;
+            }
+        }
+    }
+
+    private record Cost(long stamp, double value) {}
+}
@@ -0,0 +1,215 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.service.annotation.HttpExchange;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.exc.InvalidDefinitionException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link JacksonJsonHttpMessageConverter} that uses an {@link ObjectReader}/{@link ObjectWriter} precomputed
+ * for the body types of an exchange client, instead of constructing the {@link JavaType} and looking up the
+ * (de)serializer on each call.
+ *
+ * <p> Types not precomputed, non UTF-8 content and calls with hints (e.g. JSON views) use the default behavior.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class PrecomputedJsonHttpMessageConverter extends JacksonJsonHttpMessageConverter {
+
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Type, PrecomputedWriter> writers = new ConcurrentHashMap<>();
+
+    PrecomputedJsonHttpMessageConverter(JsonMapper mapper) {
+        super(mapper);
+    }
+
+    /**
+     * Use a {@link PrecomputedJsonHttpMessageConverter} for the body types of the given client,
+     * the http client of the original {@link RestClient} is shared.
+     *
+     * @param restClient  the {@link RestClient} used by the client
+     * @param clientType  the {@link HttpExchange} interface
+     * @param beanFactory the bean factory, the {@link JsonMapper} bean is used if available
+     * @return a new {@link RestClient} with the precomputed JSON converter
+     */
+    static RestClient apply(RestClient restClient, Class<?> clientType, BeanFactory beanFactory) {
+        JsonMapper jsonMapper = beanFactory.getBeanProvider(JsonMapper.class).getIfAvailable(JsonMapper::shared);
+        var converter = new PrecomputedJsonHttpMessageConverter(jsonMapper);
+        converter.precompute(clientType);
+        return restClient
+                .mutate()
+                .configureMessageConverters(converters -> converters.withJsonConverter(converter))
+                .build();
+    }
+
+    /**
+     * Precompute the reader of the response body type and the writer of the request body type
+     * for each {@link HttpExchange} method of the given client.
+     *
+     * @param clientType the {@link HttpExchange} interface
+     */
+    void precompute(Class<?> clientType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(clientType)) {
+            if (!AnnotatedElementUtils.hasAnnotation(method, HttpExchange.class)) {
+                continue;
+            }
+            Type responseBodyType = responseBodyType(method, clientType);
+            if (responseBodyType != null && isPrecomputable(responseBodyType)) {
+                readers.computeIfAbsent(responseBodyType, type -> getMapper().readerFor(getJavaType(type, null)));
+            }
+            for (int i = 0; i < method.getParameterCount(); i++) {
+                MethodParameter parameter = new MethodParameter(method, i).withContainingClass(clientType);
+                if (!parameter.hasParameterAnnotation(RequestBody.class)) {
+                    continue;
+                }
+                Type requestBodyType = parameter.getParameterType() == Optional.class
+                        ? parameter.nested().getNestedGenericParameterType()
+                        : parameter.getGenericParameterType();
+                if (isPrecomputable(requestBodyType)) {
+                    writers.computeIfAbsent(requestBodyType, this::createWriter);
+                }
+            }
+        }
+    }
+
+    /**
+     * visible for testing
+     */
+    Map<Type, ObjectReader> getReaders() {
+        return readers;
+    }
+
+    /**
+     * visible for testing
+     */
+    Map<Type, PrecomputedWriter> getWriters() {
+        return writers;
+    }
+
+    @Override
+    public Object read(ResolvableType type, HttpInputMessage inputMessage, @Nullable Map<String, Object> hints)
+            throws IOException, HttpMessageNotReadableException {
+        ObjectReader reader = readers.get(type.getType());
+        if (reader == null || !CollectionUtils.isEmpty(hints) || !isUtf8(inputMessage.getHeaders())) {
+            return super.read(type, inputMessage, hints);
+        }
+        try {
+            return reader.readValue(StreamUtils.nonClosing(inputMessage.getBody()));
+        } catch (InvalidDefinitionException ex) {
+            throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
+        } catch (JacksonException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getOriginalMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(
+            Object object,
+            ResolvableType resolvableType,
+            HttpOutputMessage outputMessage,
+            @Nullable Map<String, Object> hints)
+            throws IOException, HttpMessageNotWritableException {
+        PrecomputedWriter writer = writers.get(resolvableType.getType());
+        if (writer == null
+                || !writer.supports(resolvableType.getType(), object)
+                || !CollectionUtils.isEmpty(hints)
+                || !isUtf8(outputMessage.getHeaders())) {
+            super.writeInternal(object, resolvableType, outputMessage, hints);
+            return;
+        }
+        try {
+            writer.writer().writeValue(StreamUtils.nonClosing(outputMessage.getBody()), object);
+        } catch (InvalidDefinitionException ex) {
+            throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
+        } catch (JacksonException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
+        }
+    }
+
+    private PrecomputedWriter createWriter(Type type) {
+        JavaType javaType = getJavaType(type, null);
+        // Same as the default behavior, only container types are written with the declared type
+        boolean container = javaType.isContainerType() || javaType.isTypeOrSubTypeOf(Optional.class);
+        return new PrecomputedWriter(getMapper().writerFor(javaType), container ? null : javaType.getRawClass());
+    }
+
+    @Nullable
+    private static Type responseBodyType(Method method, Class<?> clientType) {
+        // see org.springframework.web.service.invoker.HttpServiceMethod.ResponseFunction
+        MethodParameter param =
+                new MethodParameter(method, -1).withContainingClass(clientType).nestedIfOptional();
+        Class<?> paramType = param.getNestedParameterType();
+        if (ClassUtils.isVoidType(paramType) || paramType == HttpHeaders.class) {
+            return null;
+        }
+        if (paramType == ResponseEntity.class) {
+            param = param.nested();
+            if (param.getNestedParameterType() == Void.class) {
+                return null;
+            }
+        }
+        return GenericTypeResolver.resolveType(param.getNestedGenericParameterType(), clientType);
+    }
+
+    private static boolean isPrecomputable(Type type) {
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        Class<?> raw = resolvableType.resolve();
+        return raw != null
+                && !resolvableType.hasUnresolvableGenerics()
+                && !ClassUtils.isPrimitiveOrWrapper(raw)
+                && raw != String.class
+                && raw != byte[].class;
+    }
+
+    private static boolean isUtf8(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType == null
+                || contentType.getCharset() == null
+                || StandardCharsets.UTF_8.equals(contentType.getCharset());
+    }
+
+    /**
+     * @param writer      the precomputed writer
+     * @param exactClass  the class the writer is bound to, {@code null} for container types
+     */
+    record PrecomputedWriter(ObjectWriter writer, @Nullable Class<?> exactClass) {
+
+        boolean supports(Type type, Object value) {
+            // For non container types, subclasses are written with their runtime type by default
+            return exactClass != null ? value.getClass() == exactClass : TypeUtils.isAssignable(type, value.getClass());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declare the routing key of requests to a channel with multiple {@link HttpExchangeProperties.Channel#getBaseUrls() base urls},
+ * requests with the same routing key are sent to the same endpoint (consistent hashing),
+ * e.g. to improve the hit rate of per-key caches of the downstream service.
+ *
+ * <p> On a parameter, the argument is the routing key:
+ * <pre>{@code
+ * @GetExchange("/users/{id}")
+ * User get(@PathVariable @RoutingKey String id);
+ *
+ * @GetExchange("/users")
+ * List<User> list(@BeanParam @RoutingKey(property = "tenantId") UserQuery query);
+ * }</pre>
+ *
+ * <p> On a method or type, a request header is the routing key:
+ * <pre>{@code
+ * @RoutingKey(header = "X-Tenant-Id")
+ * @HttpExchange("/users")
+ * interface UserApi {}
+ * }</pre>
+ *
+ * <p> Requests without a routing key (e.g. a {@code null} argument or a missing header) are load balanced with
+ * {@link HttpExchangeProperties.LoadBalancing#getStrategy()}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see HttpExchangeProperties.LoadBalancing#getRoutingKeyHeader()
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER, ElementType.METHOD, ElementType.TYPE})
+public @interface RoutingKey {
+
+    /**
+     * Property of the annotated parameter used as the routing key, e.g. a property of a {@link BeanParam} argument,
+     * the argument itself is used if empty.
+     *
+     * <p> Only used on a parameter.
+     */
+    String property() default "";
+
+    /**
+     * Request header used as the routing key.
+     *
+     * <p> Only used on a method or type.
+     */
+    String header() default "";
+}
@@ -0,0 +1,103 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.service.invoker.HttpRequestValues;
+
+/**
+ * {@link HttpRequestValues.Processor} that resolves the {@link RoutingKey} of a request into request attributes,
+ * which are read by {@link ExchangeLoadBalancer} to choose the endpoint.
+ *
+ * <p> The {@link RoutingKey} declaration of each method is resolved once.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class RoutingKeyProcessor implements HttpRequestValues.Processor {
+
+    /**
+     * Request attribute of the routing key.
+     */
+    static final String ROUTING_KEY_ATTRIBUTE = RoutingKey.class.getName();
+    /**
+     * Request attribute of the name of the request header used as the routing key.
+     */
+    static final String ROUTING_KEY_HEADER_ATTRIBUTE = RoutingKey.class.getName() + ".header";
+
+    static final RoutingKeyProcessor INSTANCE = new RoutingKeyProcessor();
+
+    private static final Declaration NONE = new Declaration(-1, "", "");
+
+    private final Map<Method, Declaration> declarations = new ConcurrentHashMap<>();
+
+    private RoutingKeyProcessor() {}
+
+    @Override
+    public void process(
+            Method method,
+            MethodParameter[] parameters,
+            @Nullable Object[] arguments,
+            HttpRequestValues.Builder requestValues) {
+        Declaration declaration = declarations.computeIfAbsent(method, m -> resolve(m, parameters));
+        if (declaration == NONE) {
+            return;
+        }
+        if (StringUtils.hasText(declaration.header())) {
+            requestValues.addAttribute(ROUTING_KEY_HEADER_ATTRIBUTE, declaration.header());
+            return;
+        }
+        Object argument = declaration.index() < arguments.length ? arguments[declaration.index()] : null;
+        if (argument != null && StringUtils.hasText(declaration.property())) {
+            argument = getProperty(argument, declaration.property());
+        }
+        if (argument != null) {
+            requestValues.addAttribute(ROUTING_KEY_ATTRIBUTE, argument.toString());
+        }
+    }
+
+    private static Declaration resolve(Method method, MethodParameter[] parameters) {
+        for (int i = 0; i < parameters.length; i++) {
+            RoutingKey routingKey = parameters[i].getParameterAnnotation(RoutingKey.class);
+            if (routingKey != null) {
+                return new Declaration(i, routingKey.property(), "");
+            }
+        }
+        RoutingKey routingKey = AnnotatedElementUtils.findMergedAnnotation(method, RoutingKey.class);
+        if (routingKey == null) {
+            routingKey = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), RoutingKey.class);
+        }
+        if (routingKey != null && StringUtils.hasText(routingKey.header())) {
+            return new Declaration(-1, "", routingKey.header());
+        }
+        return NONE;
+    }
+
+    @Nullable
+    private static Object getProperty(Object bean, String property) {
+        BeanWrapperImpl beanWrapper = new BeanWrapperImpl(bean);
+        if (beanWrapper.isReadableProperty(property)) {
+            return beanWrapper.getPropertyValue(property);
+        }
+        // Record component
+        Method accessor = ReflectionUtils.findMethod(bean.getClass(), property);
+        if (accessor == null) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(accessor);
+        return ReflectionUtils.invokeMethod(accessor, bean);
+    }
+
+    /**
+     * @param index    index of the annotated parameter
+     * @param property property of the argument
+     * @param header   request header
+     */
+    private record Declaration(int index, String property, String header) {}
+}
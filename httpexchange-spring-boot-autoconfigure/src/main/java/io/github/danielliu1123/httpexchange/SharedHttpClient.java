@@ -0,0 +1,182 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.JettyClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.reactive.ClientHttpConnectorBuilder;
+import org.springframework.boot.http.client.reactive.JettyClientHttpConnectorBuilder;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A http client ({@code RestClient} or {@code WebClient}) referenced by exchange clients.
+ *
+ * <p> Each exchange client retains its http client when created and releases it when destroyed,
+ * e.g. the exchange clients are recreated by a refresh.
+ * The http client is closed when it's not referenced for the {@link HttpExchangeProperties.Refresh#getGracePeriod() grace period},
+ * in-flight requests of the destroyed exchange clients can complete in the meantime.
+ * Closing releases the resources of the transport, e.g. connection pools and their threads.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class SharedHttpClient {
+    private static final Logger log = LoggerFactory.getLogger(SharedHttpClient.class);
+
+    private static final boolean JETTY_PRESENT =
+            ClassUtils.isPresent("org.eclipse.jetty.client.HttpClient", SharedHttpClient.class.getClassLoader());
+
+    private final Cache.ClientId clientId;
+    private final Object client;
+    private final List<AutoCloseable> resources;
+    private final Duration gracePeriod;
+
+    private int references;
+    private long generation;
+    private boolean closed;
+
+    /**
+     * @param clientId    client id
+     * @param client      the http client
+     * @param resources   resources of the http client, closed in reverse order
+     * @param gracePeriod time to wait before closing the http client once it's not referenced
+     */
+    SharedHttpClient(Cache.ClientId clientId, Object client, List<AutoCloseable> resources, Duration gracePeriod) {
+        this.clientId = clientId;
+        this.client = client;
+        this.resources = List.copyOf(resources);
+        this.gracePeriod = gracePeriod;
+    }
+
+    Cache.ClientId getClientId() {
+        return clientId;
+    }
+
+    Object getClient() {
+        return client;
+    }
+
+    /**
+     * Add a reference, cancel the pending close if any.
+     *
+     * @return {@code false} if the http client is already closed
+     */
+    synchronized boolean retain() {
+        if (closed) {
+            return false;
+        }
+        references++;
+        generation++;
+        return true;
+    }
+
+    /**
+     * Remove a reference, close the http client after the grace period if it's the last one.
+     */
+    void release() {
+        long current;
+        synchronized (this) {
+            if (closed || --references > 0) {
+                return;
+            }
+            current = ++generation;
+        }
+        if (gracePeriod.isNegative() || gracePeriod.isZero()) {
+            closeIfUnused(current);
+        } else {
+            CompletableFuture.runAsync(
+                    () -> closeIfUnused(current),
+                    CompletableFuture.delayedExecutor(gracePeriod.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * @param expectedGeneration the generation when the last reference was released, retained again if changed
+     */
+    private void closeIfUnused(long expectedGeneration) {
+        synchronized (this) {
+            if (closed || references > 0 || generation != expectedGeneration) {
+                return;
+            }
+            closed = true;
+        }
+        Cache.removeHttpClient(this);
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            try {
+                resources.get(i).close();
+            } catch (Exception e) {
+                log.warn("Failed to close resource of http client for channel '{}'", clientId.channel(), e);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Closed {} http client of channel '{}'", clientId.clientType(), clientId.channel());
+        }
+    }
+
+    /**
+     * Close the transport of a http client, e.g. a {@code ClientHttpRequestFactory} or {@code ClientHttpConnector}.
+     *
+     * @param transport the transport
+     * @see #closeNativeRequestFactoryClient(ClientHttpRequestFactoryBuilder, List)
+     * @see #closeNativeConnectorClient(ClientHttpConnectorBuilder, List)
+     */
+    static void close(Object transport) throws Exception {
+        if (transport instanceof AutoCloseable closeable) {
+            closeable.close();
+        } else if (transport instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    /**
+     * Add the native http client built by the builder to the resources, if the transport doesn't close it.
+     *
+     * <p> The Jetty transports don't stop the {@code HttpClient} they are given, it's stopped directly.
+     * The JDK builders expose neither the {@code HttpClient} they build nor a hook to get it, so it's not closed
+     * (it's only {@code AutoCloseable} since Java 21), its selector thread stops once the client is unreachable.
+     *
+     * @param builder   the request factory builder
+     * @param resources resources of the http client
+     * @return the builder to build the request factory with
+     */
+    static ClientHttpRequestFactoryBuilder<?> closeNativeRequestFactoryClient(
+            ClientHttpRequestFactoryBuilder<?> builder, List<AutoCloseable> resources) {
+        if (JETTY_PRESENT && builder instanceof JettyClientHttpRequestFactoryBuilder jetty) {
+            return JettyDelegate.closeHttpClient(jetty, resources);
+        }
+        return builder;
+    }
+
+    /**
+     * Add the native http client built by the builder to the resources, if the transport doesn't close it.
+     *
+     * @param builder   the connector builder
+     * @param resources resources of the http client
+     * @return the builder to build the connector with
+     * @see #closeNativeRequestFactoryClient(ClientHttpRequestFactoryBuilder, List)
+     */
+    static ClientHttpConnectorBuilder<?> closeNativeConnectorClient(
+            ClientHttpConnectorBuilder<?> builder, List<AutoCloseable> resources) {
+        if (JETTY_PRESENT && builder instanceof JettyClientHttpConnectorBuilder jetty) {
+            return JettyDelegate.closeHttpClient(jetty, resources);
+        }
+        return builder;
+    }
+
+    private static final class JettyDelegate {
+        static ClientHttpRequestFactoryBuilder<?> closeHttpClient(
+                JettyClientHttpRequestFactoryBuilder builder, List<AutoCloseable> resources) {
+            return builder.withHttpClientCustomizer(httpClient -> resources.add(httpClient::stop));
+        }
+
+        static ClientHttpConnectorBuilder<?> closeHttpClient(
+                JettyClientHttpConnectorBuilder builder, List<AutoCloseable> resources) {
+            return builder.withHttpClientCustomizer(httpClient -> resources.add(httpClient::stop));
+        }
+    }
+}
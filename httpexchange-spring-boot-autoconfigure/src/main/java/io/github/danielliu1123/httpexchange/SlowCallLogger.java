@@ -0,0 +1,146 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Logs the exchange client calls of a channel that are slower than a threshold, with the timing breakdown.
+ *
+ * <p> A call is slow if it takes longer than {@link HttpExchangeProperties.SlowCallLog#getThreshold()},
+ * or longer than the rolling p99 of the method multiplied by {@link HttpExchangeProperties.SlowCallLog#getP99Multiplier()}.
+ * At most {@link HttpExchangeProperties.SlowCallLog#getMaxLogsPerSecond()} calls are logged per second,
+ * so a degraded downstream can't flood the logs.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class SlowCallLogger {
+    private static final Logger log = LoggerFactory.getLogger(SlowCallLogger.class);
+
+    static final int WINDOW_SIZE = 256;
+    static final int MIN_SAMPLES = 128;
+    private static final int RECOMPUTE_INTERVAL = 32;
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final String channel;
+    private final long thresholdNanos;
+    private final double p99Multiplier;
+    private final int maxLogsPerSecond;
+    private final Map<Method, RollingP99> p99s = new ConcurrentHashMap<>();
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    SlowCallLogger(String channel, HttpExchangeProperties.SlowCallLog properties) {
+        this.channel = channel;
+        Duration threshold = properties.getThreshold();
+        this.thresholdNanos = threshold != null ? threshold.toNanos() : 0;
+        Double multiplier = properties.getP99Multiplier();
+        this.p99Multiplier = multiplier != null ? multiplier : 0;
+        this.maxLogsPerSecond = properties.getMaxLogsPerSecond();
+    }
+
+    /**
+     * Log the call if it is slow.
+     *
+     * @param call the completed call
+     */
+    void record(ExchangeCall call) {
+        long end = System.nanoTime();
+        long duration = end - call.getStart();
+
+        long p99 = 0;
+        if (p99Multiplier > 0) {
+            RollingP99 rolling = p99s.computeIfAbsent(call.getMethod(), k -> new RollingP99());
+            p99 = rolling.get();
+            rolling.add(duration);
+        }
+
+        boolean slow = (thresholdNanos > 0 && duration > thresholdNanos) || (p99 > 0 && duration > p99 * p99Multiplier);
+        if (!slow || !log.isWarnEnabled()) {
+            return;
+        }
+        if (!tryAcquire(end)) {
+            suppressed.incrementAndGet();
+            return;
+        }
+
+        long requestStart = call.getRequestStart();
+        long responseStart = call.getResponseStart();
+        HttpMethod httpMethod = call.getHttpMethod();
+        URI uri = call.getUri();
+        Throwable error = call.getError();
+        long suppressedCount = suppressed.getAndSet(0);
+        log.warn(
+                "Slow exchange call on channel '{}': {}#{} {} {} -> {} in {}ms"
+                        + " (queue {}ms, time to first byte {}ms, body {}ms, p99 {}ms),"
+                        + " sent {} bytes, received {} bytes{}{}",
+                channel,
+                call.getClient().getSimpleName(),
+                call.getMethod().getName(),
+                httpMethod != null ? httpMethod.name() : "-",
+                uri != null ? uri : "-",
+                call.getStatus() > 0 ? call.getStatus() : "-",
+                millis(duration),
+                requestStart > 0 ? millis(requestStart - call.getStart()) : "-",
+                requestStart > 0 && responseStart > 0 ? millis(responseStart - requestStart) : "-",
+                responseStart > 0 ? millis(end - responseStart) : "-",
+                p99 > 0 ? millis(p99) : "-",
+                call.getBytesOut(),
+                call.getBytesIn(),
+                error != null ? ", error: " + error.getClass().getName() : "",
+                suppressedCount > 0 ? ", " + suppressedCount + " slow calls suppressed since the last log" : "");
+    }
+
+    /**
+     * Fixed window rate limiter, the window is reset by the first call after it expires.
+     */
+    private boolean tryAcquire(long now) {
+        long start = windowStart.get();
+        if (now - start >= ONE_SECOND && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+        }
+        return logged.incrementAndGet() <= maxLogsPerSecond;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * p99 of the last {@link #WINDOW_SIZE} durations, recomputed every {@link #RECOMPUTE_INTERVAL} samples.
+     */
+    static final class RollingP99 {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private long count;
+        private volatile long p99;
+
+        synchronized void add(long duration) {
+            samples[(int) (count % WINDOW_SIZE)] = duration;
+            count++;
+            if (count >= MIN_SAMPLES && count % RECOMPUTE_INTERVAL == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW_SIZE));
+                Arrays.sort(sorted);
+                p99 = sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+            }
+        }
+
+        /**
+         * @return the p99, {@code 0} if there are not enough samples
+         */
+        long get() {
+            return p99;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import org.springframework.web.service.invoker.HttpServiceArgumentResolver;
+import org.springframework.web.service.invoker.ReactiveHttpRequestValues;
+
+/**
+ * {@link StreamingBodyArgumentResolver} used to send {@link Path}, {@link InputStream}, {@link ReadableByteChannel}
+ * and {@link ByteBuffer} arguments as streamed request body, without materializing the payload as {@code byte[]}.
+ *
+ * <pre>{@code
+ * @PostExchange("/upload")
+ * void upload(@RequestBody Path file);
+ * }</pre>
+ *
+ * <p> The argument must be annotated with {@link RequestBody} or not annotated at all.
+ *
+ * <ul>
+ *     <li>{@link Path}: sent with known content length,
+ *     {@code WEB_CLIENT} (Reactor Netty) uses zero-copy file transfer (sendfile).</li>
+ *     <li>{@link InputStream}/{@link ReadableByteChannel}: sent with chunked transfer encoding,
+ *     closed after the request is sent.</li>
+ *     <li>{@link ByteBuffer}: the remaining bytes are sent with known content length,
+ *     the buffer position is not changed.</li>
+ * </ul>
+ *
+ * <p> NOTE: {@code REST_CLIENT} buffers the request body if any request interceptor is configured,
+ * this is the behavior of {@link org.springframework.web.client.RestClient}.
+ *
+ * <p> NOTE: make this class as public, give a chance to be replaced by user.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see HttpExchangeAutoConfiguration#streamingBodyArgumentResolver()
+ */
+public class StreamingBodyArgumentResolver implements HttpServiceArgumentResolver, Ordered {
+
+    /**
+     * Before {@link BeanParamArgumentResolver}, otherwise the body may be treated as a Java bean.
+     */
+    public static final int ORDER = BeanParamArgumentResolver.ORDER - 100;
+
+    @Override
+    public boolean resolve(
+            @Nullable Object argument, MethodParameter parameter, HttpRequestValues.Builder requestValues) {
+        if (argument == null || !isBodyParameter(parameter)) {
+            return false;
+        }
+
+        if (argument instanceof ByteBuffer buffer && requestValues instanceof ReactiveHttpRequestValues.Builder) {
+            // Wrap without copy, DataBuffer is written as is
+            requestValues.setBodyValue(DefaultDataBufferFactory.sharedInstance.wrap(buffer.slice()));
+            return true;
+        }
+
+        Resource resource = toResource(argument);
+        if (resource == null) {
+            return false;
+        }
+
+        requestValues.setBodyValue(resource);
+        return true;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Nullable
+    private static Resource toResource(Object argument) {
+        if (argument instanceof Path path) {
+            return new FileSystemResource(path);
+        }
+        if (argument instanceof InputStream is) {
+            return new InputStreamResource(is);
+        }
+        if (argument instanceof ReadableByteChannel channel) {
+            return new InputStreamResource(Channels.newInputStream(channel));
+        }
+        if (argument instanceof ByteBuffer buffer) {
+            return new ByteBufferResource(buffer.slice());
+        }
+        return null;
+    }
+
+    private static boolean isBodyParameter(MethodParameter parameter) {
+        Annotation[] annotations = parameter.getParameterAnnotations();
+        if (annotations.length == 0) {
+            return true;
+        }
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == RequestBody.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@link Resource} view of the remaining bytes of a {@link ByteBuffer}, read without copying the whole buffer.
+     */
+    private static final class ByteBufferResource extends AbstractResource {
+        private final ByteBuffer buffer;
+
+        private ByteBufferResource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer buf = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (!buf.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, buf.remaining());
+                    buf.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return buf.remaining();
+                }
+            };
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public String getDescription() {
+            return "ByteBuffer resource [" + buffer + "]";
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpExchangeAdapter;
+import org.springframework.web.service.invoker.HttpExchangeAdapterDecorator;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link HttpExchangeAdapterDecorator} that supports {@link Stream}, {@link Iterator} and {@link Iterable} return types.
+ *
+ * <p> The response body ({@code application/x-ndjson} or a top-level JSON array) is parsed element by element
+ * from the response {@link InputStream} instead of being buffered into memory,
+ * the connection is released when the {@link Stream}/{@link Iterator} is closed or fully consumed.
+ *
+ * <pre>{@code
+ * @GetExchange("/users")
+ * Stream<UserDTO> list();
+ *
+ * try (Stream<UserDTO> users = userApi.list()) {
+ *     users.forEach(this::export);
+ * }
+ * }</pre>
+ *
+ * <p> The returned {@link Iterator} implements {@link AutoCloseable},
+ * the returned {@link Iterable} can only be iterated once.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+class StreamingExchangeAdapterDecorator extends HttpExchangeAdapterDecorator {
+
+    private final RestClientAdapter restClientAdapter;
+    private final ObjectMapper objectMapper;
+
+    StreamingExchangeAdapterDecorator(
+            HttpExchangeAdapter delegate, RestClientAdapter restClientAdapter, ObjectMapper objectMapper) {
+        super(delegate);
+        this.restClientAdapter = restClientAdapter;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Create a {@link StreamingExchangeAdapterDecorator} that uses the {@link JsonMapper} bean if available.
+     *
+     * @param delegate          the adapter to decorate
+     * @param restClientAdapter the underlying {@link RestClientAdapter} used to execute streaming requests
+     * @param beanFactory       bean factory
+     * @return decorated adapter
+     */
+    static StreamingExchangeAdapterDecorator create(
+            HttpExchangeAdapter delegate, RestClientAdapter restClientAdapter, BeanFactory beanFactory) {
+        JsonMapper jsonMapper = beanFactory.getBeanProvider(JsonMapper.class).getIfAvailable(JsonMapper::shared);
+        return new StreamingExchangeAdapterDecorator(delegate, restClientAdapter, jsonMapper);
+    }
+
+    @Override
+    public <T> @Nullable T exchangeForBody(HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+        ResolvableType type = ResolvableType.forType(bodyType);
+        if (!isStreamingType(type)) {
+            return super.exchangeForBody(requestValues, bodyType);
+        }
+        return adapt(exchangeForInputStream(requestValues).getBody(), type);
+    }
+
+    @Override
+    public <T> ResponseEntity<T> exchangeForEntity(
+            HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+        ResolvableType type = ResolvableType.forType(bodyType);
+        if (!isStreamingType(type)) {
+            return super.exchangeForEntity(requestValues, bodyType);
+        }
+        ResponseEntity<InputStream> entity = exchangeForInputStream(requestValues);
+        return new ResponseEntity<>(adapt(entity.getBody(), type), entity.getHeaders(), entity.getStatusCode());
+    }
+
+    /**
+     * Message converters either buffer the whole body or try to decode {@link InputStream} as JSON,
+     * so keep the response open and hand over the raw body, the response is closed when the body is closed.
+     */
+    private ResponseEntity<InputStream> exchangeForInputStream(HttpRequestValues requestValues) {
+        return restClientAdapter
+                .newRequest(requestValues)
+                .exchangeForRequiredValue(
+                        (request, response) -> {
+                            if (response.getStatusCode().isError()) {
+                                try (response) {
+                                    throw response.createException();
+                                }
+                            }
+                            InputStream body = new FilterInputStream(response.getBody()) {
+                                @Override
+                                public void close() {
+                                    response.close();
+                                }
+                            };
+                            return new ResponseEntity<>(body, response.getHeaders(), response.getStatusCode());
+                        },
+                        false);
+    }
+
+    /**
+     * Whether the given type is a streaming return type, visible for testing.
+     */
+    static boolean isStreamingType(ResolvableType type) {
+        Class<?> clz = type.resolve();
+        return clz == Stream.class || clz == Iterator.class || clz == Iterable.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T adapt(InputStream body, ResolvableType type) {
+        Iterator<Object> iterator = readValues(body, type);
+        Class<?> clz = type.resolve();
+        if (clz == Stream.class) {
+            return (T) toStream(iterator);
+        }
+        if (clz == Iterable.class) {
+            return (T) toIterable(iterator);
+        }
+        return (T) iterator;
+    }
+
+    private MappingIterator<Object> readValues(InputStream body, ResolvableType type) {
+        Type elementType = type.hasGenerics() ? type.getGeneric(0).getType() : Object.class;
+        JavaType javaType = objectMapper.getTypeFactory().constructType(elementType);
+        try {
+            return objectMapper.readerFor(javaType).readValues(body);
+        } catch (RuntimeException e) {
+            closeQuietly(body, e);
+            throw e;
+        }
+    }
+
+    private static Stream<Object> toStream(Iterator<Object> iterator) {
+        Stream<Object> stream =
+                StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+        return iterator instanceof AutoCloseable closeable ? stream.onClose(() -> close(closeable)) : stream;
+    }
+
+    private static Iterable<Object> toIterable(Iterator<Object> iterator) {
+        AtomicBoolean iterated = new AtomicBoolean();
+        return () -> {
+            if (!iterated.compareAndSet(false, true)) {
+                throw new IllegalStateException("Streaming response can only be iterated once");
+            }
+            return iterator;
+        };
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to close response body", e);
+        }
+    }
+
+    private static void closeQuietly(InputStream is, Exception cause) {
+        try {
+            is.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Path;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Write the response body to the annotated {@link Path} instead of loading it into memory.
+ *
+ * <pre>{@code
+ * @GetExchange("/reports/{id}")
+ * Path download(@PathVariable String id, @TargetFile Path dest);
+ * }</pre>
+ *
+ * <p> The method can return {@link Path} (the target file), {@link ResponseEntity ResponseEntity&lt;Path&gt;} or {@code void}.
+ *
+ * <p> The body is written to a temporary file next to the target file first,
+ * then moved to the target file after the download completes (and the checksum is verified),
+ * so the target file never contains partial content.
+ *
+ * <p> NOTE: only supported by {@link HttpExchangeProperties.ClientType#REST_CLIENT}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see HttpExchangeProperties.Download
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface TargetFile {}
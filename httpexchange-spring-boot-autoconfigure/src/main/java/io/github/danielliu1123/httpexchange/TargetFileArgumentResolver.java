@@ -0,0 +1,59 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.io.File;
+import java.nio.file.Path;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import org.springframework.web.service.invoker.HttpServiceArgumentResolver;
+import org.springframework.web.service.invoker.ReactiveHttpRequestValues;
+
+/**
+ * {@link TargetFileArgumentResolver} used to resolve {@link TargetFile} annotated arguments.
+ *
+ * <p> The target file is passed to {@link DownloadExchangeAdapterDecorator} through request attribute.
+ *
+ * <p> NOTE: make this class as public, give a chance to be replaced by user.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see HttpExchangeAutoConfiguration#targetFileArgumentResolver()
+ */
+public class TargetFileArgumentResolver implements HttpServiceArgumentResolver, Ordered {
+
+    /**
+     * Before {@link BeanParamArgumentResolver}, otherwise the target file may be treated as a Java bean.
+     */
+    public static final int ORDER = BeanParamArgumentResolver.ORDER - 200;
+
+    @Override
+    public boolean resolve(
+            @Nullable Object argument, MethodParameter parameter, HttpRequestValues.Builder requestValues) {
+        if (!parameter.hasParameterAnnotation(TargetFile.class)) {
+            return false;
+        }
+
+        if (requestValues instanceof ReactiveHttpRequestValues.Builder) {
+            throw new IllegalStateException("@TargetFile is only supported by client-type REST_CLIENT");
+        }
+
+        Path path;
+        if (argument instanceof Path p) {
+            path = p;
+        } else if (argument instanceof File file) {
+            path = file.toPath();
+        } else {
+            throw new IllegalArgumentException("@TargetFile argument must be a non-null Path or File, but got "
+                    + (argument != null ? argument.getClass().getName() : "null"));
+        }
+
+        requestValues.addAttribute(DownloadExchangeAdapterDecorator.TARGET_FILE_ATTRIBUTE, path);
+        return true;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.danielliu1123.httpexchange;
+
+import io.netty.channel.unix.DomainSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ReactorClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.reactive.ClientHttpConnectorBuilder;
+import org.springframework.boot.http.client.reactive.ReactorClientHttpConnectorBuilder;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Support for {@code unix:///path/to/socket} base urls, e.g. a sidecar (Envoy, Dapr) listening on a Unix domain socket.
+ *
+ * <p> The client has no base url, requests with relative urls are sent over the socket with {@code Host: localhost}
+ * by Reactor Netty, for both {@link HttpExchangeProperties.ClientType#REST_CLIENT} and
+ * {@link HttpExchangeProperties.ClientType#WEB_CLIENT}. The native transport (epoll, kqueue) is used if available,
+ * otherwise NIO.
+ *
+ * <p> A {@link ClientHttpRequestFactoryBuilder} or {@link ClientHttpConnectorBuilder} bean is kept if it's a Reactor Netty one,
+ * a warning is logged if it's another transport, the creation fails if Reactor Netty is not in the classpath.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+final class UnixDomainSocketSupport {
+    private static final Logger log = LoggerFactory.getLogger(UnixDomainSocketSupport.class);
+
+    static final String SCHEME = "unix";
+
+    private static final boolean REACTOR_NETTY_PRESENT =
+            ClassUtils.isPresent("reactor.netty.http.client.HttpClient", null);
+
+    private UnixDomainSocketSupport() {}
+
+    /**
+     * @param baseUrl base url
+     * @return whether the base url is a Unix domain socket
+     */
+    static boolean isUnixDomainSocket(@Nullable String baseUrl) {
+        return baseUrl != null && baseUrl.regionMatches(true, 0, SCHEME + ":", 0, SCHEME.length() + 1);
+    }
+
+    /**
+     * @param baseUrl base url, e.g. {@code unix:///var/run/envoy.sock}
+     * @return the socket path
+     */
+    static Path getSocketPath(String baseUrl) {
+        String path = URI.create(baseUrl).getPath();
+        if (!StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("Invalid Unix domain socket base-url '" + baseUrl
+                    + "', use an absolute path, e.g. 'unix:///var/run/envoy.sock'");
+        }
+        return Path.of(path);
+    }
+
+    /**
+     * @param socket      socket path
+     * @param userBuilder the request factory builder bean, only used if it's a Reactor Netty one
+     * @return the request factory builder that connects to the socket
+     */
+    static ClientHttpRequestFactoryBuilder<?> requestFactoryBuilder(
+            Path socket, @Nullable ClientHttpRequestFactoryBuilder<?> userBuilder) {
+        checkReactorNetty();
+        ReactorClientHttpRequestFactoryBuilder builder = reactorBuilder(
+                userBuilder,
+                ReactorClientHttpRequestFactoryBuilder.class,
+                ClientHttpRequestFactoryBuilder.class,
+                socket);
+        return (builder != null ? builder : ClientHttpRequestFactoryBuilder.reactor())
+                .withHttpClientCustomizer(client -> ReactorNettyDelegate.connectTo(client, socket));
+    }
+
+    /**
+     * @param socket      socket path
+     * @param userBuilder the connector builder bean, only used if it's a Reactor Netty one
+     * @return the connector builder that connects to the socket
+     */
+    static ClientHttpConnectorBuilder<?> connectorBuilder(
+            Path socket, @Nullable ClientHttpConnectorBuilder<?> userBuilder) {
+        checkReactorNetty();
+        ReactorClientHttpConnectorBuilder builder = reactorBuilder(
+                userBuilder, ReactorClientHttpConnectorBuilder.class, ClientHttpConnectorBuilder.class, socket);
+        return (builder != null ? builder : ClientHttpConnectorBuilder.reactor())
+                .withHttpClientCustomizer(client -> ReactorNettyDelegate.connectTo(client, socket));
+    }
+
+    /**
+     * The builder bean is kept if it's a Reactor Netty one, otherwise it's replaced for the socket with a warning.
+     */
+    @Nullable
+    private static <T> T reactorBuilder(
+            @Nullable Object userBuilder, Class<T> reactorType, Class<?> builderType, Path socket) {
+        if (userBuilder == null || reactorType.isInstance(userBuilder)) {
+            return reactorType.cast(userBuilder);
+        }
+        log.warn(
+                "Unix domain socket base-url 'unix://{}' requires Reactor Netty, the {} bean ({}) is not used for it, "
+                        + "use {}.reactor() to apply the customizations",
+                socket,
+                builderType.getSimpleName(),
+                userBuilder.getClass().getName(),
+                builderType.getSimpleName());
+        return null;
+    }
+
+    private static void checkReactorNetty() {
+        if (!REACTOR_NETTY_PRESENT) {
+            throw new IllegalStateException("Unix domain socket base-url requires Reactor Netty, add"
+                    + " 'io.projectreactor.netty:reactor-netty-http' to the classpath");
+        }
+    }
+
+    private static final class ReactorNettyDelegate {
+
+        /**
+         * Native transports (epoll, kqueue) only accept Netty's {@link DomainSocketAddress},
+         * NIO (JDK 16+) only accepts {@link UnixDomainSocketAddress}.
+         */
+        static HttpClient connectTo(HttpClient client, Path socket) {
+            SocketAddress address = client.configuration().isPreferNative() && LoopResources.hasNativeSupport()
+                    ? new DomainSocketAddress(socket.toFile())
+                    : UnixDomainSocketAddress.of(socket);
+            return client.remoteAddress(() -> address);
+        }
+    }
+}
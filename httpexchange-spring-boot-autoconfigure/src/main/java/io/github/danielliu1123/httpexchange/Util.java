@@ -9,11 +9,15 @@ import java.util.stream.Stream;
 import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.service.annotation.HttpExchange;
 
@@ -26,8 +30,52 @@ final class Util {
 
     private static final AntPathMatcher matcher = new AntPathMatcher(".");
 
+    /**
+     * Suffix of the asynchronous variant interfaces generated by {@code httpexchange-processor}.
+     */
+    static final String ASYNC_VARIANT_SUFFIX = "Async";
+
+    /**
+     * Prefix of the {@link StartupStep} names recorded by this library.
+     */
+    static final String STARTUP_STEP_PREFIX = "http-exchange.";
+
+    /**
+     * Same as {@link #findMatchedConfigs(Class, HttpExchangeProperties)}, recorded as a {@link StartupStep}.
+     */
+    static List<HttpExchangeProperties.Channel> findMatchedConfigs(
+            Class<?> clz, HttpExchangeProperties properties, ApplicationStartup applicationStartup) {
+        StartupStep step =
+                applicationStartup.start(STARTUP_STEP_PREFIX + "channels.match").tag("client", clz.getName());
+        try {
+            List<HttpExchangeProperties.Channel> matchedConfigs = findMatchedConfigs(clz, properties);
+            step.tag(
+                    "channels",
+                    () -> matchedConfigs.stream()
+                            .map(it -> it.getName() != null ? it.getName() : "unnamed")
+                            .toList()
+                            .toString());
+            return matchedConfigs;
+        } finally {
+            step.end();
+        }
+    }
+
     public static List<HttpExchangeProperties.Channel> findMatchedConfigs(
             Class<?> clz, HttpExchangeProperties properties) {
+        List<HttpExchangeProperties.Channel> matchedChannels = findMatchedChannels(clz, properties);
+        if (matchedChannels.isEmpty()) {
+            // Async variant uses the same channel as the original interface
+            Class<?> syncVariant = getSyncVariant(clz);
+            if (syncVariant != null) {
+                return findMatchedChannels(syncVariant, properties);
+            }
+        }
+        return matchedChannels;
+    }
+
+    private static List<HttpExchangeProperties.Channel> findMatchedChannels(
+            Class<?> clz, HttpExchangeProperties properties) {
         List<HttpExchangeProperties.Channel> matchedChannels = new ArrayList<>();
         for (var channel : properties.getChannels()) {
             boolean matched = false;
@@ -67,6 +115,28 @@ final class Util {
                 || matcher.match(name, clz.getSimpleName());
     }
 
+    /**
+     * Same as {@link #getProperties(Environment)}, recorded as a {@link StartupStep}.
+     */
+    static HttpExchangeProperties getProperties(Environment environment, ApplicationStartup applicationStartup) {
+        StartupStep step = applicationStartup.start(STARTUP_STEP_PREFIX + "properties.bind");
+        try {
+            return getProperties(environment);
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * @param beanFactory bean factory or bean definition registry
+     * @return the {@link ApplicationStartup} of the bean factory, {@link ApplicationStartup#DEFAULT} if not available
+     */
+    static ApplicationStartup getApplicationStartup(Object beanFactory) {
+        return beanFactory instanceof ConfigurableBeanFactory cbf
+                ? cbf.getApplicationStartup()
+                : ApplicationStartup.DEFAULT;
+    }
+
     public static HttpExchangeProperties getProperties(Environment environment) {
         HttpExchangeProperties properties = Binder.get(environment)
                 .bind(HttpExchangeProperties.PREFIX, HttpExchangeProperties.class)
@@ -92,6 +162,53 @@ final class Util {
         return false;
     }
 
+    /**
+     * Get the asynchronous variant ({@code <ClassName>Async}) generated for the given {@link HttpExchange} interface.
+     *
+     * <p> Hand-written interfaces with the same name are not asynchronous variants.
+     *
+     * @param clz {@link HttpExchange} interface
+     * @return the asynchronous variant, or null if not present
+     * @see AsyncVariant
+     */
+    @Nullable
+    public static Class<?> getAsyncVariant(Class<?> clz) {
+        if (clz.isAnnotationPresent(AsyncVariant.class)) {
+            return null;
+        }
+        var variant = forName(getAsyncVariantName(clz), clz.getClassLoader());
+        if (variant == null) {
+            return null;
+        }
+        var asyncVariant = variant.getAnnotation(AsyncVariant.class);
+        return asyncVariant != null && asyncVariant.of() == clz ? variant : null;
+    }
+
+    /**
+     * Get the original interface of the given asynchronous variant interface.
+     *
+     * @param clz asynchronous variant interface
+     * @return the original interface, or null if the given class is not a generated asynchronous variant
+     * @see AsyncVariant
+     */
+    @Nullable
+    public static Class<?> getSyncVariant(Class<?> clz) {
+        var asyncVariant = clz.getAnnotation(AsyncVariant.class);
+        return asyncVariant != null ? asyncVariant.of() : null;
+    }
+
+    /**
+     * The variant is top-level in the package of the original interface, named after the enclosing types if nested,
+     * e.g. {@code OuterUserApiAsync} for {@code Outer.UserApi}.
+     */
+    private static String getAsyncVariantName(Class<?> clz) {
+        var name = new StringBuilder(clz.getSimpleName());
+        for (var enclosing = clz.getEnclosingClass(); enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            name.insert(0, enclosing.getSimpleName());
+        }
+        return clz.getPackageName() + "." + name + ASYNC_VARIANT_SUFFIX;
+    }
+
     /**
      * Get class of bean definition.
      *
@@ -129,4 +246,13 @@ final class Util {
             return null;
         }
     }
+
+    @Nullable
+    private static Class<?> forName(String className, @Nullable ClassLoader classLoader) {
+        try {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package io.github.danielliu1123.httpexchange;
+
+import java.net.URI;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link ServiceInstanceListSupplier} that prefers instances in the same zone as the client,
+ * the zone of an instance is its {@code zone} metadata.
+ *
+ * <p> Unlike {@code ZonePreferenceServiceInstanceListSupplier} of Spring Cloud LoadBalancer, which only falls back to
+ * all instances when the zone has no instance, it spills over to all instances when the zone has fewer than
+ * {@link HttpExchangeProperties.ZonePreference#getMinEndpoints() min endpoints}.
+ * Put it after health checks so only healthy instances are counted:
+ *
+ * <pre>{@code
+ * ServiceInstanceListSupplier.builder()
+ *         .withDiscoveryClient()
+ *         .withHealthChecks()
+ *         .with(ZoneAwareServiceInstanceListSupplier::create)
+ *         .withCaching()
+ *         .build(context);
+ * }</pre>
+ *
+ * <p> The configuration is {@link HttpExchangeProperties.LoadBalancing#getZonePreference()} of the channel whose
+ * base url is the service id, the zone of the client falls back to {@code spring.cloud.loadbalancer.zone}.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ * @see ZonePreferenceLoadBalancerConfiguration
+ */
+public class ZoneAwareServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    static final String ZONE_METADATA = "zone";
+
+    private final @Nullable String zone;
+    private final HttpExchangeProperties.ZonePreference properties;
+
+    /**
+     * @param delegate   the delegate
+     * @param zone       zone of the client, no preference if {@code null}
+     * @param properties zone preference configuration
+     */
+    public ZoneAwareServiceInstanceListSupplier(
+            ServiceInstanceListSupplier delegate,
+            @Nullable String zone,
+            HttpExchangeProperties.ZonePreference properties) {
+        super(delegate);
+        this.zone = zone;
+        this.properties = properties;
+    }
+
+    /**
+     * Create a {@link ZoneAwareServiceInstanceListSupplier} configured by {@code http-exchange} properties,
+     * can be used as a {@code ServiceInstanceListSupplierBuilder.DelegateCreator}.
+     *
+     * @param context  the load balancer client context
+     * @param delegate the delegate
+     * @return the supplier
+     */
+    public static ZoneAwareServiceInstanceListSupplier create(
+            ConfigurableApplicationContext context, ServiceInstanceListSupplier delegate) {
+        Environment environment = context.getEnvironment();
+        HttpExchangeProperties.ZonePreference properties = getLoadBalancing(
+                        Util.getProperties(environment), delegate.getServiceId())
+                .getZonePreference();
+        String zone = properties.getZone();
+        return new ZoneAwareServiceInstanceListSupplier(
+                delegate, zone != null ? zone : environment.getProperty("spring.cloud.loadbalancer.zone"), properties);
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().map(this::filter);
+    }
+
+    private List<ServiceInstance> filter(List<ServiceInstance> instances) {
+        String z = zone;
+        if (!properties.isEnabled() || z == null) {
+            return instances;
+        }
+        List<ServiceInstance> local = instances.stream()
+                .filter(instance -> z.equalsIgnoreCase(instance.getMetadata().get(ZONE_METADATA)))
+                .toList();
+        return local.isEmpty() || local.size() < properties.getMinEndpoints() ? instances : local;
+    }
+
+    private static HttpExchangeProperties.LoadBalancing getLoadBalancing(
+            HttpExchangeProperties properties, String serviceId) {
+        for (HttpExchangeProperties.Channel channel : properties.getChannels()) {
+            String baseUrl = channel.getBaseUrl();
+            HttpExchangeProperties.LoadBalancing loadBalancing = channel.getLoadBalancing();
+            if (baseUrl != null && loadBalancing != null && serviceId.equalsIgnoreCase(getHost(baseUrl))) {
+                return loadBalancing;
+            }
+        }
+        return properties.getLoadBalancing();
+    }
+
+    @Nullable
+    private static String getHost(String baseUrl) {
+        try {
+            return URI.create(ExchangeClientCreator.getRealBaseUrl(baseUrl)).getHost();
+        } catch (IllegalArgumentException e) {
+            // e.g. unresolved placeholders
+            return null;
+        }
+    }
+}
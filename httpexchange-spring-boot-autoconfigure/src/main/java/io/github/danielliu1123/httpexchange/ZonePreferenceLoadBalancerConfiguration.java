@@ -0,0 +1,33 @@
+package io.github.danielliu1123.httpexchange;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Spring Cloud LoadBalancer client configuration that registers {@link ZoneAwareServiceInstanceListSupplier}.
+ *
+ * <p> Not annotated with {@code @Configuration}, use it as the configuration of
+ * {@code @LoadBalancerClient} or {@code @LoadBalancerClients}:
+ *
+ * <pre>{@code
+ * @LoadBalancerClients(defaultConfiguration = ZonePreferenceLoadBalancerConfiguration.class)
+ * }</pre>
+ *
+ * <p> The zone preference is read from {@code http-exchange.load-balancing.zone-preference}
+ * or the load balancing configuration of the channel.
+ *
+ * @author Freeman
+ * @since 4.1.0
+ */
+public class ZonePreferenceLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier zoneAwareServiceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .with(ZoneAwareServiceInstanceListSupplier::create)
+                .withCaching()
+                .build(context);
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.Generated;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+/**
+ * @author Freeman
+ */
+class AsyncVariantTests {
+
+    @Test
+    @SneakyThrows
+    void testAsyncVariant_whenOriginalInterfaceRegistered_thenRegisterAsyncVariantWithSameChannel() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=localhost:" + findAvailableTcpPort())
+                .properties("http-exchange.channels[0].base-url=localhost:" + port)
+                .properties("http-exchange.channels[0].clients[0]=foo-api")
+                .run()) {
+
+            var fooApi = ctx.getBean(FooApi.class);
+            var fooApiAsync = ctx.getBean(AsyncVariantTestsFooApiAsync.class);
+
+            assertThat(fooApi.getById("1")).isEqualTo("foo-1");
+
+            var futures = new CompletableFuture<?>[] {fooApiAsync.getById("2"), fooApiAsync.getById("3")};
+            CompletableFuture.allOf(futures).get();
+
+            assertThat(futures[0].get()).isEqualTo("foo-2");
+            assertThat(futures[1].get()).isEqualTo("foo-3");
+
+            // Same http client as the original interface, no switch to WebClient
+            assertThat(Cache.getClientIds().get(AsyncVariantTestsFooApiAsync.class))
+                    .isEqualTo(Cache.getClientIds().get(FooApi.class));
+            assertThat(Cache.getClientIds()
+                            .get(AsyncVariantTestsFooApiAsync.class)
+                            .clientType())
+                    .isEqualTo(HttpExchangeProperties.ClientType.REST_CLIENT);
+        }
+    }
+
+    @Test
+    void testAsyncVariant_whenNotGenerated_thenNotRegister() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=localhost:" + port)
+                .run()) {
+
+            assertThat(ctx.getBeanProvider(BarApi.class).getIfAvailable()).isNotNull();
+            assertThat(ctx.getBeanProvider(AsyncVariantTestsBarApiAsync.class).getIfAvailable())
+                    .isNull();
+        }
+    }
+
+    @Test
+    void testGetVariant() {
+        assertThat(Util.getAsyncVariant(FooApi.class)).isEqualTo(AsyncVariantTestsFooApiAsync.class);
+        assertThat(Util.getAsyncVariant(AsyncVariantTestsFooApiAsync.class)).isNull();
+        assertThat(Util.getSyncVariant(AsyncVariantTestsFooApiAsync.class)).isEqualTo(FooApi.class);
+        assertThat(Util.getSyncVariant(FooApi.class)).isNull();
+        assertThat(Util.getAsyncVariant(BarApi.class)).isNull();
+        assertThat(Util.getSyncVariant(AsyncVariantTestsBarApiAsync.class)).isNull();
+    }
+
+    @HttpExchange("/foo")
+    interface FooApi {
+
+        @GetExchange("/{id}")
+        String getById(@PathVariable String id);
+    }
+
+    @HttpExchange("/bar")
+    interface BarApi {
+
+        @GetExchange("/{id}")
+        String getById(@PathVariable String id);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients(clients = {FooApi.class, BarApi.class})
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/foo/{id}")
+        public String getById(@PathVariable String id) {
+            return "foo-" + id;
+        }
+    }
+}
+
+/**
+ * Simulate the async variant generated by httpexchange-processor for the nested {@link AsyncVariantTests.FooApi}.
+ */
+@HttpExchange("/foo")
+@AsyncVariant(of = AsyncVariantTests.FooApi.class)
+interface AsyncVariantTestsFooApiAsync {
+
+    @GetExchange("/{id}")
+    CompletableFuture<String> getById(@PathVariable String id);
+}
+
+/**
+ * Named like the async variant of {@link AsyncVariantTests.BarApi}, but not generated by httpexchange-processor,
+ * e.g. hand-written or generated by Spring AOT.
+ */
+@HttpExchange("/bar")
+@Generated
+interface AsyncVariantTestsBarApiAsync {
+
+    @GetExchange("/{id}")
+    CompletableFuture<String> getById(@PathVariable String id);
+}
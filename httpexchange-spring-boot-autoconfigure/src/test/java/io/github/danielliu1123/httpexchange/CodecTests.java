@@ -0,0 +1,185 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import com.google.protobuf.StringValue;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * {@link HttpExchangeProperties.Codec} tests.
+ *
+ * @author Freeman
+ */
+class CodecTests {
+
+    @ParameterizedTest
+    @CsvSource({
+        "REST_CLIENT, CBOR, application/cbor",
+        "WEB_CLIENT, CBOR, application/cbor",
+        "REST_CLIENT, SMILE, application/x-jackson-smile",
+        "WEB_CLIENT, SMILE, application/x-jackson-smile",
+    })
+    void testCodec_whenBinaryFormat_thenEncodeAndDecodeWithIt(String clientType, String codec, String mediaType) {
+        try (var ctx = run(clientType, codec)) {
+            var api = ctx.getBean(OrderApi.class);
+
+            Order order = order(1);
+            ResponseEntity<Order> response = api.create(order);
+
+            assertThat(response.getBody()).isEqualTo(order);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo(mediaType);
+            assertThat(response.getHeaders().getFirst("X-Request-Content-Type")).isEqualTo(mediaType);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testCodec_whenResponseIsText_thenStillAccepted(String clientType) {
+        try (var ctx = run(clientType, "CBOR")) {
+            var api = ctx.getBean(OrderApi.class);
+
+            assertThat(api.ping()).isEqualTo("pong");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testCodec_whenProtobuf_thenEncodeAndDecodeMessages(String clientType) {
+        try (var ctx = run(clientType, "PROTOBUF")) {
+            var api = ctx.getBean(OrderApi.class);
+
+            ResponseEntity<StringValue> response = api.echo(StringValue.of("hello"));
+
+            assertThat(response.getBody()).isEqualTo(StringValue.of("hello"));
+            assertThat(response.getHeaders().getFirst("X-Request-Content-Type")).startsWith("application/x-protobuf");
+        }
+    }
+
+    @Test
+    void testCodec_whenChannelAcceptHeaderConfigured_thenTakePrecedence() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".codec=SMILE")
+                .properties(HttpExchangeProperties.PREFIX + ".headers[0].key=Accept")
+                .properties(HttpExchangeProperties.PREFIX + ".headers[0].values[0]=application/json")
+                .run()) {
+            var api = ctx.getBean(OrderApi.class);
+
+            ResponseEntity<Order> response = api.create(order(1));
+
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("application/json");
+            assertThat(response.getHeaders().getFirst("X-Request-Content-Type"))
+                    .isEqualTo("application/x-jackson-smile");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SMILE", "CBOR"})
+    void testCodec_whenBinaryFormat_thenRoundTripSmallerThanJson(String format) {
+        List<Order> orders =
+                IntStream.range(0, 1_000).mapToObj(CodecTests::order).toList();
+        ObjectMapper mapper = format.equals("SMILE") ? SmileMapper.shared() : CBORMapper.shared();
+        var type = mapper.getTypeFactory().constructCollectionType(List.class, Order.class);
+
+        byte[] bytes = mapper.writeValueAsBytes(orders);
+        List<Order> decoded = mapper.readValue(bytes, type);
+
+        assertThat(decoded).isEqualTo(orders);
+        assertThat(bytes.length).isLessThan(JsonMapper.shared().writeValueAsBytes(orders).length);
+    }
+
+    private static Order order(int id) {
+        return new Order(
+                id,
+                "customer-" + id,
+                "2026-01-01T00:00:00Z",
+                List.of(new Line("sku-1", 2, 19.99), new Line("sku-2", 1, 5.5), new Line("sku-3", 10, 0.25)),
+                47.98);
+    }
+
+    private static ConfigurableApplicationContext run(String clientType, String codec) {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].client-type=" + clientType)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].codec=" + codec)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + OrderApi.class.getName())
+                .run();
+    }
+
+    record Line(String sku, int quantity, double price) {}
+
+    record Order(long id, String customer, String createdAt, List<Line> lines, double total) {}
+
+    interface OrderApi {
+        @PostExchange("/orders")
+        ResponseEntity<Order> create(@RequestBody Order order);
+
+        @PostExchange("/echo")
+        ResponseEntity<StringValue> echo(@RequestBody StringValue value);
+
+        @GetExchange("/ping")
+        String ping();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @Bean
+        ProtobufHttpMessageConverter protobufHttpMessageConverter() {
+            return new ProtobufHttpMessageConverter();
+        }
+
+        @PostMapping("/orders")
+        public ResponseEntity<Order> create(
+                @RequestBody Order order, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+            return ResponseEntity.ok()
+                    .header("X-Request-Content-Type", contentType)
+                    .body(order);
+        }
+
+        @PostMapping("/echo")
+        public ResponseEntity<StringValue> echo(
+                @RequestBody StringValue value, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+            return ResponseEntity.ok()
+                    .header("X-Request-Content-Type", contentType)
+                    .body(value);
+        }
+
+        @GetMapping("/ping")
+        public String ping() {
+            return "pong";
+        }
+    }
+}
@@ -4,15 +4,25 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
+import org.eclipse.jetty.client.HttpClient;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
 import org.springframework.cloud.endpoint.event.RefreshEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,6 +38,8 @@ class DynamicRefreshTests {
     @AfterEach
     void reset() {
         System.clearProperty("http-exchange.base-url");
+        System.clearProperty("http-exchange.headers[0].key");
+        System.clearProperty("http-exchange.headers[0].values[0]");
     }
 
     @ParameterizedTest
@@ -70,9 +82,140 @@ class DynamicRefreshTests {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testRefresh_whenRefreshedManyTimes_thenNoPoolOrThreadLeak(String clientType) {
+        int port = findAvailableTcpPort();
+        try (var ctx = run(port, clientType, "0s")) {
+            PingApi pingApi = ctx.getBean(PingApi.class);
+            ExchangePoolMetrics poolMetrics = ctx.getBean(ExchangeMetrics.class).getPoolMetrics();
+
+            // Threads started lazily (e.g. event loops, refresh) are not leaks
+            for (int i = 0; i < 10; i++) {
+                refresh(ctx, port, i);
+                assertThat(pingApi.ping()).isEqualTo(i % 2 == 0 ? "pong" : "pong v2");
+            }
+            int maxConnections = poolMetrics.snapshot().get(0).max();
+            int threads = Thread.activeCount();
+
+            for (int i = 10; i < 1_010; i++) {
+                refresh(ctx, port, i);
+                assertThat(pingApi.ping()).isEqualTo(i % 2 == 0 ? "pong" : "pong v2");
+            }
+
+            // Only the http client of the current configuration is left, the others are closed
+            assertThat(Cache.getHttpClients()).hasSize(1);
+            assertThat(poolMetrics.snapshot())
+                    .singleElement()
+                    .satisfies(pool -> assertThat(pool.max()).isEqualTo(maxConnections));
+            assertThat(Thread.activeCount()).isLessThanOrEqualTo(threads + 5);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testRefresh_whenGracePeriod_thenCloseOldHttpClientAfterIt() {
+        int port = findAvailableTcpPort();
+        try (var ctx = run(port, "REST_CLIENT", "500ms")) {
+            PingApi pingApi = ctx.getBean(PingApi.class);
+
+            assertThat(pingApi.ping()).isEqualTo("pong");
+            var httpClients = Cache.getHttpClients();
+
+            // Unchanged configuration, the http client is reused
+            ctx.publishEvent(new RefreshEvent(ctx, null, null));
+            assertThat(pingApi.ping()).isEqualTo("pong");
+            assertThat(Cache.getHttpClients()).isEqualTo(httpClients);
+
+            // In-flight request completes with the old http client
+            var slow = CompletableFuture.supplyAsync(pingApi::slow);
+            Thread.sleep(50);
+            refresh(ctx, port, 1);
+            assertThat(pingApi.ping()).isEqualTo("pong v2");
+            assertThat(Cache.getHttpClients()).hasSize(2).containsAllEntriesOf(httpClients);
+            assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (Cache.getHttpClients().size() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(Cache.getHttpClients())
+                    .hasSize(1)
+                    .doesNotContainKeys(httpClients.keySet().toArray(new Cache.ClientId[0]));
+        }
+    }
+
+    @Test
+    void testRefresh_whenJetty_thenStopOldHttpClient() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class, JettyCfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=http://localhost:" + port)
+                .properties("http-exchange.client-type=REST_CLIENT")
+                .properties("http-exchange.refresh.enabled=true")
+                .properties("http-exchange.refresh.grace-period=0s")
+                .run()) {
+            PingApi pingApi = ctx.getBean(PingApi.class);
+            List<HttpClient> jettyClients = ctx.getBean(JettyCfg.class).jettyClients;
+
+            assertThat(pingApi.ping()).isEqualTo("pong");
+            assertThat(jettyClients)
+                    .singleElement()
+                    .satisfies(client -> assertThat(client.isRunning()).isTrue());
+
+            refresh(ctx, port, 1);
+            assertThat(pingApi.ping()).isEqualTo("pong v2");
+
+            // The transport doesn't stop the Jetty client it's given
+            assertThat(jettyClients).hasSize(2);
+            assertThat(jettyClients.get(0).isStopped()).isTrue();
+            assertThat(jettyClients.get(1).isRunning()).isTrue();
+        }
+    }
+
+    private static ConfigurableApplicationContext run(int port, String clientType, String gracePeriod) {
+        return new SpringApplicationBuilder(Cfg.class, MeterRegistryCfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=http://localhost:" + port)
+                .properties("http-exchange.client-type=" + clientType)
+                .properties("http-exchange.refresh.enabled=true")
+                .properties("http-exchange.refresh.grace-period=" + gracePeriod)
+                .run();
+    }
+
+    /**
+     * Refresh with a new configuration each time, base url alternates between {@code /} and {@code /v2}.
+     */
+    private static void refresh(ConfigurableApplicationContext ctx, int port, int i) {
+        System.setProperty("http-exchange.base-url", "http://localhost:" + port + (i % 2 == 0 ? "" : "/v2"));
+        System.setProperty("http-exchange.headers[0].key", "X-Refresh");
+        System.setProperty("http-exchange.headers[0].values[0]", String.valueOf(i));
+        ctx.publishEvent(new RefreshEvent(ctx, null, null));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class MeterRegistryCfg {
+
+        @Bean
+        SimpleMeterRegistry simpleMeterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class JettyCfg {
+
+        final List<HttpClient> jettyClients = new CopyOnWriteArrayList<>();
+
+        @Bean
+        ClientHttpRequestFactoryBuilder<?> jettyClientHttpRequestFactoryBuilder() {
+            return ClientHttpRequestFactoryBuilder.jetty().withHttpClientCustomizer(jettyClients::add);
+        }
+    }
+
     @Configuration(proxyBeanMethods = false)
     @EnableAutoConfiguration
-    @EnableExchangeClients(clients = {FooApi.class, BarApi.class, BazApi.class})
+    @EnableExchangeClients(clients = {FooApi.class, BarApi.class, BazApi.class, PingApi.class})
     @RestController
     static class Cfg {
 
@@ -89,6 +232,23 @@ class DynamicRefreshTests {
             Thread.sleep(10);
             return "OK v2";
         }
+
+        @GetMapping("/ping")
+        public String ping() {
+            return "pong";
+        }
+
+        @GetMapping("/v2/ping")
+        public String pingV2() {
+            return "pong v2";
+        }
+
+        @GetMapping("/slow")
+        @SneakyThrows
+        public String slow() {
+            Thread.sleep(300);
+            return "slow";
+        }
     }
 
     interface FooApi {
@@ -103,6 +263,15 @@ class DynamicRefreshTests {
         String get();
     }
 
+    interface PingApi {
+
+        @GetExchange("/ping")
+        String ping();
+
+        @GetExchange("/slow")
+        String slow();
+    }
+
     @Validated
     interface BazApi {
 
@@ -3,6 +3,7 @@ package io.github.danielliu1123.httpexchange;
 import static io.github.danielliu1123.httpexchange.ExchangeClientCreator.hasReactiveReturnTypeMethod;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.service.annotation.HttpExchange;
 import reactor.core.publisher.Flux;
@@ -49,6 +50,11 @@ class ExchangeClientCreatorTest {
             String normalReturnTypeMethod1();
         }
 
+        interface CompletableFutureReturnTypeInterface {
+            @HttpExchange
+            CompletableFuture<String> asyncReturnTypeMethod1();
+        }
+
         assertThat(hasReactiveReturnTypeMethod(AllReactiveReturnTypeNoAnnotationInterface.class))
                 .isFalse();
         assertThat(hasReactiveReturnTypeMethod(AllReactiveReturnTypeInterface.class))
@@ -56,5 +62,8 @@ class ExchangeClientCreatorTest {
         assertThat(hasReactiveReturnTypeMethod(AllNormalReturnTypeInterface.class))
                 .isFalse();
         assertThat(hasReactiveReturnTypeMethod(MixedReturnTypeInterface.class)).isTrue();
+        // Adapted by the async variant support instead of switching to WebClient
+        assertThat(hasReactiveReturnTypeMethod(CompletableFutureReturnTypeInterface.class))
+                .isFalse();
     }
 }
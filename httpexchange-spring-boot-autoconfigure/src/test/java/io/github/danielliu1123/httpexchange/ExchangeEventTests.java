@@ -0,0 +1,163 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.aop.framework.Advised;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+/**
+ * {@link ExchangeEvent} tests.
+ *
+ * @author Freeman
+ */
+class ExchangeEventTests {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testEvent_whenEnabled_thenEmitEventPerCall(String clientType) throws Exception {
+        try (var ctx = run("jfr.enabled=true", "channels[0].client-type=" + clientType)) {
+            var api = ctx.getBean(GreetingApi.class);
+
+            List<RecordedEvent> events = record(() -> {
+                api.hello("freeman");
+                api.echo("hello world");
+            });
+
+            assertThat(events).hasSize(2);
+            assertThat(events.get(0)).satisfies(event -> {
+                assertThat(event.getString("client")).isEqualTo(GreetingApi.class.getName());
+                assertThat(event.getString("method")).isEqualTo("hello");
+                assertThat(event.getString("channel")).isEqualTo("greeting");
+                assertThat(event.getString("uriTemplate")).isEqualTo("/api/hello/{name}");
+                assertThat(event.getInt("status")).isEqualTo(200);
+                assertThat(event.getString("exception")).isNull();
+                assertThat(event.getLong("bytesIn")).isEqualTo("hello freeman".length());
+                assertThat(event.getDuration()).isPositive();
+                assertThat(event.getDuration("timeToFirstByte")).isPositive();
+            });
+            assertThat(events.get(1)).satisfies(event -> {
+                assertThat(event.getString("method")).isEqualTo("echo");
+                assertThat(event.getString("uriTemplate")).isEqualTo("/api/echo");
+                assertThat(event.getLong("bytesOut")).isEqualTo("hello world".length());
+                assertThat(event.getLong("bytesIn")).isEqualTo("hello world".length());
+            });
+        }
+    }
+
+    @Test
+    void testEvent_whenCallFails_thenRecordStatusAndException() throws Exception {
+        try (var ctx = run("jfr.enabled=true")) {
+            var api = ctx.getBean(GreetingApi.class);
+
+            List<RecordedEvent> events = record(() -> {
+                try {
+                    api.missing();
+                } catch (Exception ignored) {
+                    // expected
+                }
+            });
+
+            assertThat(events).singleElement().satisfies(event -> {
+                assertThat(event.getString("method")).isEqualTo("missing");
+                assertThat(event.getInt("status")).isEqualTo(404);
+                assertThat(event.getString("exception")).isNotNull();
+            });
+        }
+    }
+
+    @Test
+    void testEvent_whenDisabled_thenNoInterceptorAndNoEvent() throws Exception {
+        try (var ctx = run()) {
+            var api = ctx.getBean(GreetingApi.class);
+
+            assertThat(((Advised) api).getAdvisors())
+                    .extracting(advisor -> advisor.getAdvice().getClass().getName())
+                    .noneMatch(name -> name.equals(ExchangeCallInterceptor.class.getName()));
+            assertThat(record(() -> api.hello("freeman"))).isEmpty();
+        }
+    }
+
+    private List<RecordedEvent> record(Runnable runnable) throws Exception {
+        Path file = Files.createTempFile(tempDir, "exchange", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(ExchangeEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(ExchangeEvent.NAME))
+                .toList();
+    }
+
+    private static ConfigurableApplicationContext run(String... properties) {
+        int port = findAvailableTcpPort();
+        var builder = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=greeting")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + GreetingApi.class.getName());
+        for (String property : properties) {
+            builder.properties(HttpExchangeProperties.PREFIX + "." + property);
+        }
+        return builder.run();
+    }
+
+    @HttpExchange("/api")
+    interface GreetingApi {
+        @GetExchange("/hello/{name}")
+        String hello(@PathVariable String name);
+
+        @PostExchange("/echo")
+        String echo(@RequestBody String body);
+
+        @GetExchange("/missing")
+        String missing();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    @RequestMapping("/api")
+    static class Cfg {
+
+        @GetMapping("/hello/{name}")
+        public String hello(@PathVariable String name) {
+            return "hello " + name;
+        }
+
+        @PostMapping("/echo")
+        public String echo(@RequestBody String body) {
+            return body;
+        }
+    }
+}
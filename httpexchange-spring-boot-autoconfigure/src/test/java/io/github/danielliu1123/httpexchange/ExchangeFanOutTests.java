@@ -0,0 +1,272 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+/**
+ * {@link ExchangeFanOut} tests.
+ *
+ * @author Freeman
+ */
+class ExchangeFanOutTests {
+
+    @Test
+    void testJoin_whenAllCallsSucceed_thenRunConcurrently() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(DelayApi.class);
+            api.delay("warmup", 0);
+
+            long start = System.nanoTime();
+            var result = ExchangeFanOut.of(
+                            () -> api.delay("a", 500), () -> api.delay("b", 500), () -> api.delay("c", 500))
+                    .join();
+            long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertThat(result.isAllSuccess()).isTrue();
+            assertThat(result.<String>get(0)).isEqualTo("a");
+            assertThat(result.<String>get(1)).isEqualTo("b");
+            assertThat(result.<String>get(2)).isEqualTo("c");
+            assertThat(elapsed).isLessThan(1500);
+            assertThat(result.branches())
+                    .allSatisfy(branch -> assertThat(branch.duration()).isGreaterThanOrEqualTo(Duration.ofMillis(500)));
+        }
+    }
+
+    @Test
+    void testJoin_whenCancelOnFailure_thenThrowTheFailureAndCancelOthers() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(DelayApi.class);
+
+            long start = System.nanoTime();
+            assertThatCode(() -> ExchangeFanOut.of(() -> api.delay("a", 3000), api::fail)
+                            .cancelOnFailure(true)
+                            .join())
+                    .isInstanceOf(HttpServerErrorException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(2000));
+        }
+    }
+
+    @Test
+    void testJoin_whenNotCancelOnFailure_thenRecordFailureAndKeepOthers() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(DelayApi.class);
+
+            var result = ExchangeFanOut.of(() -> api.delay("a", 100), api::fail).join();
+
+            assertThat(result.isAllSuccess()).isFalse();
+            assertThat(result.<String>get(0)).isEqualTo("a");
+            assertThat(result.branches().get(1).error()).isInstanceOf(HttpServerErrorException.class);
+            assertThatCode(result::throwIfFailed).isInstanceOf(HttpServerErrorException.class);
+        }
+    }
+
+    @Test
+    void testJoin_whenDeadlineExceeded_thenUnfinishedCallsTimeout() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(DelayApi.class);
+
+            var result = ExchangeFanOut.of(() -> api.delay("a", 50), () -> api.delay("b", 3000))
+                    .timeout(Duration.ofMillis(500))
+                    .join();
+
+            assertThat(result.<String>get(0)).isEqualTo("a");
+            assertThat(result.branches().get(1).error()).isInstanceOf(TimeoutException.class);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testJoin_whenDeadlineExceeded_thenInterruptRunningCalls() {
+        var interrupted = new CountDownLatch(2);
+        Supplier<String> blocking = () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "a";
+        };
+        var async = ExchangeFanOut.supplyAsync(blocking, ExchangeFanOut.defaultExecutor());
+
+        var result = ExchangeFanOut.of(blocking, () -> async)
+                .timeout(Duration.ofMillis(100))
+                .join();
+
+        assertThat(result.branches())
+                .allSatisfy(branch -> assertThat(branch.error()).isInstanceOf(TimeoutException.class));
+        assertThat(async).isCancelled();
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void testJoin_whenCallReturnsCompletableFuture_thenWaitForTheFuture() {
+        var never = new CompletableFuture<String>();
+        var result = ExchangeFanOut.of(() -> CompletableFuture.completedFuture("a"), () -> never)
+                .timeout(Duration.ofMillis(100))
+                .join();
+
+        assertThat(result.<String>get(0)).isEqualTo("a");
+        assertThat(result.branches().get(1).error()).isInstanceOf(TimeoutException.class);
+        assertThat(never).isCancelled();
+    }
+
+    @Test
+    void testJoin_whenAsyncClient_thenUnwrapResult() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(ExchangeFanOutTestsDelayApiAsync.class);
+
+            var result = ExchangeFanOut.of(() -> api.delay("a", 100), () -> api.delay("b", 100))
+                    .cancelOnFailure(true)
+                    .join();
+
+            assertThat(result.<String>get(0)).isEqualTo("a");
+            assertThat(result.<String>get(1)).isEqualTo("b");
+        }
+    }
+
+    @Test
+    void testJoin_whenMetricsEnabled_thenRecordBranchTimer() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class, MetricsCfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=localhost:" + port)
+                .run()) {
+            var api = ctx.getBean(DelayApi.class);
+            var apiAsync = ctx.getBean(ExchangeFanOutTestsDelayApiAsync.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            api.delay("not-in-fan-out", 0);
+            ExchangeFanOut.of(() -> api.delay("a", 100), () -> apiAsync.delay("b", 100), api::fail)
+                    .join();
+
+            Timer delay = registry.get(ExchangeMetrics.FAN_OUT_METRIC_NAME)
+                    .tag("client", DelayApi.class.getName())
+                    .tag("method", "delay")
+                    .tag("outcome", "SUCCESS")
+                    .timer();
+            assertThat(delay.count()).isEqualTo(2);
+            assertThat(delay.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100);
+
+            Timer fail = registry.get(ExchangeMetrics.FAN_OUT_METRIC_NAME)
+                    .tag("method", "fail")
+                    .tag("outcome", "SERVER_ERROR")
+                    .timer();
+            assertThat(fail.count()).isEqualTo(1);
+
+            // Calls out of fan-out are only recorded by the call timer
+            assertThat(registry.get(ExchangeMetrics.METRIC_NAME)
+                            .tag("method", "delay")
+                            .timer()
+                            .count())
+                    .isEqualTo(3);
+        }
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void testDefaultExecutor_whenNoVirtualThreads_thenBoundedPool() {
+        assertThat(ExchangeFanOut.defaultExecutor())
+                .isInstanceOfSatisfying(
+                        ThreadPoolExecutor.class,
+                        executor -> assertThat(executor.getMaximumPoolSize())
+                                .isEqualTo(ExchangeFanOut.MAX_PLATFORM_THREADS));
+    }
+
+    @Test
+    void testThrowIfFailed_whenCancelledByOtherFailure_thenThrowTheFailure() {
+        var failure = new IllegalStateException("boom");
+        var result = new ExchangeFanOut.Result(List.of(
+                new ExchangeFanOut.Branch(0, null, new CancellationException(), Duration.ZERO),
+                new ExchangeFanOut.Branch(1, null, failure, Duration.ZERO)));
+
+        assertThatCode(result::throwIfFailed).isSameAs(failure);
+    }
+
+    private static ConfigurableApplicationContext run() {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=localhost:" + port)
+                .run();
+    }
+
+    @HttpExchange("/delay")
+    interface DelayApi {
+
+        @GetExchange("/{value}")
+        String delay(@PathVariable String value, @RequestParam long millis);
+
+        @GetExchange("/fail")
+        String fail();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class MetricsCfg {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients(clients = DelayApi.class)
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/delay/{value}")
+        @SneakyThrows
+        public String delay(@PathVariable String value, @RequestParam long millis) {
+            Thread.sleep(millis);
+            return value;
+        }
+
+        @GetMapping("/delay/fail")
+        public String fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+}
+
+/**
+ * Simulate the async variant generated by httpexchange-processor for the nested {@link ExchangeFanOutTests.DelayApi}.
+ */
+@HttpExchange("/delay")
+@AsyncVariant(of = ExchangeFanOutTests.DelayApi.class)
+interface ExchangeFanOutTestsDelayApiAsync {
+
+    @GetExchange("/{value}")
+    CompletableFuture<String> delay(@PathVariable String value, @RequestParam long millis);
+}
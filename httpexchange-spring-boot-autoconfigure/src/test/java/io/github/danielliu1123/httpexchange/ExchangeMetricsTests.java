@@ -0,0 +1,201 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.aop.framework.Advised;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ExchangeMetrics} tests.
+ *
+ * @author Freeman
+ */
+class ExchangeMetricsTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testMetrics_whenCallSucceeds_thenRecordTimerPerMethod(String clientType) {
+        try (var ctx = run(Cfg.class, "channels[0].client-type=" + clientType)) {
+            var api = ctx.getBean(GreetingApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            api.hello();
+            api.hello();
+            api.create();
+
+            Timer hello = registry.get(ExchangeMetrics.METRIC_NAME)
+                    .tag("channel", "greeting")
+                    .tag("client", GreetingApi.class.getName())
+                    .tag("method", "hello")
+                    .tag("outcome", "SUCCESS")
+                    .tag("status", "200")
+                    .tag("exception", "none")
+                    .timer();
+            assertThat(hello.count()).isEqualTo(2);
+
+            Timer create = registry.get(ExchangeMetrics.METRIC_NAME)
+                    .tag("method", "create")
+                    .tag("status", "201")
+                    .timer();
+            assertThat(create.count()).isEqualTo(1);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testMetrics_whenErrorResponse_thenRecordStatusAndException(String clientType) {
+        try (var ctx = run(Cfg.class, "channels[0].client-type=" + clientType)) {
+            var api = ctx.getBean(GreetingApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            assertThatThrownBy(api::missing).isNotNull();
+
+            Timer timer = registry.get(ExchangeMetrics.METRIC_NAME)
+                    .tag("method", "missing")
+                    .tag("outcome", "CLIENT_ERROR")
+                    .tag("status", "404")
+                    .timer();
+            assertThat(timer.count()).isEqualTo(1);
+            assertThat(timer.getId().getTag("exception")).endsWith("NotFound");
+        }
+    }
+
+    @Test
+    void testMetrics_whenReactiveReturnType_thenRecordOnCompletion() {
+        try (var ctx = run(Cfg.class, "channels[0].client-type=WEB_CLIENT")) {
+            var api = ctx.getBean(GreetingApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            Mono<String> mono = api.helloMono();
+            assertThat(registry.find(ExchangeMetrics.METRIC_NAME)
+                            .tag("method", "helloMono")
+                            .timer())
+                    .isNull();
+
+            assertThat(mono.block()).isEqualTo("hello");
+            assertThat(registry.get(ExchangeMetrics.METRIC_NAME)
+                            .tag("method", "helloMono")
+                            .tag("status", "200")
+                            .timer()
+                            .count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testMetrics_whenMaxTimeSeriesReached_thenStopCreatingTimers() {
+        try (var ctx = run(Cfg.class, "metrics.max-time-series=1")) {
+            var api = ctx.getBean(GreetingApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            api.hello();
+            api.create();
+            api.hello();
+
+            assertThat(registry.find(ExchangeMetrics.METRIC_NAME).timers()).hasSize(1);
+            assertThat(registry.get(ExchangeMetrics.METRIC_NAME).timer().count())
+                    .isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testMetrics_whenNoMeterRegistry_thenNoInterceptor() {
+        try (var ctx = run(NoRegistryCfg.class)) {
+            var api = ctx.getBean(GreetingApi.class);
+
+            assertThat(api.hello()).isEqualTo("hello");
+            assertThat(((Advised) api).getAdvisors())
+                    .extracting(advisor -> advisor.getAdvice().getClass().getName())
+                    .noneMatch(name -> name.equals(ExchangeCallInterceptor.class.getName()));
+        }
+    }
+
+    @Test
+    void testMetrics_whenDisabled_thenNoTimer() {
+        try (var ctx = run(Cfg.class, "metrics.enabled=false")) {
+            var api = ctx.getBean(GreetingApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            api.hello();
+
+            assertThat(registry.find(ExchangeMetrics.METRIC_NAME).timers()).isEmpty();
+        }
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> cfg, String... properties) {
+        int port = findAvailableTcpPort();
+        var builder = new SpringApplicationBuilder(cfg)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=greeting")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + GreetingApi.class.getName());
+        for (String property : properties) {
+            builder.properties(HttpExchangeProperties.PREFIX + "." + property);
+        }
+        return builder.run();
+    }
+
+    interface GreetingApi {
+        @GetExchange("/hello")
+        String hello();
+
+        @GetExchange("/hello")
+        Mono<String> helloMono();
+
+        @PostExchange("/greetings")
+        ResponseEntity<Void> create();
+
+        @GetExchange("/missing")
+        String missing();
+    }
+
+    @RestController
+    static class Controller {
+
+        @GetMapping("/hello")
+        public String hello() {
+            return "hello";
+        }
+
+        @PostMapping("/greetings")
+        public ResponseEntity<Void> create() {
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    static class Cfg extends Controller {
+
+        @Bean
+        SimpleMeterRegistry simpleMeterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    static class NoRegistryCfg extends Controller {}
+}
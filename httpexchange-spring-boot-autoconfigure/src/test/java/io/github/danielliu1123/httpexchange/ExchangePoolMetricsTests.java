@@ -0,0 +1,156 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+
+/**
+ * {@link ExchangePoolMetrics} tests.
+ *
+ * @author Freeman
+ */
+class ExchangePoolMetricsTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testPoolMetrics_whenReactorNetty_thenPublishGaugesPerChannel(String clientType) {
+        MeterRegistry registry;
+        try (var ctx = run("channels[0].client-type=" + clientType, "spring.http.clients.imperative.factory=reactor")) {
+            var api = ctx.getBean(GreetingApi.class);
+            registry = ctx.getBean(MeterRegistry.class);
+
+            assertThat(api.hello()).isEqualTo("hello");
+            assertThat(api.hello()).isEqualTo("hello");
+
+            var search = registry.find(ExchangePoolMetrics.METRIC_PREFIX + ".max")
+                    .tag("channel", "greeting")
+                    .tag("transport", "reactor-netty");
+            assertThat(search.gauge()).isNotNull();
+            assertThat(search.gauge().value()).isPositive();
+            assertThat(registry.get(ExchangePoolMetrics.METRIC_PREFIX + ".leased")
+                            .tag("channel", "greeting")
+                            .gauge())
+                    .isNotNull();
+            assertThat(registry.get(ExchangePoolMetrics.METRIC_PREFIX + ".idle")
+                            .tag("channel", "greeting")
+                            .gauge())
+                    .isNotNull();
+            assertThat(registry.get(ExchangePoolMetrics.METRIC_PREFIX + ".pending")
+                            .tag("channel", "greeting")
+                            .gauge()
+                            .value())
+                    .isZero();
+            assertThat(registry.get(ExchangePoolMetrics.METRIC_PREFIX + ".acquire")
+                            .tag("channel", "greeting")
+                            .timer()
+                            .count())
+                    .isPositive();
+        }
+
+        // Removed when the pools are closed
+        assertThat(registry.find(ExchangePoolMetrics.METRIC_PREFIX + ".max").gauges())
+                .isEmpty();
+        assertThat(registry.find(ExchangePoolMetrics.METRIC_PREFIX + ".acquire").timers())
+                .isEmpty();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"http-components, apache-httpclient5", "jetty, jetty"})
+    void testPoolMetrics_whenRestClientTransport_thenPublishGaugesPerChannel(String factory, String transport) {
+        MeterRegistry registry;
+        try (var ctx =
+                run("channels[0].client-type=REST_CLIENT", "spring.http.clients.imperative.factory=" + factory)) {
+            var api = ctx.getBean(GreetingApi.class);
+            registry = ctx.getBean(MeterRegistry.class);
+
+            assertThat(api.hello()).isEqualTo("hello");
+
+            var max = registry.find(ExchangePoolMetrics.METRIC_PREFIX + ".max")
+                    .tag("channel", "greeting")
+                    .tag("transport", transport)
+                    .gauge();
+            assertThat(max).isNotNull();
+            assertThat(max.value()).isPositive();
+            assertThat(registry.get(ExchangePoolMetrics.METRIC_PREFIX + ".idle")
+                            .tag("channel", "greeting")
+                            .tag("transport", transport)
+                            .gauge())
+                    .isNotNull();
+            assertThat(registry.get(ExchangePoolMetrics.METRIC_PREFIX + ".leased")
+                            .tag("channel", "greeting")
+                            .tag("transport", transport)
+                            .gauge()
+                            .value())
+                    .isZero();
+        }
+
+        // Removed when the pools are closed
+        assertThat(registry.find(ExchangePoolMetrics.METRIC_PREFIX + ".max").gauges())
+                .isEmpty();
+    }
+
+    @Test
+    void testPoolMetrics_whenDisabled_thenNoGauge() {
+        try (var ctx = run("metrics.pool-enabled=false")) {
+            var api = ctx.getBean(GreetingApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            assertThat(api.hello()).isEqualTo("hello");
+
+            assertThat(registry.find(ExchangePoolMetrics.METRIC_PREFIX + ".max").gauges())
+                    .isEmpty();
+            // Timers of calls are not affected
+            assertThat(registry.find(ExchangeMetrics.METRIC_NAME).timers()).isNotEmpty();
+        }
+    }
+
+    private static ConfigurableApplicationContext run(String... properties) {
+        int port = findAvailableTcpPort();
+        var builder = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=greeting")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + GreetingApi.class.getName());
+        for (String property : properties) {
+            builder.properties(
+                    property.startsWith("spring.") ? property : HttpExchangeProperties.PREFIX + "." + property);
+        }
+        return builder.run();
+    }
+
+    interface GreetingApi {
+        @GetExchange("/hello")
+        String hello();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/hello")
+        public String hello() {
+            return "hello";
+        }
+
+        @Bean
+        SimpleMeterRegistry simpleMeterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link HashRing} tests.
+ *
+ * @author Freeman
+ */
+class HashRingTests {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    void testGet_thenSpreadKeysEvenly() {
+        List<String> nodes = List.of("http://a", "http://b", "http://c", "http://d");
+        var ring = new HashRing<>(nodes, nodes, 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.get("user-" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values())
+                .allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10));
+    }
+
+    @Test
+    void testGet_whenNodeAdded_thenOnlyRemapKeysToNewNode() {
+        List<String> before = List.of("http://a", "http://b", "http://c");
+        List<String> after = List.of("http://a", "http://b", "http://c", "http://d");
+        var oldRing = new HashRing<>(before, before, 128);
+        var newRing = new HashRing<>(after, after, 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String oldNode = oldRing.get("user-" + i);
+            String newNode = newRing.get("user-" + i);
+            if (!oldNode.equals(newNode)) {
+                assertThat(newNode).isEqualTo("http://d");
+                moved++;
+            }
+        }
+
+        // ~1/4 of the keys
+        assertThat(moved).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10);
+    }
+
+    @Test
+    void testGet_whenNodeOrderChanged_thenSameMapping() {
+        List<String> nodes = List.of("http://a", "http://b", "http://c");
+        List<String> reversed = List.of("http://c", "http://b", "http://a");
+        var ring = new HashRing<>(nodes, nodes, 16);
+        var reversedRing = new HashRing<>(reversed, reversed, 16);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reversedRing.get("user-" + i)).isEqualTo(ring.get("user-" + i));
+        }
+    }
+
+    @Test
+    void testGet_whenNodeUnavailable_thenNextNodeClockwise() {
+        List<String> nodes = List.of("http://a", "http://b", "http://c");
+        var ring = new HashRing<>(nodes, nodes, 128);
+        var withoutB = new HashRing<>(List.of("http://a", "http://c"), List.of("http://a", "http://c"), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "user-" + i;
+            // Skipping an unavailable node is the same as removing it from the ring
+            assertThat(ring.get(key, node -> !node.equals("http://b"))).isEqualTo(withoutB.get(key));
+        }
+        assertThat(ring.get("user-1", node -> false)).isEqualTo(ring.get("user-1"));
+    }
+}
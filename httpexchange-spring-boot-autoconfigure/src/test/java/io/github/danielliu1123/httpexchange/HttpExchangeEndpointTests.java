@@ -0,0 +1,151 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.service.annotation.GetExchange;
+
+/**
+ * {@link HttpExchangeEndpoint} tests.
+ *
+ * @author Freeman
+ */
+class HttpExchangeEndpointTests {
+
+    @Test
+    void testEndpoint_thenDescribeClientsAndSharedHttpClients() {
+        int port = findAvailableTcpPort();
+        try (var ctx = run(
+                port,
+                "management.endpoints.web.exposure.include=httpexchange",
+                "spring.http.clients.imperative.factory=reactor")) {
+            ctx.getBean(FooApi.class).foo();
+            ctx.getBean(FooApi.class).foo();
+            ctx.getBean(BarApi.class).bar();
+
+            var result = ctx.getBean(HttpExchangeEndpoint.class).httpExchange();
+
+            assertThat(result.clients())
+                    .extracting(HttpExchangeEndpoint.ClientDescriptor::name)
+                    .containsExactly(BarApi.class.getName(), FooApi.class.getName());
+            var foo = result.clients().get(1);
+            assertThat(foo.channel()).isEqualTo("greeting");
+            assertThat(foo.clientType()).isEqualTo(HttpExchangeProperties.ClientType.REST_CLIENT);
+            assertThat(foo.baseUrl()).isEqualTo("localhost:" + port);
+            assertThat(foo.shared()).isTrue();
+            assertThat(foo.httpClient()).isEqualTo(result.clients().get(0).httpClient());
+            assertThat(foo.methods()).singleElement().satisfies(method -> {
+                assertThat(method.name()).isEqualTo("foo");
+                assertThat(method.count()).isEqualTo(2);
+                assertThat(method.meanMs()).isPositive();
+            });
+
+            assertThat(result.httpClients()).singleElement().satisfies(httpClient -> {
+                assertThat(httpClient.id()).isEqualTo(foo.httpClient());
+                assertThat(httpClient.channel()).isEqualTo("greeting");
+                assertThat(httpClient.clients()).containsExactly(BarApi.class.getName(), FooApi.class.getName());
+            });
+
+            assertThat(result.pools()).singleElement().satisfies(pool -> {
+                assertThat(pool.channel()).isEqualTo("greeting");
+                assertThat(pool.transport()).isEqualTo("reactor-netty");
+                assertThat(pool.max()).isPositive();
+            });
+
+            assertThat(result.cache().clients()).isEqualTo(2);
+            assertThat(result.cache().httpClients()).isEqualTo(1);
+            assertThat(result.cache().misses()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testEndpoint_whenExposed_thenAccessibleOverHttp() {
+        int port = findAvailableTcpPort();
+        try (var ctx = run(
+                port,
+                "management.endpoints.web.exposure.include=httpexchange",
+                "spring.http.clients.imperative.factory=reactor")) {
+            ctx.getBean(FooApi.class).foo();
+
+            Map<String, Object> body = RestClient.create("http://localhost:" + port)
+                    .get()
+                    .uri("/actuator/httpexchange")
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<>() {});
+
+            assertThat(body).containsKeys("clients", "httpClients", "pools", "cache");
+            assertThat((List<?>) body.get("clients"))
+                    .singleElement()
+                    .asInstanceOf(InstanceOfAssertFactories.MAP)
+                    .containsEntry("name", FooApi.class.getName())
+                    .containsEntry("channel", "greeting")
+                    .containsEntry("shared", true);
+        }
+    }
+
+    @Test
+    void testEndpoint_whenNotExposed_thenNoBean() {
+        try (var ctx = run(findAvailableTcpPort())) {
+            assertThat(ctx.getBeanProvider(HttpExchangeEndpoint.class).getIfAvailable())
+                    .isNull();
+        }
+    }
+
+    private static ConfigurableApplicationContext run(int port, String... properties) {
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=greeting")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].client-type=REST_CLIENT")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + FooApi.class.getName())
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[1]=" + BarApi.class.getName())
+                .properties(properties)
+                .run();
+    }
+
+    interface FooApi {
+        @GetExchange("/foo")
+        String foo();
+    }
+
+    interface BarApi {
+        @GetExchange("/bar")
+        String bar();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients(clients = {FooApi.class, BarApi.class})
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/foo")
+        public String foo() {
+            return "foo";
+        }
+
+        @GetMapping("/bar")
+        public String bar() {
+            return "bar";
+        }
+
+        @Bean
+        SimpleMeterRegistry simpleMeterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
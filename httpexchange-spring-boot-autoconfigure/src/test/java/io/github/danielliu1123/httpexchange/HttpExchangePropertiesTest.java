@@ -37,6 +37,12 @@ class HttpExchangePropertiesTest {
             expected.setLoadbalancerEnabled(false);
             expected.setHttpClientReuseEnabled(false);
             expected.setHeaders(List.of());
+            expected.setDownload(properties.getDownload());
+            expected.setCompression(properties.getCompression());
+            expected.setPrecomputeJsonEnabled(false);
+            expected.setSlowCallLog(properties.getSlowCallLog());
+            expected.setLoadBalancing(properties.getLoadBalancing());
+            expected.setLocal(properties.getLocal());
             assertThat(actual).isEqualTo(expected);
         }
     }
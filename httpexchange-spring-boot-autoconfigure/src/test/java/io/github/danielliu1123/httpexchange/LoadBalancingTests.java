@@ -0,0 +1,468 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+/**
+ * Tests for load balancing among {@link HttpExchangeProperties.Channel#getBaseUrls()}.
+ *
+ * @author Freeman
+ */
+class LoadBalancingTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testRoundRobin_thenChooseEndpointsInTurn(String clientType) {
+        try (var ctx = run("channels[0].client-type=" + clientType)) {
+            var api = ctx.getBean(ReplicaApi.class);
+
+            List<String> replicas =
+                    IntStream.range(0, 6).mapToObj(i -> api.whoami()).toList();
+
+            assertThat(replicas).containsExactly("a", "b", "c", "a", "b", "c");
+            assertThat(api.echo("hello")).endsWith(":hello");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RANDOM", "LEAST_REQUEST"})
+    void testStrategy_thenSpreadCallsOverAllEndpoints(String strategy) {
+        try (var ctx = run("channels[0].load-balancing.strategy=" + strategy)) {
+            var api = ctx.getBean(ReplicaApi.class);
+
+            List<String> replicas = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                replicas.add(api.whoami());
+            }
+
+            assertThat(replicas).containsOnly("a", "b", "c").contains("a", "b", "c");
+        }
+    }
+
+    @Test
+    void testLeastRequest_thenChooseEndpointWithFewerOutstandingRequests() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.setStrategy(HttpExchangeProperties.LoadBalancing.Strategy.LEAST_REQUEST);
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var busy = loadBalancer.getEndpoints().get(0);
+        long start = busy.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl())
+                    .isEqualTo("http://b");
+        }
+
+        busy.end(start, true);
+        assertThat(busy.getInFlight()).isZero();
+    }
+
+    @Test
+    void testEwma_thenChooseEndpointWithLowerResponseTime() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.setStrategy(HttpExchangeProperties.LoadBalancing.Strategy.EWMA);
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var slow = loadBalancer.getEndpoints().get(0);
+        var fast = loadBalancer.getEndpoints().get(1);
+        slow.end(slow.start() - Duration.ofMillis(500).toNanos(), true);
+        fast.end(fast.start() - Duration.ofMillis(5).toNanos(), true);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl())
+                    .isEqualTo("http://b");
+        }
+        assertThat(slow.getScore()).isGreaterThan(fast.getScore());
+    }
+
+    @Test
+    void testEwma_whenRequestFailed_thenPenalizeEndpoint() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.setStrategy(HttpExchangeProperties.LoadBalancing.Strategy.EWMA);
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var failing = loadBalancer.getEndpoints().get(0);
+        var healthy = loadBalancer.getEndpoints().get(1);
+        healthy.end(healthy.start() - Duration.ofMillis(50).toNanos(), true);
+        failing.end(failing.start(), false);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl())
+                    .isEqualTo("http://b");
+        }
+    }
+
+    @Test
+    void testEwma_whenOutstandingRequests_thenScoreGrows() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.setStrategy(HttpExchangeProperties.LoadBalancing.Strategy.EWMA);
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var a = loadBalancer.getEndpoints().get(0);
+        var b = loadBalancer.getEndpoints().get(1);
+        a.end(a.start() - Duration.ofMillis(10).toNanos(), true);
+        b.end(b.start() - Duration.ofMillis(10).toNanos(), true);
+        for (int i = 0; i < 3; i++) {
+            a.start();
+        }
+
+        assertThat(loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl()).isEqualTo("http://b");
+        assertThat(a.getInFlight()).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testOutlierDetection_whenConsecutiveFailures_thenEjectEndpoint(String clientType) {
+        try (var ctx = run(
+                "channels[0].client-type=" + clientType,
+                "channels[0].load-balancing.outlier-detection.enabled=true",
+                "channels[0].load-balancing.outlier-detection.consecutive-failures=2")) {
+            var api = ctx.getBean(ReplicaApi.class);
+            var registry = ctx.getBean(MeterRegistry.class);
+
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                try {
+                    results.add(api.flaky());
+                } catch (Exception e) {
+                    results.add("error");
+                }
+            }
+
+            // a, b (500), c, a, b (500, ejected), then a and c only
+            assertThat(results.subList(0, 5)).containsExactly("a", "error", "c", "a", "error");
+            assertThat(results.subList(5, 12)).containsOnly("a", "c");
+
+            String b = "http://localhost:" + ctx.getEnvironment().getProperty("server.port") + "/b";
+            assertThat(registry.get(ExchangeMetrics.OUTLIER_METRIC_PREFIX + ".ejected")
+                            .tag("channel", "replicas")
+                            .tag("endpoint", b)
+                            .gauge()
+                            .value())
+                    .isEqualTo(1);
+            assertThat(registry.get(ExchangeMetrics.OUTLIER_METRIC_PREFIX + ".ejections")
+                            .tag("channel", "replicas")
+                            .tag("endpoint", b)
+                            .functionCounter()
+                            .count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testOutlierDetection_whenMaxEjectionPercentReached_thenKeepEndpoint() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.getOutlierDetection().setEnabled(true);
+        properties.getOutlierDetection().setConsecutiveFailures(1);
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var detector = loadBalancer.getOutlierDetector();
+        var a = loadBalancer.getEndpoints().get(0);
+        var b = loadBalancer.getEndpoints().get(1);
+
+        a.end(a.start(), false);
+        b.end(b.start(), false);
+
+        assertThat(detector).isNotNull();
+        assertThat(detector.isEjected(a)).isTrue();
+        assertThat(detector.isEjected(b)).isFalse();
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl())
+                    .isEqualTo("http://b");
+        }
+    }
+
+    @Test
+    void testOutlierDetection_whenFailureRateReached_thenEjectEndpoint() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.getOutlierDetection().setEnabled(true);
+        properties.getOutlierDetection().setConsecutiveFailures(0);
+        properties.getOutlierDetection().setFailureRateThreshold(0.5);
+        properties.getOutlierDetection().setFailureRateMinimumRequests(4);
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var detector = loadBalancer.getOutlierDetector();
+        var a = loadBalancer.getEndpoints().get(0);
+
+        a.end(a.start(), true);
+        a.end(a.start(), false);
+        a.end(a.start(), true);
+        assertThat(detector).isNotNull();
+        assertThat(detector.isEjected(a)).isFalse();
+
+        a.end(a.start(), false);
+        assertThat(detector.isEjected(a)).isTrue();
+        assertThat(detector.getEjections(a)).isEqualTo(1);
+    }
+
+    @Test
+    void testOutlierDetection_whenEjectedAgain_thenDoubleEjectionTime() throws InterruptedException {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.getOutlierDetection().setEnabled(true);
+        properties.getOutlierDetection().setConsecutiveFailures(1);
+        properties.getOutlierDetection().setBaseEjectionTime(Duration.ofMillis(200));
+        var loadBalancer = new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b"), properties);
+        var detector = loadBalancer.getOutlierDetector();
+        var a = loadBalancer.getEndpoints().get(0);
+        assertThat(detector).isNotNull();
+
+        a.end(a.start(), false);
+        assertThat(detector.isEjected(a)).isTrue();
+        Thread.sleep(300);
+        assertThat(detector.isEjected(a)).isFalse();
+
+        // 400ms this time
+        a.end(a.start(), false);
+        Thread.sleep(300);
+        assertThat(detector.isEjected(a)).isTrue();
+        assertThat(detector.getEjections(a)).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testRoutingKey_thenSameKeyGoesToSameEndpoint(String clientType) {
+        try (var ctx = run("channels[0].client-type=" + clientType, "channels[0].load-balancing.strategy=RANDOM")) {
+            var api = ctx.getBean(ReplicaApi.class);
+
+            Set<String> replicas = new HashSet<>();
+            for (int user = 0; user < 30; user++) {
+                String replica = api.whoamiFor(String.valueOf(user));
+                for (int i = 0; i < 3; i++) {
+                    assertThat(api.whoamiFor(String.valueOf(user))).isEqualTo(replica);
+                    assertThat(api.whoamiForQuery(new Query("tenant", String.valueOf(user))))
+                            .isEqualTo(replica);
+                }
+                replicas.add(replica);
+            }
+
+            assertThat(replicas).containsExactlyInAnyOrder("a", "b", "c");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testRoutingKeyHeader_thenSameHeaderGoesToSameEndpoint(String clientType) {
+        try (var ctx = run(
+                "channels[0].client-type=" + clientType,
+                "channels[0].load-balancing.strategy=RANDOM",
+                "channels[0].load-balancing.routing-key-header=X-User")) {
+            var api = ctx.getBean(ReplicaApi.class);
+
+            for (int user = 0; user < 10; user++) {
+                String replica = api.whoamiForUser(String.valueOf(user));
+                for (int i = 0; i < 3; i++) {
+                    assertThat(api.whoamiForUser(String.valueOf(user))).isEqualTo(replica);
+                    assertThat(api.whoamiFor(String.valueOf(user))).isEqualTo(replica);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRoutingKey_whenEndpointEjected_thenNextEndpointOnRing() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.getOutlierDetection().setEnabled(true);
+        properties.getOutlierDetection().setConsecutiveFailures(1);
+        var loadBalancer =
+                new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b", "http://c"), properties);
+        Map<String, Object> attributes = Map.of(RoutingKeyProcessor.ROUTING_KEY_ATTRIBUTE, "user-1");
+        var owner = loadBalancer.choose(attributes, new HttpHeaders());
+
+        owner.end(owner.start(), false);
+
+        var fallback = loadBalancer.choose(attributes, new HttpHeaders());
+        assertThat(fallback).isNotSameAs(owner);
+        assertThat(loadBalancer.choose(attributes, new HttpHeaders())).isSameAs(fallback);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testZonePreference_thenChooseEndpointsInSameZone(String clientType) {
+        try (var ctx = run(
+                "channels[0].client-type=" + clientType,
+                "channels[0].load-balancing.zone-preference.enabled=true",
+                "channels[0].load-balancing.zone-preference.zone=east",
+                "channels[0].load-balancing.zone-preference.endpoints.east[0]=localhost:${server.port}/a",
+                "channels[0].load-balancing.zone-preference.endpoints.east[1]=localhost:${server.port}/c",
+                "channels[0].load-balancing.zone-preference.endpoints.west[0]=localhost:${server.port}/b")) {
+            var api = ctx.getBean(ReplicaApi.class);
+
+            List<String> replicas =
+                    IntStream.range(0, 6).mapToObj(i -> api.whoami()).toList();
+
+            assertThat(replicas).containsOnly("a", "c").contains("a", "c");
+        }
+    }
+
+    @Test
+    void testZonePreference_whenSameZoneUnhealthy_thenSpillOver() {
+        var properties = zonePreference();
+        properties.getOutlierDetection().setEnabled(true);
+        properties.getOutlierDetection().setConsecutiveFailures(1);
+        properties.getOutlierDetection().setMaxEjectionPercent(100);
+        var loadBalancer =
+                new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b", "http://c"), properties);
+        var a = loadBalancer.getEndpoints().get(0);
+
+        assertThat(loadBalancer.choose(Map.of(), new HttpHeaders())).isSameAs(a);
+
+        // 0 of 1 healthy in the same zone
+        a.end(a.start(), false);
+
+        Set<String> urls = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            urls.add(loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl());
+        }
+        assertThat(urls).containsExactlyInAnyOrder("http://b", "http://c");
+    }
+
+    @Test
+    void testZonePreference_whenSameZoneBusy_thenSpillOver() {
+        var properties = zonePreference();
+        properties.getZonePreference().setMaxInFlightPerEndpoint(2);
+        var loadBalancer =
+                new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b", "http://c"), properties);
+        var a = loadBalancer.getEndpoints().get(0);
+
+        a.start();
+        assertThat(loadBalancer.choose(Map.of(), new HttpHeaders())).isSameAs(a);
+
+        long start = a.start();
+        assertThat(loadBalancer.choose(Map.of(), new HttpHeaders())).isNotSameAs(a);
+
+        a.end(start, true);
+        assertThat(loadBalancer.choose(Map.of(), new HttpHeaders())).isSameAs(a);
+    }
+
+    @Test
+    void testZonePreference_whenZoneUnknown_thenNoPreference() {
+        var properties = zonePreference();
+        var loadBalancer =
+                new ExchangeLoadBalancer("replicas", List.of("http://a", "http://b", "http://c"), properties, "north");
+
+        List<String> urls = IntStream.range(0, 3)
+                .mapToObj(i -> loadBalancer.choose(Map.of(), new HttpHeaders()).getUrl())
+                .toList();
+
+        assertThat(urls).containsExactly("http://a", "http://b", "http://c");
+    }
+
+    @Test
+    void testRewrite_thenOnlyReplaceBaseUrl() {
+        var loadBalancer = new ExchangeLoadBalancer(
+                "replicas",
+                List.of("http://a:8080/api", "http://b:8080/v2"),
+                new HttpExchangeProperties.LoadBalancing());
+        var b = loadBalancer.getEndpoints().get(1);
+
+        assertThat(loadBalancer.matches(URI.create("http://a:8080/api/users?id=1")))
+                .isTrue();
+        assertThat(loadBalancer.matches(URI.create("http://a:8080/apis"))).isFalse();
+        assertThat(loadBalancer.matches(URI.create("http://other/api/users"))).isFalse();
+        assertThat(loadBalancer.rewrite(URI.create("http://a:8080/api/users?id=1"), b))
+                .isEqualTo(URI.create("http://b:8080/v2/users?id=1"));
+    }
+
+    /**
+     * a in zone east, b and c in zone west, the client is in zone east.
+     */
+    private static HttpExchangeProperties.LoadBalancing zonePreference() {
+        var properties = new HttpExchangeProperties.LoadBalancing();
+        properties.getZonePreference().setEnabled(true);
+        properties.getZonePreference().setZone("east");
+        properties.getZonePreference().getEndpoints().put("east", List.of("a"));
+        properties.getZonePreference().getEndpoints().put("west", List.of("b/", "http://c"));
+        return properties;
+    }
+
+    private static ConfigurableApplicationContext run(String... properties) {
+        int port = findAvailableTcpPort();
+        var builder = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=replicas")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].base-urls[0]=localhost:" + port + "/a")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].base-urls[1]=localhost:" + port + "/b")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].base-urls[2]=localhost:" + port + "/c/")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + ReplicaApi.class.getName());
+        for (String property : properties) {
+            builder.properties(HttpExchangeProperties.PREFIX + "." + property);
+        }
+        return builder.run();
+    }
+
+    interface ReplicaApi {
+        @GetExchange("/whoami")
+        String whoami();
+
+        @GetExchange("/whoami")
+        String whoamiFor(@RequestParam @RoutingKey String user);
+
+        @GetExchange("/whoami")
+        String whoamiForQuery(@BeanParam @RoutingKey(property = "user") Query query);
+
+        @GetExchange("/whoami")
+        String whoamiForUser(@RequestHeader("X-User") String user);
+
+        @GetExchange("/flaky")
+        String flaky();
+
+        @PostExchange("/echo")
+        String echo(@RequestBody String body);
+    }
+
+    record Query(String tenant, String user) {}
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @Bean
+        SimpleMeterRegistry simpleMeterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @GetMapping("/{replica}/whoami")
+        public String whoami(@PathVariable String replica) {
+            return replica;
+        }
+
+        @GetMapping("/{replica}/flaky")
+        public ResponseEntity<String> flaky(@PathVariable String replica) {
+            return "b".equals(replica)
+                    ? ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()
+                    : ResponseEntity.ok(replica);
+        }
+
+        @PostMapping("/{replica}/echo")
+        public String echo(@PathVariable String replica, @RequestBody String body) {
+            return replica + ":" + body;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+/**
+ * {@link HttpExchangeProperties.ClientType#LOCAL} tests.
+ *
+ * @author Freeman
+ */
+class LocalClientTypeTests {
+
+    @Test
+    void testLocal_whenImplementationExists_thenInvokeItDirectly() {
+        // No web server, the base url is unreachable
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("spring.main.web-application-type=none")
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + findAvailableTcpPort())
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=LOCAL")
+                .run()) {
+            var api = ctx.getBean(ItemApi.class);
+
+            assertThat(AopUtils.isAopProxy(api)).isTrue();
+            assertThat(api).isNotSameAs(ctx.getBean(Cfg.class));
+            assertThat(api.get().getBody()).isEqualTo(new Item("item", List.of("a")));
+            assertThat(Cache.getClientIds().get(ItemApi.class).clientType())
+                    .isEqualTo(HttpExchangeProperties.ClientType.LOCAL);
+
+            // Same objects without serialization
+            List<String> tags = new ArrayList<>(List.of("a"));
+            assertThat(api.tag(tags)).isSameAs(tags).containsExactly("a", "local");
+        }
+    }
+
+    @Test
+    void testLocal_whenSerializationEnabled_thenCopyArgumentsAndReturnValue() {
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("spring.main.web-application-type=none")
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + findAvailableTcpPort())
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=LOCAL")
+                .properties(HttpExchangeProperties.PREFIX + ".local.serialization-enabled=true")
+                .run()) {
+            var api = ctx.getBean(ItemApi.class);
+
+            List<String> tags = new ArrayList<>(List.of("a"));
+            List<String> result = api.tag(tags);
+
+            assertThat(result).isNotSameAs(tags).containsExactly("a", "local");
+            assertThat(tags).containsExactly("a");
+
+            ResponseEntity<Item> response = api.get();
+            assertThat(response.getBody()).isEqualTo(new Item("item", List.of("a")));
+            assertThat(response.getHeaders().getFirst("X-Source")).isEqualTo("local");
+        }
+    }
+
+    @Test
+    void testLocal_whenNoImplementation_thenUseHttp() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=LOCAL")
+                .run()) {
+            var api = ctx.getBean(PingApi.class);
+
+            assertThat(api.ping()).isEqualTo("pong");
+            assertThat(Cache.getClientIds().get(PingApi.class).clientType())
+                    .isEqualTo(HttpExchangeProperties.ClientType.REST_CLIENT);
+            assertThat(Cache.getClientIds().get(ItemApi.class)).isNull();
+        }
+    }
+
+    record Item(String name, List<String> tags) {}
+
+    interface ItemApi {
+        @GetExchange("/item")
+        ResponseEntity<Item> get();
+
+        @PostExchange("/tags")
+        List<String> tag(@RequestBody List<String> tags);
+    }
+
+    interface PingApi {
+        @GetExchange("/ping")
+        String ping();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg implements ItemApi {
+
+        @Override
+        public ResponseEntity<Item> get() {
+            return ResponseEntity.ok().header("X-Source", "local").body(new Item("item", List.of("a")));
+        }
+
+        @Override
+        public List<String> tag(@RequestBody List<String> tags) {
+            tags.add("local");
+            return tags;
+        }
+
+        @GetMapping("/ping")
+        public String ping() {
+            return "pong";
+        }
+    }
+}
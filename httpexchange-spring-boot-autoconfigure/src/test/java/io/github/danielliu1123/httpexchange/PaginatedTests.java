@@ -0,0 +1,306 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link Paginated} tests.
+ *
+ * @author Freeman
+ */
+class PaginatedTests {
+
+    static final int TOTAL = 45;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testPageStyle_thenFetchAllPages(String clientType) {
+        try (var ctx = run(clientType)) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            try (Stream<User> users = api.pages(0, 10)) {
+                assertThat(users).extracting(User::id).containsExactlyElementsOf(ids(0, TOTAL));
+            }
+            // the last page has fewer items than the page size, no more request
+            assertThat(cfg.requests).containsExactly("page=0", "page=1", "page=2", "page=3", "page=4");
+        }
+    }
+
+    @Test
+    void testPageStyle_whenPrefetchDisabled_thenFetchOnDemand() {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            try (Stream<User> users = api.pagesOnDemand(1, 10)) {
+                Iterator<User> it = users.iterator();
+                assertThat(cfg.requests).isEmpty();
+
+                assertThat(it.next().id()).isEqualTo(10);
+                assertThat(cfg.requests).containsExactly("page=1");
+            }
+        }
+    }
+
+    @Test
+    void testPageStyle_whenConsumingCurrentPage_thenPrefetchNextPage() throws InterruptedException {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            try (Stream<User> users = api.pages(0, 10)) {
+                Iterator<User> it = users.iterator();
+                assertThat(it.next().id()).isZero();
+
+                long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+                while (cfg.requests.size() < 2 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertThat(cfg.requests).startsWith("page=0", "page=1");
+            }
+        }
+    }
+
+    @Test
+    void testPageStyle_whenNotConsumed_thenNoRequest() throws InterruptedException {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            try (Stream<User> users = api.pages(0, 10)) {
+                Thread.sleep(200);
+                assertThat(cfg.requests).isEmpty();
+
+                assertThat(users.findFirst()).map(User::id).hasValue(0);
+            }
+        }
+    }
+
+    @Test
+    void testPageStyle_whenPageFailsWhileQueueIsFull_thenThrowAfterPreviousPages() throws InterruptedException {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+            cfg.failingPage = 2;
+
+            try (Stream<User> users = api.pages(0, 10)) {
+                Iterator<User> it = users.iterator();
+                assertThat(it.next().id()).isZero();
+
+                // page 1 is queued, page 2 fails while the queue is full
+                long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+                while (cfg.requests.size() < 3 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                Thread.sleep(200);
+                assertThat(cfg.requests).containsExactly("page=0", "page=1", "page=2");
+
+                List<Integer> ids = new ArrayList<>();
+                assertThatExceptionOfType(HttpServerErrorException.InternalServerError.class)
+                        .isThrownBy(() -> it.forEachRemaining(user -> ids.add(user.id())));
+                assertThat(ids).containsExactlyElementsOf(ids(1, 20));
+            }
+        }
+    }
+
+    @Test
+    void testOffsetStyle_whenQueryBean_thenAdvanceBeanProperty() {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            OffsetQuery query = new OffsetQuery(5, 20);
+            try (Stream<User> users = api.offsets(query)) {
+                assertThat(users).extracting(User::id).containsExactlyElementsOf(ids(5, TOTAL));
+            }
+            assertThat(cfg.requests).containsExactly("offset=5", "offset=25", "offset=45");
+            // the query bean passed by the caller is not modified
+            assertThat(query.getOffset()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void testOffsetStyle_whenRecordQuery_thenAdvanceRecordComponent() {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            try (Stream<User> users = api.offsetsByRecord(new OffsetRecordQuery(5, 20))) {
+                assertThat(users).extracting(User::id).containsExactlyElementsOf(ids(5, TOTAL));
+            }
+            assertThat(cfg.requests).containsExactly("offset=5", "offset=25", "offset=45");
+        }
+    }
+
+    @Test
+    void testOffsetStyle_whenQueryBeanNotCopyable_thenFailWhenCreated() {
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() ->
+                        PaginatedMethodInterceptor.create(new DefaultListableBeanFactory(), ImmutableQueryApi.class))
+                .withMessageContaining(ImmutableOffsetQuery.class.getName())
+                .withMessageContaining("cannot be copied to advance 'offset'");
+    }
+
+    @Test
+    void testCursorStyle_thenFollowNextCursor() {
+        try (var ctx = run("REST_CLIENT")) {
+            var api = ctx.getBean(UserApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            try (Stream<User> users = api.cursors(null)) {
+                assertThat(users).extracting(User::id).containsExactlyElementsOf(ids(0, TOTAL));
+            }
+            assertThat(cfg.requests).containsExactly("cursor=null", "cursor=c16", "cursor=c32");
+        }
+    }
+
+    @Test
+    void testCursorStyle_whenFlux_thenFollowNextCursor() {
+        try (var ctx = run("WEB_CLIENT")) {
+            var api = ctx.getBean(ReactiveUserApi.class);
+
+            assertThat(api.cursors(null).map(User::id).collectList().block()).containsExactlyElementsOf(ids(0, TOTAL));
+            assertThat(api.cursors(null).take(3).map(User::id).collectList().block())
+                    .containsExactly(0, 1, 2);
+        }
+    }
+
+    private static List<Integer> ids(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+
+    private static ConfigurableApplicationContext run(String clientType) {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=" + clientType)
+                .run();
+    }
+
+    record User(int id, String name) {}
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OffsetQuery {
+        private Integer offset;
+        private Integer limit;
+    }
+
+    record OffsetRecordQuery(Integer offset, Integer limit) {}
+
+    @Getter
+    @AllArgsConstructor
+    public static class ImmutableOffsetQuery {
+        private final Integer offset;
+        private final Integer limit;
+    }
+
+    interface UserApi {
+        @GetExchange("/users/pages")
+        @Paginated(items = "/content")
+        Stream<User> pages(@RequestParam int page, @RequestParam int size);
+
+        @GetExchange("/users/pages")
+        @Paginated(items = "/content", prefetch = 0)
+        Stream<User> pagesOnDemand(@RequestParam("page") int p, @RequestParam("size") int s);
+
+        @GetExchange("/users/offsets")
+        @Paginated(style = Paginated.Style.OFFSET, sizeParam = "limit")
+        Stream<User> offsets(@BeanParam OffsetQuery query);
+
+        @GetExchange("/users/offsets")
+        @Paginated(style = Paginated.Style.OFFSET, sizeParam = "limit")
+        Stream<User> offsetsByRecord(@BeanParam OffsetRecordQuery query);
+
+        @GetExchange("/users/cursors")
+        @Paginated(style = Paginated.Style.CURSOR, items = "/data", nextCursor = "/next")
+        Stream<User> cursors(@RequestParam(required = false) @Nullable String cursor);
+    }
+
+    // Not an http exchange interface, so it's not registered by @EnableExchangeClients
+    interface ImmutableQueryApi {
+        @Paginated(style = Paginated.Style.OFFSET, sizeParam = "limit")
+        Stream<User> offsets(@BeanParam ImmutableOffsetQuery query);
+    }
+
+    interface ReactiveUserApi {
+        @GetExchange("/users/cursors")
+        @Paginated(style = Paginated.Style.CURSOR, items = "/data", nextCursor = "/next")
+        Flux<User> cursors(@RequestParam(required = false) @Nullable String cursor);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        final Queue<String> requests = new ConcurrentLinkedQueue<>();
+        volatile int failingPage = -1;
+
+        @GetMapping("/users/pages")
+        public Map<String, Object> pages(@RequestParam int page, @RequestParam int size) {
+            requests.add("page=" + page);
+            if (page == failingPage) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return Map.of("content", users(page * size, size), "page", page);
+        }
+
+        @GetMapping("/users/offsets")
+        public List<User> offsets(@RequestParam int offset, @RequestParam int limit) {
+            requests.add("offset=" + offset);
+            return users(offset, limit);
+        }
+
+        @GetMapping("/users/cursors")
+        public Map<String, Object> cursors(@RequestParam(required = false) @Nullable String cursor) {
+            requests.add("cursor=" + cursor);
+            int from = cursor != null ? Integer.parseInt(cursor.substring(1)) : 0;
+            List<User> users = users(from, 16);
+            int next = from + users.size();
+            return next < TOTAL ? Map.of("data", users, "next", "c" + next) : Map.of("data", users);
+        }
+
+        private static List<User> users(int from, int count) {
+            return IntStream.range(from, Math.min(from + count, TOTAL))
+                    .mapToObj(i -> new User(i, "user-" + i))
+                    .toList();
+        }
+    }
+}
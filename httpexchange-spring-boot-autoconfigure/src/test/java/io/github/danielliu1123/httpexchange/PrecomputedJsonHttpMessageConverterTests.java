@@ -0,0 +1,198 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link PrecomputedJsonHttpMessageConverter} tests.
+ *
+ * @author Freeman
+ */
+class PrecomputedJsonHttpMessageConverterTests {
+
+    private static final Type USER_LIST = new ParameterizedTypeReference<List<User>>() {}.getType();
+
+    @Test
+    void testPrecompute_thenCacheBodyTypesOfEachMethod() {
+        var converter = new PrecomputedJsonHttpMessageConverter(JsonMapper.shared());
+
+        converter.precompute(UserApi.class);
+
+        // List<User>, ResponseEntity<User>, Optional<User>; String and void are skipped
+        assertThat(converter.getReaders()).containsOnlyKeys(USER_LIST, User.class);
+        // @RequestBody User, @RequestBody List<User>
+        assertThat(converter.getWriters()).containsOnlyKeys(User.class, USER_LIST);
+    }
+
+    @Test
+    void testReadAndWrite_whenPrecomputed_thenSameAsDefault() throws IOException {
+        var converter = new PrecomputedJsonHttpMessageConverter(JsonMapper.shared());
+        converter.precompute(UserApi.class);
+        var defaultConverter = new JacksonJsonHttpMessageConverter(JsonMapper.shared());
+        List<User> users = users(3);
+
+        assertThat(write(converter, users, USER_LIST)).isEqualTo(write(defaultConverter, users, USER_LIST));
+        assertThat(read(converter, write(converter, users, USER_LIST), USER_LIST))
+                .isEqualTo(users);
+    }
+
+    @Test
+    void testWrite_whenValueIsSubclass_thenWriteRuntimeType() throws IOException {
+        var converter = new PrecomputedJsonHttpMessageConverter(JsonMapper.shared());
+        converter.precompute(UserApi.class);
+
+        String json = write(converter, new Admin(1, "admin", "all"), User.class);
+
+        assertThat(json).contains("\"permissions\":\"all\"");
+    }
+
+    @Test
+    void testExchange_whenEnabled_thenEncodeAndDecodeWithPrecomputedConverter() {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=REST_CLIENT")
+                .properties(HttpExchangeProperties.PREFIX + ".precompute-json-enabled=true")
+                .run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            assertThat(api.list()).isEqualTo(users(3));
+            assertThat(api.get().getBody()).isEqualTo(new User(1, "user-1"));
+            assertThat(api.find()).contains(new User(1, "user-1"));
+            assertThat(api.create(new User(2, "user-2"))).isEqualTo(new User(2, "user-2"));
+            assertThat(api.createAll(users(2))).isEqualTo(users(2));
+            assertThat(api.ping()).isEqualTo("pong");
+        }
+    }
+
+    private static String write(JacksonJsonHttpMessageConverter converter, Object value, Type type) throws IOException {
+        var output = new MockHttpOutputMessage();
+        converter.write(value, ResolvableType.forType(type), MediaType.APPLICATION_JSON, output, null);
+        return output.getBodyAsString();
+    }
+
+    private static Object read(JacksonJsonHttpMessageConverter converter, String json, Type type) throws IOException {
+        var input = new MockHttpInputMessage(json.getBytes());
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(ResolvableType.forType(type), input, null);
+    }
+
+    private static List<User> users(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new User(i, "user-" + i))
+                .toList();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class User {
+        private long id;
+        private String name;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @NoArgsConstructor
+    static class Admin extends User {
+        private String permissions;
+
+        Admin(long id, String name, String permissions) {
+            super(id, name);
+            this.permissions = permissions;
+        }
+    }
+
+    interface UserApi {
+        @GetExchange("/users")
+        List<User> list();
+
+        @GetExchange("/users/1")
+        ResponseEntity<User> get();
+
+        @GetExchange("/users/1")
+        Optional<User> find();
+
+        @PostExchange("/users")
+        User create(@RequestBody User user);
+
+        @PostExchange("/users/batch")
+        List<User> createAll(@RequestBody List<User> users);
+
+        @GetExchange("/ping")
+        String ping();
+
+        @PostExchange("/users/1/touch")
+        void touch();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/users")
+        public List<User> list() {
+            return users(3);
+        }
+
+        @GetMapping("/users/1")
+        public User get() {
+            return new User(1, "user-1");
+        }
+
+        @PostMapping("/users")
+        public User create(@RequestBody Map<String, Object> user) {
+            return new User(((Number) user.get("id")).longValue(), (String) user.get("name"));
+        }
+
+        @PostMapping("/users/batch")
+        public List<Map<String, Object>> createAll(@RequestBody List<Map<String, Object>> users) {
+            return users;
+        }
+
+        @GetMapping(value = "/ping", produces = MediaType.TEXT_PLAIN_VALUE)
+        public String ping() {
+            return "pong";
+        }
+
+        @PostMapping("/users/1/touch")
+        public ResponseEntity<Void> touch() {
+            return ResponseEntity.noContent()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                    .build();
+        }
+    }
+}
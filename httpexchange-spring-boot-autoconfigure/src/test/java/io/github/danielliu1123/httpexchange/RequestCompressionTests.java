@@ -0,0 +1,222 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import io.github.danielliu1123.httpexchange.HttpExchangeProperties.Compression.Algorithm;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.PostExchange;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Request body compression tests.
+ *
+ * @author Freeman
+ */
+class RequestCompressionTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testCompression_whenLargeJsonBody_thenCompress(String clientType) {
+        try (var ctx = run(clientType, "gzip")) {
+            var api = ctx.getBean(IngestApi.class);
+
+            Received received = api.ingest(items(20_000));
+
+            assertThat(received.encoding()).isEqualTo("gzip");
+            assertThat(received.items()).isEqualTo(20_000);
+            assertThat(received.wireBytes()).isLessThan(received.bodyBytes() / 4);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testCompression_whenDeflate_thenCompress(String clientType) {
+        try (var ctx = run(clientType, "deflate")) {
+            var api = ctx.getBean(IngestApi.class);
+
+            Received received = api.ingest(items(1_000));
+
+            assertThat(received.encoding()).isEqualTo("deflate");
+            assertThat(received.items()).isEqualTo(1_000);
+            assertThat(received.wireBytes()).isLessThan(received.bodyBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testCompression_whenKnownLengthLessThanMinSize_thenNotCompress(String clientType) {
+        try (var ctx = run(clientType, "gzip")) {
+            var api = ctx.getBean(IngestApi.class);
+
+            Received received = api.ingestText("[]");
+
+            assertThat(received.encoding()).isNull();
+            assertThat(received.wireBytes()).isEqualTo(2);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testCompression_whenNotEnabled_thenNotCompress(String clientType) {
+        int port = findAvailableTcpPort();
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=" + clientType)
+                .run()) {
+            var api = ctx.getBean(IngestApi.class);
+
+            Received received = api.ingest(items(1_000));
+
+            assertThat(received.encoding()).isNull();
+            assertThat(received.wireBytes()).isEqualTo(received.bodyBytes());
+        }
+    }
+
+    @Test
+    void testCompression_whenZstdNotInClasspath_thenFailFast() {
+        try (var ctx = run("REST_CLIENT", "zstd")) {
+            assertThatThrownBy(() -> ctx.getBean(IngestApi.class))
+                    .rootCause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("zstd-jni");
+        }
+    }
+
+    @Test
+    void testCompression_whenWritingToOutputStream_thenBufferUpToMinSize() throws IOException {
+        try (var ctx = run("REST_CLIENT", "gzip")) {
+            int port = ctx.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI uri = URI.create("http://localhost:" + port + "/ingest");
+            var compression = new HttpExchangeProperties.Compression();
+            compression.setRequestEnabled(true);
+            var factory = new CompressingClientHttpRequestFactory(
+                    new SimpleClientHttpRequestFactory(), new CompressionCodec(compression));
+
+            assertThat(post(factory.createRequest(uri, HttpMethod.POST), 10))
+                    .extracting(Received::encoding, Received::items)
+                    .containsExactly(null, 10);
+            assertThat(post(factory.createRequest(uri, HttpMethod.POST), 1_000))
+                    .extracting(Received::encoding, Received::items)
+                    .containsExactly("gzip", 1_000);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"GZIP", "DEFLATE"})
+    void testCompress_whenLargeJsonPayload_thenRoundTripWithFewerBytesOnWire(Algorithm algorithm) throws IOException {
+        var payload = JsonMapper.shared().writeValueAsBytes(items(50_000));
+        var compression = new HttpExchangeProperties.Compression();
+        compression.setAlgorithm(algorithm);
+        var codec = new CompressionCodec(compression);
+
+        var wire = new ByteArrayOutputStream();
+        try (OutputStream out = codec.compress(wire)) {
+            out.write(payload);
+        }
+        byte[] decoded;
+        try (InputStream in =
+                CompressionCodec.decompress(codec.encoding(), new ByteArrayInputStream(wire.toByteArray()))) {
+            decoded = in.readAllBytes();
+        }
+
+        assertThat(decoded).isEqualTo(payload);
+        assertThat(wire.size()).isLessThan(payload.length / 4);
+    }
+
+    private static Received post(ClientHttpRequest request, int count) throws IOException {
+        request.getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        JsonMapper.shared().writeValue(StreamUtils.nonClosing(request.getBody()), items(count));
+        try (var response = request.execute()) {
+            return JsonMapper.shared().readValue(response.getBody(), Received.class);
+        }
+    }
+
+    private static List<Item> items(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Item(i, "item-" + i, "some repetitive description of the item"))
+                .toList();
+    }
+
+    private static ConfigurableApplicationContext run(String clientType, String algorithm) {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=" + clientType)
+                .properties(HttpExchangeProperties.PREFIX + ".compression.request-enabled=true")
+                .properties(HttpExchangeProperties.PREFIX + ".compression.algorithm=" + algorithm)
+                .run();
+    }
+
+    record Item(int id, String name, String description) {}
+
+    record Received(@Nullable String encoding, long wireBytes, long bodyBytes, int items) {}
+
+    interface IngestApi {
+        @PostExchange("/ingest")
+        Received ingest(@RequestBody List<Item> items);
+
+        @PostExchange(value = "/ingest", contentType = "application/json")
+        Received ingestText(@RequestBody String json);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @PostMapping("/ingest")
+        public Received ingest(
+                @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) @Nullable String encoding,
+                InputStream body)
+                throws IOException {
+            byte[] wire = body.readAllBytes();
+            byte[] decoded = decode(encoding, wire);
+            int items = JsonMapper.shared().readTree(decoded).size();
+            return new Received(encoding, wire.length, decoded.length, items);
+        }
+
+        private static byte[] decode(@Nullable String encoding, byte[] wire) throws IOException {
+            if (encoding == null) {
+                return wire;
+            }
+            try (InputStream in = switch (encoding) {
+                case "gzip" -> new GZIPInputStream(new ByteArrayInputStream(wire));
+                case "deflate" -> new InflaterInputStream(new ByteArrayInputStream(wire));
+                default -> throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+            }) {
+                return in.readAllBytes();
+            }
+        }
+    }
+}
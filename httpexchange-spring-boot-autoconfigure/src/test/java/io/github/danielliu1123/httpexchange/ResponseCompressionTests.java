@@ -0,0 +1,170 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Response body decompression tests.
+ *
+ * @author Freeman
+ */
+class ResponseCompressionTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testDecompression_whenGzip_thenDecode(String clientType) {
+        try (var ctx = run(clientType, true)) {
+            var api = ctx.getBean(ItemApi.class);
+
+            ResponseEntity<List<Item>> response = api.items("gzip", 5_000);
+
+            assertThat(response.getBody()).hasSize(5_000);
+            assertThat(response.getHeaders().containsHeader(HttpHeaders.CONTENT_ENCODING))
+                    .isFalse();
+            assertThat(response.getHeaders().getFirst("X-Accept-Encoding")).isEqualTo(CompressionCodec.ACCEPT_ENCODING);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testDecompression_whenDeflate_thenDecodeZlibAndRawDeflate(String clientType) {
+        try (var ctx = run(clientType, true)) {
+            var api = ctx.getBean(ItemApi.class);
+
+            assertThat(api.items("deflate", 100).getBody()).hasSize(100);
+            assertThat(api.items("raw-deflate", 100).getBody()).hasSize(100);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testDecompression_whenEmptyBody_thenNoBody(String clientType) {
+        try (var ctx = run(clientType, true)) {
+            var api = ctx.getBean(ItemApi.class);
+
+            ResponseEntity<List<Item>> response = api.items("gzip", 0);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            assertThat(response.getBody()).isNull();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testDecompression_whenAcceptEncodingSpecified_thenKeepIt(String clientType) {
+        try (var ctx = run(clientType, true)) {
+            var api = ctx.getBean(ItemApi.class);
+
+            ResponseEntity<List<Item>> response = api.items("gzip", "identity");
+
+            assertThat(response.getBody()).hasSize(10);
+            assertThat(response.getHeaders().getFirst("X-Accept-Encoding")).isEqualTo("identity");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testDecompression_whenNotEnabled_thenDependOnHttpClient(String clientType) {
+        try (var ctx = run(clientType, false)) {
+            var api = ctx.getBean(ItemApi.class);
+
+            ResponseEntity<List<Item>> response = api.items("identity", 10);
+
+            assertThat(response.getBody()).hasSize(10);
+            // Whether Accept-Encoding is sent depends on the underlying http client
+            assertThat(response.getHeaders().getFirst("X-Accept-Encoding"))
+                    .isNotEqualTo(CompressionCodec.ACCEPT_ENCODING);
+        }
+    }
+
+    private static ConfigurableApplicationContext run(String clientType, boolean responseEnabled) {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=" + clientType)
+                .properties(HttpExchangeProperties.PREFIX + ".compression.response-enabled=" + responseEnabled)
+                .run();
+    }
+
+    record Item(int id, String name) {}
+
+    interface ItemApi {
+        @GetExchange("/items")
+        ResponseEntity<List<Item>> items(@RequestParam String encoding, @RequestParam int count);
+
+        @GetExchange("/items?count=10")
+        ResponseEntity<List<Item>> items(
+                @RequestParam String encoding, @RequestHeader(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/items")
+        public ResponseEntity<byte[]> items(
+                @RequestParam String encoding,
+                @RequestParam int count,
+                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) @Nullable String acceptEncoding)
+                throws IOException {
+            var builder = count == 0 ? ResponseEntity.status(HttpStatus.NO_CONTENT) : ResponseEntity.ok();
+            builder.contentType(MediaType.APPLICATION_JSON);
+            if (acceptEncoding != null) {
+                builder.header("X-Accept-Encoding", acceptEncoding);
+            }
+            if ("identity".equals(encoding) || "identity".equals(acceptEncoding)) {
+                return builder.body(json(count));
+            }
+            builder.header(HttpHeaders.CONTENT_ENCODING, encoding.replace("raw-", ""));
+            if (count == 0) {
+                return builder.build();
+            }
+            var out = new ByteArrayOutputStream();
+            try (OutputStream os = switch (encoding) {
+                case "gzip" -> new GZIPOutputStream(out);
+                case "deflate" -> new DeflaterOutputStream(out);
+                case "raw-deflate" -> new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+                default -> throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+            }) {
+                os.write(json(count));
+            }
+            return builder.body(out.toByteArray());
+        }
+
+        private static byte[] json(int count) {
+            return JsonMapper.shared()
+                    .writeValueAsBytes(IntStream.range(0, count)
+                            .mapToObj(i -> new Item(i, "item-" + i))
+                            .toList());
+        }
+    }
+}
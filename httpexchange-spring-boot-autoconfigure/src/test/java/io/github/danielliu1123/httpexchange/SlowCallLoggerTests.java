@@ -0,0 +1,119 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.GetExchange;
+
+/**
+ * {@link SlowCallLogger} tests.
+ *
+ * @author Freeman
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class SlowCallLoggerTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testSlowCallLog_whenExceedThreshold_thenLogTimingBreakdown(String clientType, CapturedOutput output) {
+        try (var ctx = run("channels[0].client-type=" + clientType, "slow-call-log.threshold=200ms")) {
+            var api = ctx.getBean(DelayApi.class);
+
+            api.delay(0);
+            assertThat(output).doesNotContain("Slow exchange call");
+
+            api.delay(300);
+            assertThat(output)
+                    .contains("Slow exchange call on channel 'delay': DelayApi#delay GET http://localhost:")
+                    .contains("/delay?millis=300 -> 200 in ")
+                    .contains("time to first byte ")
+                    .contains("received 5 bytes");
+        }
+    }
+
+    @Test
+    void testSlowCallLog_whenExceedRollingP99_thenLog(CapturedOutput output) {
+        try (var ctx = run("slow-call-log.threshold=1h", "slow-call-log.p99-multiplier=3")) {
+            var api = ctx.getBean(DelayApi.class);
+
+            for (int i = 0; i < SlowCallLogger.MIN_SAMPLES; i++) {
+                api.delay(0);
+            }
+            assertThat(output).doesNotContain("Slow exchange call");
+
+            api.delay(500);
+            assertThat(output).contains("/delay?millis=500 -> 200").doesNotContain("p99 -ms");
+        }
+    }
+
+    @Test
+    void testSlowCallLog_whenTooManySlowCalls_thenRateLimited(CapturedOutput output) throws Exception {
+        try (var ctx = run("slow-call-log.threshold=50ms", "slow-call-log.max-logs-per-second=1")) {
+            var api = ctx.getBean(DelayApi.class);
+
+            api.delay(100);
+            api.delay(100);
+            api.delay(100);
+            assertThat(output.getOut().split("Slow exchange call", -1)).hasSize(2);
+
+            Thread.sleep(1000);
+            api.delay(100);
+            assertThat(output.getOut().split("Slow exchange call", -1)).hasSize(3);
+            assertThat(output).contains("2 slow calls suppressed since the last log");
+        }
+    }
+
+    @Test
+    void testSlowCallLog_whenDisabled_thenNoLog(CapturedOutput output) {
+        try (var ctx = run("slow-call-log.enabled=false", "slow-call-log.threshold=50ms")) {
+            ctx.getBean(DelayApi.class).delay(100);
+
+            assertThat(output).doesNotContain("Slow exchange call");
+        }
+    }
+
+    private static ConfigurableApplicationContext run(String... properties) {
+        int port = findAvailableTcpPort();
+        var builder = new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".slow-call-log.enabled=true")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=delay")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + DelayApi.class.getName());
+        for (String property : properties) {
+            builder.properties(HttpExchangeProperties.PREFIX + "." + property);
+        }
+        return builder.run();
+    }
+
+    interface DelayApi {
+        @GetExchange("/delay")
+        String delay(@RequestParam long millis);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/delay")
+        public String delay(@RequestParam long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "delay";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.danielliu1123.order.api.OrderApi;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Tests for {@link StartupStep}s recorded by exchange clients.
+ *
+ * @author Freeman
+ */
+class StartupStepTests {
+
+    @Test
+    void testStartupSteps_thenRecordScanningBindingMatchingAndCreation() {
+        var applicationStartup = new BufferingApplicationStartup(1000);
+        try (var ctx = new SpringApplicationBuilder(Cfg.class)
+                .web(WebApplicationType.NONE)
+                .applicationStartup(applicationStartup)
+                .properties(HttpExchangeProperties.PREFIX + ".base-packages=io.github.danielliu1123.order.api")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].name=order")
+                .properties(HttpExchangeProperties.PREFIX + ".channels[0].clients[0]=OrderApi")
+                .run()) {
+            ctx.getBean(OrderApi.class);
+
+            List<StartupStep> steps = applicationStartup.getBufferedTimeline().getEvents().stream()
+                    .map(StartupTimeline.TimelineEvent::getStartupStep)
+                    .filter(step -> step.getName().startsWith(Util.STARTUP_STEP_PREFIX))
+                    .toList();
+
+            assertThat(steps)
+                    .extracting(StartupStep::getName)
+                    .contains(
+                            "http-exchange.clients.scan",
+                            "http-exchange.properties.bind",
+                            "http-exchange.channels.match",
+                            "http-exchange.http-client.build",
+                            "http-exchange.client.create");
+
+            // Base packages are accumulated across contexts, see ScanInfo
+            assertThat(steps)
+                    .filteredOn(step -> step.getName().equals("http-exchange.clients.scan"))
+                    .extracting(StartupStepTests::tags)
+                    .contains(Map.of("package", "io.github.danielliu1123.order.api", "candidates", "1"));
+            assertThat(tags(steps, "http-exchange.channels.match"))
+                    .containsEntry("client", OrderApi.class.getName())
+                    .containsEntry("channels", "[order]");
+            assertThat(tags(steps, "http-exchange.http-client.build"))
+                    .containsEntry("client", OrderApi.class.getName())
+                    .containsEntry("channel", "order")
+                    .containsEntry("clientType", "REST_CLIENT");
+            assertThat(tags(steps, "http-exchange.client.create"))
+                    .containsEntry("client", OrderApi.class.getName())
+                    .containsEntry("channel", "order")
+                    .containsEntry("clientType", "REST_CLIENT");
+        }
+    }
+
+    private static Map<String, String> tags(List<StartupStep> steps, String name) {
+        return steps.stream()
+                .filter(step -> step.getName().equals(name))
+                .map(StartupStepTests::tags)
+                .filter(tags -> OrderApi.class.getName().equals(tags.get("client")))
+                .findFirst()
+                .orElseGet(Map::of);
+    }
+
+    private static Map<String, String> tags(StartupStep step) {
+        Map<String, String> result = new HashMap<>();
+        step.getTags().forEach(tag -> result.put(tag.getKey(), tag.getValue()));
+        return result;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    static class Cfg {}
+}
@@ -0,0 +1,129 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.service.annotation.PostExchange;
+
+/**
+ * {@link StreamingBodyArgumentResolver} tests.
+ *
+ * @author Freeman
+ */
+class StreamingBodyArgumentResolverTests {
+
+    static final byte[] CONTENT = new byte[1024 * 1024 + 7];
+
+    static {
+        new Random(1).nextBytes(CONTENT);
+    }
+
+    static final String MD5 = DigestUtils.md5DigestAsHex(CONTENT);
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testPath_thenSendWithContentLength(String clientType) throws IOException {
+        Path file = Files.write(tempDir.resolve("upload.bin"), CONTENT);
+        try (var ctx = run(clientType)) {
+            var api = ctx.getBean(UploadApi.class);
+
+            assertThat(api.upload(file)).isEqualTo(MD5 + ":" + CONTENT.length);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testInputStream_thenSendChunked(String clientType) {
+        try (var ctx = run(clientType)) {
+            var api = ctx.getBean(UploadApi.class);
+
+            assertThat(api.upload(new ByteArrayInputStream(CONTENT))).isEqualTo(MD5 + ":-1");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testReadableByteChannel_thenSendChunked(String clientType) {
+        try (var ctx = run(clientType)) {
+            var api = ctx.getBean(UploadApi.class);
+
+            ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(CONTENT));
+            assertThat(api.upload(channel)).isEqualTo(MD5 + ":-1");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testByteBuffer_thenSendRemainingBytes(String clientType) {
+        try (var ctx = run(clientType)) {
+            var api = ctx.getBean(UploadApi.class);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CONTENT.length + 10);
+            buffer.put(new byte[10]).put(CONTENT).flip().position(10);
+
+            assertThat(api.upload(buffer)).isEqualTo(MD5 + ":" + CONTENT.length);
+            assertThat(buffer.position()).isEqualTo(10);
+        }
+    }
+
+    private static ConfigurableApplicationContext run(String clientType) {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=" + clientType)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .run();
+    }
+
+    interface UploadApi {
+        @PostExchange("/upload")
+        String upload(@RequestBody Path file);
+
+        @PostExchange("/upload")
+        String upload(InputStream inputStream);
+
+        @PostExchange("/upload")
+        String upload(ReadableByteChannel channel);
+
+        @PostExchange("/upload")
+        String upload(@RequestBody ByteBuffer buffer);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @PostMapping("/upload")
+        public String upload(
+                InputStream body, @RequestHeader(value = "Content-Length", defaultValue = "-1") long contentLength)
+                throws IOException {
+            return DigestUtils.md5DigestAsHex(body) + ":" + contentLength;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * {@link StreamingExchangeAdapterDecorator} tests.
+ *
+ * @author Freeman
+ */
+class StreamingReturnTypeTests {
+
+    @Test
+    void testStream_whenNdjson_thenParseElementByElement() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            try (Stream<User> users = api.ndjson(3)) {
+                assertThat(users).containsExactly(new User(0, "user-0"), new User(1, "user-1"), new User(2, "user-2"));
+            }
+        }
+    }
+
+    @Test
+    void testIterator_whenJsonArray_thenParseElementByElement() throws Exception {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            Iterator<User> users = api.array(3);
+            assertThat(users).isInstanceOf(AutoCloseable.class);
+            try {
+                List<User> result = new ArrayList<>();
+                users.forEachRemaining(result::add);
+                assertThat(result).extracting(User::id).containsExactly(0, 1, 2);
+            } finally {
+                ((AutoCloseable) users).close();
+            }
+        }
+    }
+
+    @Test
+    void testIterable_whenJsonArray_thenOnlyIterateOnce() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            Iterable<User> users = api.iterable(2);
+            assertThat(users).extracting(User::name).containsExactly("user-0", "user-1");
+            assertThatCode(users::iterator).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void testResponseEntity_whenStreamBody_thenKeepStatusAndHeaders() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            ResponseEntity<Stream<User>> entity = api.entity(2);
+            assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(entity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+            try (Stream<User> users = entity.getBody()) {
+                assertThat(users).hasSize(2);
+            }
+        }
+    }
+
+    @Test
+    void testStream_whenClosedBeforeFullyConsumed_thenNotReadTheRest() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            try (Stream<User> users = api.ndjson(1_000_000)) {
+                assertThat(users.limit(5)).hasSize(5);
+            }
+        }
+    }
+
+    @Test
+    void testStream_whenEmptyBody_thenEmptyStream() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            try (Stream<User> users = api.ndjson(0)) {
+                assertThat(users).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void testStream_whenErrorStatus_thenThrow() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(UserApi.class);
+
+            assertThatCode(() -> api.ndjson(-1)).isInstanceOf(HttpClientErrorException.BadRequest.class);
+        }
+    }
+
+    @Test
+    void testIsStreamingType() {
+        assertThat(StreamingExchangeAdapterDecorator.isStreamingType(
+                        ResolvableType.forClassWithGenerics(Stream.class, User.class)))
+                .isTrue();
+        assertThat(StreamingExchangeAdapterDecorator.isStreamingType(ResolvableType.forClass(Iterator.class)))
+                .isTrue();
+        assertThat(StreamingExchangeAdapterDecorator.isStreamingType(ResolvableType.forClass(Iterable.class)))
+                .isTrue();
+        assertThat(StreamingExchangeAdapterDecorator.isStreamingType(
+                        ResolvableType.forClassWithGenerics(List.class, User.class)))
+                .isFalse();
+    }
+
+    private static ConfigurableApplicationContext run() {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties("http-exchange.base-url=localhost:" + port)
+                .properties("http-exchange.client-type=rest_client")
+                .run();
+    }
+
+    record User(int id, String name) {}
+
+    interface UserApi {
+        @GetExchange("/users/ndjson")
+        Stream<User> ndjson(@RequestParam int count);
+
+        @GetExchange("/users/ndjson")
+        ResponseEntity<Stream<User>> entity(@RequestParam int count);
+
+        @GetExchange("/users/array")
+        Iterator<User> array(@RequestParam int count);
+
+        @GetExchange("/users/array")
+        Iterable<User> iterable(@RequestParam int count);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        @GetMapping("/users/ndjson")
+        public ResponseEntity<StreamingResponseBody> ndjson(@RequestParam int count) {
+            if (count < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must not be negative");
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> {
+                for (int i = 0; i < count; i++) {
+                    out.write(("{\"id\":" + i + ",\"name\":\"user-" + i + "\"}\n").getBytes(StandardCharsets.UTF_8));
+                }
+            });
+        }
+
+        @GetMapping("/users/array")
+        public ResponseEntity<StreamingResponseBody> array(@RequestParam int count) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> {
+                out.write('[');
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.write(("{\"id\":" + i + ",\"name\":\"user-" + i + "\"}").getBytes(StandardCharsets.UTF_8));
+                }
+                out.write(']');
+            });
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.springframework.test.util.TestSocketUtils.findAvailableTcpPort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * {@link TargetFile} tests.
+ *
+ * @author Freeman
+ */
+class TargetFileTests {
+
+    static final int SIZE = 32 * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDownload_whenChecksumMatches_thenWriteToTargetFile() throws IOException {
+        try (var ctx = run()) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("nested/dir/file.bin");
+            Path result = api.download(SIZE, "repr", target);
+
+            assertThat(result).isEqualTo(target);
+            assertThat(Files.size(target)).isEqualTo(SIZE);
+            assertThat(digest(Files.newInputStream(target))).isEqualTo(digest(SIZE));
+            assertThat(listFiles(target.getParent())).containsExactly(target);
+        }
+    }
+
+    @Test
+    void testDownload_whenBodyLargerThanHeap_thenStreamToTargetFile() throws IOException {
+        // Fails with OutOfMemoryError if the body is held in memory, the heap of the tests is bounded (see
+        // build.gradle)
+        long size = Runtime.getRuntime().maxMemory() + 256L * 1024 * 1024;
+        assumeThat(tempDir.toFile().getUsableSpace()).isGreaterThan(size * 2);
+
+        try (var ctx = run()) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("large.bin");
+            assertThat(api.large(size, target)).isEqualTo(target);
+            assertThat(Files.size(target)).isEqualTo(size);
+        }
+    }
+
+    @Test
+    void testDownload_whenLegacyDigestHeader_thenVerify() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("file.bin");
+            ResponseEntity<Path> entity = api.downloadEntity(1024, "legacy", target);
+
+            assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(entity.getBody()).isEqualTo(target);
+            assertThat(entity.getHeaders().getFirst("Digest")).startsWith("SHA-256=");
+            assertThat(target).hasSize(1024);
+        }
+    }
+
+    @Test
+    void testDownload_whenVoidReturnType_thenWriteToTargetFile() throws IOException {
+        try (var ctx = run()) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = Files.writeString(tempDir.resolve("file.bin"), "old content");
+            api.downloadVoid(4096, "none", target);
+
+            assertThat(target).hasSize(4096);
+        }
+    }
+
+    @Test
+    void testDownload_whenChecksumMismatch_thenThrowAndNoFileLeft() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("file.bin");
+            assertThatCode(() -> api.download(SIZE, "bad", target))
+                    .isInstanceOf(RestClientException.class)
+                    .hasMessageContaining("Checksum mismatch");
+            assertThat(listFiles(tempDir)).isEmpty();
+        }
+    }
+
+    @Test
+    void testDownload_whenChecksumDisabled_thenNotVerify() {
+        try (var ctx = run(HttpExchangeProperties.PREFIX + ".download.checksum-enabled=false")) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("file.bin");
+            assertThat(api.download(1024, "bad", target)).hasSize(1024);
+        }
+    }
+
+    @Test
+    void testDownload_whenExceedsMaxSize_thenThrowAndNoFileLeft() {
+        try (var ctx = run(HttpExchangeProperties.PREFIX + ".download.max-size=1MB")) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("file.bin");
+            // Content-Length is unknown (chunked), checked while writing
+            assertThatCode(() -> api.download(SIZE, "none", target))
+                    .isInstanceOf(RestClientException.class)
+                    .hasMessageContaining("exceeds max size");
+            assertThat(listFiles(tempDir)).isEmpty();
+
+            assertThat(api.download(1024 * 1024, "none", target)).hasSize(1024 * 1024);
+        }
+    }
+
+    @Test
+    void testDownload_whenErrorStatus_thenThrow() {
+        try (var ctx = run()) {
+            var api = ctx.getBean(FileApi.class);
+
+            Path target = tempDir.resolve("file.bin");
+            assertThatCode(() -> api.download(-1, "none", target))
+                    .isInstanceOf(HttpClientErrorException.NotFound.class);
+            assertThat(target).doesNotExist();
+        }
+    }
+
+    @Test
+    void testDownload_whenWebClient_thenThrow() {
+        try (var ctx = run(HttpExchangeProperties.PREFIX + ".client-type=web_client")) {
+            var api = ctx.getBean(FileApi.class);
+
+            assertThatCode(() -> api.download(1024, "none", tempDir.resolve("file.bin")))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("REST_CLIENT");
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenRangesSupported_thenDownloadSegmentsConcurrently() throws IOException {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=4",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB")) {
+            var api = ctx.getBean(FileApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            Path target = tempDir.resolve("file.bin");
+            ResponseEntity<Path> entity = api.rangedEntity(SIZE, false, target);
+
+            assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(entity.getHeaders().getContentLength()).isEqualTo(SIZE);
+            assertThat(digest(Files.newInputStream(target))).isEqualTo(digest(SIZE));
+            assertThat(cfg.ranges)
+                    .containsExactlyInAnyOrder(
+                            "bytes=0-0",
+                            "bytes=0-8388607",
+                            "bytes=8388608-16777215",
+                            "bytes=16777216-25165823",
+                            "bytes=25165824-33554431");
+            assertThat(listFiles(tempDir)).containsExactly(target);
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenSegmentFails_thenRetrySegment() {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=2",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB")) {
+            var api = ctx.getBean(FileApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            Path target = tempDir.resolve("file.bin");
+            assertThat(api.ranged(SIZE, true, target)).hasSize(SIZE);
+            assertThat(digest(target)).isEqualTo(digest(SIZE));
+            assertThat(cfg.ranges).filteredOn("bytes=16777216-33554431"::equals).hasSize(2);
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenSegmentFailsWithoutRetry_thenThrowTheFailureAndNoFileLeft() {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=4",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB")) {
+            var api = ctx.getBean(FileApi.class);
+
+            // Other segments are not interrupted, so the shared file channel is not closed under them
+            assertThatCode(() -> api.rangedFailing(SIZE, tempDir.resolve("file.bin")))
+                    .isInstanceOf(HttpClientErrorException.NotFound.class);
+            assertThat(listFiles(tempDir)).isEmpty();
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenMaxConcurrentSegments_thenLimitConcurrentRequests() {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=4",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB",
+                HttpExchangeProperties.PREFIX + ".download.max-concurrent-segments=1")) {
+            var api = ctx.getBean(FileApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            int size = 4 * 1024 * 1024;
+            Path target = tempDir.resolve("file.bin");
+            assertThat(api.ranged(size, false, target)).hasSize(size);
+            assertThat(digest(target)).isEqualTo(digest(size));
+            assertThat(cfg.ranges).hasSize(5);
+            assertThat(cfg.maxActive).hasValue(1);
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenRangesNotSupported_thenFallbackToSingleStream() {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=4",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB")) {
+            var api = ctx.getBean(FileApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            Path target = tempDir.resolve("file.bin");
+            assertThat(api.download(SIZE, "repr", target)).hasSize(SIZE);
+            assertThat(cfg.ranges).isEmpty();
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenSmallResource_thenSingleStream() {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=4",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB")) {
+            var api = ctx.getBean(FileApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            Path target = tempDir.resolve("file.bin");
+            assertThat(api.ranged(1024, false, target)).hasSize(1024);
+            assertThat(cfg.ranges).containsExactly("bytes=0-0", "none");
+        }
+    }
+
+    @Test
+    void testRangedDownload_whenExceedsMaxSize_thenThrowBeforeDownload() {
+        try (var ctx = run(
+                HttpExchangeProperties.PREFIX + ".download.parallelism=4",
+                HttpExchangeProperties.PREFIX + ".download.min-part-size=1MB",
+                HttpExchangeProperties.PREFIX + ".download.max-size=4MB")) {
+            var api = ctx.getBean(FileApi.class);
+            var cfg = ctx.getBean(Cfg.class);
+
+            assertThatCode(() -> api.ranged(SIZE, false, tempDir.resolve("file.bin")))
+                    .isInstanceOf(RestClientException.class)
+                    .hasMessageContaining("exceeds max size");
+            assertThat(cfg.ranges).containsExactly("bytes=0-0");
+            assertThat(listFiles(tempDir)).isEmpty();
+        }
+    }
+
+    @Test
+    void testGetTotalSize() {
+        assertThat(DownloadExchangeAdapterDecorator.getTotalSize("bytes 0-0/1024"))
+                .isEqualTo(1024);
+        assertThat(DownloadExchangeAdapterDecorator.getTotalSize("bytes 0-0/*")).isEqualTo(-1);
+        assertThat(DownloadExchangeAdapterDecorator.getTotalSize(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void testChecksum_parseHeaders() {
+        var headers = new HttpHeaders();
+        headers.add("Repr-Digest", "unknown=:AAAA:, sha-512=:AQID:");
+        var checksum = DownloadExchangeAdapterDecorator.Checksum.from(headers);
+
+        assertThat(checksum).isNotNull();
+        assertThat(checksum.algorithm()).isEqualTo("sha-512");
+        assertThat(checksum.value()).containsExactly(1, 2, 3);
+
+        headers = new HttpHeaders();
+        headers.add("Content-MD5", "AQID");
+        checksum = DownloadExchangeAdapterDecorator.Checksum.from(headers);
+
+        assertThat(checksum).isNotNull();
+        assertThat(checksum.algorithm()).isEqualTo("md5");
+
+        assertThat(DownloadExchangeAdapterDecorator.Checksum.from(new HttpHeaders()))
+                .isNull();
+    }
+
+    private static ConfigurableApplicationContext run(String... properties) {
+        int port = findAvailableTcpPort();
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("server.port=" + port)
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=localhost:" + port)
+                .properties(properties)
+                .run();
+    }
+
+    @SneakyThrows
+    private static List<Path> listFiles(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    private static void write(OutputStream out, int size) throws IOException {
+        Random random = new Random(size);
+        byte[] buf = new byte[8192];
+        for (int remaining = size; remaining > 0; remaining -= buf.length) {
+            random.nextBytes(buf);
+            out.write(buf, 0, Math.min(buf.length, remaining));
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] digest(int size) {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        write(
+                new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                        md.update((byte) b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        md.update(b, off, len);
+                    }
+                },
+                size);
+        return md.digest();
+    }
+
+    @SneakyThrows
+    private static byte[] digest(Path file) {
+        return digest(Files.newInputStream(file));
+    }
+
+    @SneakyThrows
+    private static byte[] digest(InputStream is) {
+        try (is) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[8192];
+            for (int n; (n = is.read(buf)) != -1; ) {
+                md.update(buf, 0, n);
+            }
+            return md.digest();
+        }
+    }
+
+    interface FileApi {
+        @GetExchange("/files/{size}")
+        Path download(@PathVariable int size, @RequestParam String digest, @TargetFile Path target);
+
+        @GetExchange("/files/{size}")
+        ResponseEntity<Path> downloadEntity(
+                @PathVariable int size, @RequestParam String digest, @TargetFile Path target);
+
+        @GetExchange("/ranged/{size}")
+        Path ranged(@PathVariable int size, @RequestParam boolean failOnce, @TargetFile Path target);
+
+        @GetExchange("/ranged/{size}")
+        ResponseEntity<Path> rangedEntity(
+                @PathVariable int size, @RequestParam boolean failOnce, @TargetFile Path target);
+
+        @GetExchange("/ranged-failing/{size}")
+        Path rangedFailing(@PathVariable int size, @TargetFile Path target);
+
+        @GetExchange("/large/{size}")
+        Path large(@PathVariable long size, @TargetFile Path target);
+
+        @GetExchange("/files/{size}")
+        void downloadVoid(@PathVariable int size, @RequestParam String digest, @TargetFile Path target);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    @RestController
+    static class Cfg {
+
+        final Queue<String> ranges = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        @GetMapping("/ranged/{size}")
+        public ResponseEntity<Resource> ranged(
+                @PathVariable int size,
+                @RequestParam boolean failOnce,
+                @RequestHeader(value = HttpHeaders.RANGE, defaultValue = "none") String range)
+                throws IOException {
+            ranges.add(range);
+            if (range.equals("bytes=0-0")) {
+                return rangedResource(size, failOnce, range);
+            }
+            int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+            try {
+                return rangedResource(size, failOnce, range);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @GetMapping("/ranged-failing/{size}")
+        public ResponseEntity<Resource> rangedFailing(
+                @PathVariable int size, @RequestHeader(value = HttpHeaders.RANGE, defaultValue = "none") String range)
+                throws IOException {
+            // Fail the second segment, not retried
+            if (range.startsWith("bytes=" + size / 4 + "-")) {
+                return ResponseEntity.notFound().build();
+            }
+            return rangedResource(size, false, range);
+        }
+
+        private ResponseEntity<Resource> rangedResource(int size, boolean failOnce, String range) throws IOException {
+            // Fail the second segment once
+            if (failOnce && range.startsWith("bytes=" + size / 2 + "-") && failed.compareAndSet(false, true)) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            var out = new ByteArrayOutputStream(size);
+            write(out, size);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .eTag("\"v" + size + "\"")
+                    .header("Repr-Digest", "sha-256=:" + Base64.getEncoder().encodeToString(digest(size)) + ":")
+                    .body(new ByteArrayResource(out.toByteArray()));
+        }
+
+        @GetMapping("/large/{size}")
+        public ResponseEntity<StreamingResponseBody> large(@PathVariable long size) {
+            // Generated while writing, never held in memory
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(size)
+                    .body(out -> {
+                        byte[] buf = new byte[64 * 1024];
+                        Arrays.fill(buf, (byte) 'x');
+                        for (long remaining = size; remaining > 0; remaining -= buf.length) {
+                            out.write(buf, 0, (int) Math.min(buf.length, remaining));
+                        }
+                    });
+        }
+
+        @GetMapping("/files/{size}")
+        public ResponseEntity<StreamingResponseBody> file(@PathVariable int size, @RequestParam String digest) {
+            if (size < 0) {
+                return ResponseEntity.notFound().build();
+            }
+            String value = Base64.getEncoder().encodeToString(digest(size));
+            var builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM);
+            switch (digest) {
+                case "repr" -> builder.header("Repr-Digest", "sha-256=:" + value + ":");
+                case "legacy" -> builder.header("Digest", "SHA-256=" + value);
+                case "bad" ->
+                    builder.header(
+                            "Repr-Digest", "sha-256=:" + Base64.getEncoder().encodeToString(new byte[32]) + ":");
+                default -> {}
+            }
+            return builder.body(out -> write(out, size));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.danielliu1123.httpexchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.channel.unix.DomainSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Tests for {@code unix:///path/to/socket} base urls.
+ *
+ * @author Freeman
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class UnixDomainSocketTests {
+
+    @TempDir
+    Path dir;
+
+    DisposableServer udsServer;
+
+    @BeforeEach
+    void startServers() {
+        Path socket = dir.resolve("sidecar.sock");
+        SocketAddress address = LoopResources.hasNativeSupport()
+                ? new DomainSocketAddress(socket.toFile())
+                : UnixDomainSocketAddress.of(socket);
+        udsServer = server().bindAddress(() -> address).bindNow();
+    }
+
+    @AfterEach
+    void stopServers() {
+        udsServer.disposeNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REST_CLIENT", "WEB_CLIENT"})
+    void testUnixDomainSocket_thenSendRequestsOverSocket(String clientType) {
+        try (var ctx = run("unix://" + dir.resolve("sidecar.sock"), clientType)) {
+            var api = ctx.getBean(SidecarApi.class);
+
+            assertThat(api.hello()).isEqualTo("Hello");
+            assertThat(api.host()).isEqualTo("localhost");
+        }
+    }
+
+    @Test
+    void testUnixDomainSocket_whenMultipleBaseUrls_thenFail() {
+        assertThatThrownBy(() -> new SpringApplicationBuilder(Cfg.class)
+                        .properties("spring.main.web-application-type=none")
+                        .properties(HttpExchangeProperties.PREFIX + ".channels[0].base-urls[0]=unix://"
+                                + dir.resolve("a.sock"))
+                        .properties(HttpExchangeProperties.PREFIX + ".channels[0].base-urls[1]=unix://"
+                                + dir.resolve("b.sock"))
+                        .properties(
+                                HttpExchangeProperties.PREFIX + ".channels[0].classes[0]=" + SidecarApi.class.getName())
+                        .run()
+                        .getBean(SidecarApi.class))
+                .hasStackTraceContaining("Unix domain socket base urls can't be load balanced");
+    }
+
+    @Test
+    void testUnixDomainSocket_whenRequestFactoryBuilderIsNotReactor_thenUseReactorAndWarn(CapturedOutput output) {
+        try (var ctx = new SpringApplicationBuilder(JdkCfg.class)
+                .properties("spring.main.web-application-type=none")
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=unix://" + dir.resolve("sidecar.sock"))
+                .run()) {
+            var api = ctx.getBean(SidecarApi.class);
+
+            assertThat(api.hello()).isEqualTo("Hello");
+            assertThat(output).contains("requires Reactor Netty, the ClientHttpRequestFactoryBuilder bean");
+        }
+    }
+
+    private static HttpServer server() {
+        return HttpServer.create()
+                .route(routes -> routes.get("/hello", (request, response) -> response.sendString(Mono.just("Hello")))
+                        .get(
+                                "/host",
+                                (request, response) -> response.sendString(Mono.justOrEmpty(
+                                        request.requestHeaders().get("Host")))));
+    }
+
+    private static ConfigurableApplicationContext run(String baseUrl, String clientType) {
+        return new SpringApplicationBuilder(Cfg.class)
+                .properties("spring.main.web-application-type=none")
+                .properties(HttpExchangeProperties.PREFIX + ".base-url=" + baseUrl)
+                .properties(HttpExchangeProperties.PREFIX + ".client-type=" + clientType)
+                .run();
+    }
+
+    interface SidecarApi {
+        @GetExchange("/hello")
+        String hello();
+
+        @GetExchange("/host")
+        String host();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients
+    static class Cfg {
+
+        /**
+         * Kept for the socket, customizations of a Reactor Netty builder are applied.
+         */
+        @Bean
+        ClientHttpRequestFactoryBuilder<?> clientHttpRequestFactoryBuilder() {
+            return ClientHttpRequestFactoryBuilder.reactor();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableExchangeClients(clients = SidecarApi.class)
+    static class JdkCfg {
+
+        @Bean
+        ClientHttpRequestFactoryBuilder<?> clientHttpRequestFactoryBuilder() {
+            return ClientHttpRequestFactoryBuilder.jdk();
+        }
+    }
+}